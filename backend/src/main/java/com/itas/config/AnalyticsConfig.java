@@ -0,0 +1,60 @@
+package com.itas.config;
+
+import com.itas.service.AnalyticsBucketService;
+import com.itas.service.ReportJobService;
+import com.itas.service.ScoreDistributionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.util.concurrent.CompletableFuture;
+
+@Configuration
+public class AnalyticsConfig {
+    
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsConfig.class);
+    
+    @Autowired
+    private AnalyticsBucketService analyticsBucketService;
+    
+    @Autowired
+    private ReportJobService reportJobService;
+    
+    @Autowired
+    private ScoreDistributionService scoreDistributionService;
+    
+    /**
+     * Backfill missing daily buckets in the background so startup is not held up by history.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillAnalytics() {
+        CompletableFuture.runAsync(analyticsBucketService::backfill)
+                .exceptionally(e -> {
+                    log.warn("Analytics backfill failed", e);
+                    return null;
+                });
+    }
+    
+    /**
+     * Resume report jobs that were queued or running when the application stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverReportJobs() {
+        reportJobService.recover();
+    }
+    
+    /**
+     * Build score distributions from history when no checkpointed sketches exist yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildScoreDistributions() {
+        CompletableFuture.runAsync(scoreDistributionService::rebuildIfEmpty)
+                .exceptionally(e -> {
+                    log.warn("Score distribution rebuild failed", e);
+                    return null;
+                });
+    }
+}
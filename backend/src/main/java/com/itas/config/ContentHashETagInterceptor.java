@@ -0,0 +1,39 @@
+package com.itas.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.regex.Pattern;
+
+/**
+ * Strong ETags for content-addressed blobs (uploads/blobs/ab/cd/{sha256}).
+ *
+ * The file name is the SHA-256 of the content, so it is used as the ETag directly
+ * and a matching If-None-Match is answered with 304 before the file is touched.
+ * Anything else under the blob directory (e.g. a copy still being renamed into
+ * place) is answered with 404.
+ */
+public class ContentHashETagInterceptor implements HandlerInterceptor {
+    
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String uri = request.getRequestURI();
+        String hash = uri.substring(uri.lastIndexOf('/') + 1);
+        if (!SHA256.matcher(hash).matches()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return false;
+        }
+        
+        String etag = "\"" + hash + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return false;
+        }
+        response.setHeader(HttpHeaders.ETAG, etag);
+        return true;
+    }
+}
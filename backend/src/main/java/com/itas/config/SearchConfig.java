@@ -0,0 +1,31 @@
+package com.itas.config;
+
+import com.itas.service.ResourceSearchService;
+import com.itas.service.SearchIndexService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+@Configuration
+public class SearchConfig {
+    
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Bean
+    public CommandLineRunner initializeFullTextSearch(ResourceSearchService resourceSearchService) {
+        // Runs after ddl-auto has created the resources table
+        return args -> resourceSearchService.initializeSearchVector();
+    }
+    
+    /**
+     * Build the in-memory search index once startup runners (including seed data) have finished.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSearchIndex() {
+        searchIndexService.rebuild();
+    }
+}
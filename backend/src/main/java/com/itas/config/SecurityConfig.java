@@ -2,6 +2,7 @@ package com.itas.config;
 
 import com.itas.security.JwtAuthenticationEntryPoint;
 import com.itas.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -66,6 +67,8 @@ public class SecurityConfig {
             .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Async results (e.g. exam grading) are dispatched after the original request was authorised
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Public endpoints (without /api prefix since security filter runs before context path)
                 .requestMatchers("/", "/health", "/test-db").permitAll()
                 .requestMatchers("/auth/login", "/auth/register", "/auth/test-user/**").permitAll()
@@ -74,7 +77,8 @@ public class SecurityConfig {
                 // Enrollment, progress, assessments, certificates require authentication (more specific first)
                 .requestMatchers("/courses/enroll", "/courses/progress", "/courses/enrollments/**").authenticated()
                 .requestMatchers("/resources/*/download").authenticated()
-                .requestMatchers("/assessments/**", "/certificates/**").authenticated()
+                .requestMatchers("/resources/uploads", "/resources/uploads/**").hasAnyRole("CONTENT_ADMIN", "SYSTEM_ADMIN")
+                .requestMatchers("/assessments/**", "/exams/**", "/certificates/**").authenticated()
                 .requestMatchers("/webinars/*/register").authenticated()
                 
                 // Public access to browse courses and resources (read-only)
@@ -93,9 +97,16 @@ public class SecurityConfig {
                 // Notifications - Communication Officer & System Admin
                 .requestMatchers("/notifications/send").hasAnyRole("COMM_OFFICER", "SYSTEM_ADMIN")
                 
+                // Score distributions - also Training Admin, who owns the assessments
+                .requestMatchers("/analytics/scores/**").hasAnyRole("TRAINING_ADMIN", "MANAGER", "AUDITOR", "SYSTEM_ADMIN")
+                
                 // Analytics - Manager, Auditor & System Admin
                 .requestMatchers("/analytics/**").hasAnyRole("MANAGER", "AUDITOR", "SYSTEM_ADMIN")
                 
+                // Operational metrics - System Admin only
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("SYSTEM_ADMIN")
+                
                 // User Role Management - System Admin only
                 .requestMatchers("/user-roles/**").hasRole("SYSTEM_ADMIN")
                 
@@ -1,18 +1,45 @@
 package com.itas.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
     
+    @Value("${app.file.upload-dir:./uploads}")
+    private String uploadDir;
+    
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Blob paths embed the content hash, so a URL never changes meaning: cache for a year
+        registry.addResourceHandler("/uploads/blobs/**")
+                .addResourceLocations(location(Paths.get(uploadDir, "blobs").toString()))
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable());
+        
+        // Legacy uploads and certificates can be rewritten in place; revalidate with Last-Modified
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:./uploads/");
+                .addResourceLocations(location(uploadDir))
+                .setCacheControl(CacheControl.noCache().cachePrivate());
         
         registry.addResourceHandler("/certificates/**")
-                .addResourceLocations("file:./certificates/");
+                .addResourceLocations("file:./certificates/")
+                .setCacheControl(CacheControl.noCache().cachePrivate());
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ContentHashETagInterceptor())
+                .addPathPatterns("/uploads/blobs/**");
+    }
+    
+    private String location(String dir) {
+        return "file:" + (dir.endsWith("/") ? dir : dir + "/");
     }
-}
\ No newline at end of file
+}
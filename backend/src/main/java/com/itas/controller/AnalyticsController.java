@@ -1,43 +1,189 @@
 package com.itas.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.itas.dto.ApiResponse;
+import com.itas.export.RowWriter;
+import com.itas.service.ActiveUserService;
+import com.itas.service.AnalyticsBucketService;
+import com.itas.service.AnalyticsExportService;
+import com.itas.service.AnalyticsService;
+import com.itas.service.LearningFunnelService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.time.YearMonth;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/analytics")
 public class AnalyticsController {
     
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    
+    @Autowired
+    private AnalyticsService analyticsService;
+    
+    @Autowired
+    private AnalyticsBucketService analyticsBucketService;
+    
+    @Autowired
+    private AnalyticsExportService analyticsExportService;
+    
+    @Autowired
+    private ActiveUserService activeUserService;
+    
+    @Autowired
+    private LearningFunnelService learningFunnelService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * Current totals, plus activity for the date range (merged from the hourly/daily
+     * buckets) when startDate or endDate is given. A missing start means 30 days back.
+     */
     @GetMapping("/dashboard")
     public ResponseEntity<?> getDashboardAnalytics(
             @RequestParam(required = false) LocalDate startDate,
-            @RequestParam(required = false) LocalDate endDate) {
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(defaultValue = "day") String granularity) {
+        try {
+            Map<String, Object> data = analyticsService.getDashboardData();
+            
+            if (startDate != null || endDate != null) {
+                LocalDate end = endDate != null ? endDate : LocalDate.now();
+                LocalDate start = startDate != null ? startDate : end.minusDays(29);
+                data.put("period", analyticsBucketService.summarize(start, end, granularity));
+            }
+            
+            return ResponseEntity.ok(new ApiResponse<>("Analytics retrieved", data));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+    
+    /**
+     * Distinct active users for a date (default today): DAU, WAU and MAU ending on
+     * that date, plus distinct users per hour of the day.
+     */
+    @GetMapping("/active-users")
+    public ResponseEntity<?> getActiveUsers(@RequestParam(required = false) LocalDate date) {
+        try {
+            Map<String, Object> data = activeUserService.summarize(date != null ? date : LocalDate.now(), true);
+            return ResponseEntity.ok(new ApiResponse<>("Active users retrieved", data));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+    
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<?> getUserAnalytics(@PathVariable Long userId) {
+        try {
+            return ResponseEntity.ok(new ApiResponse<>("User analytics retrieved",
+                    analyticsService.getUserAnalytics(userId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+    
+    @GetMapping("/courses/{courseId}")
+    public ResponseEntity<?> getCourseAnalytics(@PathVariable Long courseId) {
+        try {
+            return ResponseEntity.ok(new ApiResponse<>("Course analytics retrieved",
+                    analyticsService.getCourseAnalytics(courseId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+    
+    /**
+     * Enrollments and completions between the dates (default the last 30 days),
+     * optionally for one course.
+     */
+    @GetMapping("/enrollments")
+    public ResponseEntity<?> getEnrollmentAnalytics(
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(required = false) Long courseId) {
+        try {
+            LocalDate end = endDate != null ? endDate : LocalDate.now();
+            LocalDate start = startDate != null ? startDate : end.minusDays(29);
+            return ResponseEntity.ok(new ApiResponse<>("Enrollment analytics retrieved",
+                    analyticsService.getEnrollmentAnalytics(start, end, courseId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+    
+    /**
+     * Learning funnels per course and monthly enrollment cohort (cohort=yyyy-MM),
+     * optionally narrowed to one course and/or one cohort.
+     */
+    @GetMapping("/funnels")
+    public ResponseEntity<?> getFunnels(
+            @RequestParam(required = false) Long courseId,
+            @RequestParam(required = false) String cohort) {
+        try {
+            Map<String, Object> data = learningFunnelService.getFunnels(courseId,
+                    cohort != null ? YearMonth.parse(cohort) : null);
+            return ResponseEntity.ok(new ApiResponse<>("Funnels retrieved", data));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+    
+    /**
+     * Stream a full extract: dataset = enrollments | assessments | certificates,
+     * format = csv | xlsx. CSV is gzip-encoded when the client accepts it.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAnalytics(
+            @RequestParam String format,
+            @RequestParam(defaultValue = "enrollments") String dataset,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String fileFormat = format.toLowerCase();
+        if (!analyticsExportService.isFormat(fileFormat)) {
+            return error("Unsupported format: " + format + " (expected csv or xlsx)");
+        }
+        if (!analyticsExportService.isDataset(dataset)) {
+            return error("Unknown dataset: " + dataset + " (expected one of " + analyticsExportService.getDatasets() + ")");
+        }
         
-        Map<String, Object> data = new HashMap<>();
+        // XLSX is already a zip, compressing it again gains nothing
+        boolean gzip = AnalyticsExportService.CSV.equals(fileFormat) && acceptEncoding != null && acceptEncoding.contains("gzip");
+        String fileName = dataset + "-" + LocalDate.now() + "." + fileFormat;
         
-        // Mock data for now
-        data.put("totalUsers", 1245);
-        data.put("activeUsers", 892);
-        data.put("newUsers", 145);
-        data.put("courseEnrollments", 987);
-        data.put("courseCompletions", 654);
-        data.put("resourceDownloads", 4567);
-        data.put("completionRate", 68);
-        data.put("avgProgress", 72);
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, EXPORT_BUFFER_SIZE) : out;
+            try (RowWriter writer = analyticsExportService.openWriter(fileFormat, dataset, target)) {
+                analyticsExportService.export(dataset, writer);
+            }
+        };
         
-        return ResponseEntity.ok(new ApiResponse<>("Analytics retrieved", data));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(analyticsExportService.contentType(fileFormat)))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(fileName).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .cacheControl(CacheControl.noStore());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
     
-    @GetMapping("/export")
-    public ResponseEntity<?> exportAnalytics(@RequestParam String format) {
-        // In real implementation, generate PDF or Excel
-        Map<String, String> response = new HashMap<>();
-        response.put("downloadUrl", "/exports/analytics-report." + format);
-        response.put("message", "Report generated successfully");
-        
-        return ResponseEntity.ok(new ApiResponse<>("Export successful", response));
+    private ResponseEntity<StreamingResponseBody> error(String message) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, new ApiResponse<>(message, null)));
     }
 }
\ No newline at end of file
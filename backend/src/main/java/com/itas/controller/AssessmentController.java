@@ -3,12 +3,15 @@ package com.itas.controller;
 import com.itas.dto.ApiResponse;
 import com.itas.model.Assessment;
 import com.itas.model.Question;
+import com.itas.service.AssessmentDraftService;
 import com.itas.service.AssessmentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -23,6 +26,9 @@ public class AssessmentController {
     @Autowired
     private AssessmentService assessmentService;
     
+    @Autowired
+    private AssessmentDraftService assessmentDraftService;
+    
     /**
      * Start a new assessment attempt
      * POST /api/assessments/start
@@ -54,8 +60,7 @@ public class AssessmentController {
             @PathVariable Long assessmentId,
             @RequestBody Map<String, Object> request) {
         try {
-            @SuppressWarnings("unchecked")
-            Map<Long, Long> answers = (Map<Long, Long>) request.get("answers");
+            Map<Long, Long> answers = parseAnswers(request.get("answers"));
             
             Map<String, Object> result = assessmentService.submitAssessment(assessmentId, answers);
             return ResponseEntity.ok(new ApiResponse<>("Assessment submitted", result));
@@ -65,6 +70,47 @@ public class AssessmentController {
         }
     }
     
+    /**
+     * Autosave answers of an attempt in progress
+     * PUT /api/assessments/{assessmentId}/draft
+     * 
+     * Request body: { "answers": { "questionId": "answerId", ... } } with the answers changed since the last save;
+     * null or 0 clears a question
+     */
+    @PutMapping("/{assessmentId}/draft")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> saveDraft(
+            @PathVariable Long assessmentId,
+            @RequestBody Map<String, Object> request,
+            Principal principal) {
+        try {
+            Map<Long, Long> answers = parseAnswers(request.get("answers"));
+            
+            Map<String, Object> result = assessmentDraftService.save(assessmentId, answers, principal.getName());
+            return ResponseEntity.ok(new ApiResponse<>("Draft saved", result));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+    
+    /**
+     * Get the autosaved answers of an attempt in progress
+     * GET /api/assessments/{assessmentId}/draft
+     */
+    @GetMapping("/{assessmentId}/draft")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getDraft(@PathVariable Long assessmentId, Principal principal) {
+        try {
+            Map<String, Object> data = new HashMap<>();
+            data.put("answers", assessmentDraftService.getDraft(assessmentId, principal.getName()));
+            return ResponseEntity.ok(new ApiResponse<>("Draft retrieved", data));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+    
     /**
      * Get assessment history for a user and module
      * GET /api/assessments/history?userId={userId}&moduleId={moduleId}
@@ -98,4 +144,28 @@ public class AssessmentController {
                     .body(new ApiResponse<>(e.getMessage(), null));
         }
     }
+    
+    /**
+     * JSON object keys always arrive as strings, so convert questionId/answerId pairs explicitly.
+     * A null or 0 answer id clears the question and is kept as a null value.
+     */
+    static Map<Long, Long> parseAnswers(Object raw) {
+        Map<Long, Long> answers = new HashMap<>();
+        if (raw == null) {
+            return answers;
+        }
+        if (!(raw instanceof Map)) {
+            throw new RuntimeException("answers must be an object of questionId to answerId");
+        }
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) raw).entrySet()) {
+            try {
+                Long questionId = Long.valueOf(entry.getKey().toString());
+                Long answerId = entry.getValue() != null ? Long.valueOf(entry.getValue().toString()) : null;
+                answers.put(questionId, answerId == null || answerId == 0 ? null : answerId);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid answer for question " + entry.getKey());
+            }
+        }
+        return answers;
+    }
 }
@@ -8,6 +8,8 @@ import com.itas.model.UserType;
 import com.itas.repository.UserRepository;
 import com.itas.repository.UserRoleRepository;
 import com.itas.security.JwtTokenProvider;
+import com.itas.service.AnalyticsBucketService;
+import com.itas.service.DashboardRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -41,6 +43,12 @@ public class AuthController {
     @Autowired
     private JwtTokenProvider tokenProvider;
     
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+    
+    @Autowired
+    private AnalyticsBucketService analyticsBucketService;
+    
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
         try {
@@ -75,6 +83,7 @@ public class AuthController {
             // Update last login
             user.setLastLogin(LocalDateTime.now());
             userRepository.save(user);
+            analyticsBucketService.recordLogin();
             
             // Create response without password
             Map<String, Object> userData = new HashMap<>();
@@ -138,6 +147,7 @@ public class AuthController {
         
         // Save to database
         User savedUser = userRepository.save(user);
+        dashboardRollupService.userRegistered(savedUser.isActive());
         
         // Remove password from response
         savedUser.setPassword(null);
@@ -151,6 +161,15 @@ public class AuthController {
         return ResponseEntity.ok(new ApiResponse<>("Logout successful", null));
     }
     
+    /**
+     * Token check for nginx auth_request in front of cached blobs. Unauthenticated
+     * callers are answered 401 by the security filter before reaching this.
+     */
+    @GetMapping("/check")
+    public ResponseEntity<?> check() {
+        return ResponseEntity.noContent().build();
+    }
+    
     @GetMapping("/profile")
     public ResponseEntity<?> getProfile() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -3,6 +3,7 @@ package com.itas.controller;
 import com.itas.dto.ApiResponse;
 import com.itas.model.Course;
 import com.itas.service.CourseService;
+import com.itas.service.SearchIndexService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,11 +18,28 @@ public class CourseController {
     @Autowired
     private CourseService courseService;
     
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
     @GetMapping("")
     public ResponseEntity<?> getAllCourses() {
         return ResponseEntity.ok(new ApiResponse<>("Success", courseService.getAllCourses()));
     }
     
+    @GetMapping("/search")
+    public ResponseEntity<?> searchCourses(
+            @RequestParam String query,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        if (!searchIndexService.isReady()) {
+            return ResponseEntity.status(503).body(new ApiResponse<>("Search index is still loading", null));
+        }
+        Map<String, Object> results = searchIndexService.searchCourses(query, category, difficulty, page, size);
+        return ResponseEntity.ok(new ApiResponse<>("Search results", results));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<?> getCourseById(@PathVariable Long id) {
         try {
@@ -0,0 +1,173 @@
+package com.itas.controller;
+
+import com.itas.dto.ApiResponse;
+import com.itas.dto.ExamSessionRequest;
+import com.itas.model.ExamSession;
+import com.itas.service.ExamSessionService;
+import com.itas.service.GradingQueue;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Scheduled exam sessions.
+ *
+ * POST /exams/sessions                          schedule a session (admin)
+ * GET  /exams/sessions                          all sessions (admin)
+ * GET  /exams/sessions/{id}                     session with seat counts (admin)
+ * POST /exams/sessions/{id}/provision           provision now instead of ahead of opening (admin)
+ * POST /exams/sessions/{id}/cancel              cancel before opening (admin)
+ * GET  /exams/my-seats                          the caller's seats and tokens
+ * POST /exams/claim                             start the exam with a seat token
+ * POST /exams/assessments/{id}/submit           queue answers for grading
+ * GET  /exams/assessments/{id}/result           grading status and result
+ * GET  /exams/grading/status                    grading queue depth and throughput (admin)
+ */
+@RestController
+@RequestMapping("/exams")
+public class ExamSessionController {
+
+    @Value("${app.exams.grading-wait-ms:10000}")
+    private long gradingWaitMs;
+
+    @Autowired
+    private ExamSessionService examSessionService;
+
+    @PostMapping("/sessions")
+    @PreAuthorize("hasAnyRole('TRAINING_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<?> scheduleSession(@Valid @RequestBody ExamSessionRequest request, Principal principal) {
+        try {
+            ExamSession session = examSessionService.schedule(request, principal != null ? principal.getName() : null);
+            return ResponseEntity.ok(new ApiResponse<>("Exam session scheduled", session));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/sessions")
+    @PreAuthorize("hasAnyRole('TRAINING_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<?> getSessions() {
+        return ResponseEntity.ok(new ApiResponse<>("Exam sessions retrieved", examSessionService.getSessions()));
+    }
+
+    @GetMapping("/sessions/{id}")
+    @PreAuthorize("hasAnyRole('TRAINING_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<?> getSession(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(new ApiResponse<>("Exam session retrieved", examSessionService.getSession(id)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @PostMapping("/sessions/{id}/provision")
+    @PreAuthorize("hasAnyRole('TRAINING_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<?> provisionSession(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(new ApiResponse<>("Exam session provisioned", examSessionService.provision(id)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @PostMapping("/sessions/{id}/cancel")
+    @PreAuthorize("hasAnyRole('TRAINING_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<?> cancelSession(@PathVariable Long id) {
+        try {
+            examSessionService.cancel(id);
+            return ResponseEntity.ok(new ApiResponse<>("Exam session cancelled", null));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/my-seats")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getMySeats(Principal principal) {
+        return ResponseEntity.ok(new ApiResponse<>("Exam seats retrieved", examSessionService.getSeats(principal.getName())));
+    }
+
+    @PostMapping("/claim")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> claimSeat(@RequestBody Map<String, String> request, Principal principal) {
+        try {
+            Map<String, Object> exam = examSessionService.claim(request.get("token"), principal.getName());
+            return ResponseEntity.ok(new ApiResponse<>("Exam started", exam));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Answered asynchronously, so no request thread waits on the grading
+     * queue. A submission not graded within app.exams.grading-wait-ms is
+     * answered 202 with the URL to poll; a full queue is answered 503.
+     */
+    @PostMapping("/assessments/{id}/submit")
+    @PreAuthorize("isAuthenticated()")
+    public CompletableFuture<ResponseEntity<?>> submitAssessment(@PathVariable Long id,
+                                                                 @RequestBody Map<String, Object> request,
+                                                                 Principal principal) {
+        CompletableFuture<Map<String, Object>> grading;
+        try {
+            Map<Long, Long> answers = AssessmentController.parseAnswers(request.get("answers"));
+            grading = examSessionService.submit(id, answers, principal.getName());
+        } catch (GradingQueue.QueueFullException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(503).header("Retry-After", "5")
+                    .body(new ApiResponse<>(e.getMessage(), queueDepth())));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null)));
+        }
+
+        // The timeout applies to this response only; grading carries on and is polled
+        return grading
+                .<ResponseEntity<?>>thenApply(result -> ResponseEntity.ok(new ApiResponse<>("Assessment submitted", result)))
+                .orTimeout(gradingWaitMs, TimeUnit.MILLISECONDS)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        Map<String, Object> data = queueDepth();
+                        data.put("assessmentId", id);
+                        data.put("resultUrl", "/exams/assessments/" + id + "/result");
+                        return ResponseEntity.accepted().body(new ApiResponse<>("Assessment queued for grading", data));
+                    }
+                    return ResponseEntity.badRequest().body(new ApiResponse<>(cause.getMessage(), null));
+                });
+    }
+
+    @GetMapping("/assessments/{id}/result")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getResult(@PathVariable Long id, Principal principal) {
+        try {
+            return ResponseEntity.ok(new ApiResponse<>("Grading status retrieved",
+                    examSessionService.getResult(id, principal.getName())));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/grading/status")
+    @PreAuthorize("hasAnyRole('TRAINING_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<?> getGradingStatus() {
+        return ResponseEntity.ok(new ApiResponse<>("Grading queue status", examSessionService.getGradingStatus()));
+    }
+
+    private Map<String, Object> queueDepth() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("queueDepth", examSessionService.gradingQueueDepth());
+        return data;
+    }
+}
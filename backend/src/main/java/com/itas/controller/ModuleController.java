@@ -5,6 +5,8 @@ import com.itas.model.Enrollment;
 import com.itas.model.ModuleProgress;
 import com.itas.repository.EnrollmentRepository;
 import com.itas.repository.ModuleProgressRepository;
+import com.itas.service.DashboardRollupService;
+import com.itas.service.LearningFunnelService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +25,12 @@ public class ModuleController {
     @Autowired
     private ModuleProgressRepository moduleProgressRepository;
     
+    @Autowired
+    private LearningFunnelService learningFunnelService;
+    
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+    
     @PostMapping("/start")
     public ResponseEntity<?> startModule(@RequestBody Map<String, Object> request) {
         Long enrollmentId = ((Number) request.get("enrollmentId")).longValue();
@@ -53,6 +61,7 @@ public class ModuleController {
         progress.setAttemptCount(0);
         
         ModuleProgress savedProgress = moduleProgressRepository.save(progress);
+        learningFunnelService.moduleStarted(enrollmentOpt.get().getCourseId(), enrollmentOpt.get().getUserId());
         
         return ResponseEntity.ok(new ApiResponse<>("Module started", savedProgress));
     }
@@ -81,6 +90,10 @@ public class ModuleController {
         progress.setPassed(passed);
         
         ModuleProgress updatedProgress = moduleProgressRepository.save(progress);
+        if (passed) {
+            Enrollment enrollment = progress.getEnrollment();
+            learningFunnelService.assessmentPassed(enrollment.getCourseId(), enrollment.getUserId());
+        }
         
         // Update enrollment progress
         updateEnrollmentProgress(progress.getEnrollment().getId());
@@ -137,6 +150,8 @@ public class ModuleController {
         Optional<Enrollment> enrollmentOpt = enrollmentRepository.findById(enrollmentId);
         if (enrollmentOpt.isPresent()) {
             Enrollment enrollment = enrollmentOpt.get();
+            double oldProgress = enrollment.getProgress();
+            boolean wasCompleted = "COMPLETED".equals(enrollment.getStatus());
             
             // Calculate overall progress based on module progress
             var moduleProgressList = moduleProgressRepository.findByEnrollmentId(enrollmentId);
@@ -152,12 +167,15 @@ public class ModuleController {
                 boolean allCompleted = moduleProgressList.stream()
                     .allMatch(ModuleProgress::getCompleted);
                 
-                if (allCompleted) {
+                if (allCompleted && !wasCompleted) {
                     enrollment.setStatus("COMPLETED");
                     enrollment.setCompletedAt(LocalDateTime.now());
+                    learningFunnelService.courseCompleted(enrollment.getCourseId(), enrollment.getUserId());
                 }
                 
                 enrollmentRepository.save(enrollment);
+                dashboardRollupService.progressChanged(enrollment.getCourseId(), oldProgress, totalProgress,
+                        wasCompleted, "COMPLETED".equals(enrollment.getStatus()));
             }
         }
     }
@@ -0,0 +1,124 @@
+package com.itas.controller;
+
+import com.itas.dto.ApiResponse;
+import com.itas.model.ReportJob;
+import com.itas.service.AnalyticsExportService;
+import com.itas.service.FileDeliveryService;
+import com.itas.service.ReportJobService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Background analytics exports.
+ *
+ * POST /analytics/export?dataset=&format=       queue a job (or join the identical one in flight)
+ * GET  /analytics/export/jobs/{jobId}           status and progress
+ * GET  /analytics/export/jobs/{jobId}/file      download the finished file (Range supported)
+ */
+@RestController
+@RequestMapping("/analytics/export")
+public class ReportJobController {
+    
+    @Autowired
+    private ReportJobService reportJobService;
+    
+    @Autowired
+    private AnalyticsExportService analyticsExportService;
+    
+    @Autowired
+    private FileDeliveryService fileDeliveryService;
+    
+    @PostMapping("")
+    public ResponseEntity<?> submitExport(
+            @RequestParam String format,
+            @RequestParam(defaultValue = "enrollments") String dataset,
+            Principal principal) {
+        try {
+            ReportJob job = reportJobService.submit(dataset, format, principal != null ? principal.getName() : null);
+            return ResponseEntity.accepted().body(new ApiResponse<>("Report queued", toStatus(job)));
+        } catch (ReportJobService.QueueFullException e) {
+            return ResponseEntity.status(503).header("Retry-After", "60").body(new ApiResponse<>(e.getMessage(), null));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+    
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getExportStatus(@PathVariable String jobId) {
+        try {
+            ReportJob job = reportJobService.getJob(jobId);
+            return ResponseEntity.ok(new ApiResponse<>("Report status", toStatus(job)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+    
+    @GetMapping("/jobs/{jobId}/file")
+    public ResponseEntity<?> downloadExport(@PathVariable String jobId,
+                                            HttpServletRequest request,
+                                            HttpServletResponse response) throws IOException {
+        ReportJob job;
+        try {
+            job = reportJobService.getJob(jobId);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(new ApiResponse<>(e.getMessage(), null));
+        }
+        if (!ReportJobService.COMPLETED.equals(job.getStatus())) {
+            return ResponseEntity.status(409).body(new ApiResponse<>("Report is " + job.getStatus(), toStatus(job)));
+        }
+        
+        Path file = Paths.get(job.getFilePath());
+        if (!Files.isReadable(file)) {
+            return ResponseEntity.status(404).body(new ApiResponse<>("Report file not found", null));
+        }
+        
+        // A finished report never changes, so the job id is a strong validator
+        fileDeliveryService.serveFile(file, job.getFileName(), analyticsExportService.contentType(job.getFormat()),
+                "\"" + job.getId() + "\"", request, response);
+        
+        // Body already written to the response
+        return null;
+    }
+    
+    private Map<String, Object> toStatus(ReportJob job) {
+        long rowsWritten = reportJobService.getRowsWritten(job);
+        
+        Map<String, Object> status = new HashMap<>();
+        status.put("jobId", job.getId());
+        status.put("status", job.getStatus());
+        status.put("dataset", job.getDataset());
+        status.put("format", job.getFormat());
+        status.put("totalRows", job.getTotalRows());
+        status.put("rowsWritten", rowsWritten);
+        if (ReportJobService.COMPLETED.equals(job.getStatus())) {
+            status.put("progress", 100.0);
+        } else if (job.getTotalRows() != null && job.getTotalRows() > 0) {
+            double percent = Math.min(100.0, rowsWritten * 100.0 / job.getTotalRows());
+            status.put("progress", Math.round(percent * 100.0) / 100.0);
+        } else {
+            status.put("progress", 0.0);
+        }
+        status.put("createdAt", job.getCreatedAt());
+        status.put("startedAt", job.getStartedAt());
+        status.put("completedAt", job.getCompletedAt());
+        status.put("expiresAt", job.getExpiresAt());
+        status.put("fileName", job.getFileName());
+        status.put("fileSize", job.getFileSize());
+        status.put("error", job.getErrorMessage());
+        if (ReportJobService.COMPLETED.equals(job.getStatus())) {
+            status.put("downloadUrl", "/analytics/export/jobs/" + job.getId() + "/file");
+        }
+        return status;
+    }
+}
@@ -1,9 +1,16 @@
 package com.itas.controller;
 
 import com.itas.dto.ApiResponse;
+import com.itas.dto.ResourcePage;
+import com.itas.dto.ResourceSearchPage;
 import com.itas.model.Resource;
 import com.itas.model.User;
+import com.itas.service.FileDeliveryService;
+import com.itas.service.ResourceSearchService;
 import com.itas.service.ResourceService;
+import com.itas.service.SearchIndexService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -11,8 +18,10 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -22,6 +31,15 @@ public class ResourceController {
     @Autowired
     private ResourceService resourceService;
     
+    @Autowired
+    private FileDeliveryService fileDeliveryService;
+    
+    @Autowired
+    private ResourceSearchService resourceSearchService;
+    
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
     @PostMapping("/upload")
     public ResponseEntity<?> uploadResource(
             @RequestParam("file") MultipartFile file,
@@ -64,11 +82,25 @@ public class ResourceController {
     public ResponseEntity<?> getAllResources(
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String resourceType,
-            @RequestParam(required = false) String audience) {
-        
-        List<Resource> resources = resourceService.getAllResources(category, resourceType, audience);
-        
-        return ResponseEntity.ok(new ApiResponse<>("Resources retrieved successfully", resources));
+            @RequestParam(required = false) String audience,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            ResourcePage page = resourceService.getAllResources(category, resourceType, audience, cursor, size);
+            return ResponseEntity.ok(new ApiResponse<>("Resources retrieved successfully", page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+    
+    @GetMapping("/popular")
+    public ResponseEntity<?> getPopularResources(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(new ApiResponse<>("Popular resources", resourceService.getPopularResources(limit)));
+    }
+    
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrendingResources(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(new ApiResponse<>("Trending resources", resourceService.getTrendingResources(limit)));
     }
     
     @GetMapping("/{id}")
@@ -142,40 +174,74 @@ public class ResourceController {
     }
     
     @GetMapping("/{id}/download")
-    public ResponseEntity<?> downloadResource(@PathVariable Long id) {
+    public ResponseEntity<?> downloadResource(@PathVariable Long id,
+                                              HttpServletRequest request,
+                                              HttpServletResponse response) throws IOException {
         Resource resource = resourceService.getResourceById(id);
         
         if (resource == null) {
             return ResponseEntity.status(404).body(new ApiResponse<>("Resource not found", null));
         }
         
-        // Increment download count
-        resourceService.incrementDownloadCount(id);
+        Path file = resource.getFilePath() != null ? Paths.get(resource.getFilePath()) : null;
+        if (file == null || !Files.isReadable(file)) {
+            return ResponseEntity.status(404).body(new ApiResponse<>("File not found", null));
+        }
         
-        // Build response with HashMap
-        Map<String, Object> response = new HashMap<>();
-        response.put("fileName", resource.getFileName());
-        response.put("filePath", resource.getFilePath());
-        response.put("mimeType", resource.getMimeType());
-        response.put("fileSize", resource.getFileSize());
+        String etag = resource.getFileHash() != null ? "\"" + resource.getFileHash() + "\"" : null;
+        boolean sent = fileDeliveryService.serveFile(file, resource.getFileName(), resource.getMimeType(), etag,
+                request, response);
+        
+        // Count each download once: not 304 revalidations, not every resumed range request
+        if (sent && !fileDeliveryService.isResumedTransfer(request)) {
+            resourceService.incrementDownloadCount(id);
+        }
         
-        return ResponseEntity.ok(new ApiResponse<>("Download ready", response));
+        // Body already written to the response
+        return null;
     }
     
     @PutMapping("/{id}/views")
     public ResponseEntity<?> incrementViews(@PathVariable Long id) {
-        resourceService.incrementViewCount(id);
-        return ResponseEntity.ok(new ApiResponse<>("View count incremented", null));
+        try {
+            resourceService.incrementViewCount(id);
+            return ResponseEntity.ok(new ApiResponse<>("View count incremented", null));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(new ApiResponse<>(e.getMessage(), null));
+        }
     }
     
+    /**
+     * With a query, ranked hits (ResourceSearchPage) paged by page/size: served from the in-memory
+     * index by default, or from PostgreSQL full-text search with mode=fulltext or while the index
+     * is not ready. Without a query, or with mode=keyword, a database filter (ResourcePage) paged
+     * by cursor/size. The response shape depends only on the request, never on the index state.
+     */
     @GetMapping("/search")
     public ResponseEntity<?> searchResources(
             @RequestParam(required = false) String query,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String resourceType,
-            @RequestParam(required = false) String audience) {
-        
-        List<Resource> resources = resourceService.searchResources(query, category, resourceType, audience);
-        return ResponseEntity.ok(new ApiResponse<>("Search results", resources));
+            @RequestParam(required = false) String audience,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        try {
+            boolean keyword = "keyword".equalsIgnoreCase(mode);
+            if (!keyword && mode != null && !"fulltext".equalsIgnoreCase(mode)) {
+                throw new RuntimeException("mode must be keyword or fulltext");
+            }
+            if (keyword || (mode == null && (query == null || query.isBlank()))) {
+                ResourcePage results = resourceService.searchResources(query, category, resourceType, audience, cursor, size);
+                return ResponseEntity.ok(new ApiResponse<>("Search results", results));
+            }
+            ResourceSearchPage hits = mode == null && searchIndexService.isReady()
+                    ? searchIndexService.searchResources(query, category, resourceType, audience, page, size)
+                    : resourceSearchService.search(query, category, resourceType, audience, page, size);
+            return ResponseEntity.ok(new ApiResponse<>("Search results", hits));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.itas.controller;
+
+import com.itas.dto.ApiResponse;
+import com.itas.dto.UploadSessionRequest;
+import com.itas.model.Resource;
+import com.itas.model.UploadSession;
+import com.itas.model.User;
+import com.itas.repository.UserRepository;
+import com.itas.service.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resumable chunked uploads for large resources.
+ *
+ * POST   /resources/uploads                         initiate, returns uploadId and chunk size
+ * PUT    /resources/uploads/{uploadId}?offset=N     raw chunk body, X-Chunk-SHA256 header required
+ * GET    /resources/uploads/{uploadId}              received ranges
+ * POST   /resources/uploads/{uploadId}/complete     finalize into a Resource
+ * DELETE /resources/uploads/{uploadId}              abort
+ */
+@RestController
+@RequestMapping("/resources/uploads")
+public class ResumableUploadController {
+
+    @Autowired
+    private ResumableUploadService resumableUploadService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @PostMapping("")
+    public ResponseEntity<?> initiateUpload(@Valid @RequestBody UploadSessionRequest request, Principal principal) throws IOException {
+        try {
+            User uploader = userRepository.findByUsername(principal.getName())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            UploadSession session = resumableUploadService.initiate(request, uploader);
+            return ResponseEntity.ok(new ApiResponse<>("Upload session created", toStatus(session)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @PutMapping("/{uploadId}")
+    public ResponseEntity<?> uploadChunk(
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            @RequestHeader(value = "X-Chunk-SHA256", required = false) String checksum,
+            HttpServletRequest request,
+            Principal principal) throws IOException {
+        try {
+            UploadSession session = resumableUploadService.writeChunk(
+                    uploadId, offset, request.getContentLengthLong(), checksum,
+                    request.getInputStream(), principal.getName());
+            return ResponseEntity.ok(new ApiResponse<>("Chunk received", toStatus(session)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<?> getUploadStatus(@PathVariable String uploadId, Principal principal) {
+        try {
+            UploadSession session = resumableUploadService.getSession(uploadId, principal.getName());
+            return ResponseEntity.ok(new ApiResponse<>("Upload status", toStatus(session)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String uploadId, Principal principal) throws IOException {
+        try {
+            Resource resource = resumableUploadService.complete(uploadId, principal.getName());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("id", resource.getId());
+            response.put("title", resource.getTitle());
+            response.put("fileName", resource.getFileName());
+            response.put("fileSize", resource.getFileSize());
+            response.put("mimeType", resource.getMimeType());
+            response.put("fileHash", resource.getFileHash());
+            response.put("uploadedAt", resource.getUploadedAt());
+
+            return ResponseEntity.ok(new ApiResponse<>("Resource uploaded successfully", response));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<?> abortUpload(@PathVariable String uploadId, Principal principal) throws IOException {
+        try {
+            resumableUploadService.abort(uploadId, principal.getName());
+            return ResponseEntity.ok(new ApiResponse<>("Upload aborted", null));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    private Map<String, Object> toStatus(UploadSession session) {
+        Map<String, Object> status = new HashMap<>();
+        status.put("uploadId", session.getId());
+        status.put("status", session.getStatus());
+        status.put("fileName", session.getFileName());
+        status.put("totalSize", session.getTotalSize());
+        status.put("bytesReceived", session.getBytesReceived());
+        status.put("receivedRanges", ResumableUploadService.parseRanges(session.getReceivedRanges()));
+        status.put("chunkSize", resumableUploadService.getChunkSize());
+        status.put("expiresAt", session.getExpiresAt());
+        status.put("resourceId", session.getResourceId());
+        return status;
+    }
+}
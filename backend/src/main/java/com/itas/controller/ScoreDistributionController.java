@@ -0,0 +1,88 @@
+package com.itas.controller;
+
+import com.itas.dto.ApiResponse;
+import com.itas.service.ScoreDistributionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Assessment score distributions answered from the per-module t-digests.
+ *
+ * GET  /analytics/scores/modules/{id}          percentiles, pass rate and daily pass-rate trend
+ * GET  /analytics/scores/courses/{id}          same, merged over the course's modules
+ * GET  /analytics/scores/modules/{id}/exact    exact percentiles next to the sketch (admin)
+ * GET  /analytics/scores/courses/{id}/exact    exact percentiles next to the sketch (admin)
+ * POST /analytics/scores/rebuild               rebuild all digests from the assessments table (admin)
+ */
+@RestController
+@RequestMapping("/analytics/scores")
+public class ScoreDistributionController {
+
+    private static final int MAX_TREND_DAYS = 365;
+
+    @Autowired
+    private ScoreDistributionService scoreDistributionService;
+
+    @GetMapping("/modules/{id}")
+    public ResponseEntity<?> getModuleScores(@PathVariable Long id, @RequestParam(defaultValue = "30") int days) {
+        try {
+            Map<String, Object> data = scoreDistributionService.getModuleDistribution(id);
+            data.put("trend", scoreDistributionService.getPassRateTrend(id, null, trendDays(days)));
+            return ResponseEntity.ok(new ApiResponse<>("Module score distribution retrieved", data));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/courses/{id}")
+    public ResponseEntity<?> getCourseScores(@PathVariable Long id, @RequestParam(defaultValue = "30") int days) {
+        try {
+            Map<String, Object> data = scoreDistributionService.getCourseDistribution(id);
+            data.put("trend", scoreDistributionService.getPassRateTrend(null, id, trendDays(days)));
+            return ResponseEntity.ok(new ApiResponse<>("Course score distribution retrieved", data));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/modules/{id}/exact")
+    @PreAuthorize("hasAnyRole('TRAINING_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<?> verifyModuleScores(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(new ApiResponse<>("Exact module percentiles computed",
+                    scoreDistributionService.verify(id, null)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/courses/{id}/exact")
+    @PreAuthorize("hasAnyRole('TRAINING_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<?> verifyCourseScores(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(new ApiResponse<>("Exact course percentiles computed",
+                    scoreDistributionService.verify(null, id)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasAnyRole('TRAINING_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<?> rebuild() {
+        try {
+            scoreDistributionService.rebuild();
+            return ResponseEntity.ok(new ApiResponse<>("Score distributions rebuilt", null));
+        } catch (RuntimeException e) {
+            return ResponseEntity.internalServerError().body(new ApiResponse<>(e.getMessage(), null));
+        }
+    }
+
+    private int trendDays(int days) {
+        return Math.max(1, Math.min(days, MAX_TREND_DAYS));
+    }
+}
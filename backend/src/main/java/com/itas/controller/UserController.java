@@ -3,8 +3,11 @@ package com.itas.controller;
 import com.itas.dto.ApiResponse;
 import com.itas.model.User;
 import com.itas.repository.UserRepository;
+import com.itas.service.DashboardRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.Map; 
@@ -15,6 +18,9 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+    
     @GetMapping("")
     public ResponseEntity<?> getAllUsers() {
         List<User> users = userRepository.findAll();
@@ -61,11 +67,33 @@ public class UserController {
         
         return userRepository.findById(userId)
             .map(user -> {
+                boolean wasActive = user.isActive();
                 user.setActive(active);
                 User updatedUser = userRepository.save(user);
+                dashboardRollupService.userStatusChanged(wasActive, active);
                 updatedUser.setPassword(null);
                 return ResponseEntity.ok(new ApiResponse<>("User status updated", updatedUser));
             })
             .orElse(ResponseEntity.status(404).body(new ApiResponse<>("User not found", null)));
     }
-}
\ No newline at end of file
+    
+    /**
+     * Users with enrollments, assessments or uploads cannot be deleted; they are deactivated instead.
+     */
+    @DeleteMapping("/{userId}")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ResponseEntity<?> deleteUser(@PathVariable Long userId) {
+        return userRepository.findById(userId)
+            .map(user -> {
+                try {
+                    userRepository.delete(user);
+                } catch (DataIntegrityViolationException e) {
+                    return ResponseEntity.status(409).body(new ApiResponse<>(
+                            "User has recorded activity and cannot be deleted; deactivate the account instead", null));
+                }
+                dashboardRollupService.userRemoved(user.isActive());
+                return ResponseEntity.ok(new ApiResponse<>("User deleted", null));
+            })
+            .orElse(ResponseEntity.status(404).body(new ApiResponse<>("User not found", null)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.itas.dto;
+
+import jakarta.validation.constraints.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ExamSessionRequest {
+    
+    @NotNull(message = "Module is required")
+    private Long moduleId;
+    
+    @NotBlank(message = "Title is required")
+    @Size(max = 200, message = "Title must be at most 200 characters")
+    private String title;
+    
+    @NotNull(message = "Opening time is required")
+    @Future(message = "Opening time must be in the future")
+    private LocalDateTime opensAt;
+    
+    @NotNull(message = "Closing time is required")
+    private LocalDateTime closesAt;
+    
+    // Explicit candidates; when empty every user enrolled in the module's course gets a seat
+    @Size(max = 20000, message = "At most 20000 candidates per session")
+    private List<Long> userIds;
+
+    // Getters and Setters
+    public Long getModuleId() { return moduleId; }
+    public void setModuleId(Long moduleId) { this.moduleId = moduleId; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public LocalDateTime getOpensAt() { return opensAt; }
+    public void setOpensAt(LocalDateTime opensAt) { this.opensAt = opensAt; }
+    public LocalDateTime getClosesAt() { return closesAt; }
+    public void setClosesAt(LocalDateTime closesAt) { this.closesAt = closesAt; }
+    public List<Long> getUserIds() { return userIds; }
+    public void setUserIds(List<Long> userIds) { this.userIds = userIds; }
+}
@@ -0,0 +1,53 @@
+package com.itas.dto;
+
+import com.itas.model.Resource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One keyset page of resources. Pass nextCursor back as ?cursor= to get the next page.
+ */
+public class ResourcePage {
+    private List<Resource> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public ResourcePage() {}
+    
+    public ResourcePage(List<Resource> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Opaque cursor for the (uploadedAt, id) position of the last row on a page.
+     */
+    public static String encodeCursor(LocalDateTime uploadedAt, Long id) {
+        String raw = uploadedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Returns {uploadedAt, id}, or throws IllegalArgumentException for a malformed cursor.
+     */
+    public static Object[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new Object[] { LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)) };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public List<Resource> getItems() { return items; }
+    public void setItems(List<Resource> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,31 @@
+package com.itas.dto;
+
+import com.itas.model.Resource;
+
+/**
+ * A ranked full-text match. Highlights wrap matched terms in &lt;mark&gt; tags.
+ */
+public class ResourceSearchHit {
+    private Resource resource;
+    private double rank;
+    private String titleHighlight;
+    private String snippet;
+
+    public ResourceSearchHit() {}
+    
+    public ResourceSearchHit(Resource resource, double rank, String titleHighlight, String snippet) {
+        this.resource = resource;
+        this.rank = rank;
+        this.titleHighlight = titleHighlight;
+        this.snippet = snippet;
+    }
+
+    public Resource getResource() { return resource; }
+    public void setResource(Resource resource) { this.resource = resource; }
+    public double getRank() { return rank; }
+    public void setRank(double rank) { this.rank = rank; }
+    public String getTitleHighlight() { return titleHighlight; }
+    public void setTitleHighlight(String titleHighlight) { this.titleHighlight = titleHighlight; }
+    public String getSnippet() { return snippet; }
+    public void setSnippet(String snippet) { this.snippet = snippet; }
+}
@@ -0,0 +1,31 @@
+package com.itas.dto;
+
+import java.util.List;
+
+/**
+ * One page of ranked search hits.
+ */
+public class ResourceSearchPage {
+    private List<ResourceSearchHit> hits;
+    private int page;
+    private int size;
+    private boolean hasMore;
+
+    public ResourceSearchPage() {}
+    
+    public ResourceSearchPage(List<ResourceSearchHit> hits, int page, int size, boolean hasMore) {
+        this.hits = hits;
+        this.page = page;
+        this.size = size;
+        this.hasMore = hasMore;
+    }
+
+    public List<ResourceSearchHit> getHits() { return hits; }
+    public void setHits(List<ResourceSearchHit> hits) { this.hits = hits; }
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,44 @@
+package com.itas.dto;
+
+import jakarta.validation.constraints.*;
+
+public class UploadSessionRequest {
+
+    @Size(max = 255, message = "Title must be at most 255 characters")
+    private String title;
+
+    @Size(max = 255, message = "Description must be at most 255 characters")
+    private String description;
+
+    private String resourceType;
+    private String category;
+    private String audience;
+
+    @NotBlank(message = "File name is required")
+    @Size(max = 255, message = "File name must be at most 255 characters")
+    private String fileName;
+
+    private String mimeType;
+
+    @NotNull(message = "totalSize is required")
+    @Positive(message = "totalSize must be positive")
+    private Long totalSize;
+
+    // Getters and Setters
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public String getResourceType() { return resourceType; }
+    public void setResourceType(String resourceType) { this.resourceType = resourceType; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public String getAudience() { return audience; }
+    public void setAudience(String audience) { this.audience = audience; }
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public String getMimeType() { return mimeType; }
+    public void setMimeType(String mimeType) { this.mimeType = mimeType; }
+    public Long getTotalSize() { return totalSize; }
+    public void setTotalSize(Long totalSize) { this.totalSize = totalSize; }
+}
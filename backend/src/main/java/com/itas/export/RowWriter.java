@@ -0,0 +1,19 @@
+package com.itas.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes a table one row at a time, without holding earlier rows in memory.
+ * Closing the writer completes the document and closes the underlying stream.
+ */
+public interface RowWriter extends Closeable {
+    
+    void writeHeader(List<String> columns) throws IOException;
+    
+    /**
+     * Values may be null, strings, numbers, booleans or temporal values.
+     */
+    void writeRow(Object[] values) throws IOException;
+}
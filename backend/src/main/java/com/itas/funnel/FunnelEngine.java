@@ -0,0 +1,118 @@
+package com.itas.funnel;
+
+import com.itas.util.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-enrollment funnel state in primitive arrays, with counts kept per
+ * (course, monthly cohort).
+ *
+ * Each (course, user) pair gets a slot holding the furthest stage reached and
+ * the enrollment cohort (yyyymm). Events only ever raise the stage, so they are
+ * idempotent and can arrive in any order: a stage seen before its enrollment
+ * row is remembered and counted once the cohort is known. The per-cohort
+ * counts are updated as slots move, so reading a funnel never rescans users.
+ */
+public class FunnelEngine {
+    
+    private static final int STAGES = FunnelStage.values().length;
+    
+    private final LongIntHashMap slots;
+    private long[] courseIds;
+    private int[] cohorts;
+    private byte[] reached;
+    private int size;
+    
+    // courseId -> cohort -> users reaching each stage or later
+    private final Map<Long, TreeMap<Integer, long[]>> counts = new HashMap<>();
+    
+    public FunnelEngine() {
+        this(1024);
+    }
+    
+    public FunnelEngine(int expectedEnrollments) {
+        int capacity = Math.max(16, expectedEnrollments);
+        slots = new LongIntHashMap(capacity);
+        courseIds = new long[capacity];
+        cohorts = new int[capacity];
+        reached = new byte[capacity];
+    }
+    
+    /**
+     * Cohort key for an enrollment month, e.g. 202603.
+     */
+    public static int cohort(int year, int month) {
+        return year * 100 + month;
+    }
+    
+    /**
+     * Record that the user reached the stage in the course.
+     *
+     * @param cohort enrollment cohort when known (enrollment rows), otherwise 0
+     */
+    public synchronized void apply(long courseId, long userId, FunnelStage stage, int cohort) {
+        int slot = slots.putIfAbsent(key(courseId, userId), size);
+        if (slot == size) {
+            grow();
+            courseIds[slot] = courseId;
+            size++;
+        }
+        
+        int before = reached[slot];
+        boolean wasCounted = cohorts[slot] != 0;
+        if (!wasCounted && cohort != 0) {
+            cohorts[slot] = cohort;
+        }
+        int after = Math.max(before, stage.ordinal() + 1);
+        reached[slot] = (byte) after;
+        
+        if (cohorts[slot] != 0) {
+            long[] stageCounts = counts.computeIfAbsent(courseId, c -> new TreeMap<>())
+                    .computeIfAbsent(cohorts[slot], c -> new long[STAGES]);
+            // Stages reached or later: moving from a to b adds the slot to stages a..b-1
+            for (int i = wasCounted ? before : 0; i < after; i++) {
+                stageCounts[i]++;
+            }
+        }
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    /**
+     * Stage counts for every cohort of the course, oldest cohort first.
+     */
+    public synchronized Map<Integer, long[]> cohorts(long courseId) {
+        TreeMap<Integer, long[]> byCohort = counts.get(courseId);
+        Map<Integer, long[]> copy = new TreeMap<>();
+        if (byCohort != null) {
+            byCohort.forEach((cohort, stageCounts) -> copy.put(cohort, stageCounts.clone()));
+        }
+        return copy;
+    }
+    
+    public synchronized List<Long> courses() {
+        return new ArrayList<>(counts.keySet());
+    }
+    
+    private void grow() {
+        if (size == courseIds.length) {
+            int capacity = courseIds.length * 2;
+            courseIds = Arrays.copyOf(courseIds, capacity);
+            cohorts = Arrays.copyOf(cohorts, capacity);
+            reached = Arrays.copyOf(reached, capacity);
+        }
+    }
+    
+    private static long key(long courseId, long userId) {
+        // Ids stay well below 2^32
+        return (courseId << 32) | (userId & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,14 @@
+package com.itas.funnel;
+
+/**
+ * Learning funnel stages, in order. Reaching a stage implies the earlier ones
+ * for counting purposes, so a certificate for a course without assessments
+ * still shows up in every stage before it.
+ */
+public enum FunnelStage {
+    ENROLLED,
+    MODULE_STARTED,
+    ASSESSMENT_PASSED,
+    COMPLETED,
+    CERTIFIED
+}
@@ -0,0 +1,137 @@
+package com.itas.grading;
+
+import com.itas.util.LongIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Immutable answer key of one module, compiled for grading without boxing.
+ *
+ * Questions get dense indexes in module order; points live in an int array
+ * and every correct answer id maps to the index of its question, so grading
+ * an attempt is one primitive lookup per question. Several correct answers
+ * per question are allowed, any of them scores. Instances are shared between
+ * threads and never change after {@link Builder#build()}.
+ */
+public final class CompiledAnswerKey {
+    
+    /**
+     * Selection value for a question that was left unanswered.
+     */
+    public static final long NO_ANSWER = Long.MIN_VALUE;
+    
+    private final long[] questionIds;
+    private final int[] points;
+    private final int totalPoints;
+    private final LongIntHashMap questionIndex;
+    private final LongIntHashMap correctAnswers;
+    
+    private CompiledAnswerKey(long[] questionIds, int[] points, LongIntHashMap questionIndex,
+                              LongIntHashMap correctAnswers) {
+        this.questionIds = questionIds;
+        this.points = points;
+        this.questionIndex = questionIndex;
+        this.correctAnswers = correctAnswers;
+        int total = 0;
+        for (int p : points) {
+            total += p;
+        }
+        this.totalPoints = total;
+    }
+    
+    public int size() {
+        return questionIds.length;
+    }
+    
+    public long questionId(int index) {
+        return questionIds[index];
+    }
+    
+    public int points(int index) {
+        return points[index];
+    }
+    
+    public int totalPoints() {
+        return totalPoints;
+    }
+    
+    /**
+     * Dense index of the question, or -1 when it is not part of this module.
+     */
+    public int indexOf(long questionId) {
+        return questionIndex.get(questionId, -1);
+    }
+    
+    /**
+     * Empty selection array for one attempt, indexed like the questions.
+     */
+    public long[] newSelection() {
+        long[] selection = new long[questionIds.length];
+        Arrays.fill(selection, NO_ANSWER);
+        return selection;
+    }
+    
+    /**
+     * Grade one attempt.
+     *
+     * @param selection chosen answer id per question index, {@link #NO_ANSWER} when unanswered
+     * @param correct   receives whether each question was answered correctly; may be null
+     * @return points earned
+     */
+    public int grade(long[] selection, boolean[] correct) {
+        int earned = 0;
+        for (int i = 0; i < questionIds.length; i++) {
+            long answerId = selection[i];
+            // An answer only scores for the question it belongs to
+            boolean right = answerId != NO_ANSWER && correctAnswers.get(answerId, -1) == i;
+            if (right) {
+                earned += points[i];
+            }
+            if (correct != null) {
+                correct[i] = right;
+            }
+        }
+        return earned;
+    }
+    
+    /**
+     * Collects answer-key rows, one per (question, correct answer) pair, in question order.
+     */
+    public static final class Builder {
+        
+        private long[] questionIds = new long[16];
+        private int[] points = new int[16];
+        private int size;
+        private final LongIntHashMap questionIndex = new LongIntHashMap();
+        private final LongIntHashMap correctAnswers = new LongIntHashMap();
+        
+        /**
+         * @param correctAnswerId a correct answer of the question, or null when it has none
+         */
+        public Builder add(long questionId, int questionPoints, Long correctAnswerId) {
+            int index = questionIndex.get(questionId, -1);
+            if (index < 0) {
+                if (size == questionIds.length) {
+                    questionIds = Arrays.copyOf(questionIds, size * 2);
+                    points = Arrays.copyOf(points, size * 2);
+                }
+                index = size++;
+                questionIds[index] = questionId;
+                points[index] = questionPoints;
+                questionIndex.put(questionId, index);
+            }
+            if (correctAnswerId != null) {
+                correctAnswers.put(correctAnswerId, index);
+            }
+            return this;
+        }
+        
+        /**
+         * The key takes over the builder's maps, so the builder must not be used afterwards.
+         */
+        public CompiledAnswerKey build() {
+            return new CompiledAnswerKey(Arrays.copyOf(questionIds, size), Arrays.copyOf(points, size),
+                    questionIndex, correctAnswers);
+        }
+    }
+}
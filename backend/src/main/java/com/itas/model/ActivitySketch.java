@@ -0,0 +1,54 @@
+package com.itas.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Serialized HyperLogLog of distinct authenticated users for one hour or day,
+ * as seen by one application node. Nodes' sketches for a period are merged at query time.
+ */
+@Entity
+@Table(name = "activity_sketches", uniqueConstraints = @UniqueConstraint(
+        columnNames = { "granularity", "period_start", "node_id" }))
+public class ActivitySketch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 10)
+    private String granularity; // HOUR, DAY
+    
+    @Column(name = "period_start", nullable = false)
+    private LocalDateTime periodStart;
+    
+    @Column(name = "node_id", nullable = false, length = 100)
+    private String nodeId;
+    
+    // Sparse encoding for small periods; dense is 2^14 registers plus a header
+    @Column(nullable = false, length = 17000)
+    private byte[] sketch;
+    
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public ActivitySketch() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getGranularity() { return granularity; }
+    public void setGranularity(String granularity) { this.granularity = granularity; }
+    
+    public LocalDateTime getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDateTime periodStart) { this.periodStart = periodStart; }
+    
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+    
+    public byte[] getSketch() { return sketch; }
+    public void setSketch(byte[] sketch) { this.sketch = sketch; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,91 @@
+package com.itas.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-aggregated analytics for one period.
+ *
+ * Activity rollups are stored as one DAILY row per day: metrics holds 24
+ * hourly counts per metric, aggregates the day totals.
+ */
+@Entity
+@Table(name = "analytics", uniqueConstraints = @UniqueConstraint(
+        columnNames = { "analytics_type", "period_type", "period_start", "period_end" }))
+public class Analytics {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "analytics_type", nullable = false, length = 50)
+    private String analyticsType;
+    
+    @Column(name = "period_type", nullable = false, length = 20)
+    private String periodType;
+    
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+    
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd;
+    
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private Map<String, List<Number>> metrics = new HashMap<>();
+    
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, Number> aggregates = new HashMap<>();
+    
+    @Column(name = "data_source", length = 100)
+    private String dataSource;
+    
+    @Column(length = 20)
+    private String status = "PROCESSED";
+    
+    private LocalDateTime generatedAt;
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public Analytics() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getAnalyticsType() { return analyticsType; }
+    public void setAnalyticsType(String analyticsType) { this.analyticsType = analyticsType; }
+    
+    public String getPeriodType() { return periodType; }
+    public void setPeriodType(String periodType) { this.periodType = periodType; }
+    
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+    
+    public LocalDate getPeriodEnd() { return periodEnd; }
+    public void setPeriodEnd(LocalDate periodEnd) { this.periodEnd = periodEnd; }
+    
+    public Map<String, List<Number>> getMetrics() { return metrics; }
+    public void setMetrics(Map<String, List<Number>> metrics) { this.metrics = metrics; }
+    
+    public Map<String, Number> getAggregates() { return aggregates; }
+    public void setAggregates(Map<String, Number> aggregates) { this.aggregates = aggregates; }
+    
+    public String getDataSource() { return dataSource; }
+    public void setDataSource(String dataSource) { this.dataSource = dataSource; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public LocalDateTime getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(LocalDateTime generatedAt) { this.generatedAt = generatedAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -1,9 +1,11 @@
 package com.itas.model;
 
+import com.itas.service.AnswerKeyListener;
 import jakarta.persistence.*;
 
 @Entity
 @Table(name = "answers")
+@EntityListeners(AnswerKeyListener.class)
 public class Answer {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
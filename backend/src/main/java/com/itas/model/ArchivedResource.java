@@ -19,6 +19,13 @@ public class ArchivedResource {
     @Column(length = 1000)
     private String description;
     
+    // File reference carried over from the resource so the blob outlives the archive
+    private String filePath;
+    private String fileName;
+    private Long fileSize;
+    private String mimeType;
+    private String fileHash;
+    
     @ManyToOne
     @JoinColumn(name = "archived_by")
     private User archivedBy;
@@ -39,6 +46,16 @@ public class ArchivedResource {
     public void setTitle(String title) { this.title = title; }
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
+    public String getFilePath() { return filePath; }
+    public void setFilePath(String filePath) { this.filePath = filePath; }
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+    public String getMimeType() { return mimeType; }
+    public void setMimeType(String mimeType) { this.mimeType = mimeType; }
+    public String getFileHash() { return fileHash; }
+    public void setFileHash(String fileHash) { this.fileHash = fileHash; }
     public User getArchivedBy() { return archivedBy; }
     public void setArchivedBy(User archivedBy) { this.archivedBy = archivedBy; }
     public LocalDateTime getArchivedAt() { return archivedAt; }
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "assessments")
+@Table(name = "assessments", indexes = {
+        @Index(name = "idx_assessments_exam_session", columnList = "exam_session_id, user_id")
+})
 public class Assessment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -42,6 +44,10 @@ public class Assessment {
     @Column(columnDefinition = "TEXT")
     private String feedback;
     
+    // Set for attempts pre-provisioned by a scheduled exam session
+    @Column(name = "exam_session_id")
+    private Long examSessionId;
+    
     // Constructors
     public Assessment() {}
     
@@ -78,4 +84,7 @@ public class Assessment {
     
     public String getFeedback() { return feedback; }
     public void setFeedback(String feedback) { this.feedback = feedback; }
+    
+    public Long getExamSessionId() { return examSessionId; }
+    public void setExamSessionId(Long examSessionId) { this.examSessionId = examSessionId; }
 }
@@ -0,0 +1,57 @@
+package com.itas.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Per-question result of a submitted assessment. Question and answer are kept
+ * as plain ids so edits to a module's questions do not rewrite past attempts.
+ * Rows are written in one JDBC batch by AssessmentService.
+ */
+@Entity
+@Table(name = "assessment_answers", indexes = {
+        @Index(name = "idx_assessment_answers_assessment", columnList = "assessment_id")
+})
+public class AssessmentAnswer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "assessment_id", nullable = false)
+    private Assessment assessment;
+    
+    @Column(name = "question_id", nullable = false)
+    private Long questionId;
+    
+    // Null when the question was left unanswered
+    @Column(name = "answer_id")
+    private Long answerId;
+    
+    @Column(name = "correct", nullable = false)
+    private Boolean correct = false;
+    
+    @Column(name = "points_awarded", nullable = false)
+    private Integer pointsAwarded = 0;
+    
+    // Constructors
+    public AssessmentAnswer() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Assessment getAssessment() { return assessment; }
+    public void setAssessment(Assessment assessment) { this.assessment = assessment; }
+    
+    public Long getQuestionId() { return questionId; }
+    public void setQuestionId(Long questionId) { this.questionId = questionId; }
+    
+    public Long getAnswerId() { return answerId; }
+    public void setAnswerId(Long answerId) { this.answerId = answerId; }
+    
+    public Boolean getCorrect() { return correct; }
+    public void setCorrect(Boolean correct) { this.correct = correct; }
+    
+    public Integer getPointsAwarded() { return pointsAwarded; }
+    public void setPointsAwarded(Integer pointsAwarded) { this.pointsAwarded = pointsAwarded; }
+}
@@ -0,0 +1,43 @@
+package com.itas.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Attempts a user has started on a module. Advanced with one conditional
+ * UPDATE per start so the maxAttempts limit holds under concurrent starts.
+ * Created lazily on the first start, seeded from the existing assessments.
+ */
+@Entity
+@Table(name = "assessment_attempt_counters", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attempt_counters_user_module", columnNames = { "user_id", "module_id" })
+})
+public class AttemptCounter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "module_id", nullable = false)
+    private Long moduleId;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    // Constructors
+    public AttemptCounter() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public Long getModuleId() { return moduleId; }
+    public void setModuleId(Long moduleId) { this.moduleId = moduleId; }
+    
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+}
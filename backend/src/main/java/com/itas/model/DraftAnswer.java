@@ -0,0 +1,50 @@
+package com.itas.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Autosaved answer of an assessment still in progress, one row per question.
+ * Rows are upserted in batches by AssessmentDraftService and removed once the
+ * attempt is submitted.
+ */
+@Entity
+@Table(name = "assessment_draft_answers", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_draft_answers_question", columnNames = { "assessment_id", "question_id" })
+})
+public class DraftAnswer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "assessment_id", nullable = false)
+    private Long assessmentId;
+    
+    @Column(name = "question_id", nullable = false)
+    private Long questionId;
+    
+    @Column(name = "answer_id", nullable = false)
+    private Long answerId;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+    
+    // Constructors
+    public DraftAnswer() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getAssessmentId() { return assessmentId; }
+    public void setAssessmentId(Long assessmentId) { this.assessmentId = assessmentId; }
+    
+    public Long getQuestionId() { return questionId; }
+    public void setQuestionId(Long questionId) { this.questionId = questionId; }
+    
+    public Long getAnswerId() { return answerId; }
+    public void setAnswerId(Long answerId) { this.answerId = answerId; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
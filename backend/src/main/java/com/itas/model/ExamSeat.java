@@ -0,0 +1,63 @@
+package com.itas.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One candidate's place in an exam session. The token is handed to the
+ * candidate and claimed when the window opens; the assessment is created
+ * during provisioning. Written with set-based SQL by ExamSessionService.
+ */
+@Entity
+@Table(name = "exam_seats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_exam_seats_session_user", columnNames = { "session_id", "user_id" }),
+        @UniqueConstraint(name = "uk_exam_seats_token", columnNames = { "token" })
+})
+public class ExamSeat {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false, length = 43)
+    private String token;
+    
+    @Column(length = 20)
+    private String status = "PENDING"; // PENDING, READY, NO_ATTEMPTS_LEFT, EXPIRED
+    
+    @Column(name = "assessment_id")
+    private Long assessmentId;
+    
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+    
+    // Constructors
+    public ExamSeat() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getSessionId() { return sessionId; }
+    public void setSessionId(Long sessionId) { this.sessionId = sessionId; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public Long getAssessmentId() { return assessmentId; }
+    public void setAssessmentId(Long assessmentId) { this.assessmentId = assessmentId; }
+    
+    public LocalDateTime getClaimedAt() { return claimedAt; }
+    public void setClaimedAt(LocalDateTime claimedAt) { this.claimedAt = claimedAt; }
+}
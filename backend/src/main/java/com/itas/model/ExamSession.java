@@ -0,0 +1,91 @@
+package com.itas.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Scheduled certification window for one module. Before it opens, a seat,
+ * an attempt and an assessment row are provisioned in bulk for every
+ * candidate, so starting the exam inside the window is only a token claim.
+ */
+@Entity
+@Table(name = "exam_sessions", indexes = {
+        @Index(name = "idx_exam_sessions_status", columnList = "status, opens_at")
+})
+public class ExamSession {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "module_id", nullable = false)
+    private Long moduleId;
+    
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+    
+    @Column(nullable = false)
+    private String title;
+    
+    @Column(name = "opens_at", nullable = false)
+    private LocalDateTime opensAt;
+    
+    @Column(name = "closes_at", nullable = false)
+    private LocalDateTime closesAt;
+    
+    private String status = "SCHEDULED"; // SCHEDULED, PROVISIONED, CLOSED, CANCELLED
+    
+    // COURSE: every enrolled user at provisioning time; LIST: the seats given when scheduling
+    @Column(name = "candidate_source", length = 10)
+    private String candidateSource = "COURSE";
+    
+    private Integer seatCount = 0;
+    private String createdBy;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime provisionedAt;
+    private LocalDateTime closedAt;
+    
+    // Constructors
+    public ExamSession() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getModuleId() { return moduleId; }
+    public void setModuleId(Long moduleId) { this.moduleId = moduleId; }
+    
+    public Long getCourseId() { return courseId; }
+    public void setCourseId(Long courseId) { this.courseId = courseId; }
+    
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    
+    public LocalDateTime getOpensAt() { return opensAt; }
+    public void setOpensAt(LocalDateTime opensAt) { this.opensAt = opensAt; }
+    
+    public LocalDateTime getClosesAt() { return closesAt; }
+    public void setClosesAt(LocalDateTime closesAt) { this.closesAt = closesAt; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public String getCandidateSource() { return candidateSource; }
+    public void setCandidateSource(String candidateSource) { this.candidateSource = candidateSource; }
+    
+    public Integer getSeatCount() { return seatCount; }
+    public void setSeatCount(Integer seatCount) { this.seatCount = seatCount; }
+    
+    public String getCreatedBy() { return createdBy; }
+    public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getProvisionedAt() { return provisionedAt; }
+    public void setProvisionedAt(LocalDateTime provisionedAt) { this.provisionedAt = provisionedAt; }
+    
+    public LocalDateTime getClosedAt() { return closedAt; }
+    public void setClosedAt(LocalDateTime closedAt) { this.closedAt = closedAt; }
+}
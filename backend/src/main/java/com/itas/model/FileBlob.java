@@ -0,0 +1,51 @@
+package com.itas.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Physical file in the content-addressed upload store.
+ * One row per distinct SHA-256; resources sharing content share the blob.
+ */
+@Entity
+@Table(name = "file_blobs")
+public class FileBlob {
+    @Id
+    @Column(length = 64)
+    private String hash;
+    
+    @Column(nullable = false)
+    private String storagePath;
+    
+    private Long size;
+    
+    @Column(nullable = false)
+    private Integer refCount = 0;
+    
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    // Constructors
+    public FileBlob() {}
+    
+    public FileBlob(String hash, String storagePath, Long size) {
+        this.hash = hash;
+        this.storagePath = storagePath;
+        this.size = size;
+    }
+    
+    // Getters and Setters
+    public String getHash() { return hash; }
+    public void setHash(String hash) { this.hash = hash; }
+    
+    public String getStoragePath() { return storagePath; }
+    public void setStoragePath(String storagePath) { this.storagePath = storagePath; }
+    
+    public Long getSize() { return size; }
+    public void setSize(Long size) { this.size = size; }
+    
+    public Integer getRefCount() { return refCount; }
+    public void setRefCount(Integer refCount) { this.refCount = refCount; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
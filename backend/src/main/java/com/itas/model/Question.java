@@ -1,5 +1,6 @@
 package com.itas.model;
 
+import com.itas.service.AnswerKeyListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -7,6 +8,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "questions")
+@EntityListeners(AnswerKeyListener.class)
 public class Question {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
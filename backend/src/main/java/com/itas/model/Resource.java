@@ -5,7 +5,12 @@ import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "resources")
+@Table(name = "resources", indexes = {
+    @Index(name = "idx_resources_category", columnList = "category"),
+    @Index(name = "idx_resources_resource_type", columnList = "resourceType"),
+    @Index(name = "idx_resources_audience", columnList = "audience"),
+    @Index(name = "idx_resources_uploaded_at_id", columnList = "uploadedAt DESC, id DESC")
+})
 public class Resource {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
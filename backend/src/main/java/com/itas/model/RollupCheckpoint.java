@@ -0,0 +1,40 @@
+package com.itas.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One persisted dashboard rollup counter, e.g. "users.total" or "course.12.enrollments".
+ * Lets the in-memory rollups start warm after a restart.
+ */
+@Entity
+@Table(name = "rollup_checkpoints")
+public class RollupCheckpoint {
+    @Id
+    @Column(name = "metric_key", length = 100)
+    private String key;
+    
+    @Column(name = "metric_value", nullable = false)
+    private Double value;
+    
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public RollupCheckpoint() {}
+    
+    public RollupCheckpoint(String key, Double value, LocalDateTime updatedAt) {
+        this.key = key;
+        this.value = value;
+        this.updatedAt = updatedAt;
+    }
+    
+    // Getters and setters
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+    
+    public Double getValue() { return value; }
+    public void setValue(Double value) { this.value = value; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
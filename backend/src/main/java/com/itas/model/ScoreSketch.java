@@ -0,0 +1,73 @@
+package com.itas.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted t-digest of graded assessment percentages for one module, with
+ * exact attempt and pass counts, as recorded by one application node. Nodes'
+ * rows for a module are merged when read; rows of an older generation were
+ * superseded by a rebuild and are ignored.
+ */
+@Entity
+@Table(name = "score_sketches", uniqueConstraints = @UniqueConstraint(
+        name = "uk_score_sketches_node", columnNames = { "module_id", "node_id" }))
+public class ScoreSketch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "module_id", nullable = false)
+    private Long moduleId;
+    
+    @Column(name = "node_id", nullable = false, length = 100)
+    private String nodeId;
+    
+    @Column(nullable = false)
+    private Long generation = 0L;
+    
+    @Column(name = "course_id")
+    private Long courseId;
+    
+    @Column(nullable = false, length = 16384)
+    private byte[] digest;
+    
+    @Column(nullable = false)
+    private Long attempts = 0L;
+    
+    @Column(nullable = false)
+    private Long passes = 0L;
+    
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public ScoreSketch() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getModuleId() { return moduleId; }
+    public void setModuleId(Long moduleId) { this.moduleId = moduleId; }
+    
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+    
+    public Long getGeneration() { return generation; }
+    public void setGeneration(Long generation) { this.generation = generation; }
+    
+    public Long getCourseId() { return courseId; }
+    public void setCourseId(Long courseId) { this.courseId = courseId; }
+    
+    public byte[] getDigest() { return digest; }
+    public void setDigest(byte[] digest) { this.digest = digest; }
+    
+    public Long getAttempts() { return attempts; }
+    public void setAttempts(Long attempts) { this.attempts = attempts; }
+    
+    public Long getPasses() { return passes; }
+    public void setPasses(Long passes) { this.passes = passes; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
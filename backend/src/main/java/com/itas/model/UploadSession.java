@@ -0,0 +1,105 @@
+package com.itas.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Resumable chunked upload in progress. Chunks land in a sparse staging file;
+ * receivedRanges records which byte ranges have been verified and written.
+ */
+@Entity
+@Table(name = "upload_sessions")
+public class UploadSession {
+    @Id
+    @Column(length = 36)
+    private String id;
+    
+    @ManyToOne
+    @JoinColumn(name = "uploaded_by")
+    private User uploadedBy;
+    
+    // Resource metadata applied on completion
+    private String title;
+    private String description;
+    private String resourceType;
+    private String category;
+    private String audience;
+    
+    private String fileName;
+    private String mimeType;
+    private Long totalSize;
+    private Long bytesReceived = 0L;
+    
+    // Merged, sorted inclusive ranges: "0-8388607,16777216-25165823"
+    @Column(columnDefinition = "TEXT")
+    private String receivedRanges = "";
+    
+    private String status = "ACTIVE"; // ACTIVE, FINALIZING, COMPLETED
+    private Long resourceId;
+    
+    // Chunk PUTs currently writing into the staging file; complete waits for zero
+    @Column(columnDefinition = "INTEGER DEFAULT 0")
+    private Integer activeWriters = 0;
+    
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime updatedAt;
+    private LocalDateTime expiresAt;
+    
+    // Constructors
+    public UploadSession() {}
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public User getUploadedBy() { return uploadedBy; }
+    public void setUploadedBy(User uploadedBy) { this.uploadedBy = uploadedBy; }
+    
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    
+    public String getResourceType() { return resourceType; }
+    public void setResourceType(String resourceType) { this.resourceType = resourceType; }
+    
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    
+    public String getAudience() { return audience; }
+    public void setAudience(String audience) { this.audience = audience; }
+    
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    
+    public String getMimeType() { return mimeType; }
+    public void setMimeType(String mimeType) { this.mimeType = mimeType; }
+    
+    public Long getTotalSize() { return totalSize; }
+    public void setTotalSize(Long totalSize) { this.totalSize = totalSize; }
+    
+    public Long getBytesReceived() { return bytesReceived; }
+    public void setBytesReceived(Long bytesReceived) { this.bytesReceived = bytesReceived; }
+    
+    public String getReceivedRanges() { return receivedRanges; }
+    public void setReceivedRanges(String receivedRanges) { this.receivedRanges = receivedRanges; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public Long getResourceId() { return resourceId; }
+    public void setResourceId(Long resourceId) { this.resourceId = resourceId; }
+    
+    public Integer getActiveWriters() { return activeWriters; }
+    public void setActiveWriters(Integer activeWriters) { this.activeWriters = activeWriters; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,32 @@
+package com.itas.repository;
+
+import com.itas.model.ActivitySketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ActivitySketchRepository extends JpaRepository<ActivitySketch, Long> {
+    
+    Optional<ActivitySketch> findByGranularityAndPeriodStartAndNodeId(
+            String granularity, LocalDateTime periodStart, String nodeId);
+    
+    /**
+     * Sketches of every node for periods starting in [from, to).
+     */
+    @Query("SELECT s FROM ActivitySketch s WHERE s.granularity = :granularity " +
+           "AND s.periodStart >= :from AND s.periodStart < :to")
+    List<ActivitySketch> findPeriods(@Param("granularity") String granularity,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+    
+    @Modifying
+    @Query("DELETE FROM ActivitySketch s WHERE s.granularity = :granularity AND s.periodStart < :before")
+    int deleteOlderThan(@Param("granularity") String granularity, @Param("before") LocalDateTime before);
+}
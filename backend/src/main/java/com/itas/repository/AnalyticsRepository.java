@@ -0,0 +1,51 @@
+package com.itas.repository;
+
+import com.itas.model.Analytics;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AnalyticsRepository extends JpaRepository<Analytics, Long> {
+    /**
+     * Create an empty bucket for the day; a no-op when it already exists.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO analytics (analytics_type, period_type, period_start, period_end, metrics, " +
+                   "aggregates, data_source, status, generated_at, updated_at) " +
+                   "VALUES (:type, :periodType, :day, :day, CAST('{}' AS jsonb), CAST('{}' AS jsonb), " +
+                   ":dataSource, 'PROCESSED', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertBucket(@Param("type") String type,
+                     @Param("periodType") String periodType,
+                     @Param("day") LocalDate day,
+                     @Param("dataSource") String dataSource);
+    
+    /**
+     * The day's bucket, locked until the transaction ends so concurrent rollups add to it in turn.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Analytics a WHERE a.analyticsType = :type " +
+           "AND a.periodType = :periodType AND a.periodStart = :day")
+    Optional<Analytics> findBucketForUpdate(@Param("type") String type,
+                                            @Param("periodType") String periodType,
+                                            @Param("day") LocalDate day);
+    
+    List<Analytics> findByAnalyticsTypeAndPeriodTypeAndPeriodStartBetweenOrderByPeriodStart(
+            String analyticsType, String periodType, LocalDate from, LocalDate to);
+    
+    @Query("SELECT a.periodStart FROM Analytics a WHERE a.analyticsType = :type " +
+           "AND a.periodType = :periodType AND a.periodStart BETWEEN :from AND :to")
+    List<LocalDate> findPeriodStarts(@Param("type") String type,
+                                     @Param("periodType") String periodType,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+}
@@ -3,16 +3,28 @@ package com.itas.repository;
 import com.itas.model.Assessment;
 import com.itas.model.Module;
 import com.itas.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AssessmentRepository extends JpaRepository<Assessment, Long> {
     List<Assessment> findByUserAndModuleOrderByAttemptNumberDesc(User user, Module module);
+    
+    /**
+     * The attempt, locked until the caller's transaction ends so two submissions are graded one after the other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Assessment a WHERE a.id = :id")
+    Optional<Assessment> findByIdForUpdate(@Param("id") Long id);
     List<Assessment> findByUserIdAndModuleIdOrderByAttemptNumberDesc(Long userId, Long moduleId);
     
     @Query("SELECT COUNT(a) FROM Assessment a WHERE a.user = ?1 AND a.module = ?2")
@@ -20,4 +32,40 @@ public interface AssessmentRepository extends JpaRepository<Assessment, Long> {
     
     @Query("SELECT a FROM Assessment a WHERE a.user = ?1 AND a.module = ?2 AND a.passed = true")
     Optional<Assessment> findPassedAssessment(User user, Module module);
+    
+    @Query("SELECT HOUR(a.completedAt) AS hour, COUNT(a) AS total FROM Assessment a " +
+           "WHERE a.passed = true AND a.completedAt >= :from AND a.completedAt < :to " +
+           "GROUP BY HOUR(a.completedAt)")
+    List<HourlyCount> countPassesByHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT MIN(a.completedAt) FROM Assessment a")
+    LocalDateTime findEarliestCompletedAt();
+    
+    @Query("SELECT a.percentage FROM Assessment a " +
+           "WHERE a.module.id = :moduleId AND a.completedAt IS NOT NULL ORDER BY a.percentage")
+    List<Double> findGradedPercentagesByModule(@Param("moduleId") Long moduleId);
+    
+    @Query("SELECT a.percentage FROM Assessment a " +
+           "WHERE a.module.course.id = :courseId AND a.completedAt IS NOT NULL ORDER BY a.percentage")
+    List<Double> findGradedPercentagesByCourse(@Param("courseId") Long courseId);
+    
+    @Query("SELECT CAST(a.completedAt AS LocalDate) AS day, COUNT(a) AS attempts, " +
+           "SUM(CASE WHEN a.passed = true THEN 1 ELSE 0 END) AS passes FROM Assessment a " +
+           "WHERE a.module.id = :moduleId AND a.completedAt >= :from " +
+           "GROUP BY CAST(a.completedAt AS LocalDate) ORDER BY CAST(a.completedAt AS LocalDate)")
+    List<DailyPassRate> findDailyPassRatesByModule(@Param("moduleId") Long moduleId,
+                                                   @Param("from") LocalDateTime from);
+    
+    @Query("SELECT CAST(a.completedAt AS LocalDate) AS day, COUNT(a) AS attempts, " +
+           "SUM(CASE WHEN a.passed = true THEN 1 ELSE 0 END) AS passes FROM Assessment a " +
+           "WHERE a.module.course.id = :courseId AND a.completedAt >= :from " +
+           "GROUP BY CAST(a.completedAt AS LocalDate) ORDER BY CAST(a.completedAt AS LocalDate)")
+    List<DailyPassRate> findDailyPassRatesByCourse(@Param("courseId") Long courseId,
+                                                   @Param("from") LocalDateTime from);
+    
+    interface DailyPassRate {
+        LocalDate getDay();
+        Long getAttempts();
+        Long getPasses();
+    }
 }
@@ -0,0 +1,34 @@
+package com.itas.repository;
+
+import com.itas.model.AttemptCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AttemptCounterRepository extends JpaRepository<AttemptCounter, Long> {
+    
+    /**
+     * Take the next attempt if the limit allows; 0 when the limit is reached or no counter exists yet.
+     */
+    @Modifying
+    @Query("UPDATE AttemptCounter c SET c.attempts = c.attempts + 1 "
+            + "WHERE c.userId = :userId AND c.moduleId = :moduleId AND c.attempts < :maxAttempts")
+    int claimAttempt(@Param("userId") Long userId, @Param("moduleId") Long moduleId,
+                     @Param("maxAttempts") int maxAttempts);
+    
+    /**
+     * Create the counter seeded with the attempts already recorded; a no-op when it exists.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO assessment_attempt_counters (user_id, module_id, attempts) "
+            + "VALUES (:userId, :moduleId, (SELECT COUNT(*) FROM assessments a "
+            + "WHERE a.user_id = :userId AND a.module_id = :moduleId)) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int createIfAbsent(@Param("userId") Long userId, @Param("moduleId") Long moduleId);
+    
+    @Query("SELECT c.attempts FROM AttemptCounter c WHERE c.userId = :userId AND c.moduleId = :moduleId")
+    Integer findAttempts(@Param("userId") Long userId, @Param("moduleId") Long moduleId);
+}
@@ -1,9 +1,63 @@
 package com.itas.repository;
 
 import com.itas.model.Enrollment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     List<Enrollment> findByUserId(Long userId);
+    
+    List<Enrollment> findByCourseId(Long courseId);
+    
+    Optional<Enrollment> findByUserIdAndCourseId(Long userId, Long courseId);
+    
+    @Query("SELECT COUNT(e) AS total, " +
+           "COALESCE(SUM(CASE WHEN e.status = 'COMPLETED' THEN 1 ELSE 0 END), 0) AS completed, " +
+           "COALESCE(AVG(e.progress), 0) AS avgProgress " +
+           "FROM Enrollment e")
+    EnrollmentTotals aggregateTotals();
+    
+    /**
+     * Courses by enrollment count in one grouped pass; courses without enrollments count as 0.
+     * Pass Pageable.unpaged() for every course.
+     */
+    @Query("SELECT c.id AS courseId, c.title AS title, COUNT(e.id) AS enrollments, " +
+           "COALESCE(SUM(CASE WHEN e.status = 'COMPLETED' THEN 1 ELSE 0 END), 0) AS completions, " +
+           "COALESCE(SUM(e.progress), 0) AS progressSum " +
+           "FROM Course c LEFT JOIN Enrollment e ON e.courseId = c.id " +
+           "GROUP BY c.id, c.title " +
+           "ORDER BY COUNT(e.id) DESC, c.id ASC")
+    List<CourseEnrollmentTotals> findTopCoursesByEnrollments(Pageable pageable);
+    
+    @Query("SELECT HOUR(e.enrolledAt) AS hour, COUNT(e) AS total FROM Enrollment e " +
+           "WHERE e.enrolledAt >= :from AND e.enrolledAt < :to GROUP BY HOUR(e.enrolledAt)")
+    List<HourlyCount> countEnrollmentsByHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT HOUR(e.completedAt) AS hour, COUNT(e) AS total FROM Enrollment e " +
+           "WHERE e.status = 'COMPLETED' AND e.completedAt >= :from AND e.completedAt < :to " +
+           "GROUP BY HOUR(e.completedAt)")
+    List<HourlyCount> countCompletionsByHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT MIN(e.enrolledAt) FROM Enrollment e")
+    LocalDateTime findEarliestEnrolledAt();
+    
+    interface EnrollmentTotals {
+        Long getTotal();
+        Long getCompleted();
+        Double getAvgProgress();
+    }
+    
+    interface CourseEnrollmentTotals {
+        Long getCourseId();
+        String getTitle();
+        Long getEnrollments();
+        Long getCompletions();
+        Double getProgressSum();
+    }
 }
@@ -0,0 +1,27 @@
+package com.itas.repository;
+
+import com.itas.model.ExamSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ExamSessionRepository extends JpaRepository<ExamSession, Long> {
+    List<ExamSession> findAllByOrderByOpensAtDesc();
+    List<ExamSession> findByStatusAndOpensAtBefore(String status, LocalDateTime opensAt);
+    List<ExamSession> findByStatusAndClosesAtAfter(String status, LocalDateTime closesAt);
+    List<ExamSession> findByStatusAndClosesAtBefore(String status, LocalDateTime closesAt);
+    
+    /**
+     * Move a session from one status to another; 0 when another node or request got there first.
+     * The row stays locked until the caller's transaction ends.
+     */
+    @Modifying
+    @Query("UPDATE ExamSession s SET s.status = :to WHERE s.id = :id AND s.status = :from")
+    int transition(@Param("id") Long id, @Param("from") String from, @Param("to") String to);
+}
@@ -0,0 +1,9 @@
+package com.itas.repository;
+
+/**
+ * Row of a "GROUP BY HOUR(...)" count query.
+ */
+public interface HourlyCount {
+    Integer getHour();
+    Long getTotal();
+}
@@ -3,6 +3,8 @@ package com.itas.repository;
 import com.itas.model.Module;
 import com.itas.model.Question;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +13,22 @@ import java.util.List;
 public interface QuestionRepository extends JpaRepository<Question, Long> {
     List<Question> findByModuleOrderByOrderAsc(Module module);
     List<Question> findByModuleIdOrderByOrderAsc(Long moduleId);
+    
+    @Query("SELECT DISTINCT q FROM Question q LEFT JOIN FETCH q.answers WHERE q.module.id = :moduleId")
+    List<Question> findWithAnswersByModuleId(@Param("moduleId") Long moduleId);
+    
+    /**
+     * Answer key of a module in one query: one row per correct answer, or a
+     * single row with a null answer for a question without one.
+     */
+    @Query("SELECT q.id AS questionId, q.points AS points, a.id AS correctAnswerId "
+            + "FROM Question q LEFT JOIN q.answers a ON a.isCorrect = true "
+            + "WHERE q.module.id = :moduleId ORDER BY q.order, q.id")
+    List<AnswerKeyRow> findAnswerKeyByModuleId(@Param("moduleId") Long moduleId);
+    
+    interface AnswerKeyRow {
+        Long getQuestionId();
+        Integer getPoints();
+        Long getCorrectAnswerId();
+    }
 }
@@ -0,0 +1,39 @@
+package com.itas.repository;
+
+import com.itas.model.ReportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, String> {
+    
+    Optional<ReportJob> findFirstByDedupKeyAndStatusInOrderByCreatedAtAsc(String dedupKey, Collection<String> statuses);
+    
+    List<ReportJob> findByStatusOrderByCreatedAtAsc(String status);
+    
+    long countByStatusIn(Collection<String> statuses);
+    
+    List<ReportJob> findByExpiresAtBefore(LocalDateTime time);
+    
+    /**
+     * Move a queued job to RUNNING; returns 0 if another worker already took it.
+     */
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = 'RUNNING', j.startedAt = :now WHERE j.id = :id AND j.status = 'QUEUED'")
+    int claim(@Param("id") String id, @Param("now") LocalDateTime now);
+    
+    /**
+     * Put jobs that were running when the application stopped back in the queue.
+     */
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = 'QUEUED', j.startedAt = null, j.rowsWritten = 0 WHERE j.status = 'RUNNING'")
+    int requeueRunning();
+}
@@ -1,7 +1,9 @@
 package com.itas.repository;
 
 import com.itas.model.Resource;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -9,7 +11,8 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface ResourceRepository extends JpaRepository<Resource, Long> {
+public interface ResourceRepository extends JpaRepository<Resource, Long>, JpaSpecificationExecutor<Resource>,
+        ResourceRepositoryCustom {
     
     List<Resource> findByCategory(String category);
     
@@ -26,6 +29,15 @@ public interface ResourceRepository extends JpaRepository<Resource, Long> {
            "LOWER(r.description) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<Resource> searchByTitleOrDescription(@Param("query") String query);
     
+    @Query("SELECT r FROM Resource r LEFT JOIN FETCH r.uploadedBy")
+    List<Resource> findAllWithUploader();
+    
+    @Query("SELECT r FROM Resource r LEFT JOIN FETCH r.uploadedBy WHERE r.id IN :ids")
+    List<Resource> findAllWithUploaderByIdIn(@Param("ids") List<Long> ids);
+    
+    @Query("SELECT r FROM Resource r LEFT JOIN FETCH r.uploadedBy ORDER BY r.downloadCount DESC, r.id DESC")
+    List<Resource> findMostDownloaded(Pageable pageable);
+    
     @Query("SELECT SUM(r.viewCount) FROM Resource r")
     Long sumViewCount();
     
@@ -0,0 +1,15 @@
+package com.itas.repository;
+
+import com.itas.model.Resource;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ResourceRepositoryCustom {
+    
+    /**
+     * Up to {@code limit} resources matching the specification, newest first
+     * (uploadedAt DESC, id DESC). No count query is issued.
+     */
+    List<Resource> findSlice(Specification<Resource> spec, int limit);
+}
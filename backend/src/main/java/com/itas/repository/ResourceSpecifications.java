@@ -0,0 +1,61 @@
+package com.itas.repository;
+
+import com.itas.model.Resource;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criteria building blocks for resource listing and search.
+ * Equality filters map onto idx_resources_category / _resource_type / _audience.
+ */
+public final class ResourceSpecifications {
+    
+    private ResourceSpecifications() {}
+    
+    public static Specification<Resource> hasCategory(String category) {
+        return category == null ? null : (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+    
+    public static Specification<Resource> hasResourceType(String resourceType) {
+        return resourceType == null ? null : (root, query, cb) -> cb.equal(root.get("resourceType"), resourceType);
+    }
+    
+    public static Specification<Resource> hasAudience(String audience) {
+        return audience == null ? null : (root, query, cb) -> cb.equal(root.get("audience"), audience);
+    }
+    
+    public static Specification<Resource> matchesKeyword(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + keyword.trim().toLowerCase() + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("title")), pattern),
+                cb.like(cb.lower(root.get("description")), pattern));
+    }
+    
+    /**
+     * One full-text search term in the title, description or category; the same
+     * columns that make up resources.search_vector.
+     */
+    public static Specification<Resource> matchesSearchTerm(String term) {
+        String pattern = "%" + term.toLowerCase() + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("title")), pattern),
+                cb.like(cb.lower(root.get("description")), pattern),
+                cb.like(cb.lower(root.get("category")), pattern));
+    }
+    
+    /**
+     * Keyset predicate for the (uploadedAt DESC, id DESC) ordering: rows strictly after the cursor.
+     */
+    public static Specification<Resource> after(LocalDateTime uploadedAt, Long id) {
+        if (uploadedAt == null || id == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("uploadedAt"), uploadedAt),
+                cb.and(cb.equal(root.get("uploadedAt"), uploadedAt), cb.lessThan(root.get("id"), id)));
+    }
+}
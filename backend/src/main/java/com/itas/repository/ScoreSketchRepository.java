@@ -0,0 +1,30 @@
+package com.itas.repository;
+
+import com.itas.model.ScoreSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ScoreSketchRepository extends JpaRepository<ScoreSketch, Long> {
+
+    List<ScoreSketch> findByNodeId(String nodeId);
+
+    @Query("SELECT MAX(s.generation) FROM ScoreSketch s")
+    Long findMaxGeneration();
+
+    /**
+     * Keeps a second node from rebuilding at the same time; held until the transaction ends.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE score_sketches IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query("DELETE FROM ScoreSketch s WHERE s.nodeId = :nodeId AND s.generation < :generation")
+    int deleteSuperseded(@Param("nodeId") String nodeId, @Param("generation") Long generation);
+}
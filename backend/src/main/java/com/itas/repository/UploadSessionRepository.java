@@ -0,0 +1,37 @@
+package com.itas.repository;
+
+import com.itas.model.UploadSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UploadSession s WHERE s.id = :id")
+    Optional<UploadSession> findByIdForUpdate(@Param("id") String id);
+    
+    /**
+     * Register a chunk writer; returns 0 once the session is no longer ACTIVE.
+     */
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.activeWriters = s.activeWriters + 1 WHERE s.id = :id AND s.status = 'ACTIVE'")
+    int beginWrite(@Param("id") String id);
+    
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.activeWriters = s.activeWriters - 1 WHERE s.id = :id AND s.activeWriters > 0")
+    int endWrite(@Param("id") String id);
+    
+    List<UploadSession> findByStatusInAndExpiresAtBefore(List<String> statuses, LocalDateTime time);
+    
+    List<UploadSession> findByStatusAndExpiresAtBefore(String status, LocalDateTime time);
+}
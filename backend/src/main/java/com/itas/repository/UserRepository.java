@@ -2,6 +2,7 @@ package com.itas.repository;
 
 import com.itas.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,9 +15,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByUserType(String userType);
     List<User> findByActiveTrue();
     
+    @Query("SELECT COUNT(u) AS total, " +
+           "COALESCE(SUM(CASE WHEN u.active = true THEN 1 ELSE 0 END), 0) AS active " +
+           "FROM User u")
+    UserTotals aggregateTotals();
+    
     // ADD THIS METHOD for RoleService
     List<User> findByRoleId(Long roleId);
     
     // ADD THIS if you want to keep the original AuthController method
     Optional<User> findByUsernameAndPassword(String username, String password);
+    
+    interface UserTotals {
+        Long getTotal();
+        Long getActive();
+    }
 }
\ No newline at end of file
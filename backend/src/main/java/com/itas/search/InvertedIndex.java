@@ -0,0 +1,280 @@
+package com.itas.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Incrementally maintained in-memory inverted index with BM25 scoring.
+ *
+ * The term dictionary is sorted so a query term also matches every indexed term
+ * it is a prefix of (search-as-you-type). Documents are re-indexed by calling
+ * {@link #put} again with the same id. Reads run concurrently; writes are exclusive.
+ *
+ * A full rebuild loads its documents outside the lock, so puts and removes made
+ * while it loads would be overwritten by the older data. Between
+ * {@link #beginRebuild} and {@link #replaceAll} they are therefore remembered and
+ * applied again on top of the rebuilt contents.
+ *
+ * @param <T> payload returned with each hit
+ */
+public class InvertedIndex<T> {
+    
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    
+    // Expanded prefix matches score below an exact match of the same term
+    private static final double PREFIX_WEIGHT = 0.7;
+    // Bounds the work for very short prefixes
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Document<T>> documents = new HashMap<>();
+    private long totalLength;
+    
+    // Latest put (or null for a remove) per id since beginRebuild; null when no rebuild runs
+    private Map<Long, Document<T>> sinceRebuild;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * Add or replace a document.
+     *
+     * @param termFrequencies term to (field-weighted) frequency, e.g. from {@link #count}
+     */
+    public void put(long id, T payload, Map<String, Integer> termFrequencies) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            Document<T> document = addLocked(id, payload, termFrequencies);
+            if (sinceRebuild != null) {
+                sinceRebuild.put(id, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (sinceRebuild != null) {
+                sinceRebuild.put(id, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Start remembering puts and removes; call before loading the data for {@link #replaceAll}.
+     */
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            sinceRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Stop remembering puts and removes after a rebuild failed to load its data.
+     */
+    public void abortRebuild() {
+        lock.writeLock().lock();
+        try {
+            sinceRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Replace the whole index contents in one step. Puts and removes made since
+     * {@link #beginRebuild} are applied again on top.
+     */
+    public void replaceAll(Map<Long, T> payloads, Map<Long, Map<String, Integer>> termFrequencies) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            for (Map.Entry<Long, T> entry : payloads.entrySet()) {
+                addLocked(entry.getKey(), entry.getValue(), termFrequencies.get(entry.getKey()));
+            }
+            if (sinceRebuild != null) {
+                for (Map.Entry<Long, Document<T>> update : sinceRebuild.entrySet()) {
+                    removeLocked(update.getKey());
+                    Document<T> document = update.getValue();
+                    if (document != null) {
+                        addLocked(update.getKey(), document.payload, document.terms);
+                    }
+                }
+                sinceRebuild = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Documents matching every query term (exactly or by prefix), best BM25 score first.
+     * Returns at most {@code limit} hits after skipping {@code offset}.
+     */
+    public List<Hit<T>> search(List<String> queryTerms, Predicate<T> filter, int offset, int limit) {
+        if (queryTerms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        lock.readLock().lock();
+        try {
+            int n = documents.size();
+            if (n == 0) {
+                return new ArrayList<>();
+            }
+            double avgLength = (double) totalLength / n;
+            
+            Map<Long, Double> scores = null;
+            for (String queryTerm : queryTerms) {
+                Map<Long, Double> termScores = scoreTerm(queryTerm, n, avgLength);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // AND semantics: keep only documents that matched every term so far
+                    Map<Long, Double> combined = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double score = termScores.get(entry.getKey());
+                        if (score != null) {
+                            combined.put(entry.getKey(), entry.getValue() + score);
+                        }
+                    }
+                    scores = combined;
+                }
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+            
+            List<Hit<T>> hits = new ArrayList<>(scores.size());
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                T payload = documents.get(entry.getKey()).payload;
+                if (filter == null || filter.test(payload)) {
+                    hits.add(new Hit<>(entry.getKey(), payload, entry.getValue()));
+                }
+            }
+            hits.sort((a, b) -> a.score != b.score ? Double.compare(b.score, a.score) : Long.compare(b.id, a.id));
+            
+            int from = Math.min(offset, hits.size());
+            int to = (int) Math.min((long) from + limit, hits.size());
+            return new ArrayList<>(hits.subList(from, to));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Term frequencies for one document, each field's tokens counted {@code weight} times.
+     */
+    public static void count(Map<String, Integer> into, List<String> tokens, int weight) {
+        for (String token : tokens) {
+            into.merge(token, weight, Integer::sum);
+        }
+    }
+    
+    private Map<Long, Double> scoreTerm(String queryTerm, int n, double avgLength) {
+        Map<Long, Double> scores = new HashMap<>();
+        int expansions = 0;
+        for (Map.Entry<String, Map<Long, Integer>> entry
+                : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+            if (expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            double weight = entry.getKey().equals(queryTerm) ? 1.0 : PREFIX_WEIGHT;
+            Map<Long, Integer> docs = entry.getValue();
+            double idf = Math.log(1 + (n - docs.size() + 0.5) / (docs.size() + 0.5));
+            
+            for (Map.Entry<Long, Integer> posting : docs.entrySet()) {
+                int tf = posting.getValue();
+                int length = documents.get(posting.getKey()).length;
+                double score = weight * idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * length / avgLength));
+                // A document matching several expansions of one prefix keeps its best one
+                scores.merge(posting.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+    
+    private Document<T> addLocked(long id, T payload, Map<String, Integer> termFrequencies) {
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(id, entry.getValue());
+            length += entry.getValue();
+        }
+        Document<T> document = new Document<>(payload, termFrequencies, length);
+        documents.put(id, document);
+        totalLength += length;
+        return document;
+    }
+    
+    private void removeLocked(long id) {
+        Document<T> existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms.keySet()) {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= existing.length;
+    }
+    
+    private static class Document<T> {
+        final T payload;
+        final Map<String, Integer> terms;
+        final int length;
+        
+        Document(T payload, Map<String, Integer> terms, int length) {
+            this.payload = payload;
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+    
+    public static class Hit<T> {
+        private final long id;
+        private final T payload;
+        private final double score;
+        
+        Hit(long id, T payload, double score) {
+            this.id = id;
+            this.payload = payload;
+            this.score = score;
+        }
+        
+        public long getId() { return id; }
+        public T getPayload() { return payload; }
+        public double getScore() { return score; }
+    }
+}
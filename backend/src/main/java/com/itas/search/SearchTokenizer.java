@@ -0,0 +1,70 @@
+package com.itas.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tokenizer for mixed Amharic/English catalog text.
+ *
+ * Splits on anything that is not a letter or digit (Ethiopic punctuation such as
+ * ። and ፣ included), lower-cases Latin text, drops common English stop words and
+ * folds the Ethiopic homophone series (ሐ/ኀ to ሀ, ሠ to ሰ, ዐ to አ, ፀ to ጸ) so
+ * alternative spellings of the same Amharic word produce the same term.
+ */
+public final class SearchTokenizer {
+    
+    private static final int MAX_TOKEN_LENGTH = 40;
+    
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "the", "to", "with");
+    
+    private SearchTokenizer() {}
+    
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        
+        StringBuilder current = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isLetterOrDigit(cp)) {
+                current.appendCodePoint(foldEthiopic(cp));
+            } else {
+                flush(current, tokens);
+            }
+        }
+        flush(current, tokens);
+        return tokens;
+    }
+    
+    private static void flush(StringBuilder current, List<String> tokens) {
+        if (current.length() == 0) {
+            return;
+        }
+        String token = current.toString().toLowerCase(Locale.ROOT);
+        current.setLength(0);
+        if (!STOP_WORDS.contains(token) && token.length() <= MAX_TOKEN_LENGTH) {
+            tokens.add(token);
+        }
+    }
+    
+    /**
+     * Map a character from a homophone series to the same vowel order of its canonical series.
+     * Each series is 8 code points laid out in the same order, so the offset carries over.
+     */
+    static int foldEthiopic(int cp) {
+        if (cp >= 0x1210 && cp <= 0x1217) return cp - 0x1210 + 0x1200; // ሐ -> ሀ
+        if (cp >= 0x1280 && cp <= 0x1287) return cp - 0x1280 + 0x1200; // ኀ -> ሀ
+        if (cp >= 0x1220 && cp <= 0x1227) return cp - 0x1220 + 0x1230; // ሠ -> ሰ
+        if (cp >= 0x12D0 && cp <= 0x12D7) return cp - 0x12D0 + 0x12A0; // ዐ -> አ
+        if (cp >= 0x1340 && cp <= 0x1347) return cp - 0x1340 + 0x1338; // ፀ -> ጸ
+        return cp;
+    }
+}
@@ -0,0 +1,269 @@
+package com.itas.service;
+
+import com.itas.model.ActivitySketch;
+import com.itas.repository.ActivitySketchRepository;
+import com.itas.sketch.HyperLogLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Distinct authenticated users per hour and per day, counted with HyperLogLog.
+ *
+ * Every authenticated request offers the username's hash to the current hour
+ * and day sketches; repeat visitors rarely change a register, so the request
+ * path costs a hash and a few array reads. Changed sketches are written to
+ * activity_sketches once a minute, one row per period and node. DAU/WAU/MAU
+ * merge the day sketches of all nodes instead of counting request rows.
+ */
+@Service
+public class ActiveUserService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ActiveUserService.class);
+    
+    static final String HOUR = "HOUR";
+    static final String DAY = "DAY";
+    
+    private static final int WEEK_DAYS = 7;
+    private static final int MONTH_DAYS = 30;
+    
+    @Autowired
+    private ActivitySketchRepository activitySketchRepository;
+    
+    @Value("${app.active-users.node-id:}")
+    private String configuredNodeId;
+    
+    @Value("${app.active-users.hourly-retention-days:14}")
+    private int hourlyRetentionDays;
+    
+    @Value("${app.active-users.daily-retention-days:400}")
+    private int dailyRetentionDays;
+    
+    @Value("${app.active-users.summary-cache-ms:60000}")
+    private long summaryCacheMs;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private String nodeId;
+    
+    // This node's sketches for periods that may still receive users
+    private final ConcurrentHashMap<LocalDateTime, HyperLogLog> hours = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LocalDateTime, HyperLogLog> days = new ConcurrentHashMap<>();
+    private final Set<LocalDateTime> dirtyHours = ConcurrentHashMap.newKeySet();
+    private final Set<LocalDateTime> dirtyDays = ConcurrentHashMap.newKeySet();
+    
+    private volatile Map<String, Object> cachedCounts;
+    private volatile long cachedAt;
+    
+    public ActiveUserService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Pick up this node's sketches for the current hour and day so a restart does not reset them.
+     */
+    @PostConstruct
+    public void loadCurrentPeriods() {
+        nodeId = configuredNodeId != null && !configuredNodeId.isBlank() ? configuredNodeId : defaultNodeId();
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime day = hour.toLocalDate().atStartOfDay();
+        try {
+            activitySketchRepository.findByGranularityAndPeriodStartAndNodeId(HOUR, hour, nodeId)
+                    .ifPresent(row -> hours.put(hour, HyperLogLog.fromBytes(row.getSketch())));
+            activitySketchRepository.findByGranularityAndPeriodStartAndNodeId(DAY, day, nodeId)
+                    .ifPresent(row -> days.put(day, HyperLogLog.fromBytes(row.getSketch())));
+        } catch (RuntimeException e) {
+            log.warn("Could not load active user sketches", e);
+        }
+    }
+    
+    /**
+     * Count one authenticated request.
+     */
+    public void record(String username) {
+        if (username == null) {
+            return;
+        }
+        long hash = HyperLogLog.hash(username);
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime day = hour.toLocalDate().atStartOfDay();
+        
+        if (hours.computeIfAbsent(hour, h -> new HyperLogLog()).offer(hash)) {
+            dirtyHours.add(hour);
+        }
+        if (days.computeIfAbsent(day, d -> new HyperLogLog()).offer(hash)) {
+            dirtyDays.add(day);
+        }
+    }
+    
+    /**
+     * DAU, WAU and MAU ending today, cached briefly for the dashboard.
+     */
+    public Map<String, Object> getActiveUserCounts() {
+        Map<String, Object> counts = cachedCounts;
+        if (counts == null || System.currentTimeMillis() - cachedAt > summaryCacheMs) {
+            Map<String, Object> summary = summarize(LocalDate.now(), false);
+            counts = new HashMap<>();
+            counts.put("dailyActiveUsers", summary.get("dailyActiveUsers"));
+            counts.put("weeklyActiveUsers", summary.get("weeklyActiveUsers"));
+            counts.put("monthlyActiveUsers", summary.get("monthlyActiveUsers"));
+            cachedCounts = counts;
+            cachedAt = System.currentTimeMillis();
+        }
+        return counts;
+    }
+    
+    /**
+     * DAU for the date, WAU/MAU for the 7/30 days ending on it, optionally with
+     * distinct users per hour of that date.
+     */
+    public Map<String, Object> summarize(LocalDate date, boolean includeHours) {
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+        Map<LocalDateTime, HyperLogLog> daySketches =
+                load(DAY, date.minusDays(MONTH_DAYS - 1).atStartOfDay(), end, days);
+        
+        HyperLogLog daily = new HyperLogLog();
+        HyperLogLog weekly = new HyperLogLog();
+        HyperLogLog monthly = new HyperLogLog();
+        LocalDateTime weekStart = date.minusDays(WEEK_DAYS - 1).atStartOfDay();
+        daySketches.forEach((dayStart, sketch) -> {
+            monthly.merge(sketch);
+            if (!dayStart.isBefore(weekStart)) {
+                weekly.merge(sketch);
+            }
+            if (dayStart.equals(date.atStartOfDay())) {
+                daily.merge(sketch);
+            }
+        });
+        
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("date", date);
+        summary.put("dailyActiveUsers", daily.cardinality());
+        summary.put("weeklyActiveUsers", weekly.cardinality());
+        summary.put("monthlyActiveUsers", monthly.cardinality());
+        
+        if (includeHours) {
+            Map<LocalDateTime, HyperLogLog> hourSketches = load(HOUR, date.atStartOfDay(), end, hours);
+            List<Long> hourly = new ArrayList<>(24);
+            for (int hour = 0; hour < 24; hour++) {
+                HyperLogLog sketch = hourSketches.get(date.atTime(hour, 0));
+                hourly.add(sketch != null ? sketch.cardinality() : 0L);
+            }
+            summary.put("hourlyActiveUsers", hourly);
+        }
+        return summary;
+    }
+    
+    /**
+     * Write changed sketches and drop finished periods from memory.
+     */
+    @Scheduled(fixedDelayString = "${app.active-users.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        persist(HOUR, hours, dirtyHours);
+        persist(DAY, days, dirtyDays);
+        
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime today = currentHour.toLocalDate().atStartOfDay();
+        // Keep the previous period briefly for requests that straddled the boundary
+        evict(hours, dirtyHours, currentHour.minusHours(1));
+        evict(days, dirtyDays, today.minusDays(1));
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.active-users.prune-interval-ms:21600000}")
+    public void pruneOldSketches() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            activitySketchRepository.deleteOlderThan(HOUR, now.minusDays(hourlyRetentionDays));
+            activitySketchRepository.deleteOlderThan(DAY, now.minusDays(dailyRetentionDays));
+        });
+    }
+    
+    /**
+     * Merge every node's persisted sketches per period, with this node's
+     * in-memory sketches taking the place of its own (older) rows.
+     */
+    private Map<LocalDateTime, HyperLogLog> load(String granularity, LocalDateTime from, LocalDateTime to,
+                                                 Map<LocalDateTime, HyperLogLog> local) {
+        Map<LocalDateTime, HyperLogLog> merged = new HashMap<>();
+        for (ActivitySketch row : activitySketchRepository.findPeriods(granularity, from, to)) {
+            if (nodeId.equals(row.getNodeId()) && local.containsKey(row.getPeriodStart())) {
+                continue;
+            }
+            merged.computeIfAbsent(row.getPeriodStart(), p -> new HyperLogLog())
+                    .merge(HyperLogLog.fromBytes(row.getSketch()));
+        }
+        local.forEach((period, sketch) -> {
+            if (!period.isBefore(from) && period.isBefore(to)) {
+                merged.computeIfAbsent(period, p -> new HyperLogLog()).merge(sketch);
+            }
+        });
+        return merged;
+    }
+    
+    private void persist(String granularity, Map<LocalDateTime, HyperLogLog> sketches, Set<LocalDateTime> dirty) {
+        for (LocalDateTime period : new ArrayList<>(dirty)) {
+            dirty.remove(period);
+            HyperLogLog sketch = sketches.get(period);
+            if (sketch == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    ActivitySketch row = activitySketchRepository
+                            .findByGranularityAndPeriodStartAndNodeId(granularity, period, nodeId)
+                            .orElseGet(() -> {
+                                ActivitySketch created = new ActivitySketch();
+                                created.setGranularity(granularity);
+                                created.setPeriodStart(period);
+                                created.setNodeId(nodeId);
+                                return created;
+                            });
+                    row.setSketch(sketch.toBytes());
+                    row.setUpdatedAt(LocalDateTime.now());
+                    activitySketchRepository.save(row);
+                });
+            } catch (RuntimeException e) {
+                dirty.add(period);
+                log.warn("Could not persist {} active user sketch for {}", granularity, period, e);
+            }
+        }
+    }
+    
+    private void evict(Map<LocalDateTime, HyperLogLog> sketches, Set<LocalDateTime> dirty, LocalDateTime keepFrom) {
+        sketches.keySet().removeIf(period -> period.isBefore(keepFrom) && !dirty.contains(period));
+    }
+    
+    static String defaultNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return UUID.randomUUID().toString();
+        }
+    }
+}
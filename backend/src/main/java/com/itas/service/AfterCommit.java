@@ -0,0 +1,29 @@
+package com.itas.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs in-memory side effects only once the surrounding transaction has committed,
+ * so a rollback never leaves caches or counters ahead of the database.
+ */
+final class AfterCommit {
+    
+    private AfterCommit() {}
+    
+    /**
+     * Run the action after commit, or immediately when no transaction is active.
+     */
+    static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
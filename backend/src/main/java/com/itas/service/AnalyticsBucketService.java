@@ -0,0 +1,379 @@
+package com.itas.service;
+
+import com.itas.model.Analytics;
+import com.itas.repository.AnalyticsRepository;
+import com.itas.repository.AssessmentRepository;
+import com.itas.repository.EnrollmentRepository;
+import com.itas.repository.HourlyCount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hourly and daily activity buckets materialized into the analytics table.
+ *
+ * Each day is one USER_ACTIVITY / DAILY row holding 24 hourly counts per
+ * metric plus day totals. Enrollments, completions and assessment passes are
+ * recounted from their timestamps; logins and downloads leave no per-event
+ * rows, so they are accumulated in memory and added to the bucket of the hour
+ * they happened in. Date-range queries merge these rows instead of scanning
+ * the raw tables. A rollup holds the bucket's row lock while it adds to it, so
+ * rollups on different nodes never overwrite each other's additions.
+ */
+@Service
+public class AnalyticsBucketService {
+    
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsBucketService.class);
+    
+    static final String ACTIVITY_TYPE = "USER_ACTIVITY";
+    static final String DAILY = "DAILY";
+    
+    public static final String ENROLLMENTS = "enrollments";
+    public static final String COMPLETIONS = "completions";
+    public static final String LOGINS = "logins";
+    public static final String DOWNLOADS = "downloads";
+    public static final String ASSESSMENT_PASSES = "assessmentPasses";
+    
+    public static final List<String> METRICS = List.of(ENROLLMENTS, COMPLETIONS, LOGINS, DOWNLOADS, ASSESSMENT_PASSES);
+    
+    private static final int HOURS_PER_DAY = 24;
+    private static final int MAX_HOURLY_DAYS = 31;
+    private static final int LOCK_STRIPES = 16;
+    private static final String DATA_SOURCE = "analytics-rollup";
+    
+    @Autowired
+    private AnalyticsRepository analyticsRepository;
+    
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+    
+    @Autowired
+    private AssessmentRepository assessmentRepository;
+    
+    @Value("${app.analytics.backfill-days:365}")
+    private int backfillDays;
+    
+    @Value("${app.analytics.backfill-threads:4}")
+    private int backfillThreads;
+    
+    // Days recounted on every run, today included, so rows committed late still land in their bucket
+    @Value("${app.analytics.recount-days:2}")
+    private int recountDays;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    // Keyed by the start of the hour the event happened in
+    private final ConcurrentHashMap<LocalDateTime, LongAdder> pendingLogins = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LocalDateTime, LongAdder> pendingDownloads = new ConcurrentHashMap<>();
+    
+    // Serialises materialization of the same day between the scheduled job and the backfill on this node
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    
+    private volatile LocalDate lastRollupDay;
+    
+    public AnalyticsBucketService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+    
+    public void recordLogin() {
+        pendingLogins.computeIfAbsent(currentHour(), h -> new LongAdder()).increment();
+    }
+    
+    public void recordDownloads(long downloads) {
+        if (downloads > 0) {
+            pendingDownloads.computeIfAbsent(currentHour(), h -> new LongAdder()).add(downloads);
+        }
+    }
+    
+    /**
+     * Recount the last app.analytics.recount-days buckets (and the last day
+     * rolled up, if the job was paused past it) and fold in the accumulated
+     * logins and downloads.
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.rollup-interval-ms:300000}")
+    public synchronized void rollupRecent() {
+        LocalDate today = LocalDate.now();
+        Map<LocalDate, long[][]> accumulated = drain();
+        
+        Set<LocalDate> days = new TreeSet<>(accumulated.keySet());
+        for (int i = 0; i < Math.max(1, recountDays); i++) {
+            days.add(today.minusDays(i));
+        }
+        if (lastRollupDay != null && lastRollupDay.isBefore(today)) {
+            days.add(lastRollupDay);
+        }
+        
+        for (LocalDate day : days) {
+            long[][] additions = accumulated.get(day);
+            try {
+                materialize(day, additions);
+            } catch (RuntimeException e) {
+                log.warn("Analytics rollup for {} failed, will retry", day, e);
+                if (additions != null) {
+                    restore(day, additions);
+                }
+            }
+        }
+        lastRollupDay = today;
+    }
+    
+    /**
+     * Materialize every past day that has activity but no bucket yet, up to
+     * app.analytics.backfill-days back, in parallel.
+     */
+    public void backfill() {
+        LocalDate today = LocalDate.now();
+        LocalDate to = today.minusDays(1);
+        LocalDate from = earliestActivity();
+        if (from == null) {
+            return;
+        }
+        if (from.isBefore(today.minusDays(backfillDays))) {
+            from = today.minusDays(backfillDays);
+        }
+        if (from.isAfter(to)) {
+            return;
+        }
+        
+        Set<LocalDate> existing = new HashSet<>(analyticsRepository.findPeriodStarts(ACTIVITY_TYPE, DAILY, from, to));
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            if (!existing.contains(day)) {
+                missing.add(day);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        
+        long started = System.currentTimeMillis();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, backfillThreads));
+        try {
+            CompletableFuture<?>[] tasks = missing.stream()
+                    .map(day -> CompletableFuture.runAsync(() -> materialize(day, null), executor)
+                            .exceptionally(e -> {
+                                failed.incrementAndGet();
+                                log.warn("Analytics backfill for {} failed", day, e);
+                                return null;
+                            }))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(tasks).join();
+        } finally {
+            executor.shutdown();
+        }
+        log.info("Analytics backfill: {} days ({} failed) in {} ms",
+                missing.size(), failed.get(), System.currentTimeMillis() - started);
+    }
+    
+    /**
+     * Totals and a day or hour series for the inclusive date range, merged from the buckets.
+     * Reflects activity up to the last rollup run.
+     */
+    public Map<String, Object> summarize(LocalDate startDate, LocalDate endDate, String granularity) {
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("endDate must not be before startDate");
+        }
+        boolean hourly = "hour".equalsIgnoreCase(granularity);
+        if (hourly && ChronoUnit.DAYS.between(startDate, endDate) >= MAX_HOURLY_DAYS) {
+            throw new RuntimeException("Hourly series is limited to " + MAX_HOURLY_DAYS + " days");
+        }
+        
+        List<Analytics> rows = analyticsRepository
+                .findByAnalyticsTypeAndPeriodTypeAndPeriodStartBetweenOrderByPeriodStart(
+                        ACTIVITY_TYPE, DAILY, startDate, endDate);
+        
+        Map<String, Long> totals = new LinkedHashMap<>();
+        METRICS.forEach(metric -> totals.put(metric, 0L));
+        List<Map<String, Object>> series = new ArrayList<>();
+        
+        for (Analytics row : rows) {
+            if (hourly) {
+                for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+                    Map<String, Object> point = new LinkedHashMap<>();
+                    point.put("time", row.getPeriodStart().atTime(hour, 0));
+                    for (String metric : METRICS) {
+                        point.put(metric, hourValue(row, metric, hour));
+                    }
+                    series.add(point);
+                }
+            } else {
+                Map<String, Object> point = new LinkedHashMap<>();
+                point.put("date", row.getPeriodStart());
+                for (String metric : METRICS) {
+                    point.put(metric, dayValue(row, metric));
+                }
+                series.add(point);
+            }
+            for (String metric : METRICS) {
+                totals.merge(metric, dayValue(row, metric), Long::sum);
+            }
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("startDate", startDate);
+        result.put("endDate", endDate);
+        result.put("granularity", hourly ? "hour" : "day");
+        result.put("totals", totals);
+        result.put("series", series);
+        return result;
+    }
+    
+    /**
+     * Recount one day's bucket. Additions are [logins, downloads] by hour and are
+     * added on top of what the bucket already holds.
+     */
+    void materialize(LocalDate day, long[][] additions) {
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = day.plusDays(1).atStartOfDay();
+        
+        synchronized (locks[Math.floorMod(day.hashCode(), LOCK_STRIPES)]) {
+            transactionTemplate.executeWithoutResult(status -> {
+                analyticsRepository.insertBucket(ACTIVITY_TYPE, DAILY, day, DATA_SOURCE);
+                Analytics row = analyticsRepository.findBucketForUpdate(ACTIVITY_TYPE, DAILY, day)
+                        .orElseThrow(() -> new RuntimeException("Analytics bucket for " + day + " not found"));
+                
+                Map<String, List<Number>> metrics = new HashMap<>();
+                if (row.getMetrics() != null) {
+                    metrics.putAll(row.getMetrics());
+                }
+                metrics.put(ENROLLMENTS, toList(hourly(enrollmentRepository.countEnrollmentsByHour(from, to))));
+                metrics.put(COMPLETIONS, toList(hourly(enrollmentRepository.countCompletionsByHour(from, to))));
+                metrics.put(ASSESSMENT_PASSES, toList(hourly(assessmentRepository.countPassesByHour(from, to))));
+                metrics.put(LOGINS, toList(add(metrics.get(LOGINS), additions == null ? null : additions[0])));
+                metrics.put(DOWNLOADS, toList(add(metrics.get(DOWNLOADS), additions == null ? null : additions[1])));
+                
+                Map<String, Number> aggregates = new HashMap<>();
+                for (String metric : METRICS) {
+                    long total = 0;
+                    for (Number value : metrics.get(metric)) {
+                        total += value.longValue();
+                    }
+                    aggregates.put(metric, total);
+                }
+                
+                row.setMetrics(metrics);
+                row.setAggregates(aggregates);
+                row.setUpdatedAt(LocalDateTime.now());
+                analyticsRepository.save(row);
+            });
+        }
+    }
+    
+    private LocalDate earliestActivity() {
+        LocalDateTime enrolled = enrollmentRepository.findEarliestEnrolledAt();
+        LocalDateTime assessed = assessmentRepository.findEarliestCompletedAt();
+        LocalDateTime earliest = enrolled == null ? assessed
+                : assessed == null ? enrolled
+                : enrolled.isBefore(assessed) ? enrolled : assessed;
+        return earliest == null ? null : earliest.toLocalDate();
+    }
+    
+    private Map<LocalDate, long[][]> drain() {
+        Map<LocalDate, long[][]> byDay = new TreeMap<>();
+        drainInto(pendingLogins, byDay, 0);
+        drainInto(pendingDownloads, byDay, 1);
+        return byDay;
+    }
+    
+    private void drainInto(ConcurrentHashMap<LocalDateTime, LongAdder> pending, Map<LocalDate, long[][]> byDay, int slot) {
+        for (Map.Entry<LocalDateTime, LongAdder> entry : pending.entrySet()) {
+            LocalDateTime hour = entry.getKey();
+            long count = entry.getValue().sumThenReset();
+            // Past hours receive no more events, so their adders can go
+            if (hour.isBefore(currentHour())) {
+                pending.remove(hour, entry.getValue());
+                count += entry.getValue().sumThenReset();
+            }
+            if (count != 0) {
+                byDay.computeIfAbsent(hour.toLocalDate(), d -> new long[2][HOURS_PER_DAY])[slot][hour.getHour()] += count;
+            }
+        }
+    }
+    
+    private void restore(LocalDate day, long[][] additions) {
+        for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+            LocalDateTime key = day.atTime(hour, 0);
+            if (additions[0][hour] != 0) {
+                pendingLogins.computeIfAbsent(key, h -> new LongAdder()).add(additions[0][hour]);
+            }
+            if (additions[1][hour] != 0) {
+                pendingDownloads.computeIfAbsent(key, h -> new LongAdder()).add(additions[1][hour]);
+            }
+        }
+    }
+    
+    static long[] hourly(List<HourlyCount> counts) {
+        long[] hours = new long[HOURS_PER_DAY];
+        for (HourlyCount count : counts) {
+            if (count.getHour() != null && count.getTotal() != null) {
+                hours[count.getHour()] += count.getTotal();
+            }
+        }
+        return hours;
+    }
+    
+    private static long[] add(List<Number> existing, long[] additions) {
+        long[] hours = new long[HOURS_PER_DAY];
+        if (existing != null) {
+            for (int hour = 0; hour < Math.min(existing.size(), HOURS_PER_DAY); hour++) {
+                hours[hour] = existing.get(hour).longValue();
+            }
+        }
+        if (additions != null) {
+            for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+                hours[hour] += additions[hour];
+            }
+        }
+        return hours;
+    }
+    
+    private static List<Number> toList(long[] hours) {
+        List<Number> list = new ArrayList<>(hours.length);
+        for (long value : hours) {
+            list.add(value);
+        }
+        return list;
+    }
+    
+    private static long dayValue(Analytics row, String metric) {
+        Number total = row.getAggregates() == null ? null : row.getAggregates().get(metric);
+        return total == null ? 0L : total.longValue();
+    }
+    
+    private static long hourValue(Analytics row, String metric, int hour) {
+        List<Number> hours = row.getMetrics() == null ? null : row.getMetrics().get(metric);
+        return hours == null || hour >= hours.size() ? 0L : hours.get(hour).longValue();
+    }
+    
+    private static LocalDateTime currentHour() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+    }
+}
@@ -1,24 +1,32 @@
 package com.itas.service;
 
 import com.itas.model.Course;
-import com.itas.model.Enrollment;
-import com.itas.model.Resource;
 import com.itas.model.User;
 import com.itas.repository.CourseRepository;
 import com.itas.repository.EnrollmentRepository;
 import com.itas.repository.ResourceRepository;
 import com.itas.repository.UserRepository;
+import com.itas.snapshot.EnrollmentSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 @Service
 public class AnalyticsService {
     
+    private static final int TOP_COURSES = 5;
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -31,80 +39,144 @@ public class AnalyticsService {
     @Autowired
     private ResourceRepository resourceRepository;
     
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+    
+    @Autowired
+    private ActiveUserService activeUserService;
+    
+    @Autowired
+    private EnrollmentSnapshotService enrollmentSnapshotService;
+    
+    @Autowired
+    private DashboardSectionExecutor dashboardSectionExecutor;
+    
+    /**
+     * Dashboard totals, computed as independent sections in parallel. Each
+     * section is served from the event-driven rollups once they are warm,
+     * otherwise from aggregate queries; DAU/WAU/MAU come from the activity sketches.
+     */
     public Map<String, Object> getDashboardData() {
-        Map<String, Object> data = new HashMap<>();
-        
-        // User statistics
-        List<User> allUsers = userRepository.findAll();
-        data.put("totalUsers", allUsers.size());
-        data.put("activeUsers", allUsers.stream().filter(User::isActive).count());
-        data.put("newUsers", allUsers.size()); // In real app, filter by date
-        
-        // Course statistics
-        List<Enrollment> allEnrollments = enrollmentRepository.findAll();
-        data.put("courseEnrollments", allEnrollments.size());
+        boolean warm = dashboardRollupService.isWarm();
+        
+        Map<String, Supplier<Map<String, Object>>> sections = new LinkedHashMap<>();
+        sections.put("users", () -> {
+            if (warm) {
+                DashboardRollupService.Totals totals = dashboardRollupService.snapshot(0);
+                return usersSection(totals.getTotalUsers(), totals.getActiveUsers());
+            }
+            UserRepository.UserTotals users = userRepository.aggregateTotals();
+            return usersSection(users.getTotal(), users.getActive());
+        });
+        sections.put("enrollments", () -> {
+            if (warm) {
+                DashboardRollupService.Totals totals = dashboardRollupService.snapshot(0);
+                return enrollmentsSection(totals.getEnrollments(), totals.getCompletions(), totals.getAvgProgress());
+            }
+            return enrollmentsSection(enrollmentRepository.aggregateTotals());
+        });
+        sections.put("resources", () -> warm
+                ? resourcesSection(dashboardRollupService.snapshot(0).getDownloads())
+                : resourcesSection(resourceRepository.sumDownloadCount()));
+        sections.put("topCourses", () -> topCoursesSection(warm
+                ? getTopCoursesFromRollups()
+                : getTopCourses(TOP_COURSES)));
+        sections.put("activeUsers", () -> activeUserService.getActiveUserCounts());
+        
+        return dashboardSectionExecutor.compute(sections);
+    }
+    
+    /**
+     * Dashboard totals computed with aggregate queries: a fixed number of
+     * statements regardless of how many users, enrollments or resources exist.
+     */
+    public Map<String, Object> getDashboardDataFromDatabase() {
+        UserRepository.UserTotals users = userRepository.aggregateTotals();
         
-        long completions = allEnrollments.stream()
-                .filter(e -> "COMPLETED".equals(e.getStatus()))
-                .count();
+        Map<String, Object> data = new HashMap<>();
+        data.putAll(usersSection(users.getTotal(), users.getActive()));
+        data.putAll(enrollmentsSection(enrollmentRepository.aggregateTotals()));
+        data.putAll(resourcesSection(resourceRepository.sumDownloadCount()));
+        data.putAll(topCoursesSection(getTopCourses(TOP_COURSES)));
+        return data;
+    }
+    
+    /**
+     * Courses with the most enrollments, from one grouped query.
+     */
+    public List<Map<String, Object>> getTopCourses(int limit) {
+        List<Map<String, Object>> topCourses = new ArrayList<>();
+        for (EnrollmentRepository.CourseEnrollmentTotals course
+                : enrollmentRepository.findTopCoursesByEnrollments(PageRequest.of(0, limit))) {
+            topCourses.add(courseData(course.getCourseId(), course.getTitle(),
+                    course.getEnrollments(), course.getCompletions()));
+        }
+        return topCourses;
+    }
+    
+    private List<Map<String, Object>> getTopCoursesFromRollups() {
+        List<Map<String, Object>> topCourses = new ArrayList<>();
+        for (DashboardRollupService.CourseTotals course : dashboardRollupService.snapshot(TOP_COURSES).getTopCourses()) {
+            topCourses.add(courseData(course.getCourseId(), course.getTitle(),
+                    course.getEnrollments(), course.getCompletions()));
+        }
+        return topCourses;
+    }
+    
+    private Map<String, Object> usersSection(long totalUsers, long activeUsers) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("totalUsers", totalUsers);
+        data.put("activeUsers", activeUsers);
+        data.put("newUsers", totalUsers); // In real app, filter by date
+        return data;
+    }
+    
+    private Map<String, Object> enrollmentsSection(EnrollmentRepository.EnrollmentTotals enrollments) {
+        return enrollmentsSection(enrollments.getTotal(), enrollments.getCompleted(),
+                enrollments.getAvgProgress() != null ? enrollments.getAvgProgress() : 0.0);
+    }
+    
+    private Map<String, Object> enrollmentsSection(long totalEnrollments, long completions, double avgProgress) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("courseEnrollments", totalEnrollments);
         data.put("courseCompletions", completions);
         
         // Completion rate
-        double completionRate = allEnrollments.isEmpty() ? 0 : 
-                (completions * 100.0) / allEnrollments.size();
+        double completionRate = totalEnrollments == 0 ? 0 : (completions * 100.0) / totalEnrollments;
         data.put("completionRate", Math.round(completionRate * 100.0) / 100.0);
         
         // Average progress
-        double avgProgress = allEnrollments.stream()
-                .mapToDouble(Enrollment::getProgress)
-                .average()
-                .orElse(0.0);
         data.put("avgProgress", Math.round(avgProgress * 100.0) / 100.0);
-        
-        // Resource statistics
-        List<Resource> allResources = resourceRepository.findAll();
-        int totalDownloads = allResources.stream()
-                .mapToInt(Resource::getDownloads)
-                .sum();
-        data.put("resourceDownloads", totalDownloads);
-        
-        // Top courses
-        List<Course> allCourses = courseRepository.findAll();
-        List<Map<String, Object>> topCourses = allCourses.stream()
-                .map(course -> {
-                    Map<String, Object> courseData = new HashMap<>();
-                    courseData.put("id", course.getId());
-                    courseData.put("title", course.getTitle());
-                    
-                    List<Enrollment> courseEnrollments = allEnrollments.stream()
-                            .filter(e -> e.getCourseId().equals(course.getId()))
-                            .toList();
-                    
-                    courseData.put("enrollments", courseEnrollments.size());
-                    
-                    long courseCompletions = courseEnrollments.stream()
-                            .filter(e -> "COMPLETED".equals(e.getStatus()))
-                            .count();
-                    courseData.put("completions", courseCompletions);
-                    
-                    double courseCompletionRate = courseEnrollments.isEmpty() ? 0 :
-                            (courseCompletions * 100.0) / courseEnrollments.size();
-                    courseData.put("completionRate", Math.round(courseCompletionRate * 100.0) / 100.0);
-                    
-                    return courseData;
-                })
-                .sorted((c1, c2) -> Integer.compare(
-                        (Integer) c2.get("enrollments"),
-                        (Integer) c1.get("enrollments")
-                ))
-                .limit(5)
-                .collect(Collectors.toList());
-        
+        return data;
+    }
+    
+    private Map<String, Object> resourcesSection(Long downloads) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("resourceDownloads", downloads != null ? downloads : 0L);
+        return data;
+    }
+    
+    private Map<String, Object> topCoursesSection(List<Map<String, Object>> topCourses) {
+        Map<String, Object> data = new HashMap<>();
         data.put("topCourses", topCourses);
-        
         return data;
     }
     
+    private Map<String, Object> courseData(Long id, String title, long enrollments, long completions) {
+        Map<String, Object> courseData = new HashMap<>();
+        courseData.put("id", id);
+        courseData.put("title", title);
+        courseData.put("enrollments", enrollments);
+        courseData.put("completions", completions);
+        
+        double courseCompletionRate = enrollments == 0 ? 0 : (completions * 100.0) / enrollments;
+        courseData.put("completionRate", Math.round(courseCompletionRate * 100.0) / 100.0);
+        return courseData;
+    }
+    
+    /**
+     * Enrollment totals for one user, from the in-memory enrollment snapshot.
+     */
     public Map<String, Object> getUserAnalytics(Long userId) {
         Map<String, Object> data = new HashMap<>();
         
@@ -114,23 +186,19 @@ public class AnalyticsService {
         data.put("userId", userId);
         data.put("userName", user.getFullName());
         
-        List<Enrollment> userEnrollments = enrollmentRepository.findByUserId(userId);
-        data.put("totalEnrollments", userEnrollments.size());
-        
-        long completed = userEnrollments.stream()
-                .filter(e -> "COMPLETED".equals(e.getStatus()))
-                .count();
-        data.put("completedCourses", completed);
-        
-        double avgProgress = userEnrollments.stream()
-                .mapToDouble(Enrollment::getProgress)
-                .average()
-                .orElse(0.0);
-        data.put("averageProgress", Math.round(avgProgress * 100.0) / 100.0);
+        EnrollmentSnapshot snapshot = enrollmentSnapshotService.current();
+        EnrollmentSnapshot.Stats stats = snapshot.user(userId);
+        data.put("totalEnrollments", stats.getEnrollments());
+        data.put("completedCourses", stats.getCompletions());
+        data.put("averageProgress", Math.round(stats.getAverageProgress() * 100.0) / 100.0);
+        data.put("asOf", asOf(snapshot));
         
         return data;
     }
     
+    /**
+     * Enrollment totals for one course, from the in-memory enrollment snapshot.
+     */
     public Map<String, Object> getCourseAnalytics(Long courseId) {
         Map<String, Object> data = new HashMap<>();
         
@@ -140,24 +208,46 @@ public class AnalyticsService {
         data.put("courseId", courseId);
         data.put("courseTitle", course.getTitle());
         
-        List<Enrollment> courseEnrollments = enrollmentRepository.findByCourseId(courseId);
-        data.put("totalEnrollments", courseEnrollments.size());
-        
-        long completed = courseEnrollments.stream()
-                .filter(e -> "COMPLETED".equals(e.getStatus()))
-                .count();
-        data.put("completions", completed);
+        EnrollmentSnapshot snapshot = enrollmentSnapshotService.current();
+        EnrollmentSnapshot.Stats stats = snapshot.course(courseId);
+        data.put("totalEnrollments", stats.getEnrollments());
+        data.put("completions", stats.getCompletions());
+        data.put("completionRate", Math.round(stats.getCompletionRate() * 100.0) / 100.0);
+        data.put("averageProgress", Math.round(stats.getAverageProgress() * 100.0) / 100.0);
+        data.put("asOf", asOf(snapshot));
         
-        double completionRate = courseEnrollments.isEmpty() ? 0 :
-                (completed * 100.0) / courseEnrollments.size();
-        data.put("completionRate", Math.round(completionRate * 100.0) / 100.0);
-        
-        double avgProgress = courseEnrollments.stream()
-                .mapToDouble(Enrollment::getProgress)
-                .average()
-                .orElse(0.0);
-        data.put("averageProgress", Math.round(avgProgress * 100.0) / 100.0);
+        return data;
+    }
+    
+    /**
+     * Enrollments made between the dates (inclusive) and completions dated in
+     * that range, for one course or all of them.
+     */
+    public Map<String, Object> getEnrollmentAnalytics(LocalDate startDate, LocalDate endDate, Long courseId) {
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("endDate must not be before startDate");
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        long from = startDate.atStartOfDay(zone).toInstant().toEpochMilli();
+        long to = endDate.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        
+        EnrollmentSnapshot snapshot = enrollmentSnapshotService.current();
+        EnrollmentSnapshot.Stats stats = snapshot.period(courseId, from, to);
         
+        Map<String, Object> data = new HashMap<>();
+        data.put("startDate", startDate);
+        data.put("endDate", endDate);
+        data.put("courseId", courseId);
+        data.put("enrollments", stats.getEnrollments());
+        data.put("completions", stats.getCompletions());
+        data.put("completionRate", Math.round(stats.getCompletionRate() * 100.0) / 100.0);
+        data.put("averageProgress", Math.round(stats.getAverageProgress() * 100.0) / 100.0);
+        data.put("completedInPeriod", stats.getCompletedInPeriod());
+        data.put("asOf", asOf(snapshot));
         return data;
     }
+    
+    private static LocalDateTime asOf(EnrollmentSnapshot snapshot) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(snapshot.getBuiltAt()), ZoneId.systemDefault());
+    }
 }
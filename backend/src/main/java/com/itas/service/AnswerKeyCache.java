@@ -0,0 +1,87 @@
+package com.itas.service;
+
+import com.itas.grading.CompiledAnswerKey;
+import com.itas.repository.QuestionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compiled answer keys per module, loaded with one query on first use.
+ *
+ * Question and answer writes through JPA invalidate the module's key (see
+ * {@link AnswerKeyListener}); the TTL only bounds staleness after changes made
+ * outside the application, such as SQL scripts.
+ */
+@Service
+public class AnswerKeyCache {
+    
+    @Autowired
+    private QuestionRepository questionRepository;
+    
+    @Value("${app.assessments.answer-key-ttl-ms:600000}")
+    private long ttlMs;
+    
+    private final ConcurrentHashMap<Long, Entry> keys = new ConcurrentHashMap<>();
+    
+    // Bumped by every invalidation so a key compiled from rows read before it is not cached
+    private final AtomicLong generation = new AtomicLong();
+    
+    public CompiledAnswerKey get(Long moduleId) {
+        long now = System.currentTimeMillis();
+        Entry entry = keys.get(moduleId);
+        if (entry != null && now - entry.loadedAt <= ttlMs) {
+            return entry.key;
+        }
+        
+        long seen = generation.get();
+        CompiledAnswerKey key = compile(moduleId);
+        if (generation.get() == seen) {
+            keys.put(moduleId, new Entry(key, now));
+        }
+        return key;
+    }
+    
+    public void invalidateModule(Long moduleId) {
+        if (moduleId != null) {
+            generation.incrementAndGet();
+            keys.remove(moduleId);
+        }
+    }
+    
+    /**
+     * Drop every cached key containing the question, for changes to its answers.
+     */
+    public void invalidateQuestion(Long questionId) {
+        if (questionId != null) {
+            generation.incrementAndGet();
+            keys.values().removeIf(entry -> entry.key.indexOf(questionId) >= 0);
+        }
+    }
+    
+    public void clear() {
+        generation.incrementAndGet();
+        keys.clear();
+    }
+    
+    private CompiledAnswerKey compile(Long moduleId) {
+        CompiledAnswerKey.Builder builder = new CompiledAnswerKey.Builder();
+        for (QuestionRepository.AnswerKeyRow row : questionRepository.findAnswerKeyByModuleId(moduleId)) {
+            builder.add(row.getQuestionId(), row.getPoints(), row.getCorrectAnswerId());
+        }
+        return builder.build();
+    }
+    
+    private static final class Entry {
+        private final CompiledAnswerKey key;
+        private final long loadedAt;
+        
+        private Entry(CompiledAnswerKey key, long loadedAt) {
+            this.key = key;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
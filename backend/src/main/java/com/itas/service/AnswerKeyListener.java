@@ -0,0 +1,45 @@
+package com.itas.service;
+
+import com.itas.model.Answer;
+import com.itas.model.Question;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on questions and answers that drops the affected compiled
+ * answer keys. The key is dropped right away and again after commit, so a
+ * key compiled from the old rows while the transaction was open is not kept.
+ */
+@Component
+public class AnswerKeyListener {
+    
+    // Provider so entity managers without the cache bean (slice tests) still start
+    @Autowired
+    private ObjectProvider<AnswerKeyCache> answerKeyCache;
+    
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        AnswerKeyCache cache = answerKeyCache.getIfAvailable();
+        if (cache == null) {
+            return;
+        }
+        
+        if (entity instanceof Question) {
+            Question question = (Question) entity;
+            Long moduleId = question.getModule() != null ? question.getModule().getId() : null;
+            cache.invalidateModule(moduleId);
+            AfterCommit.run(() -> cache.invalidateModule(moduleId));
+        } else if (entity instanceof Answer) {
+            Answer answer = (Answer) entity;
+            Long questionId = answer.getQuestion() != null ? answer.getQuestion().getId() : null;
+            cache.invalidateQuestion(questionId);
+            AfterCommit.run(() -> cache.invalidateQuestion(questionId));
+        }
+    }
+}
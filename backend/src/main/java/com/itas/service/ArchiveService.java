@@ -21,6 +21,15 @@ public class ArchiveService {
     @Autowired
     private ResourceRepository resourceRepository;
     
+    @Autowired
+    private BlobStorageService blobStorageService;
+    
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Autowired
+    private ResourceCounterService resourceCounterService;
+    
     public List<ArchivedResource> getAllArchivedResources() {
         return archivedResourceRepository.findAll();
     }
@@ -42,6 +51,13 @@ public class ArchiveService {
         archivedResource.setResourceType(resource.getResourceType());
         archivedResource.setCategory(resource.getCategory());
         archivedResource.setArchiveReason(reason);
+        
+        // The archive takes over the resource's file reference
+        archivedResource.setFilePath(resource.getFilePath());
+        archivedResource.setFileName(resource.getFileName());
+        archivedResource.setFileSize(resource.getFileSize());
+        archivedResource.setMimeType(resource.getMimeType());
+        archivedResource.setFileHash(resource.getFileHash());
         archivedResource.setArchivedBy(archivedBy);
         archivedResource.setArchivedAt(LocalDateTime.now());
         
@@ -49,6 +65,8 @@ public class ArchiveService {
         
         // Delete original resource
         resourceRepository.delete(resource);
+        searchIndexService.removeResource(resourceId);
+        resourceCounterService.forget(resourceId);
         
         return saved;
     }
@@ -62,11 +80,17 @@ public class ArchiveService {
         resource.setDescription(archivedResource.getDescription());
         resource.setResourceType(archivedResource.getResourceType());
         resource.setCategory(archivedResource.getCategory());
+        resource.setFilePath(archivedResource.getFilePath());
+        resource.setFileName(archivedResource.getFileName());
+        resource.setFileSize(archivedResource.getFileSize());
+        resource.setMimeType(archivedResource.getMimeType());
+        resource.setFileHash(archivedResource.getFileHash());
         resource.setUploadedAt(LocalDateTime.now());
         resource.setViewCount(0);
         resource.setDownloadCount(0);
         
         Resource restored = resourceRepository.save(resource);
+        searchIndexService.indexResource(restored);
         
         // Delete archived record
         archivedResourceRepository.delete(archivedResource);
@@ -78,5 +102,8 @@ public class ArchiveService {
     public void deleteArchivedResource(Long id) {
         ArchivedResource archivedResource = getArchivedResourceById(id);
         archivedResourceRepository.delete(archivedResource);
+        
+        // Last reference may be gone now
+        blobStorageService.releaseFile(archivedResource.getFileHash(), archivedResource.getFilePath());
     }
 }
@@ -0,0 +1,429 @@
+package com.itas.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Autosaved answers of assessments in progress.
+ *
+ * Autosaves land in a bounded in-memory store keyed by assessment id. Each
+ * save only marks the questions whose answer changed, so repeated clicks on
+ * the same question coalesce into one pending row. Pending rows are upserted
+ * in one batch per flush interval. When the store is full, the least recently
+ * saved attempts are flushed and dropped; they are reloaded from the table on
+ * their next save. A null answer clears the question and deletes its row.
+ * Rows of failed flushes wait in a bounded retry queue and are overlaid on
+ * every read of the table, so a reload or a submission never misses them.
+ * Submitting merges the draft under the submitted answers and the draft rows
+ * are deleted in the next flush; rows of attempts abandoned for longer than
+ * the retention are deleted by a periodic cleanup.
+ */
+@Service
+public class AssessmentDraftService {
+
+    private static final Logger log = LoggerFactory.getLogger(AssessmentDraftService.class);
+
+    // Never writes into a submitted attempt; an older row never overwrites a newer one
+    private static final String UPSERT_SQL =
+            "INSERT INTO assessment_draft_answers (assessment_id, question_id, answer_id, updated_at) "
+            + "SELECT ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM assessments a WHERE a.id = ? AND a.completed_at IS NULL) "
+            + "ON CONFLICT (assessment_id, question_id) DO UPDATE "
+            + "SET answer_id = EXCLUDED.answer_id, updated_at = EXCLUDED.updated_at "
+            + "WHERE assessment_draft_answers.updated_at <= EXCLUDED.updated_at";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM assessment_draft_answers WHERE assessment_id = ?";
+
+    // A cleared answer; like the upsert, never removes a row saved after it
+    private static final String CLEAR_SQL =
+            "DELETE FROM assessment_draft_answers WHERE assessment_id = ? AND question_id = ? AND updated_at <= ?";
+
+    // Drafts of submitted attempts whose delete was lost, and of attempts nobody came back to
+    private static final String CLEANUP_SQL =
+            "DELETE FROM assessment_draft_answers WHERE assessment_id IN ("
+            + "SELECT d.assessment_id FROM assessment_draft_answers d LEFT JOIN assessments a ON a.id = d.assessment_id "
+            + "GROUP BY d.assessment_id HAVING MAX(a.completed_at) IS NOT NULL OR MAX(d.updated_at) < ?)";
+
+    private static final String LOAD_ATTEMPT_SQL =
+            "SELECT a.completed_at, u.username FROM assessments a JOIN users u ON u.id = a.user_id WHERE a.id = ?";
+
+    private static final String LOAD_ANSWERS_SQL =
+            "SELECT question_id, answer_id FROM assessment_draft_answers WHERE assessment_id = ?";
+
+    @Value("${app.assessments.drafts.max-sessions:10000}")
+    private int maxSessions;
+
+    @Value("${app.assessments.drafts.max-answers:500}")
+    private int maxAnswers;
+
+    @Value("${app.assessments.drafts.idle-ms:1800000}")
+    private long idleMs;
+
+    @Value("${app.assessments.drafts.max-pending-rows:100000}")
+    private int maxPendingRows;
+
+    @Value("${app.assessments.drafts.retention-hours:168}")
+    private long retentionHours;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<Long, Draft> drafts = new ConcurrentHashMap<>();
+    // Rows of evicted drafts and of failed flushes, written before the live drafts
+    private final ConcurrentLinkedQueue<Object[]> pendingRows = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingRowCount = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Long> pendingDeletes = new ConcurrentLinkedQueue<>();
+
+    private final Counter saves;
+    private final Counter flushedRows;
+    private final Counter evictions;
+    private final Counter droppedRows;
+
+    public AssessmentDraftService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        this.saves = Counter.builder("itas.assessments.drafts.saves")
+                .description("Autosaves received")
+                .register(meterRegistry);
+        this.flushedRows = Counter.builder("itas.assessments.drafts.flushed.rows")
+                .description("Draft answer rows written by flushes")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("itas.assessments.drafts.evictions")
+                .description("Drafts dropped from memory because the store was full")
+                .register(meterRegistry);
+        this.droppedRows = Counter.builder("itas.assessments.drafts.dropped.rows")
+                .description("Unwritten draft rows dropped because the retry queue was full")
+                .register(meterRegistry);
+        Gauge.builder("itas.assessments.drafts.buffered", drafts, Map::size)
+                .description("Attempts with a draft held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buffer the changed answers of an attempt. A null answer clears the question.
+     */
+    public Map<String, Object> save(Long assessmentId, Map<Long, Long> answers, String username) {
+        while (true) {
+            Draft draft = draft(assessmentId, username);
+            synchronized (draft) {
+                if (draft.closed) {
+                    // Evicted or submitted while we were loading it
+                    continue;
+                }
+                for (Map.Entry<Long, Long> answer : answers.entrySet()) {
+                    Long questionId = answer.getKey();
+                    if (answer.getValue() == null) {
+                        if (draft.answers.remove(questionId) != null) {
+                            draft.dirty.put(questionId, null);
+                        }
+                        continue;
+                    }
+                    if (!draft.answers.containsKey(questionId) && draft.answers.size() >= maxAnswers) {
+                        throw new RuntimeException("Too many answers in draft (max " + maxAnswers + ")");
+                    }
+                    if (!answer.getValue().equals(draft.answers.put(questionId, answer.getValue()))) {
+                        draft.dirty.put(questionId, answer.getValue());
+                    }
+                }
+                draft.touchedAt = System.currentTimeMillis();
+                saves.increment();
+
+                Map<String, Object> data = new HashMap<>();
+                data.put("answered", draft.answers.size());
+                data.put("pending", draft.dirty.size());
+                return data;
+            }
+        }
+    }
+
+    /**
+     * The attempt's draft, for resuming after a reconnect.
+     */
+    public Map<Long, Long> getDraft(Long assessmentId, String username) {
+        while (true) {
+            Draft draft = draft(assessmentId, username);
+            synchronized (draft) {
+                if (!draft.closed) {
+                    return new HashMap<>(draft.answers);
+                }
+            }
+        }
+    }
+
+    /**
+     * Buffered or persisted draft answers of an attempt, for merging into its
+     * submission. Rows of failed flushes are included.
+     */
+    public Map<Long, Long> getAnswers(Long assessmentId) {
+        Draft draft = drafts.get(assessmentId);
+        if (draft != null) {
+            synchronized (draft) {
+                if (!draft.closed) {
+                    return new HashMap<>(draft.answers);
+                }
+            }
+        }
+        // Evicted drafts were flushed before being dropped
+        return loadAnswers(assessmentId);
+    }
+
+    /**
+     * Drop the draft of a submitted attempt. Its rows are deleted in the next flush.
+     */
+    public void discard(Long assessmentId) {
+        // The upsert would refuse them now the attempt is submitted
+        for (Iterator<Object[]> it = pendingRows.iterator(); it.hasNext(); ) {
+            if (assessmentId.equals(it.next()[0])) {
+                it.remove();
+                pendingRowCount.decrementAndGet();
+            }
+        }
+        Draft draft = drafts.remove(assessmentId);
+        if (draft != null) {
+            synchronized (draft) {
+                draft.closed = true;
+                draft.dirty.clear();
+                if (!draft.persisted) {
+                    return;
+                }
+            }
+        }
+        pendingDeletes.add(assessmentId);
+    }
+
+    /**
+     * Write pending answers as one upsert batch, delete drafts of submitted
+     * attempts, and drop drafts idle for longer than the idle timeout.
+     */
+    @Scheduled(fixedDelayString = "${app.assessments.drafts.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<Object[]> rows = new ArrayList<>();
+        Object[] row;
+        while ((row = pendingRows.poll()) != null) {
+            pendingRowCount.decrementAndGet();
+            rows.add(row);
+        }
+        for (Draft draft : drafts.values()) {
+            drain(draft, rows);
+        }
+        write(rows);
+
+        List<Object[]> deletes = new ArrayList<>();
+        Long assessmentId;
+        while ((assessmentId = pendingDeletes.poll()) != null) {
+            deletes.add(new Object[] { assessmentId });
+        }
+        if (!deletes.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+            } catch (RuntimeException e) {
+                log.warn("Draft cleanup failed, {} drafts will be retried", deletes.size(), e);
+                deletes.forEach(delete -> pendingDeletes.add((Long) delete[0]));
+            }
+        }
+
+        long idleBefore = System.currentTimeMillis() - idleMs;
+        for (Draft draft : drafts.values()) {
+            synchronized (draft) {
+                if (draft.dirty.isEmpty() && draft.touchedAt < idleBefore) {
+                    draft.closed = true;
+                    drafts.remove(draft.assessmentId, draft);
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete draft rows of submitted attempts and of attempts untouched for
+     * app.assessments.drafts.retention-hours.
+     */
+    @Scheduled(fixedDelayString = "${app.assessments.drafts.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        try {
+            int deleted = jdbcTemplate.update(CLEANUP_SQL,
+                    Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours)));
+            if (deleted > 0) {
+                log.info("Deleted {} draft answers of submitted or abandoned attempts", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Draft cleanup failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private Draft draft(Long assessmentId, String username) {
+        Draft draft = drafts.get(assessmentId);
+        if (draft == null) {
+            if (drafts.size() >= maxSessions) {
+                evictOldest();
+            }
+            Draft loaded = load(assessmentId);
+            draft = drafts.putIfAbsent(assessmentId, loaded);
+            if (draft == null) {
+                draft = loaded;
+            }
+        }
+        if (!draft.username.equals(username)) {
+            throw new RuntimeException("Assessment not found");
+        }
+        return draft;
+    }
+
+    private Draft load(Long assessmentId) {
+        List<Map<String, Object>> attempt = jdbcTemplate.queryForList(LOAD_ATTEMPT_SQL, assessmentId);
+        if (attempt.isEmpty()) {
+            throw new RuntimeException("Assessment not found");
+        }
+        if (attempt.get(0).get("completed_at") != null) {
+            throw new RuntimeException("Assessment already submitted");
+        }
+
+        Draft draft = new Draft(assessmentId, (String) attempt.get(0).get("username"));
+        draft.answers.putAll(loadAnswers(assessmentId));
+        draft.persisted = !draft.answers.isEmpty();
+        return draft;
+    }
+
+    private Map<Long, Long> loadAnswers(Long assessmentId) {
+        Map<Long, Long> answers = new HashMap<>();
+        jdbcTemplate.query(LOAD_ANSWERS_SQL, rs -> {
+            answers.put(rs.getLong("question_id"), rs.getLong("answer_id"));
+        }, assessmentId);
+        // Rows still waiting to be retried are newer than the table, oldest first
+        for (Object[] row : pendingRows) {
+            if (assessmentId.equals(row[0])) {
+                if (row[2] == null) {
+                    answers.remove((Long) row[1]);
+                } else {
+                    answers.put((Long) row[1], (Long) row[2]);
+                }
+            }
+        }
+        return answers;
+    }
+
+    /**
+     * Flush and drop the least recently saved drafts, a hundredth of the store at a time.
+     */
+    private synchronized void evictOldest() {
+        if (drafts.size() < maxSessions) {
+            return;
+        }
+        // Ages are copied first; sorting live drafts could see them change mid-sort
+        List<long[]> ages = new ArrayList<>(drafts.size());
+        drafts.forEach((id, draft) -> ages.add(new long[] { draft.touchedAt, id }));
+        ages.sort(Comparator.comparingLong(age -> age[0]));
+
+        List<Object[]> rows = new ArrayList<>();
+        int count = Math.min(ages.size(), Math.max(1, maxSessions / 100));
+        for (int i = 0; i < count; i++) {
+            Draft draft = drafts.get(ages.get(i)[1]);
+            if (draft == null) {
+                continue;
+            }
+            synchronized (draft) {
+                drain(draft, rows);
+                draft.closed = true;
+                drafts.remove(draft.assessmentId, draft);
+            }
+        }
+        evictions.increment(count);
+        write(rows);
+    }
+
+    private void drain(Draft draft, List<Object[]> rows) {
+        synchronized (draft) {
+            if (draft.dirty.isEmpty()) {
+                return;
+            }
+            Timestamp savedAt = new Timestamp(draft.touchedAt);
+            draft.dirty.forEach((questionId, answerId) ->
+                    rows.add(new Object[] { draft.assessmentId, questionId, answerId, savedAt, draft.assessmentId }));
+            draft.dirty.clear();
+            draft.persisted = true;
+        }
+    }
+
+    private void write(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Object[]> upserts = new ArrayList<>(rows.size());
+        List<Object[]> clears = new ArrayList<>();
+        for (Object[] row : rows) {
+            if (row[2] != null) {
+                upserts.add(row);
+            } else {
+                clears.add(new Object[] { row[0], row[1], row[3] });
+            }
+        }
+        try {
+            if (!upserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, upserts);
+            }
+            if (!clears.isEmpty()) {
+                jdbcTemplate.batchUpdate(CLEAR_SQL, clears);
+            }
+            flushedRows.increment(rows.size());
+        } catch (RuntimeException e) {
+            log.warn("Draft flush failed, {} rows will be retried", rows.size(), e);
+            retry(rows);
+        }
+    }
+
+    /**
+     * Queue rows for the next flush, dropping the oldest once the queue is full.
+     */
+    private void retry(List<Object[]> rows) {
+        pendingRows.addAll(rows);
+        pendingRowCount.addAndGet(rows.size());
+        int dropped = 0;
+        while (pendingRowCount.get() > maxPendingRows && pendingRows.poll() != null) {
+            pendingRowCount.decrementAndGet();
+            dropped++;
+        }
+        if (dropped > 0) {
+            droppedRows.increment(dropped);
+            log.error("Draft retry queue full, dropped the {} oldest unwritten rows", dropped);
+        }
+    }
+
+    private static final class Draft {
+        private final Long assessmentId;
+        private final String username;
+        private final Map<Long, Long> answers = new HashMap<>();
+        // Answers changed since the last flush, one entry per question; null when cleared
+        private final Map<Long, Long> dirty = new HashMap<>();
+        private volatile long touchedAt = System.currentTimeMillis();
+        private boolean persisted;
+        private boolean closed;
+
+        private Draft(Long assessmentId, String username) {
+            this.assessmentId = assessmentId;
+            this.username = username;
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package com.itas.service;
 
+import com.itas.grading.CompiledAnswerKey;
 import com.itas.model.*;
 import com.itas.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,6 +17,10 @@ import java.util.Map;
 @Service
 public class AssessmentService {
     
+    private static final String INSERT_ANSWERS_SQL =
+            "INSERT INTO assessment_answers (assessment_id, question_id, answer_id, correct, points_awarded) "
+            + "VALUES (?, ?, ?, ?, ?)";
+    
     @Autowired
     private AssessmentRepository assessmentRepository;
     
@@ -24,7 +31,10 @@ public class AssessmentService {
     private QuestionRepository questionRepository;
     
     @Autowired
-    private AnswerRepository answerRepository;
+    private AnswerKeyCache answerKeyCache;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
     
     @Autowired
     private UserRepository userRepository;
@@ -32,6 +42,18 @@ public class AssessmentService {
     @Autowired
     private ModuleProgressRepository moduleProgressRepository;
     
+    @Autowired
+    private AttemptCounterRepository attemptCounterRepository;
+    
+    @Autowired
+    private AssessmentDraftService assessmentDraftService;
+    
+    @Autowired
+    private LearningFunnelService learningFunnelService;
+    
+    @Autowired
+    private ScoreDistributionService scoreDistributionService;
+    
     /**
      * Start a new assessment attempt
      * UC-LMS-002: Complete Learning Module
@@ -49,20 +71,27 @@ public class AssessmentService {
             throw new RuntimeException("Module is locked. Complete previous modules first.");
         }
         
-        // Check attempt count
-        Integer attemptCount = assessmentRepository.countAttemptsByUserAndModule(user, module);
-        if (attemptCount >= module.getMaxAttempts()) {
-            throw new RuntimeException("Maximum attempts (" + module.getMaxAttempts() + ") reached");
+        // Claim an attempt with one conditional UPDATE; concurrent starts queue on the counter row
+        int maxAttempts = module.getMaxAttempts();
+        if (attemptCounterRepository.claimAttempt(userId, moduleId, maxAttempts) == 0) {
+            // First start on this module, or the limit is reached
+            attemptCounterRepository.createIfAbsent(userId, moduleId);
+            if (attemptCounterRepository.claimAttempt(userId, moduleId, maxAttempts) == 0) {
+                throw new RuntimeException("Maximum attempts (" + maxAttempts + ") reached");
+            }
         }
+        int attemptNumber = attemptCounterRepository.findAttempts(userId, moduleId);
         
         // Create new assessment
         Assessment assessment = new Assessment();
         assessment.setUser(user);
         assessment.setModule(module);
-        assessment.setAttemptNumber(attemptCount + 1);
+        assessment.setAttemptNumber(attemptNumber);
         assessment.setStartedAt(LocalDateTime.now());
         
-        return assessmentRepository.save(assessment);
+        Assessment saved = assessmentRepository.save(assessment);
+        learningFunnelService.moduleStarted(module.getCourse().getId(), userId);
+        return saved;
     }
     
     /**
@@ -71,39 +100,60 @@ public class AssessmentService {
      */
     @Transactional
     public Map<String, Object> submitAssessment(Long assessmentId, Map<Long, Long> answers) {
-        Assessment assessment = assessmentRepository.findById(assessmentId)
+        return submit(assessmentId, answers, false);
+    }
+    
+    /**
+     * Grade an attempt pre-provisioned by an exam session, once its seat has been claimed.
+     */
+    @Transactional
+    public Map<String, Object> submitExamAssessment(Long assessmentId, Map<Long, Long> answers) {
+        return submit(assessmentId, answers, true);
+    }
+    
+    private Map<String, Object> submit(Long assessmentId, Map<Long, Long> answers, boolean examSession) {
+        // A concurrent submission of the same attempt waits here and then sees completedAt
+        Assessment assessment = assessmentRepository.findByIdForUpdate(assessmentId)
                 .orElseThrow(() -> new RuntimeException("Assessment not found"));
         
         if (assessment.getCompletedAt() != null) {
             throw new RuntimeException("Assessment already submitted");
         }
+        if (!examSession && assessment.getExamSessionId() != null) {
+            throw new RuntimeException("Exam session attempts are submitted through the exam session");
+        }
         
-        com.itas.model.Module module = assessment.getModule();
-        List<Question> questions = questionRepository.findByModuleOrderByOrderAsc(module);
+        // Autosaved answers fill in the questions the submission leaves out
+        Map<Long, Long> draft = assessmentDraftService.getAnswers(assessmentId);
+        boolean hasDraft = !draft.isEmpty();
+        if (hasDraft) {
+            draft.putAll(answers);
+            answers = draft;
+        }
         
-        int totalPoints = 0;
-        int earnedPoints = 0;
-        Map<Long, Boolean> results = new HashMap<>();
+        com.itas.model.Module module = assessment.getModule();
         
-        // Calculate score
-        for (Question question : questions) {
-            totalPoints += question.getPoints();
-            
-            Long userAnswerId = answers.get(question.getId());
-            if (userAnswerId != null) {
-                Answer answer = answerRepository.findById(userAnswerId)
-                        .orElse(null);
-                
-                if (answer != null && answer.getIsCorrect()) {
-                    earnedPoints += question.getPoints();
-                    results.put(question.getId(), true);
-                } else {
-                    results.put(question.getId(), false);
-                }
-            } else {
-                results.put(question.getId(), false);
+        // Compiled key is cached per module; grading is a primitive loop over question indexes
+        CompiledAnswerKey key = answerKeyCache.get(module.getId());
+        long[] selection = key.newSelection();
+        for (Map.Entry<Long, Long> answer : answers.entrySet()) {
+            int index = answer.getKey() != null ? key.indexOf(answer.getKey()) : -1;
+            if (index >= 0 && answer.getValue() != null) {
+                selection[index] = answer.getValue();
             }
         }
+        boolean[] correct = new boolean[key.size()];
+        int earnedPoints = key.grade(selection, correct);
+        int totalPoints = key.totalPoints();
+        
+        Map<Long, Boolean> results = new HashMap<>();
+        List<Object[]> answerRows = new ArrayList<>(key.size());
+        for (int i = 0; i < key.size(); i++) {
+            Long answerId = selection[i] != CompiledAnswerKey.NO_ANSWER ? selection[i] : null;
+            results.put(key.questionId(i), correct[i]);
+            answerRows.add(new Object[] { assessment.getId(), key.questionId(i), answerId, correct[i],
+                    correct[i] ? key.points(i) : 0 });
+        }
         
         // Calculate percentage
         double percentage = totalPoints > 0 ? (earnedPoints * 100.0 / totalPoints) : 0;
@@ -130,6 +180,16 @@ public class AssessmentService {
         }
         
         assessmentRepository.save(assessment);
+        // Per-question results as one JDBC batch rather than a round-trip per row
+        jdbcTemplate.batchUpdate(INSERT_ANSWERS_SQL, answerRows);
+        if (hasDraft) {
+            AfterCommit.run(() -> assessmentDraftService.discard(assessmentId));
+        }
+        scoreDistributionService.record(assessmentId, module.getId(), module.getCourse().getId(),
+                percentage, passed);
+        if (passed) {
+            learningFunnelService.assessmentPassed(module.getCourse().getId(), assessment.getUser().getId());
+        }
         
         // Prepare response
         Map<String, Object> response = new HashMap<>();
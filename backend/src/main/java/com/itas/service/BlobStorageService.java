@@ -0,0 +1,260 @@
+package com.itas.service;
+
+import com.itas.model.FileBlob;
+import com.itas.repository.FileBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Content-addressed, deduplicating file store under app.file.upload-dir.
+ *
+ * Files are hashed (SHA-256) while they stream in and kept at
+ * blobs/ab/cd/{hash}. Identical uploads share one blob; the file_blobs row
+ * counts references and the file is removed when the last one is released.
+ * Uploads are written to app.file.staging-dir first, outside the directory
+ * served under /uploads, so a half-written file is never downloadable.
+ */
+@Service
+public class BlobStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobStorageService.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private FileBlobRepository fileBlobRepository;
+
+    @Value("${app.file.upload-dir:./uploads}")
+    private String uploadDir;
+
+    @Value("${app.file.staging-dir:./upload-staging}")
+    private String stagingDir;
+
+    private final TransactionTemplate requiresNew;
+
+    // Serialises store/release of the same hash within this JVM
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public BlobStorageService(PlatformTransactionManager transactionManager) {
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Stream the content into the store and take one reference on its blob.
+     */
+    public FileBlob store(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(stagingDir(), "upload-", ".part");
+        MessageDigest digest = sha256();
+        long size;
+        try (InputStream in = new DigestInputStream(content, digest)) {
+            size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return register(temp, HexFormat.of().formatHex(digest.digest()), size);
+    }
+
+    /**
+     * Adopt a file already on disk (e.g. an assembled chunked upload) and take one
+     * reference on its blob. The file is moved into the store, or removed if the
+     * content is already there.
+     */
+    public FileBlob storeFile(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return register(file, HexFormat.of().formatHex(digest.digest()), Files.size(file));
+    }
+
+    /**
+     * Release one reference. The blob file is deleted once nothing refers to it.
+     * Inside a transaction the release runs after commit, so a rollback never
+     * leaves a resource pointing at a deleted file.
+     */
+    public void release(String hash) {
+        if (hash == null) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doRelease(hash);
+                }
+            });
+        } else {
+            doRelease(hash);
+        }
+    }
+
+    /**
+     * Release the file behind a resource: blob reference when hashed,
+     * direct delete for files stored before the content-addressed layout.
+     */
+    public void releaseFile(String hash, String filePath) {
+        if (hash != null) {
+            release(hash);
+        } else if (filePath != null) {
+            try {
+                Files.deleteIfExists(Paths.get(filePath));
+            } catch (IOException e) {
+                log.warn("Could not delete file {}", filePath, e);
+            }
+        }
+    }
+
+    /**
+     * Move a fully written temp file into the store under its hash.
+     *
+     * The reference is committed on its own so a concurrent upload of the same
+     * content sees it; if the caller's transaction then rolls back, the
+     * reference is released again so the blob is not leaked.
+     */
+    protected FileBlob register(Path temp, String hash, long size) throws IOException {
+        FileBlob blob = registerReference(temp, hash, size);
+        releaseOnRollback(hash);
+        return blob;
+    }
+
+    private FileBlob registerReference(Path temp, String hash, long size) throws IOException {
+        Path target = blobPath(hash);
+
+        synchronized (lockFor(hash)) {
+            try {
+                // Committed before the lock is released, so a concurrent upload of the same content sees the row
+                return requiresNew.execute(status -> {
+                    FileBlob blob = fileBlobRepository.findById(hash).orElse(null);
+                    try {
+                        if (blob != null && Files.exists(Paths.get(blob.getStoragePath()))) {
+                            Files.deleteIfExists(temp);
+                            fileBlobRepository.incrementRefCount(hash);
+                            return blob;
+                        }
+
+                        moveInto(temp, target);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+
+                    if (blob == null) {
+                        blob = new FileBlob(hash, target.toString(), size);
+                    }
+                    // Row survived but the file went missing: re-attach the fresh copy
+                    blob.setStoragePath(target.toString());
+                    blob.setRefCount(blob.getRefCount() + 1);
+                    return fileBlobRepository.save(blob);
+                });
+            } catch (UncheckedIOException e) {
+                Files.deleteIfExists(temp);
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+        }
+    }
+
+    private void releaseOnRollback(String hash) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    doRelease(hash);
+                }
+            }
+        });
+    }
+
+    private void moveInto(Path temp, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Staging is on another file system: copy next to the target, then rename atomically
+            Path part = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+            try {
+                Files.copy(temp, part);
+                Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(part);
+            }
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void doRelease(String hash) {
+        synchronized (lockFor(hash)) {
+            String orphanPath = requiresNew.execute(status -> {
+                FileBlob blob = fileBlobRepository.findById(hash).orElse(null);
+                if (blob == null) {
+                    return null;
+                }
+                fileBlobRepository.decrementRefCount(hash);
+                return fileBlobRepository.deleteIfUnreferenced(hash) > 0 ? blob.getStoragePath() : null;
+            });
+
+            if (orphanPath != null) {
+                try {
+                    Files.deleteIfExists(Paths.get(orphanPath));
+                } catch (IOException e) {
+                    log.warn("Could not delete blob {}", orphanPath, e);
+                }
+            }
+        }
+    }
+
+    protected Path stagingDir() throws IOException {
+        Path dir = Paths.get(stagingDir);
+        Files.createDirectories(dir);
+        return dir;
+    }
+
+    private Path blobPath(String hash) {
+        return Paths.get(uploadDir, "blobs", hash.substring(0, 2), hash.substring(2, 4), hash);
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
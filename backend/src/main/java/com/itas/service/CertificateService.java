@@ -29,6 +29,9 @@ public class CertificateService {
     @Autowired
     private CourseRepository courseRepository;
     
+    @Autowired
+    private LearningFunnelService learningFunnelService;
+    
     public List<Certificate> getUserCertificates(Long userId) {
         return certificateRepository.findByUserId(userId);
     }
@@ -63,7 +66,9 @@ public class CertificateService {
         certificate.setValidUntil(LocalDateTime.now().plusYears(1));
         certificate.setVerified(true);
         
-        return certificateRepository.save(certificate);
+        Certificate saved = certificateRepository.save(certificate);
+        learningFunnelService.certificateIssued(courseId, userId);
+        return saved;
     }
     
     public Map<String, Object> verifyCertificate(String certificateNumber) {
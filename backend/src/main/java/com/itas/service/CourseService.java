@@ -28,6 +28,15 @@ public class CourseService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+    
+    @Autowired
+    private LearningFunnelService learningFunnelService;
+    
     public List<Course> getAllCourses() {
         return courseRepository.findAll();
     }
@@ -41,7 +50,9 @@ public class CourseService {
     public Course createCourse(Course course) {
         course.setCreatedAt(LocalDateTime.now());
         course.setUpdatedAt(LocalDateTime.now());
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        searchIndexService.indexCourse(saved);
+        return saved;
     }
     
     @Transactional
@@ -57,13 +68,18 @@ public class CourseService {
         course.setPublished(courseDetails.isPublished());
         course.setUpdatedAt(LocalDateTime.now());
         
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        searchIndexService.indexCourse(saved);
+        dashboardRollupService.courseRenamed(id, saved.getTitle());
+        return saved;
     }
     
     @Transactional
     public void deleteCourse(Long id) {
         Course course = getCourseById(id);
         courseRepository.delete(course);
+        searchIndexService.removeCourse(id);
+        dashboardRollupService.courseRemoved(id);
     }
     
     @Transactional
@@ -86,6 +102,8 @@ public class CourseService {
         enrollment.setStatus("ENROLLED");
         
         Enrollment saved = enrollmentRepository.save(enrollment);
+        dashboardRollupService.enrolled(courseId, course.getTitle());
+        learningFunnelService.enrolled(courseId, userId, saved.getEnrolledAt());
         
         Map<String, Object> response = new HashMap<>();
         response.put("enrollmentId", saved.getId());
@@ -101,6 +119,9 @@ public class CourseService {
         Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
                 .orElseThrow(() -> new RuntimeException("Enrollment not found"));
         
+        double oldProgress = enrollment.getProgress();
+        boolean wasCompleted = "COMPLETED".equals(enrollment.getStatus());
+        
         enrollment.setProgress(progress);
         
         if (progress >= 100.0) {
@@ -109,6 +130,11 @@ public class CourseService {
         }
         
         enrollmentRepository.save(enrollment);
+        dashboardRollupService.progressChanged(enrollment.getCourseId(), oldProgress, progress,
+                wasCompleted, "COMPLETED".equals(enrollment.getStatus()));
+        if (!wasCompleted && "COMPLETED".equals(enrollment.getStatus())) {
+            learningFunnelService.courseCompleted(enrollment.getCourseId(), enrollment.getUserId());
+        }
     }
     
     public List<Map<String, Object>> getUserEnrollments(Long userId) {
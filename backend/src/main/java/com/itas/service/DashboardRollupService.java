@@ -0,0 +1,450 @@
+package com.itas.service;
+
+import com.itas.model.Course;
+import com.itas.model.RollupCheckpoint;
+import com.itas.repository.CourseRepository;
+import com.itas.repository.EnrollmentRepository;
+import com.itas.repository.ResourceRepository;
+import com.itas.repository.RollupCheckpointRepository;
+import com.itas.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * In-memory dashboard rollups kept current by domain events.
+ *
+ * Registrations, status changes, enrollments, progress updates and flushed
+ * downloads adjust the counters once their transaction commits, so the
+ * dashboard is served without touching the database. The counters are
+ * checkpointed to rollup_checkpoints to start warm after a restart and are
+ * periodically rebuilt from aggregate queries, which corrects any drift
+ * (events lost in a crash, rows changed outside these services). Events that
+ * commit while those queries run are buffered and replayed onto the rebuilt
+ * counters before they are swapped in.
+ */
+@Service
+public class DashboardRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardRollupService.class);
+
+    private static final String COURSE_PREFIX = "course.";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private ResourceRepository resourceRepository;
+
+    @Autowired
+    private RollupCheckpointRepository rollupCheckpointRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // One read-only snapshot for all aggregate queries of a reconcile
+    private final TransactionTemplate snapshotTemplate;
+
+    // Replaced wholesale by reconcile; events always apply to the current instance
+    private volatile Rollup rollup = new Rollup();
+
+    private final Object lock = new Object();
+
+    // Events committed while reconcile is querying, replayed onto the fresh rollup; guarded by lock
+    private List<Consumer<Rollup>> pending;
+
+    private volatile boolean warm;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public DashboardRollupService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setReadOnly(true);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * True once the counters were loaded from a checkpoint or rebuilt from the database.
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public void userRegistered(boolean active) {
+        publish(current -> {
+            current.totalUsers.increment();
+            if (active) {
+                current.activeUsers.increment();
+            }
+        });
+    }
+
+    public void userStatusChanged(boolean wasActive, boolean active) {
+        if (wasActive == active) {
+            return;
+        }
+        publish(current -> current.activeUsers.add(active ? 1 : -1));
+    }
+
+    /**
+     * A deleted user. Their enrollments still count towards the totals,
+     * matching the aggregate queries.
+     */
+    public void userRemoved(boolean wasActive) {
+        publish(current -> {
+            current.totalUsers.decrement();
+            if (wasActive) {
+                current.activeUsers.decrement();
+            }
+        });
+    }
+
+    public void enrolled(Long courseId, String courseTitle) {
+        publish(current -> {
+            current.enrollments.increment();
+            current.course(courseId, courseTitle).enrollments.increment();
+        });
+    }
+
+    public void progressChanged(Long courseId, double oldProgress, double newProgress,
+                                boolean wasCompleted, boolean completed) {
+        publish(current -> {
+            CourseRollup course = current.course(courseId, null);
+            double delta = newProgress - oldProgress;
+            current.progressSum.add(delta);
+            course.progressSum.add(delta);
+            if (wasCompleted != completed) {
+                current.completions.add(completed ? 1 : -1);
+                course.completions.add(completed ? 1 : -1);
+            }
+        });
+    }
+
+    public void downloadsFlushed(long downloads) {
+        if (downloads == 0) {
+            return;
+        }
+        publish(current -> current.downloads.add(downloads));
+    }
+
+    public void courseRenamed(Long courseId, String title) {
+        publish(current -> {
+            CourseRollup course = current.courses.get(courseId);
+            if (course != null) {
+                course.title = title;
+            }
+        });
+    }
+
+    /**
+     * Drop a deleted course from the rankings. Its enrollments still count
+     * towards the totals, matching the aggregate queries.
+     */
+    public void courseRemoved(Long courseId) {
+        publish(current -> current.courses.remove(courseId));
+    }
+
+    /**
+     * Apply an event to the counters once its transaction commits, and keep it
+     * for replay if a reconcile is querying.
+     */
+    private void publish(Consumer<Rollup> event) {
+        AfterCommit.run(() -> {
+            synchronized (lock) {
+                event.accept(rollup);
+                if (pending != null) {
+                    pending.add(event);
+                }
+            }
+            dirty.set(true);
+        });
+    }
+
+    /**
+     * Current totals plus the courses with the most enrollments.
+     */
+    public Totals snapshot(int topCourses) {
+        Rollup current = rollup;
+        Totals totals = new Totals();
+        totals.totalUsers = current.totalUsers.sum();
+        totals.activeUsers = current.activeUsers.sum();
+        totals.enrollments = current.enrollments.sum();
+        totals.completions = current.completions.sum();
+        totals.progressSum = current.progressSum.sum();
+        totals.downloads = current.downloads.sum();
+
+        List<CourseTotals> courses = new ArrayList<>(current.courses.size());
+        current.courses.forEach((id, course) -> courses.add(new CourseTotals(
+                id, course.title, course.enrollments.sum(), course.completions.sum())));
+        // Same order as findTopCoursesByEnrollments
+        courses.sort(Comparator.comparingLong(CourseTotals::getEnrollments).reversed()
+                .thenComparing(CourseTotals::getCourseId));
+        totals.topCourses = courses.size() > topCourses ? courses.subList(0, topCourses) : courses;
+        return totals;
+    }
+
+    @PostConstruct
+    public void loadCheckpoint() {
+        try {
+            List<RollupCheckpoint> rows = rollupCheckpointRepository.findAll();
+            if (rows.isEmpty()) {
+                return;
+            }
+            Rollup loaded = new Rollup();
+            for (RollupCheckpoint row : rows) {
+                loaded.apply(row.getKey(), row.getValue());
+            }
+            // Titles are not checkpointed; courses deleted since then are dropped
+            Set<Long> existing = new HashSet<>();
+            for (Course course : courseRepository.findAllById(loaded.courses.keySet())) {
+                loaded.course(course.getId(), course.getTitle());
+                existing.add(course.getId());
+            }
+            loaded.courses.keySet().retainAll(existing);
+            rollup = loaded;
+            warm = true;
+            log.info("Dashboard rollups loaded from {} checkpoint rows", rows.size());
+        } catch (RuntimeException e) {
+            // Falls back to the aggregate queries until the first reconcile
+            log.warn("Could not load dashboard rollup checkpoint", e);
+        }
+    }
+
+    /**
+     * Persist the counters if anything changed since the last checkpoint.
+     */
+    @Scheduled(fixedDelayString = "${app.rollups.checkpoint-interval-ms:60000}")
+    public synchronized void checkpoint() {
+        if (!warm || !dirty.getAndSet(false)) {
+            return;
+        }
+        List<RollupCheckpoint> rows = rollup.toCheckpoint(LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                rollupCheckpointRepository.deleteAllInBatch();
+                rollupCheckpointRepository.saveAll(rows);
+            });
+        } catch (RuntimeException e) {
+            dirty.set(true);
+            log.warn("Dashboard rollup checkpoint failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        checkpoint();
+    }
+
+    /**
+     * Rebuild the counters from aggregate queries and swap them in.
+     *
+     * The buffer opens before the queries' snapshot is taken, so every event
+     * the snapshot misses is replayed. An event committing in the short gap
+     * before the first query may be counted twice until the next reconcile.
+     */
+    @Scheduled(initialDelayString = "${app.rollups.reconcile-initial-delay-ms:10000}",
+               fixedDelayString = "${app.rollups.reconcile-interval-ms:900000}")
+    public synchronized void reconcile() {
+        synchronized (lock) {
+            pending = new ArrayList<>();
+        }
+
+        Rollup fresh;
+        try {
+            fresh = snapshotTemplate.execute(status -> query());
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                pending = null;
+            }
+            throw e;
+        }
+
+        synchronized (lock) {
+            for (Consumer<Rollup> event : pending) {
+                event.accept(fresh);
+            }
+            pending = null;
+
+            if (warm) {
+                Totals before = snapshot(0);
+                if (before.totalUsers != fresh.totalUsers.sum()
+                        || before.activeUsers != fresh.activeUsers.sum()
+                        || before.enrollments != fresh.enrollments.sum()
+                        || before.completions != fresh.completions.sum()) {
+                    log.info("Dashboard rollups drifted: users {}->{}, active {}->{}, enrollments {}->{}, completions {}->{}",
+                            before.totalUsers, fresh.totalUsers.sum(), before.activeUsers, fresh.activeUsers.sum(),
+                            before.enrollments, fresh.enrollments.sum(), before.completions, fresh.completions.sum());
+                }
+            }
+
+            rollup = fresh;
+        }
+        warm = true;
+        dirty.set(true);
+    }
+
+    private Rollup query() {
+        Rollup fresh = new Rollup();
+
+        UserRepository.UserTotals users = userRepository.aggregateTotals();
+        fresh.totalUsers.add(users.getTotal());
+        fresh.activeUsers.add(users.getActive());
+
+        EnrollmentRepository.EnrollmentTotals enrollments = enrollmentRepository.aggregateTotals();
+        fresh.enrollments.add(enrollments.getTotal());
+        fresh.completions.add(enrollments.getCompleted());
+
+        for (EnrollmentRepository.CourseEnrollmentTotals course
+                : enrollmentRepository.findTopCoursesByEnrollments(Pageable.unpaged())) {
+            CourseRollup rollupCourse = fresh.course(course.getCourseId(), course.getTitle());
+            rollupCourse.enrollments.add(course.getEnrollments());
+            rollupCourse.completions.add(course.getCompletions());
+            double progressSum = course.getProgressSum() != null ? course.getProgressSum() : 0.0;
+            rollupCourse.progressSum.add(progressSum);
+            fresh.progressSum.add(progressSum);
+        }
+
+        Long downloads = resourceRepository.sumDownloadCount();
+        fresh.downloads.add(downloads != null ? downloads : 0L);
+        return fresh;
+    }
+
+    /**
+     * Point-in-time dashboard totals.
+     */
+    public static class Totals {
+        private long totalUsers;
+        private long activeUsers;
+        private long enrollments;
+        private long completions;
+        private double progressSum;
+        private long downloads;
+        private List<CourseTotals> topCourses;
+
+        public long getTotalUsers() { return totalUsers; }
+        public long getActiveUsers() { return activeUsers; }
+        public long getEnrollments() { return enrollments; }
+        public long getCompletions() { return completions; }
+        public long getDownloads() { return downloads; }
+        public List<CourseTotals> getTopCourses() { return topCourses; }
+
+        public double getAvgProgress() {
+            return enrollments == 0 ? 0.0 : progressSum / enrollments;
+        }
+    }
+
+    public static class CourseTotals {
+        private final Long courseId;
+        private final String title;
+        private final long enrollments;
+        private final long completions;
+
+        CourseTotals(Long courseId, String title, long enrollments, long completions) {
+            this.courseId = courseId;
+            this.title = title;
+            this.enrollments = enrollments;
+            this.completions = completions;
+        }
+
+        public Long getCourseId() { return courseId; }
+        public String getTitle() { return title; }
+        public long getEnrollments() { return enrollments; }
+        public long getCompletions() { return completions; }
+    }
+
+    private static class CourseRollup {
+        private volatile String title;
+        private final LongAdder enrollments = new LongAdder();
+        private final LongAdder completions = new LongAdder();
+        private final DoubleAdder progressSum = new DoubleAdder();
+    }
+
+    private static class Rollup {
+        private final LongAdder totalUsers = new LongAdder();
+        private final LongAdder activeUsers = new LongAdder();
+        private final LongAdder enrollments = new LongAdder();
+        private final LongAdder completions = new LongAdder();
+        private final DoubleAdder progressSum = new DoubleAdder();
+        private final LongAdder downloads = new LongAdder();
+        private final Map<Long, CourseRollup> courses = new ConcurrentHashMap<>();
+
+        CourseRollup course(Long courseId, String title) {
+            CourseRollup course = courses.computeIfAbsent(courseId, id -> new CourseRollup());
+            if (title != null) {
+                course.title = title;
+            }
+            return course;
+        }
+
+        List<RollupCheckpoint> toCheckpoint(LocalDateTime now) {
+            List<RollupCheckpoint> rows = new ArrayList<>();
+            rows.add(new RollupCheckpoint("users.total", (double) totalUsers.sum(), now));
+            rows.add(new RollupCheckpoint("users.active", (double) activeUsers.sum(), now));
+            rows.add(new RollupCheckpoint("enrollments.total", (double) enrollments.sum(), now));
+            rows.add(new RollupCheckpoint("enrollments.completed", (double) completions.sum(), now));
+            rows.add(new RollupCheckpoint("enrollments.progress", progressSum.sum(), now));
+            rows.add(new RollupCheckpoint("resources.downloads", (double) downloads.sum(), now));
+            courses.forEach((id, course) -> {
+                String prefix = COURSE_PREFIX + id + ".";
+                rows.add(new RollupCheckpoint(prefix + "enrollments", (double) course.enrollments.sum(), now));
+                rows.add(new RollupCheckpoint(prefix + "completions", (double) course.completions.sum(), now));
+                rows.add(new RollupCheckpoint(prefix + "progress", course.progressSum.sum(), now));
+            });
+            return rows;
+        }
+
+        void apply(String key, double value) {
+            switch (key) {
+                case "users.total" -> totalUsers.add((long) value);
+                case "users.active" -> activeUsers.add((long) value);
+                case "enrollments.total" -> enrollments.add((long) value);
+                case "enrollments.completed" -> completions.add((long) value);
+                case "enrollments.progress" -> progressSum.add(value);
+                case "resources.downloads" -> downloads.add((long) value);
+                default -> {
+                    if (!key.startsWith(COURSE_PREFIX)) {
+                        return;
+                    }
+                    int dot = key.indexOf('.', COURSE_PREFIX.length());
+                    if (dot < 0) {
+                        return;
+                    }
+                    CourseRollup course = course(Long.valueOf(key.substring(COURSE_PREFIX.length(), dot)), null);
+                    switch (key.substring(dot + 1)) {
+                        case "enrollments" -> course.enrollments.add((long) value);
+                        case "completions" -> course.completions.add((long) value);
+                        case "progress" -> course.progressSum.add(value);
+                        default -> { }
+                    }
+                }
+            }
+        }
+    }
+}
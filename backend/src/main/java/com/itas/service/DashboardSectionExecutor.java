@@ -0,0 +1,164 @@
+package com.itas.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Computes independent dashboard sections concurrently on a bounded pool.
+ *
+ * Every section shares one deadline. A section that fails, times out or is
+ * rejected by a full pool is answered from its last successful value and
+ * reported as stale, so one slow query never fails the whole dashboard.
+ * Section latency is recorded as itas.dashboard.section timers.
+ */
+@Component
+public class DashboardSectionExecutor {
+    
+    private static final Logger log = LoggerFactory.getLogger(DashboardSectionExecutor.class);
+    
+    @Value("${app.dashboard.section-threads:4}")
+    private int threads;
+    
+    @Value("${app.dashboard.section-queue:32}")
+    private int queueCapacity;
+    
+    @Value("${app.dashboard.section-timeout-ms:2000}")
+    private long timeoutMs;
+    
+    private final MeterRegistry meterRegistry;
+    
+    private final Map<String, CachedSection> lastGood = new ConcurrentHashMap<>();
+    
+    private ThreadPoolExecutor executor;
+    
+    public DashboardSectionExecutor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-section-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Run every section and merge their values into one map, in section order.
+     * "staleSections" lists sections served from cache (or missing) and
+     * "sections" gives each section's status and the time its values were computed.
+     */
+    public Map<String, Object> compute(Map<String, Supplier<Map<String, Object>>> sections) {
+        Map<String, CompletableFuture<Map<String, Object>>> futures = new LinkedHashMap<>();
+        sections.forEach((name, section) -> futures.put(name, submit(name, section)));
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Map<String, Object> data = new HashMap<>();
+        Map<String, Object> status = new LinkedHashMap<>();
+        List<String> stale = new ArrayList<>();
+        
+        futures.forEach((name, future) -> {
+            String outcome;
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                data.putAll(future.get(remaining, TimeUnit.NANOSECONDS));
+                status.put(name, sectionStatus("OK", lastGood.get(name)));
+                return;
+            } catch (TimeoutException e) {
+                // The worker still finishes (JDBC calls are not interruptible) and refreshes the cache
+                outcome = "TIMEOUT";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                outcome = "TIMEOUT";
+            } catch (ExecutionException e) {
+                outcome = e.getCause() instanceof RejectedExecutionException ? "REJECTED" : "ERROR";
+                if (!"REJECTED".equals(outcome)) {
+                    log.warn("Dashboard section {} failed", name, e.getCause());
+                }
+            }
+            
+            Counter.builder("itas.dashboard.section.degraded")
+                    .description("Dashboard sections answered from cache or left out")
+                    .tag("section", name)
+                    .tag("outcome", outcome.toLowerCase())
+                    .register(meterRegistry)
+                    .increment();
+            CachedSection cached = lastGood.get(name);
+            if (cached != null) {
+                data.putAll(cached.values);
+            }
+            stale.add(name);
+            status.put(name, sectionStatus(outcome, cached));
+        });
+        
+        data.put("staleSections", stale);
+        data.put("sections", status);
+        return data;
+    }
+    
+    private CompletableFuture<Map<String, Object>> submit(String name, Supplier<Map<String, Object>> section) {
+        Timer timer = Timer.builder("itas.dashboard.section")
+                .description("Time to compute one dashboard section")
+                .tag("section", name)
+                .register(meterRegistry);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                Map<String, Object> values = timer.record(section);
+                lastGood.put(name, new CachedSection(values, LocalDateTime.now()));
+                return values;
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private static Map<String, Object> sectionStatus(String outcome, CachedSection cached) {
+        Map<String, Object> status = new HashMap<>();
+        status.put("status", outcome);
+        status.put("stale", !"OK".equals(outcome));
+        status.put("computedAt", cached != null ? cached.computedAt : null);
+        return status;
+    }
+    
+    private static final class CachedSection {
+        private final Map<String, Object> values;
+        private final LocalDateTime computedAt;
+        
+        private CachedSection(Map<String, Object> values, LocalDateTime computedAt) {
+            this.values = values;
+            this.computedAt = computedAt;
+        }
+    }
+}
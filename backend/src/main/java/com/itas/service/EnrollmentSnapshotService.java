@@ -0,0 +1,95 @@
+package com.itas.service;
+
+import com.itas.snapshot.EnrollmentSnapshot;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Keeps a periodically refreshed {@link EnrollmentSnapshot} for course, user
+ * and date-range analytics, so those reads never load Enrollment entities.
+ * Results lag the database by at most one refresh interval.
+ */
+@Service
+public class EnrollmentSnapshotService {
+    
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentSnapshotService.class);
+    
+    private static final String SNAPSHOT_QUERY =
+            "SELECT e.userId, e.courseId, e.status, e.progress, e.enrolledAt, e.completedAt "
+            + "FROM Enrollment e ORDER BY e.courseId";
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Value("${app.analytics.export-fetch-size:1000}")
+    private int fetchSize;
+    
+    private volatile EnrollmentSnapshot snapshot;
+    
+    /**
+     * Current snapshot, loaded on first use.
+     */
+    public EnrollmentSnapshot current() {
+        EnrollmentSnapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+    
+    /**
+     * Stream the enrollments table into a fresh snapshot and swap it in.
+     */
+    @Scheduled(initialDelayString = "${app.analytics.snapshot-initial-delay-ms:15000}",
+               fixedDelayString = "${app.analytics.snapshot-refresh-ms:300000}")
+    public synchronized void refresh() {
+        long started = System.currentTimeMillis();
+        EnrollmentSnapshot.Builder builder = EnrollmentSnapshot.builder();
+        ZoneId zone = ZoneId.systemDefault();
+        
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.doWork(connection -> connection.setReadOnly(true));
+            // PostgreSQL only uses a cursor (and so honours the fetch size) inside a transaction
+            Transaction transaction = session.beginTransaction();
+            try (ScrollableResults<Object[]> rows = session.createSelectionQuery(SNAPSHOT_QUERY, Object[].class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (rows.next()) {
+                    Object[] row = rows.get();
+                    builder.add((Long) row[0], (Long) row[1], (String) row[2],
+                            row[3] != null ? ((Number) row[3]).doubleValue() : 0.0,
+                            millis((LocalDateTime) row[4], zone), millis((LocalDateTime) row[5], zone));
+                }
+                transaction.commit();
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+        }
+        
+        EnrollmentSnapshot fresh = builder.build();
+        snapshot = fresh;
+        log.info("Enrollment snapshot refreshed: {} rows, ~{} KB, {} ms", fresh.size(),
+                fresh.memoryBytes() / 1024, System.currentTimeMillis() - started);
+    }
+    
+    private static long millis(LocalDateTime time, ZoneId zone) {
+        return time != null ? time.atZone(zone).toInstant().toEpochMilli() : EnrollmentSnapshot.NO_TIME;
+    }
+}
@@ -0,0 +1,667 @@
+package com.itas.service;
+
+import com.itas.dto.ExamSessionRequest;
+import com.itas.model.Answer;
+import com.itas.model.Assessment;
+import com.itas.model.ExamSession;
+import com.itas.model.Question;
+import com.itas.repository.AssessmentRepository;
+import com.itas.repository.ExamSessionRepository;
+import com.itas.repository.ModuleRepository;
+import com.itas.repository.QuestionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Scheduled exam sessions.
+ *
+ * Ahead of the window every candidate gets a seat, an attempt on the
+ * per-module counter and an empty assessment row, all written with a handful
+ * of set-based statements in one transaction. Provisioned sessions are held
+ * in memory with the exam paper and the compiled answer key, so starting the
+ * exam is a token lookup: the claim time is written behind in batches.
+ * Submissions are graded on the bounded GradingQueue.
+ */
+@Service
+public class ExamSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExamSessionService.class);
+
+    private static final String INSERT_SEAT_SQL =
+            "INSERT INTO exam_seats (session_id, user_id, token, status) "
+            + "SELECT ?, u.id, ?, 'PENDING' FROM users u WHERE u.id = ?";
+
+    private static final String COURSE_CANDIDATES_SQL =
+            "SELECT DISTINCT e.user_id FROM enrollments e WHERE e.course_id = ? "
+            + "AND NOT EXISTS (SELECT 1 FROM exam_seats s WHERE s.session_id = ? AND s.user_id = e.user_id)";
+
+    private static final String CREATE_COUNTERS_SQL =
+            "INSERT INTO assessment_attempt_counters (user_id, module_id, attempts) "
+            + "SELECT s.user_id, ?, (SELECT COUNT(*) FROM assessments a WHERE a.user_id = s.user_id AND a.module_id = ?) "
+            + "FROM exam_seats s WHERE s.session_id = ? "
+            + "ON CONFLICT DO NOTHING";
+
+    private static final String LOCK_COUNTERS_SQL =
+            "SELECT c.id FROM assessment_attempt_counters c WHERE c.module_id = ? "
+            + "AND c.user_id IN (SELECT s.user_id FROM exam_seats s WHERE s.session_id = ?) FOR UPDATE";
+
+    private static final String MARK_EXHAUSTED_SQL =
+            "UPDATE exam_seats SET status = 'NO_ATTEMPTS_LEFT' WHERE session_id = ? AND status = 'PENDING' "
+            + "AND user_id IN (SELECT c.user_id FROM assessment_attempt_counters c WHERE c.module_id = ? AND c.attempts >= ?)";
+
+    private static final String CLAIM_ATTEMPTS_SQL =
+            "UPDATE assessment_attempt_counters SET attempts = attempts + 1 WHERE module_id = ? AND attempts < ? "
+            + "AND user_id IN (SELECT s.user_id FROM exam_seats s WHERE s.session_id = ? AND s.status = 'PENDING')";
+
+    private static final String INSERT_ASSESSMENTS_SQL =
+            "INSERT INTO assessments (user_id, module_id, attempt_number, score, total_points, percentage, passed, exam_session_id) "
+            + "SELECT s.user_id, c.module_id, c.attempts, 0, 0, 0, false, s.session_id "
+            + "FROM exam_seats s JOIN assessment_attempt_counters c ON c.user_id = s.user_id AND c.module_id = ? "
+            + "WHERE s.session_id = ? AND s.status = 'PENDING'";
+
+    private static final String LINK_SEATS_SQL =
+            "UPDATE exam_seats SET status = 'READY', assessment_id = (SELECT a.id FROM assessments a "
+            + "WHERE a.exam_session_id = exam_seats.session_id AND a.user_id = exam_seats.user_id) "
+            + "WHERE session_id = ? AND status = 'PENDING'";
+
+    private static final String MARK_PROVISIONED_SQL =
+            "UPDATE exam_sessions SET provisioned_at = ?, "
+            + "seat_count = (SELECT COUNT(*) FROM exam_seats s WHERE s.session_id = exam_sessions.id) WHERE id = ?";
+
+    private static final String LOAD_SEATS_SQL =
+            "SELECT s.token, s.user_id, u.username, s.assessment_id, s.claimed_at, a.attempt_number, a.completed_at "
+            + "FROM exam_seats s JOIN users u ON u.id = s.user_id JOIN assessments a ON a.id = s.assessment_id "
+            + "WHERE s.session_id = ? AND s.status = 'READY'";
+
+    private static final String FLUSH_STARTED_SQL =
+            "UPDATE assessments SET started_at = ? WHERE id = ? AND started_at IS NULL";
+
+    private static final String FLUSH_CLAIMED_SQL =
+            "UPDATE exam_seats SET claimed_at = ? WHERE token = ? AND claimed_at IS NULL";
+
+    // Attempts never started are handed back: counter, seat and the empty assessment row
+    private static final String UNSTARTED = "FROM assessments a WHERE a.exam_session_id = ? "
+            + "AND a.started_at IS NULL AND a.completed_at IS NULL";
+
+    private static final String RELEASE_COUNTERS_SQL =
+            "UPDATE assessment_attempt_counters SET attempts = attempts - 1 WHERE module_id = ? AND attempts > 0 "
+            + "AND user_id IN (SELECT a.user_id " + UNSTARTED + ")";
+
+    private static final String EXPIRE_SEATS_SQL =
+            "UPDATE exam_seats SET status = 'EXPIRED', assessment_id = NULL WHERE session_id = ? "
+            + "AND assessment_id IN (SELECT a.id " + UNSTARTED + ")";
+
+    private static final String DELETE_UNSTARTED_SQL =
+            "DELETE FROM assessments WHERE exam_session_id = ? AND started_at IS NULL AND completed_at IS NULL";
+
+    private static final String SEAT_COUNTS_SQL =
+            "SELECT status, COUNT(*) AS seats FROM exam_seats WHERE session_id = ? GROUP BY status";
+
+    private static final String READY = "READY";
+    private static final String GRADING = "GRADING";
+    private static final String GRADED = "GRADED";
+
+    @Value("${app.exams.provision-lead-minutes:30}")
+    private long provisionLeadMinutes;
+
+    @Value("${app.exams.submit-grace-seconds:120}")
+    private long submitGraceSeconds;
+
+    @Autowired
+    private ExamSessionRepository examSessionRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AssessmentRepository assessmentRepository;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private AssessmentService assessmentService;
+
+    @Autowired
+    private GradingQueue gradingQueue;
+
+    @Autowired
+    private LearningFunnelService learningFunnelService;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SecureRandom random = new SecureRandom();
+
+    private final Map<Long, LoadedSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Seat> seatsByToken = new ConcurrentHashMap<>();
+    private final Map<Long, Seat> seatsByAssessment = new ConcurrentHashMap<>();
+    private final Map<String, List<Seat>> seatsByUsername = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Seat> pendingClaims = new ConcurrentLinkedQueue<>();
+
+    public ExamSessionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Schedule a session. Explicit candidates get their seats now; otherwise
+     * seats are created for the course's enrollments when it is provisioned.
+     */
+    @Transactional
+    public ExamSession schedule(ExamSessionRequest request, String createdBy) {
+        if (!request.getClosesAt().isAfter(request.getOpensAt())) {
+            throw new RuntimeException("Closing time must be after opening time");
+        }
+        com.itas.model.Module module = moduleRepository.findById(request.getModuleId())
+                .orElseThrow(() -> new RuntimeException("Module not found"));
+
+        ExamSession session = new ExamSession();
+        session.setModuleId(module.getId());
+        session.setCourseId(module.getCourse().getId());
+        session.setTitle(request.getTitle());
+        session.setOpensAt(request.getOpensAt());
+        session.setClosesAt(request.getClosesAt());
+        session.setCreatedBy(createdBy);
+
+        List<Long> userIds = request.getUserIds();
+        if (userIds == null || userIds.isEmpty()) {
+            return examSessionRepository.save(session);
+        }
+
+        session.setCandidateSource("LIST");
+        session = examSessionRepository.save(session);
+        session.setSeatCount(insertSeats(session.getId(), new LinkedHashSet<>(userIds)));
+        return session;
+    }
+
+    /**
+     * Provision a scheduled session now rather than waiting for the scheduler.
+     */
+    public Map<String, Object> provision(Long sessionId) {
+        Integer ready = provisionIfScheduled(sessionId);
+        if (ready == null) {
+            throw new RuntimeException("Exam session is not waiting to be provisioned");
+        }
+        return getSession(sessionId);
+    }
+
+    /**
+     * Cancel a session that has not opened yet. Provisioned attempts are handed back.
+     */
+    public void cancel(Long sessionId) {
+        ExamSession session = examSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Exam session not found"));
+        if (!LocalDateTime.now().isBefore(session.getOpensAt())) {
+            throw new RuntimeException("Exam session has already opened");
+        }
+
+        Boolean cancelled = transactionTemplate.execute(status -> {
+            if (examSessionRepository.transition(sessionId, "SCHEDULED", "CANCELLED") == 1) {
+                return true;
+            }
+            return release(session, "CANCELLED");
+        });
+        if (!Boolean.TRUE.equals(cancelled)) {
+            throw new RuntimeException("Exam session cannot be cancelled");
+        }
+        unload(sessionId);
+    }
+
+    public List<ExamSession> getSessions() {
+        return examSessionRepository.findAllByOrderByOpensAtDesc();
+    }
+
+    public Map<String, Object> getSession(Long sessionId) {
+        ExamSession session = examSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Exam session not found"));
+
+        Map<String, Long> seats = new HashMap<>();
+        jdbcTemplate.query(SEAT_COUNTS_SQL, rs -> {
+            seats.put(rs.getString("status"), rs.getLong("seats"));
+        }, sessionId);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("session", session);
+        data.put("seats", seats);
+        data.put("loaded", sessions.containsKey(sessionId));
+        return data;
+    }
+
+    /**
+     * Sessions the user holds a ready seat in on this node, with the token to claim it.
+     */
+    public List<Map<String, Object>> getSeats(String username) {
+        List<Map<String, Object>> seats = new ArrayList<>();
+        for (Seat seat : seatsByUsername.getOrDefault(username, Collections.emptyList())) {
+            ExamSession session = seat.session.session;
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("sessionId", session.getId());
+            entry.put("title", session.getTitle());
+            entry.put("opensAt", session.getOpensAt());
+            entry.put("closesAt", session.getClosesAt());
+            entry.put("token", seat.token);
+            entry.put("assessmentId", seat.assessmentId);
+            entry.put("claimed", seat.claimedAt.get() != null);
+            entry.put("status", seat.state.get());
+            seats.add(entry);
+        }
+        return seats;
+    }
+
+    /**
+     * Start the exam: look up the pre-provisioned attempt and hand out the
+     * paper. Claiming again returns the same attempt.
+     */
+    public Map<String, Object> claim(String token, String username) {
+        Seat seat = token != null ? seatsByToken.get(token) : null;
+        if (seat == null || !seat.username.equals(username)) {
+            throw new RuntimeException("Exam seat not found");
+        }
+        ExamSession session = seat.session.session;
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(session.getOpensAt())) {
+            throw new RuntimeException("Exam session opens at " + session.getOpensAt());
+        }
+        if (!now.isBefore(session.getClosesAt())) {
+            throw new RuntimeException("Exam session has closed");
+        }
+        markClaimed(seat, now);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("assessmentId", seat.assessmentId);
+        data.put("attemptNumber", seat.attemptNumber);
+        data.put("sessionId", session.getId());
+        data.put("title", session.getTitle());
+        data.put("closesAt", session.getClosesAt());
+        data.put("startedAt", seat.claimedAt.get());
+        data.put("questions", seat.session.paper);
+        return data;
+    }
+
+    /**
+     * Queue a submission for grading. The future completes with the result.
+     *
+     * @throws GradingQueue.QueueFullException when grading is saturated
+     */
+    public CompletableFuture<Map<String, Object>> submit(Long assessmentId, Map<Long, Long> answers, String username) {
+        Seat seat = ownedSeat(assessmentId, username);
+        ExamSession session = seat.session.session;
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(session.getOpensAt())) {
+            throw new RuntimeException("Exam session has not opened");
+        }
+        // Grace covers answers sent just before the close that arrive just after it
+        if (now.isAfter(session.getClosesAt().plusSeconds(submitGraceSeconds))) {
+            throw new RuntimeException("Exam session has closed");
+        }
+        if (!seat.state.compareAndSet(READY, GRADING)) {
+            throw new RuntimeException("Assessment already submitted");
+        }
+        // The exam may have been claimed on another node
+        markClaimed(seat, now);
+
+        try {
+            return gradingQueue.submit(() -> assessmentService.submitExamAssessment(assessmentId, answers))
+                    .handle((result, error) -> {
+                        if (error != null) {
+                            // Graded attempts are still rejected by the assessment itself
+                            seat.state.set(READY);
+                            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                    ? error.getCause() : error;
+                            throw cause instanceof RuntimeException
+                                    ? (RuntimeException) cause : new RuntimeException(cause);
+                        }
+                        seat.result = summary((Assessment) result.get("assessment"));
+                        seat.result.put("results", result.get("results"));
+                        seat.state.set(GRADED);
+                        return seat.result;
+                    });
+        } catch (GradingQueue.QueueFullException e) {
+            seat.state.set(READY);
+            throw e;
+        }
+    }
+
+    /**
+     * Grading status of a submission; the result once it has been graded.
+     */
+    public Map<String, Object> getResult(Long assessmentId, String username) {
+        Seat seat = ownedSeat(assessmentId, username);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("status", seat.state.get());
+        if (GRADED.equals(seat.state.get())) {
+            if (seat.result == null) {
+                // Graded before this node loaded the session
+                seat.result = assessmentRepository.findById(assessmentId).map(this::summary)
+                        .orElseThrow(() -> new RuntimeException("Assessment not found"));
+            }
+            data.put("result", seat.result);
+        } else if (GRADING.equals(seat.state.get())) {
+            data.put("queueDepth", gradingQueue.depth());
+        }
+        return data;
+    }
+
+    public int gradingQueueDepth() {
+        return gradingQueue.depth();
+    }
+
+    public Map<String, Object> getGradingStatus() {
+        Map<String, Object> status = gradingQueue.status();
+        status.put("loadedSessions", sessions.size());
+        status.put("loadedSeats", seatsByToken.size());
+        status.put("pendingClaims", pendingClaims.size());
+        return status;
+    }
+
+    /**
+     * Write claim times behind the request path, as two batches per interval.
+     * Rows that fail are queued again for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${app.exams.claim-flush-interval-ms:1000}")
+    public synchronized void flushClaims() {
+        List<Seat> claimed = new ArrayList<>();
+        Seat seat;
+        while ((seat = pendingClaims.poll()) != null) {
+            claimed.add(seat);
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> started = new ArrayList<>(claimed.size());
+        List<Object[]> seats = new ArrayList<>(claimed.size());
+        for (Seat s : claimed) {
+            Timestamp at = Timestamp.valueOf(s.claimedAt.get());
+            started.add(new Object[] { at, s.assessmentId });
+            seats.add(new Object[] { at, s.token });
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(FLUSH_STARTED_SQL, started);
+                jdbcTemplate.batchUpdate(FLUSH_CLAIMED_SQL, seats);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Exam claim flush failed, {} claims will be retried", claimed.size(), e);
+            pendingClaims.addAll(claimed);
+        }
+    }
+
+    /**
+     * Provision sessions about to open, load provisioned ones this node has
+     * not seen yet, and close those whose window and grace have passed.
+     */
+    @Scheduled(initialDelayString = "${app.exams.tick-initial-delay-ms:10000}",
+            fixedDelayString = "${app.exams.tick-interval-ms:60000}")
+    public void tick() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime graceCutoff = now.minusSeconds(submitGraceSeconds);
+
+        for (ExamSession session : examSessionRepository.findByStatusAndOpensAtBefore("SCHEDULED",
+                now.plusMinutes(provisionLeadMinutes))) {
+            try {
+                provisionIfScheduled(session.getId());
+            } catch (RuntimeException e) {
+                log.error("Could not provision exam session {}", session.getId(), e);
+            }
+        }
+
+        for (ExamSession session : examSessionRepository.findByStatusAndClosesAtAfter("PROVISIONED", graceCutoff)) {
+            if (!sessions.containsKey(session.getId())) {
+                load(session);
+            }
+        }
+
+        for (ExamSession session : examSessionRepository.findByStatusAndClosesAtBefore("PROVISIONED", graceCutoff)) {
+            flushClaims();
+            try {
+                transactionTemplate.execute(status -> release(session, "CLOSED"));
+            } catch (RuntimeException e) {
+                log.error("Could not close exam session {}", session.getId(), e);
+            }
+        }
+
+        // Sessions closed here or on another node
+        for (LoadedSession loaded : new ArrayList<>(sessions.values())) {
+            if (loaded.session.getClosesAt().isBefore(graceCutoff)) {
+                unload(loaded.session.getId());
+            }
+        }
+    }
+
+    /**
+     * Seats, attempts and assessments for the whole session in one
+     * transaction. The status flip comes first, so a second node trying the
+     * same session waits on the row and then finds nothing to do.
+     *
+     * @return ready seats, or null when the session was not SCHEDULED
+     */
+    private Integer provisionIfScheduled(Long sessionId) {
+        Integer ready = transactionTemplate.execute(status -> {
+            if (examSessionRepository.transition(sessionId, "SCHEDULED", "PROVISIONED") == 0) {
+                return null;
+            }
+            ExamSession session = examSessionRepository.findById(sessionId)
+                    .orElseThrow(() -> new RuntimeException("Exam session not found"));
+            com.itas.model.Module module = moduleRepository.findById(session.getModuleId())
+                    .orElseThrow(() -> new RuntimeException("Module not found"));
+            Long moduleId = module.getId();
+            int maxAttempts = module.getMaxAttempts();
+
+            if ("COURSE".equals(session.getCandidateSource())) {
+                List<Long> enrolled = jdbcTemplate.queryForList(COURSE_CANDIDATES_SQL, Long.class,
+                        session.getCourseId(), sessionId);
+                insertSeats(sessionId, enrolled);
+            }
+
+            // Same counters as AssessmentService.startAssessment, so regular starts and the exam share one limit
+            jdbcTemplate.update(CREATE_COUNTERS_SQL, moduleId, moduleId, sessionId);
+            jdbcTemplate.queryForList(LOCK_COUNTERS_SQL, Long.class, moduleId, sessionId);
+            int exhausted = jdbcTemplate.update(MARK_EXHAUSTED_SQL, sessionId, moduleId, maxAttempts);
+            jdbcTemplate.update(CLAIM_ATTEMPTS_SQL, moduleId, maxAttempts, sessionId);
+            jdbcTemplate.update(INSERT_ASSESSMENTS_SQL, moduleId, sessionId);
+            int linked = jdbcTemplate.update(LINK_SEATS_SQL, sessionId);
+            jdbcTemplate.update(MARK_PROVISIONED_SQL, Timestamp.valueOf(LocalDateTime.now()), sessionId);
+
+            log.info("Provisioned exam session {}: {} seats ready, {} without attempts left",
+                    sessionId, linked, exhausted);
+            return linked;
+        });
+        if (ready != null) {
+            examSessionRepository.findById(sessionId).ifPresent(this::load);
+        }
+        return ready;
+    }
+
+    private int insertSeats(Long sessionId, Iterable<Long> userIds) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Long userId : userIds) {
+            rows.add(new Object[] { sessionId, newToken(), userId });
+        }
+        int inserted = 0;
+        for (int count : jdbcTemplate.batchUpdate(INSERT_SEAT_SQL, rows)) {
+            inserted += Math.max(count, 0);
+        }
+        return inserted;
+    }
+
+    /**
+     * Hand back attempts that were never started and move the session to its final status.
+     */
+    private boolean release(ExamSession session, String finalStatus) {
+        Long sessionId = session.getId();
+        if (examSessionRepository.transition(sessionId, "PROVISIONED", finalStatus) == 0) {
+            return false;
+        }
+        jdbcTemplate.update(RELEASE_COUNTERS_SQL, session.getModuleId(), sessionId);
+        int expired = jdbcTemplate.update(EXPIRE_SEATS_SQL, sessionId, sessionId);
+        jdbcTemplate.update(DELETE_UNSTARTED_SQL, sessionId);
+        jdbcTemplate.update("UPDATE exam_sessions SET closed_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now()), sessionId);
+        log.info("Exam session {} {}: {} unstarted attempts released", sessionId, finalStatus.toLowerCase(), expired);
+        return true;
+    }
+
+    private void load(ExamSession session) {
+        Long sessionId = session.getId();
+        LoadedSession loaded = new LoadedSession(session, buildPaper(session.getModuleId()));
+        // Compile the key now rather than on the first submission
+        answerKeyCache.get(session.getModuleId());
+
+        List<Seat> seats = new ArrayList<>();
+        jdbcTemplate.query(LOAD_SEATS_SQL, rs -> {
+            Timestamp claimedAt = rs.getTimestamp("claimed_at");
+            Seat seat = new Seat(loaded, rs.getString("token"), rs.getLong("user_id"), rs.getString("username"),
+                    rs.getLong("assessment_id"), rs.getInt("attempt_number"));
+            seat.claimedAt.set(claimedAt != null ? claimedAt.toLocalDateTime() : null);
+            seat.state.set(rs.getTimestamp("completed_at") != null ? GRADED : READY);
+            seats.add(seat);
+        }, sessionId);
+
+        for (Seat seat : seats) {
+            seatsByToken.put(seat.token, seat);
+            seatsByAssessment.put(seat.assessmentId, seat);
+            seatsByUsername.computeIfAbsent(seat.username, k -> new CopyOnWriteArrayList<>()).add(seat);
+        }
+        sessions.put(sessionId, loaded);
+        log.info("Loaded exam session {} with {} seats", sessionId, seats.size());
+    }
+
+    private void unload(Long sessionId) {
+        if (sessions.remove(sessionId) == null) {
+            return;
+        }
+        seatsByToken.values().removeIf(seat -> seat.session.session.getId().equals(sessionId));
+        seatsByAssessment.values().removeIf(seat -> seat.session.session.getId().equals(sessionId));
+        seatsByUsername.values().forEach(seats -> seats.removeIf(seat -> seat.session.session.getId().equals(sessionId)));
+        seatsByUsername.values().removeIf(List::isEmpty);
+    }
+
+    /**
+     * Questions and answer options as handed to candidates; correctness is left out.
+     */
+    private List<Map<String, Object>> buildPaper(Long moduleId) {
+        List<Question> questions = new ArrayList<>(questionRepository.findWithAnswersByModuleId(moduleId));
+        questions.sort(Comparator.comparing(Question::getOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Question::getId));
+
+        List<Map<String, Object>> paper = new ArrayList<>(questions.size());
+        for (Question question : questions) {
+            List<Answer> answers = new ArrayList<>(question.getAnswers());
+            answers.sort(Comparator.comparing(Answer::getOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(Answer::getId));
+
+            List<Map<String, Object>> options = new ArrayList<>(answers.size());
+            for (Answer answer : answers) {
+                Map<String, Object> option = new LinkedHashMap<>();
+                option.put("id", answer.getId());
+                option.put("answerText", answer.getAnswerText());
+                options.add(Collections.unmodifiableMap(option));
+            }
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", question.getId());
+            entry.put("questionText", question.getQuestionText());
+            entry.put("questionType", question.getQuestionType());
+            entry.put("points", question.getPoints());
+            entry.put("answers", Collections.unmodifiableList(options));
+            paper.add(Collections.unmodifiableMap(entry));
+        }
+        return Collections.unmodifiableList(paper);
+    }
+
+    private void markClaimed(Seat seat, LocalDateTime now) {
+        if (seat.claimedAt.compareAndSet(null, now)) {
+            pendingClaims.add(seat);
+            learningFunnelService.moduleStarted(seat.session.session.getCourseId(), seat.userId);
+        }
+    }
+
+    private Seat ownedSeat(Long assessmentId, String username) {
+        Seat seat = seatsByAssessment.get(assessmentId);
+        if (seat == null || !seat.username.equals(username)) {
+            throw new RuntimeException("Exam attempt not found");
+        }
+        return seat;
+    }
+
+    private Map<String, Object> summary(Assessment assessment) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("assessmentId", assessment.getId());
+        result.put("passed", assessment.getPassed());
+        result.put("percentage", assessment.getPercentage());
+        result.put("score", assessment.getScore() + "/" + assessment.getTotalPoints());
+        result.put("feedback", assessment.getFeedback());
+        result.put("completedAt", assessment.getCompletedAt());
+        return result;
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static final class LoadedSession {
+        private final ExamSession session;
+        private final List<Map<String, Object>> paper;
+
+        private LoadedSession(ExamSession session, List<Map<String, Object>> paper) {
+            this.session = session;
+            this.paper = paper;
+        }
+    }
+
+    private static final class Seat {
+        private final LoadedSession session;
+        private final String token;
+        private final Long userId;
+        private final String username;
+        private final Long assessmentId;
+        private final int attemptNumber;
+        private final AtomicReference<LocalDateTime> claimedAt = new AtomicReference<>();
+        private final AtomicReference<String> state = new AtomicReference<>(READY);
+        private volatile Map<String, Object> result;
+
+        private Seat(LoadedSession session, String token, Long userId, String username,
+                     Long assessmentId, int attemptNumber) {
+            this.session = session;
+            this.token = token;
+            this.userId = userId;
+            this.username = username;
+            this.assessmentId = assessmentId;
+            this.attemptNumber = attemptNumber;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.itas.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams stored files to the client with HTTP Range / If-Range support.
+ * When the connector offers sendfile, single regions are handed to Tomcat and
+ * the kernel copies them without touching the heap. Otherwise bytes are moved
+ * with FileChannel transfers into the servlet output stream, which copies them
+ * through a small heap buffer rather than loading whole files into memory.
+ *
+ * With app.file.delivery-mode=nginx, files under the upload directory are
+ * handed to nginx with X-Accel-Redirect instead: validators are still checked
+ * here, nginx streams the bytes (and ranges) from its internal location. Only
+ * requests on which nginx announced itself with "X-Sendfile-Type:
+ * X-Accel-Redirect" are handed off; anything reaching the backend port
+ * directly is still streamed from Java.
+ */
+@Service
+public class FileDeliveryService {
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    // Guards against "bytes=0-0,1-1,2-2,..." style requests
+    private static final int MAX_RANGES = 16;
+
+    private static final String ACCEL_REDIRECT_HEADER = "X-Accel-Redirect";
+    // Set by the proxy on requests it can complete with X-Accel-Redirect
+    private static final String SENDFILE_TYPE_HEADER = "X-Sendfile-Type";
+
+    @Value("${app.file.delivery-mode:java}")
+    private String deliveryMode;
+
+    @Value("${app.file.accel-redirect-prefix:/protected-files/}")
+    private String accelRedirectPrefix;
+
+    @Value("${app.file.upload-dir:./uploads}")
+    private String uploadDir;
+
+    /**
+     * True when the request continues an earlier transfer (Range that does not start at byte 0).
+     * Used so that resumed downloads are not counted twice. Suffix ranges ("bytes=-N") ask for
+     * the tail of the file, e.g. media players probing metadata, and are not resumptions.
+     */
+    public boolean isResumedTransfer(HttpServletRequest request) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return false;
+        }
+        int specStart = rangeHeader.indexOf('=');
+        if (specStart >= 0 && rangeHeader.substring(specStart + 1).trim().startsWith("-")) {
+            return false;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return !ranges.isEmpty() && ranges.get(0).getRangeStart(Long.MAX_VALUE) > 0;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Write the file (or the requested ranges of it) to the response, or a 304 when
+     * the client's If-None-Match / If-Modified-Since validators still match.
+     *
+     * @param etag strong validator for the file content, or null if none is known
+     * @return true if content was sent, false for 304/412/416 responses
+     */
+    public boolean serveFile(Path file, String fileName, String mimeType, String etag,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String contentType = mimeType != null ? mimeType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        // Same URL can point at new content after an update, so caches must revalidate
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            // 304 (or 412 for a failed If-Match) with validators already set
+            return false;
+        }
+        if (fileName != null) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(fileName, StandardCharsets.UTF_8)
+                    .build()
+                    .toString());
+        }
+
+        String accelPath = accelRedirectPath(file, request);
+        if (accelPath != null) {
+            // nginx keeps Content-Type, Content-Disposition and Cache-Control and handles Range itself
+            response.setContentType(contentType);
+            response.setHeader(ACCEL_REDIRECT_HEADER, accelPath);
+            return true;
+        }
+
+        List<HttpRange> ranges = resolveRanges(request, etag, lastModified);
+
+        if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            response.setContentLengthLong(length);
+            sendRegion(file, 0, length, request, response);
+            return true;
+        }
+
+        // Validate ranges against the actual length
+        List<long[]> regions = new ArrayList<>();
+        try {
+            for (HttpRange range : ranges) {
+                long start = range.getRangeStart(length);
+                long end = range.getRangeEnd(length);
+                if (start >= length || end < start) {
+                    throw new IllegalArgumentException("Unsatisfiable range");
+                }
+                regions.add(new long[] { start, end });
+            }
+        } catch (IllegalArgumentException e) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return false;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+
+        if (regions.size() == 1) {
+            long start = regions.get(0)[0];
+            long end = regions.get(0)[1];
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            response.setContentLengthLong(end - start + 1);
+            sendRegion(file, start, end - start + 1, request, response);
+            return true;
+        }
+
+        sendMultipart(file, contentType, length, regions, response);
+        return true;
+    }
+
+    /**
+     * Internal nginx URI for the file, or null to stream it from Java
+     * (java mode, or a legacy file stored outside the upload directory).
+     */
+    private String accelRedirectPath(Path file, HttpServletRequest request) {
+        if (!"nginx".equalsIgnoreCase(deliveryMode)
+                || !ACCEL_REDIRECT_HEADER.equalsIgnoreCase(request.getHeader(SENDFILE_TYPE_HEADER))) {
+            return null;
+        }
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path target = file.toAbsolutePath().normalize();
+        if (!target.startsWith(root)) {
+            return null;
+        }
+
+        StringBuilder uri = new StringBuilder(accelRedirectPrefix.endsWith("/")
+                ? accelRedirectPrefix.substring(0, accelRedirectPrefix.length() - 1) : accelRedirectPrefix);
+        for (Path segment : root.relativize(target)) {
+            uri.append('/').append(UriUtils.encodePathSegment(segment.toString(), StandardCharsets.UTF_8));
+        }
+        return uri.toString();
+    }
+
+    /**
+     * Returns the ranges to serve, or null when the full body should be sent
+     * (no Range header, or an If-Range validator that no longer matches).
+     */
+    private List<HttpRange> resolveRanges(HttpServletRequest request, String etag, long lastModified) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRangeMatches(ifRange, request, etag, lastModified)) {
+            return null;
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            // Malformed Range headers are ignored per RFC 9110
+            return null;
+        }
+        if (ranges.isEmpty() || ranges.size() > MAX_RANGES) {
+            return null;
+        }
+        return ranges;
+    }
+
+    private boolean ifRangeMatches(String ifRange, HttpServletRequest request, String etag, long lastModified) {
+        if (ifRange.startsWith("\"")) {
+            // If-Range requires a strong comparison
+            return etag != null && etag.equals(ifRange);
+        }
+        if (ifRange.startsWith("W/")) {
+            return false;
+        }
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return since != -1 && lastModified / 1000 == since / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void sendRegion(Path file, long start, long count, HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // Let Tomcat hand the region to the kernel once the response is committed
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().normalize().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + count);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            transfer(channel, start, count, out);
+        }
+    }
+
+    private void sendMultipart(Path file, String contentType, long length, List<long[]> regions,
+                               HttpServletResponse response) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+
+        List<byte[]> partHeaders = new ArrayList<>(regions.size());
+        long contentLength = 0;
+        for (long[] region : regions) {
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + region[0] + "-" + region[1] + "/" + length + "\r\n"
+                    + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + (region[1] - region[0] + 1);
+        }
+        byte[] trailer = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += trailer.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel outChannel = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < regions.size(); i++) {
+                long[] region = regions.get(i);
+                out.write(partHeaders.get(i));
+                transfer(channel, region[0], region[1] - region[0] + 1, outChannel);
+            }
+        }
+        out.write(trailer);
+        out.flush();
+    }
+
+    private void transfer(FileChannel channel, long position, long count, WritableByteChannel out) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long written = channel.transferTo(position, remaining, out);
+            if (written <= 0) {
+                break;
+            }
+            position += written;
+            remaining -= written;
+        }
+    }
+}
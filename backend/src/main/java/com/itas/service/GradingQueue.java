@@ -0,0 +1,116 @@
+package com.itas.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool that grades exam-session submissions.
+ *
+ * A whole cohort submits within the last minutes of a window, so grading
+ * runs on a fixed number of threads behind a fixed-size queue instead of on
+ * request threads. When the queue is full a submission is refused with
+ * QueueFullException rather than piling up connections; callers report the
+ * queue depth so clients can back off and retry.
+ */
+@Component
+public class GradingQueue {
+
+    @Value("${app.exams.grading-threads:8}")
+    private int threads;
+
+    @Value("${app.exams.grading-queue-capacity:500}")
+    private int capacity;
+
+    private final MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private Timer gradingTimer;
+    private Counter rejected;
+
+    public GradingQueue(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), runnable -> {
+                    Thread thread = new Thread(runnable, "exam-grading-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        gradingTimer = Timer.builder("itas.exams.grading")
+                .description("Time to grade one exam-session submission")
+                .register(meterRegistry);
+        rejected = Counter.builder("itas.exams.grading.rejected")
+                .description("Submissions refused because the grading queue was full")
+                .register(meterRegistry);
+        Gauge.builder("itas.exams.grading.queue", this, GradingQueue::depth)
+                .description("Submissions waiting to be graded")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Let queued submissions finish; anything left is still ungraded in the database
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queue a grading task.
+     *
+     * @throws QueueFullException when the queue is at capacity
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> gradingTimer.record(task), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new QueueFullException("Grading queue is full (" + depth() + " waiting), try again shortly");
+        }
+    }
+
+    public int depth() {
+        return executor.getQueue().size();
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("queued", depth());
+        status.put("capacity", capacity);
+        status.put("active", executor.getActiveCount());
+        status.put("threads", threads);
+        status.put("completed", executor.getCompletedTaskCount());
+        status.put("rejected", (long) rejected.count());
+        return status;
+    }
+
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException(String message) {
+            super(message);
+        }
+    }
+}
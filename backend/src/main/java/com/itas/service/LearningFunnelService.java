@@ -0,0 +1,231 @@
+package com.itas.service;
+
+import com.itas.funnel.FunnelEngine;
+import com.itas.funnel.FunnelStage;
+import com.itas.model.Course;
+import com.itas.repository.CourseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Enrollment → module start → assessment pass → completion → certificate
+ * funnels per course and monthly enrollment cohort.
+ *
+ * The engine is built from one streamed query over all funnel events and then
+ * kept current by the same events as they commit. A periodic rebuild corrects
+ * rows changed outside these services (e.g. revoked certificates).
+ */
+@Service
+public class LearningFunnelService {
+    
+    private static final Logger log = LoggerFactory.getLogger(LearningFunnelService.class);
+    
+    // stage: 0 enrolled, 1 module started, 2 assessment passed, 3 completed, 4 certified
+    private static final String EVENTS_SQL =
+            "SELECT e.course_id, e.user_id, CASE WHEN e.status = 'COMPLETED' THEN 3 ELSE 0 END, e.enrolled_at "
+            + "FROM enrollments e "
+            + "UNION ALL "
+            + "SELECT e.course_id, e.user_id, CASE WHEN mp.passed = TRUE THEN 2 ELSE 1 END, NULL "
+            + "FROM module_progress mp JOIN enrollments e ON e.id = mp.enrollment_id "
+            + "UNION ALL "
+            + "SELECT m.course_id, a.user_id, CASE WHEN a.passed = TRUE THEN 2 ELSE 1 END, NULL "
+            + "FROM assessments a JOIN modules m ON m.id = a.module_id "
+            + "UNION ALL "
+            + "SELECT c.course_id, c.user_id, 4, NULL "
+            + "FROM certificates c WHERE c.verified = TRUE AND c.course_id IS NOT NULL";
+    
+    private static final FunnelStage[] STAGES = FunnelStage.values();
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private CourseRepository courseRepository;
+    
+    @Value("${app.analytics.export-fetch-size:1000}")
+    private int fetchSize;
+    
+    private final TransactionTemplate readOnlyTransaction;
+    
+    // Guards the engine swap against events arriving while a rebuild streams
+    private final Object lock = new Object();
+    
+    private volatile FunnelEngine engine;
+    
+    private List<Event> replay;
+    
+    public LearningFunnelService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    public void enrolled(Long courseId, Long userId, LocalDateTime enrolledAt) {
+        record(courseId, userId, FunnelStage.ENROLLED, cohort(enrolledAt));
+    }
+    
+    public void moduleStarted(Long courseId, Long userId) {
+        record(courseId, userId, FunnelStage.MODULE_STARTED, 0);
+    }
+    
+    public void assessmentPassed(Long courseId, Long userId) {
+        record(courseId, userId, FunnelStage.ASSESSMENT_PASSED, 0);
+    }
+    
+    public void courseCompleted(Long courseId, Long userId) {
+        record(courseId, userId, FunnelStage.COMPLETED, 0);
+    }
+    
+    public void certificateIssued(Long courseId, Long userId) {
+        record(courseId, userId, FunnelStage.CERTIFIED, 0);
+    }
+    
+    /**
+     * Funnels per (course, cohort) matching the filters, plus their combined total.
+     *
+     * @param courseId restrict to one course, or null for all
+     * @param cohort restrict to one enrollment month, or null for all
+     */
+    public Map<String, Object> getFunnels(Long courseId, YearMonth cohort) {
+        FunnelEngine current = engine;
+        if (current == null) {
+            rebuild();
+            current = engine;
+        }
+        
+        List<Long> courseIds = courseId != null ? List.of(courseId) : current.courses();
+        Map<Long, String> titles = new HashMap<>();
+        for (Course course : courseRepository.findAllById(courseIds)) {
+            titles.put(course.getId(), course.getTitle());
+        }
+        
+        Integer cohortKey = cohort != null ? FunnelEngine.cohort(cohort.getYear(), cohort.getMonthValue()) : null;
+        long[] total = new long[STAGES.length];
+        List<Map<String, Object>> funnels = new ArrayList<>();
+        for (Long id : courseIds) {
+            for (Map.Entry<Integer, long[]> entry : current.cohorts(id).entrySet()) {
+                if (cohortKey != null && !cohortKey.equals(entry.getKey())) {
+                    continue;
+                }
+                long[] counts = entry.getValue();
+                for (int i = 0; i < counts.length; i++) {
+                    total[i] += counts[i];
+                }
+                
+                Map<String, Object> funnel = new LinkedHashMap<>();
+                funnel.put("courseId", id);
+                funnel.put("courseTitle", titles.get(id));
+                funnel.put("cohort", YearMonth.of(entry.getKey() / 100, entry.getKey() % 100).toString());
+                funnel.put("stages", stages(counts));
+                funnels.add(funnel);
+            }
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("funnels", funnels);
+        result.put("total", stages(total));
+        return result;
+    }
+    
+    /**
+     * Rebuild the engine from one streamed pass over enrollments, module
+     * progress, assessments and certificates, then swap it in.
+     */
+    @Scheduled(initialDelayString = "${app.funnels.rebuild-initial-delay-ms:20000}",
+               fixedDelayString = "${app.funnels.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        FunnelEngine previous = engine;
+        FunnelEngine fresh = new FunnelEngine(previous != null ? previous.size() : 1024);
+        synchronized (lock) {
+            replay = new ArrayList<>();
+        }
+        
+        long started = System.currentTimeMillis();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EVENTS_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                Timestamp enrolledAt = rs.getTimestamp(4);
+                fresh.apply(rs.getLong(1), rs.getLong(2), STAGES[rs.getInt(3)],
+                        enrolledAt != null ? cohort(enrolledAt.toLocalDateTime()) : 0);
+            }));
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                replay = null;
+            }
+            throw e;
+        }
+        
+        synchronized (lock) {
+            // Events are idempotent, so replaying ones the query already saw is harmless
+            for (Event event : replay) {
+                fresh.apply(event.courseId(), event.userId(), event.stage(), event.cohort());
+            }
+            replay = null;
+            engine = fresh;
+        }
+        log.info("Learning funnels rebuilt from {} enrollments in {} ms",
+                fresh.size(), System.currentTimeMillis() - started);
+    }
+    
+    private void record(Long courseId, Long userId, FunnelStage stage, int cohort) {
+        if (courseId == null || userId == null) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            synchronized (lock) {
+                FunnelEngine current = engine;
+                if (current != null) {
+                    current.apply(courseId, userId, stage, cohort);
+                }
+                if (replay != null) {
+                    replay.add(new Event(courseId, userId, stage, cohort));
+                }
+            }
+        });
+    }
+    
+    private List<Map<String, Object>> stages(long[] counts) {
+        List<Map<String, Object>> stages = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            Map<String, Object> stage = new LinkedHashMap<>();
+            stage.put("stage", STAGES[i].name());
+            stage.put("users", counts[i]);
+            stage.put("conversionRate", percent(counts[i], counts[0]));
+            stage.put("stepConversionRate", percent(counts[i], i == 0 ? counts[0] : counts[i - 1]));
+            stages.add(stage);
+        }
+        return stages;
+    }
+    
+    private static double percent(long part, long whole) {
+        return whole > 0 ? Math.round(part * 1000.0 / whole) / 10.0 : 0.0;
+    }
+    
+    private static int cohort(LocalDateTime enrolledAt) {
+        return enrolledAt != null ? FunnelEngine.cohort(enrolledAt.getYear(), enrolledAt.getMonthValue()) : 0;
+    }
+    
+    private record Event(long courseId, long userId, FunnelStage stage, int cohort) {}
+}
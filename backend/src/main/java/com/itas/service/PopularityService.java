@@ -0,0 +1,309 @@
+package com.itas.service;
+
+import com.itas.model.Resource;
+import com.itas.repository.ResourceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Maintained "popular" (all-time downloads) and "trending" (time-decayed recent
+ * activity) rankings for resources.
+ *
+ * Popular is seeded with ORDER BY download_count DESC LIMIT and then kept exact
+ * from the deltas ResourceCounterService flushes: every touched resource is
+ * re-read with its new absolute count, and only the best {@code capacity} are
+ * tracked. Because counts only grow, a resource pushed out of the tracked set
+ * cannot overtake without being touched again. Trending keeps hourly buckets
+ * over a sliding window, each hour worth {@code decay} times the next newer one.
+ *
+ * Both rankings are published as immutable snapshots, so reads are O(K) and
+ * never touch the database. Flushes and removals arrive as ResourceCounterService
+ * events; edits to a ranked resource replace its entry through {@link #update}.
+ */
+@Service
+public class PopularityService {
+    
+    private static final Logger log = LoggerFactory.getLogger(PopularityService.class);
+    
+    private static final long HOUR_MS = 3_600_000L;
+    // A view is worth this much of a download in the trending score
+    private static final double VIEW_WEIGHT = 0.1;
+    
+    @Autowired
+    private ResourceRepository resourceRepository;
+    
+    @Value("${app.popular.capacity:50}")
+    private int capacity;
+    
+    @Value("${app.popular.trending-window-hours:24}")
+    private int windowHours;
+    
+    @Value("${app.popular.trending-decay:0.9}")
+    private double decay;
+    
+    // Guarded by this
+    private final Map<Long, Resource> tracked = new HashMap<>();
+    private final Map<Long, Activity> activity = new HashMap<>();
+    private volatile boolean seeded;
+    
+    private volatile List<Resource> popularSnapshot = Collections.emptyList();
+    private volatile List<Resource> trendingSnapshot = Collections.emptyList();
+    
+    public List<Resource> getPopular(int limit) {
+        if (!seeded) {
+            reseed();
+        }
+        return head(popularSnapshot, limit);
+    }
+    
+    public List<Resource> getTrending(int limit) {
+        return head(trendingSnapshot, limit);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reseed();
+    }
+    
+    /**
+     * Reload the tracked set from the database. Runs periodically to pick up
+     * changes made outside the counter path (imports, manual fixes).
+     */
+    @Scheduled(fixedDelayString = "${app.popular.reseed-interval-ms:3600000}",
+               initialDelayString = "${app.popular.reseed-interval-ms:3600000}")
+    public synchronized void reseed() {
+        List<Resource> top = resourceRepository.findMostDownloaded(PageRequest.of(0, capacity));
+        tracked.clear();
+        for (Resource resource : top) {
+            tracked.put(resource.getId(), SearchIndexService.snapshot(resource));
+        }
+        seeded = true;
+        publishPopular();
+        log.debug("Popular resources reseeded with {} rows", top.size());
+    }
+    
+    /**
+     * Rank the deltas of a successful ResourceCounterService flush.
+     */
+    @EventListener
+    public synchronized void onCountersFlushed(ResourceCounterService.CountersFlushed event) {
+        Map<Long, long[]> deltas = event.getDeltas();
+        long hour = System.currentTimeMillis() / HOUR_MS;
+        for (Map.Entry<Long, long[]> entry : deltas.entrySet()) {
+            long[] delta = entry.getValue();
+            activity.computeIfAbsent(entry.getKey(), id -> new Activity(windowHours))
+                    .add(hour, delta[1] + VIEW_WEIGHT * delta[0]);
+        }
+        
+        // Downloads moved: re-read those rows so tracked counts are absolute, not estimated
+        List<Long> downloaded = new ArrayList<>();
+        deltas.forEach((id, delta) -> {
+            if (delta[1] != 0) {
+                downloaded.add(id);
+            }
+        });
+        if (!downloaded.isEmpty()) {
+            for (Resource resource : resourceRepository.findAllWithUploaderByIdIn(downloaded)) {
+                tracked.put(resource.getId(), SearchIndexService.snapshot(resource));
+            }
+            trimTracked();
+            publishPopular();
+        }
+        publishTrending(hour);
+    }
+    
+    @EventListener
+    public void onResourceForgotten(ResourceCounterService.ResourceForgotten event) {
+        remove(event.getResourceId());
+    }
+    
+    /**
+     * Replace the ranked copy of an edited resource once its transaction commits,
+     * so rankings do not show the old title until the next reseed.
+     */
+    public void update(Resource resource) {
+        Resource copy = SearchIndexService.snapshot(resource);
+        AfterCommit.run(() -> replace(copy));
+    }
+    
+    /**
+     * Drop a deleted or archived resource from both rankings.
+     */
+    public synchronized void remove(Long resourceId) {
+        activity.remove(resourceId);
+        if (tracked.remove(resourceId) != null) {
+            publishPopular();
+        }
+        publishTrending(System.currentTimeMillis() / HOUR_MS);
+    }
+    
+    /**
+     * Re-rank trending as the window slides even when nothing new is recorded.
+     */
+    @Scheduled(fixedDelayString = "${app.popular.trending-refresh-ms:60000}")
+    public synchronized void refreshTrending() {
+        publishTrending(System.currentTimeMillis() / HOUR_MS);
+    }
+    
+    private synchronized void replace(Resource copy) {
+        Resource previous = tracked.get(copy.getId());
+        if (previous != null) {
+            tracked.put(copy.getId(), mergeCounts(copy, previous));
+            publishPopular();
+        }
+        
+        List<Resource> trending = new ArrayList<>(trendingSnapshot);
+        for (int i = 0; i < trending.size(); i++) {
+            if (trending.get(i).getId().equals(copy.getId())) {
+                trending.set(i, mergeCounts(copy, trending.get(i)));
+                trendingSnapshot = Collections.unmodifiableList(trending);
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Counts in the ranked copy may be fresher than the ones read with the edit.
+     */
+    private static Resource mergeCounts(Resource copy, Resource previous) {
+        copy.setDownloadCount(Math.max(count(copy.getDownloadCount()), count(previous.getDownloadCount())));
+        copy.setViewCount(Math.max(count(copy.getViewCount()), count(previous.getViewCount())));
+        return copy;
+    }
+    
+    private void trimTracked() {
+        if (tracked.size() <= capacity) {
+            return;
+        }
+        List<Resource> ranked = new ArrayList<>(tracked.values());
+        ranked.sort(PopularityService::byDownloads);
+        for (Resource dropped : ranked.subList(capacity, ranked.size())) {
+            tracked.remove(dropped.getId());
+        }
+    }
+    
+    private void publishPopular() {
+        List<Resource> ranked = new ArrayList<>(tracked.values());
+        ranked.sort(PopularityService::byDownloads);
+        popularSnapshot = Collections.unmodifiableList(ranked);
+    }
+    
+    private void publishTrending(long hour) {
+        // Bounded min-heap: O(M log K) over resources active in the window
+        PriorityQueue<Object[]> heap = new PriorityQueue<>(
+                (a, b) -> Double.compare((Double) a[1], (Double) b[1]));
+        Iterator<Map.Entry<Long, Activity>> it = activity.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Activity> entry = it.next();
+            double score = entry.getValue().score(hour, decay);
+            if (score <= 0) {
+                // Fell out of the window
+                it.remove();
+                continue;
+            }
+            heap.add(new Object[] { entry.getKey(), score });
+            if (heap.size() > capacity) {
+                heap.poll();
+            }
+        }
+        
+        List<Object[]> ranked = new ArrayList<>(heap);
+        ranked.sort((a, b) -> Double.compare((Double) b[1], (Double) a[1]));
+        
+        // Payloads come from the popular set or the previous snapshot; only newcomers are loaded
+        Map<Long, Resource> known = new HashMap<>();
+        for (Resource resource : trendingSnapshot) {
+            known.put(resource.getId(), resource);
+        }
+        known.putAll(tracked);
+        List<Long> missing = new ArrayList<>();
+        for (Object[] entry : ranked) {
+            if (!known.containsKey((Long) entry[0])) {
+                missing.add((Long) entry[0]);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Resource resource : resourceRepository.findAllWithUploaderByIdIn(missing)) {
+                known.put(resource.getId(), SearchIndexService.snapshot(resource));
+            }
+        }
+        
+        List<Resource> result = new ArrayList<>(ranked.size());
+        for (Object[] entry : ranked) {
+            Resource resource = known.get((Long) entry[0]);
+            if (resource != null) {
+                result.add(resource);
+            }
+        }
+        trendingSnapshot = Collections.unmodifiableList(result);
+    }
+    
+    private static int byDownloads(Resource a, Resource b) {
+        int cmp = Integer.compare(count(b.getDownloadCount()), count(a.getDownloadCount()));
+        return cmp != 0 ? cmp : Long.compare(b.getId(), a.getId());
+    }
+    
+    private static int count(Integer value) {
+        return value == null ? 0 : value;
+    }
+    
+    private static List<Resource> head(List<Resource> snapshot, int limit) {
+        return snapshot.subList(0, Math.max(0, Math.min(limit, snapshot.size())));
+    }
+    
+    /**
+     * Hourly activity ring for one resource.
+     */
+    private static class Activity {
+        private final double[] buckets;
+        private long lastHour = -1;
+        
+        Activity(int windowHours) {
+            this.buckets = new double[windowHours];
+        }
+        
+        void add(long hour, double amount) {
+            if (lastHour >= 0 && hour <= lastHour - buckets.length) {
+                return;
+            }
+            if (lastHour >= 0 && hour > lastHour) {
+                // Clear the slots of hours that passed without activity
+                long gap = Math.min(hour - lastHour, buckets.length);
+                for (long h = lastHour + 1; h <= lastHour + gap; h++) {
+                    buckets[(int) (h % buckets.length)] = 0;
+                }
+            }
+            if (hour >= lastHour) {
+                lastHour = hour;
+            }
+            buckets[(int) (hour % buckets.length)] += amount;
+        }
+        
+        double score(long now, double decay) {
+            double score = 0;
+            double weight = 1;
+            for (int age = 0; age < buckets.length; age++, weight *= decay) {
+                long hour = now - age;
+                if (hour <= lastHour && hour > lastHour - buckets.length) {
+                    score += buckets[(int) (hour % buckets.length)] * weight;
+                }
+            }
+            return score;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.itas.service;
+
+import com.itas.export.RowWriter;
+import com.itas.model.ReportJob;
+import com.itas.repository.ReportJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background analytics exports.
+ *
+ * Submitting stores a QUEUED row in report_jobs and returns at once; a fixed
+ * pool of workers claims queued rows, writes the file under app.reports.dir
+ * and records progress. That directory is kept outside upload-dir so files are
+ * only reachable through the role-checked export download. Identical requests that arrive
+ * while a job is queued or running get that job back. The table is the queue,
+ * so jobs interrupted by a restart are queued again on startup. Finished
+ * files are removed after app.reports.ttl-hours.
+ */
+@Service
+public class ReportJobService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+    
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    
+    private static final List<String> IN_FLIGHT = List.of(QUEUED, RUNNING);
+    
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+    
+    @Autowired
+    private AnalyticsExportService analyticsExportService;
+    
+    @Value("${app.reports.dir:./reports}")
+    private String reportsDir;
+    
+    @Value("${app.reports.workers:2}")
+    private int workers;
+    
+    @Value("${app.reports.max-queued:50}")
+    private int maxQueued;
+    
+    @Value("${app.reports.ttl-hours:24}")
+    private long ttlHours;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private ThreadPoolExecutor executor;
+    
+    // Rows written so far by jobs running on this node
+    private final Map<String, AtomicLong> progress = new ConcurrentHashMap<>();
+    
+    // Jobs handed to the executor and not finished yet
+    private final Set<String> dispatched = ConcurrentHashMap.newKeySet();
+    
+    private volatile boolean shuttingDown;
+    
+    public ReportJobService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @PostConstruct
+    public void startWorkers() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // The in-memory queue only holds the next job per worker; the rest wait in report_jobs
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers), runnable -> {
+                    Thread thread = new Thread(runnable, "report-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    @PreDestroy
+    public void stopWorkers() throws InterruptedException {
+        shuttingDown = true;
+        executor.shutdownNow();
+        // Interrupted jobs stay RUNNING and are queued again on the next start
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Queue an export, or return the queued/running job for the same dataset and format.
+     */
+    public synchronized ReportJob submit(String dataset, String format, String requestedBy) {
+        String fileFormat = format == null ? null : format.toLowerCase();
+        if (!analyticsExportService.isFormat(fileFormat)) {
+            throw new RuntimeException("Unsupported format: " + format + " (expected csv or xlsx)");
+        }
+        if (!analyticsExportService.isDataset(dataset)) {
+            throw new RuntimeException("Unknown dataset: " + dataset);
+        }
+        
+        String dedupKey = dataset + "|" + fileFormat;
+        ReportJob existing = reportJobRepository
+                .findFirstByDedupKeyAndStatusInOrderByCreatedAtAsc(dedupKey, IN_FLIGHT)
+                .orElse(null);
+        if (existing != null) {
+            return existing;
+        }
+        if (reportJobRepository.countByStatusIn(IN_FLIGHT) >= maxQueued) {
+            throw new QueueFullException("Report queue is full, try again later");
+        }
+        
+        ReportJob job = new ReportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setDataset(dataset);
+        job.setFormat(fileFormat);
+        job.setDedupKey(dedupKey);
+        job.setRequestedBy(requestedBy);
+        job.setStatus(QUEUED);
+        job.setCreatedAt(LocalDateTime.now());
+        ReportJob saved = reportJobRepository.save(job);
+        
+        dispatch();
+        return saved;
+    }
+    
+    public ReportJob getJob(String jobId) {
+        return reportJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Report not found or expired"));
+    }
+    
+    /**
+     * Rows written so far: live count while the job runs here, stored count otherwise.
+     */
+    public long getRowsWritten(ReportJob job) {
+        AtomicLong live = progress.get(job.getId());
+        if (live != null) {
+            return live.get();
+        }
+        return job.getRowsWritten() != null ? job.getRowsWritten() : 0L;
+    }
+    
+    /**
+     * Hand queued jobs to idle workers, oldest first.
+     */
+    @Scheduled(fixedDelayString = "${app.reports.dispatch-interval-ms:5000}")
+    public synchronized void dispatch() {
+        if (shuttingDown || executor == null) {
+            return;
+        }
+        for (ReportJob job : reportJobRepository.findByStatusOrderByCreatedAtAsc(QUEUED)) {
+            if (executor.getQueue().remainingCapacity() == 0) {
+                return;
+            }
+            String jobId = job.getId();
+            if (!dispatched.add(jobId)) {
+                continue;
+            }
+            try {
+                executor.execute(() -> run(jobId));
+            } catch (RejectedExecutionException e) {
+                dispatched.remove(jobId);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Queue again the jobs that were running when the application last stopped.
+     */
+    public void recover() {
+        Integer requeued = transactionTemplate.execute(status -> reportJobRepository.requeueRunning());
+        if (requeued != null && requeued > 0) {
+            log.info("Requeued {} interrupted report jobs", requeued);
+        }
+        dispatch();
+    }
+    
+    /**
+     * Remove finished jobs and their files once the TTL has passed.
+     */
+    @Scheduled(fixedDelayString = "${app.reports.cleanup-interval-ms:3600000}")
+    public void expireReports() {
+        for (ReportJob job : reportJobRepository.findByExpiresAtBefore(LocalDateTime.now())) {
+            try {
+                if (job.getFilePath() != null) {
+                    Files.deleteIfExists(Paths.get(job.getFilePath()));
+                }
+                reportJobRepository.delete(job);
+            } catch (Exception e) {
+                log.warn("Could not expire report {}", job.getId(), e);
+            }
+        }
+    }
+    
+    private void run(String jobId) {
+        try {
+            Integer claimed = transactionTemplate.execute(status ->
+                    reportJobRepository.claim(jobId, LocalDateTime.now()));
+            if (claimed == null || claimed == 0) {
+                return;
+            }
+            reportJobRepository.findById(jobId).ifPresent(this::generate);
+        } catch (RuntimeException e) {
+            log.warn("Report job {} could not be started", jobId, e);
+        } finally {
+            progress.remove(jobId);
+            dispatched.remove(jobId);
+        }
+        // Pick up the next queued job without waiting for the scheduler
+        dispatch();
+    }
+    
+    private void generate(ReportJob job) {
+        Path dir = Paths.get(reportsDir);
+        Path target = dir.resolve(job.getId() + "." + job.getFormat());
+        Path part = dir.resolve(job.getId() + "." + job.getFormat() + ".part");
+        AtomicLong rows = new AtomicLong();
+        progress.put(job.getId(), rows);
+        
+        try {
+            Files.createDirectories(dir);
+            job.setTotalRows(analyticsExportService.countRows(job.getDataset()));
+            job = reportJobRepository.save(job);
+            
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part));
+                 RowWriter writer = new CountingRowWriter(
+                         analyticsExportService.openWriter(job.getFormat(), job.getDataset(), out), rows)) {
+                analyticsExportService.export(job.getDataset(), writer);
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            
+            job.setStatus(COMPLETED);
+            job.setRowsWritten(rows.get());
+            job.setFileName(job.getDataset() + "-" + LocalDate.now() + "." + job.getFormat());
+            job.setFilePath(target.toString());
+            job.setFileSize(Files.size(target));
+            job.setCompletedAt(LocalDateTime.now());
+            job.setExpiresAt(LocalDateTime.now().plusHours(ttlHours));
+            reportJobRepository.save(job);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(part);
+            if (shuttingDown) {
+                log.info("Report job {} interrupted by shutdown, will be requeued", job.getId());
+                return;
+            }
+            log.warn("Report job {} failed", job.getId(), e);
+            job.setStatus(FAILED);
+            job.setRowsWritten(rows.get());
+            job.setErrorMessage(e.getMessage());
+            job.setCompletedAt(LocalDateTime.now());
+            job.setExpiresAt(LocalDateTime.now().plusHours(ttlHours));
+            reportJobRepository.save(job);
+        }
+    }
+    
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+    
+    /**
+     * Thrown when too many jobs are queued or running.
+     */
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException(String message) {
+            super(message);
+        }
+    }
+    
+    /**
+     * Counts rows for progress reporting and stops the export when the worker is interrupted.
+     */
+    private static class CountingRowWriter implements RowWriter {
+        private final RowWriter delegate;
+        private final AtomicLong rows;
+        
+        CountingRowWriter(RowWriter delegate, AtomicLong rows) {
+            this.delegate = delegate;
+            this.rows = rows;
+        }
+        
+        @Override
+        public void writeHeader(List<String> columns) throws IOException {
+            delegate.writeHeader(columns);
+        }
+        
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Report generation interrupted");
+            }
+            delegate.writeRow(values);
+            rows.incrementAndGet();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.itas.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind view/download counters for resources.
+ *
+ * Hits are absorbed lock-free in per-resource LongAdders and flushed
+ * periodically as one batched "UPDATE ... SET view_count = view_count + ?"
+ * per touched resource, so concurrent hits never lose updates and cost no
+ * database round-trip on the request path. Pending deltas are flushed on
+ * shutdown.
+ *
+ * Only ids of existing resources are counted: the first hit on an id is
+ * checked against the table and remembered, so unknown ids are refused and
+ * the pending maps never hold more entries than there are resources. Entries
+ * that saw no hit for a whole flush interval are dropped.
+ *
+ * Listeners such as PopularityService learn about flushed deltas and removed
+ * resources through {@link CountersFlushed} and {@link ResourceForgotten} events.
+ */
+@Service
+public class ResourceCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceCounterService.class);
+
+    private static final String EXISTS_SQL = "SELECT COUNT(*) FROM resources WHERE id = ?";
+
+    private static final String FLUSH_SQL =
+            "UPDATE resources SET view_count = COALESCE(view_count, 0) + ?, "
+            + "download_count = COALESCE(download_count, 0) + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+
+    @Autowired
+    private AnalyticsBucketService analyticsBucketService;
+
+    private final ConcurrentHashMap<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LongAdder> pendingDownloads = new ConcurrentHashMap<>();
+    private final Set<Long> knownIds = ConcurrentHashMap.newKeySet();
+
+    private final Counter viewsRecorded;
+    private final Counter downloadsRecorded;
+    private final Counter flushedRows;
+    private final Counter flushFailures;
+
+    public ResourceCounterService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+
+        this.viewsRecorded = Counter.builder("itas.resources.views")
+                .description("Resource views recorded")
+                .register(meterRegistry);
+        this.downloadsRecorded = Counter.builder("itas.resources.downloads")
+                .description("Resource downloads recorded")
+                .register(meterRegistry);
+        this.flushedRows = Counter.builder("itas.resources.counters.flushed.rows")
+                .description("Resource rows updated by counter flushes")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("itas.resources.counters.flush.failures")
+                .description("Counter flushes that failed and were retried")
+                .register(meterRegistry);
+        Gauge.builder("itas.resources.counters.pending", this, ResourceCounterService::pendingIncrements)
+                .description("Increments not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws RuntimeException if there is no resource with this id
+     */
+    public void recordView(Long resourceId) {
+        requireResource(resourceId);
+        add(pendingViews, resourceId, 1);
+        viewsRecorded.increment();
+    }
+
+    /**
+     * @throws RuntimeException if there is no resource with this id
+     */
+    public void recordDownload(Long resourceId) {
+        requireResource(resourceId);
+        add(pendingDownloads, resourceId, 1);
+        downloadsRecorded.increment();
+    }
+
+    /**
+     * Drop pending counts and rankings for a deleted or archived resource.
+     */
+    public void forget(Long resourceId) {
+        knownIds.remove(resourceId);
+        pendingViews.remove(resourceId);
+        pendingDownloads.remove(resourceId);
+        eventPublisher.publishEvent(new ResourceForgotten(resourceId));
+    }
+
+    /**
+     * Write aggregated deltas to the database. Deltas from a failed batch are
+     * put back so they are retried on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${app.counters.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<Long, long[]> deltas = drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> batch.add(new Object[] { delta[0], delta[1], id }));
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            flushedRows.increment(batch.size());
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            log.warn("Resource counter flush failed, {} rows will be retried", batch.size(), e);
+            deltas.forEach((id, delta) -> {
+                // Resources forgotten in the meantime are not re-added
+                if (knownIds.contains(id)) {
+                    add(pendingViews, id, delta[0]);
+                    add(pendingDownloads, id, delta[1]);
+                }
+            });
+            return;
+        }
+
+        long downloads = 0;
+        for (long[] delta : deltas.values()) {
+            downloads += delta[1];
+        }
+        dashboardRollupService.downloadsFlushed(downloads);
+        analyticsBucketService.recordDownloads(downloads);
+
+        try {
+            eventPublisher.publishEvent(new CountersFlushed(deltas));
+        } catch (RuntimeException e) {
+            // Listeners keep derived data such as rankings; their next reseed corrects them
+            log.warn("Counter flush listener failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void requireResource(Long resourceId) {
+        if (resourceId == null) {
+            throw new RuntimeException("Resource not found");
+        }
+        if (knownIds.contains(resourceId)) {
+            return;
+        }
+        Integer count = jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, resourceId);
+        if (count == null || count == 0) {
+            throw new RuntimeException("Resource not found");
+        }
+        knownIds.add(resourceId);
+    }
+
+    private static void add(ConcurrentHashMap<Long, LongAdder> pending, Long id, long n) {
+        if (n == 0) {
+            return;
+        }
+        LongAdder adder = pending.computeIfAbsent(id, k -> new LongAdder());
+        adder.add(n);
+        // drain() drops adders it read as zero; if ours was dropped before the add landed, add again
+        if (pending.get(id) != adder) {
+            pending.computeIfAbsent(id, k -> new LongAdder()).add(n);
+        }
+    }
+
+    private Map<Long, long[]> drain() {
+        Map<Long, long[]> deltas = new HashMap<>();
+        // sumThenReset takes each cell with getAndSet, so concurrent increments land in this flush or the next
+        drain(pendingViews, deltas, 0);
+        drain(pendingDownloads, deltas, 1);
+        return deltas;
+    }
+
+    private static void drain(ConcurrentHashMap<Long, LongAdder> pending, Map<Long, long[]> deltas, int slot) {
+        pending.forEach((id, adder) -> {
+            long count = adder.sumThenReset();
+            if (count != 0) {
+                deltas.computeIfAbsent(id, k -> new long[2])[slot] = count;
+            } else {
+                // Idle for a whole interval; an add racing with this is re-added by add()
+                pending.computeIfPresent(id, (k, current) -> current == adder && adder.sum() == 0 ? null : current);
+            }
+        });
+    }
+
+    private double pendingIncrements() {
+        long total = 0;
+        for (LongAdder adder : pendingViews.values()) {
+            total += adder.sum();
+        }
+        for (LongAdder adder : pendingDownloads.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Published after a successful flush with resource id to {views, downloads} written.
+     */
+    public static class CountersFlushed {
+        private final Map<Long, long[]> deltas;
+
+        public CountersFlushed(Map<Long, long[]> deltas) {
+            this.deltas = deltas;
+        }
+
+        public Map<Long, long[]> getDeltas() { return deltas; }
+    }
+
+    /**
+     * Published when a resource is deleted or archived.
+     */
+    public static class ResourceForgotten {
+        private final Long resourceId;
+
+        public ResourceForgotten(Long resourceId) {
+            this.resourceId = resourceId;
+        }
+
+        public Long getResourceId() { return resourceId; }
+    }
+}
@@ -0,0 +1,318 @@
+package com.itas.service;
+
+import com.itas.dto.ResourceSearchHit;
+import com.itas.dto.ResourceSearchPage;
+import com.itas.model.Resource;
+import com.itas.repository.ResourceRepository;
+import com.itas.repository.ResourceSpecifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ranked full-text search over resources.
+ *
+ * On PostgreSQL this queries resources.search_vector (GIN index idx_resources_search)
+ * with websearch_to_tsquery / ts_rank / ts_headline. Other databases (H2 in tests)
+ * get a LIKE-based fallback that ranks and highlights the same way in Java.
+ *
+ * Highlights and snippets are HTML: the resource text is escaped and only the
+ * <mark> tags around matches are markup. ts_headline marks matches with control
+ * characters, which are swapped for the tags after escaping.
+ */
+@Service
+public class ResourceSearchService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ResourceSearchService.class);
+    
+    // Same weights as the search_vector trigger: title A, description B, category C
+    private static final double TITLE_WEIGHT = 1.0;
+    private static final double DESCRIPTION_WEIGHT = 0.4;
+    private static final double CATEGORY_WEIGHT = 0.2;
+    
+    private static final int SNIPPET_LENGTH = 200;
+    
+    // Sentinels for ts_headline; cannot survive HTML escaping or come from a search term
+    private static final String START_SEL = "\u0002";
+    private static final String STOP_SEL = "\u0003";
+    
+    private static final String TITLE_HEADLINE_OPTIONS =
+            "HighlightAll=true, StartSel=" + START_SEL + ", StopSel=" + STOP_SEL;
+    private static final String SNIPPET_HEADLINE_OPTIONS =
+            "StartSel=" + START_SEL + ", StopSel=" + STOP_SEL + ", MaxWords=35, MinWords=15, MaxFragments=2";
+    
+    // Keep in sync with the trigger function in database/schema.sql
+    private static final String SEARCH_VECTOR_FUNCTION =
+            "CREATE OR REPLACE FUNCTION resources_search_vector_update() RETURNS TRIGGER AS $$ "
+            + "BEGIN "
+            + "  NEW.search_vector := "
+            + "    setweight(to_tsvector('english', COALESCE(NEW.title, '')), 'A') || "
+            + "    setweight(to_tsvector('english', COALESCE(NEW.description, '')), 'B') || "
+            + "    setweight(to_tsvector('english', COALESCE(NEW.category, '')), 'C'); "
+            + "  RETURN NEW; "
+            + "END "
+            + "$$ LANGUAGE plpgsql";
+    
+    private static final Pattern TERM = Pattern.compile("-?[\\p{L}\\p{N}_]+");
+    
+    @Autowired
+    private ResourceRepository resourceRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private volatile Boolean postgres;
+    
+    public boolean isPostgres() {
+        if (postgres == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            postgres = product != null && product.toLowerCase(Locale.ROOT).contains("postgres");
+        }
+        return postgres;
+    }
+    
+    public ResourceSearchPage search(String query, String category, String resourceType, String audience,
+                                     Integer page, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new RuntimeException("query is required for full-text search");
+        }
+        int pageSize = size == null ? ResourceService.DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(size, ResourceService.MAX_PAGE_SIZE));
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        
+        return isPostgres()
+                ? searchPostgres(query.trim(), category, resourceType, audience, pageNumber, pageSize)
+                : searchFallback(query.trim(), category, resourceType, audience, pageNumber, pageSize);
+    }
+    
+    private ResourceSearchPage searchPostgres(String query, String category, String resourceType, String audience,
+                                              int page, int size) {
+        List<Object> params = new ArrayList<>();
+        params.add(query);
+        StringBuilder filters = new StringBuilder();
+        appendFilter(filters, params, "category", category);
+        appendFilter(filters, params, "resource_type", resourceType);
+        appendFilter(filters, params, "audience", audience);
+        params.add(size + 1);
+        params.add((long) page * size);
+        params.add(query);
+        
+        // Rank and page on the index first; headlines are only computed for the rows on this page
+        String sql = "SELECT hit.id, hit.rank, "
+                + "ts_headline('english', COALESCE(r.title, ''), q, '" + TITLE_HEADLINE_OPTIONS + "') AS title_hl, "
+                + "ts_headline('english', COALESCE(r.description, ''), q, '" + SNIPPET_HEADLINE_OPTIONS + "') AS snippet "
+                + "FROM (SELECT r.id, ts_rank(r.search_vector, q) AS rank "
+                + "      FROM resources r, websearch_to_tsquery('english', ?) q "
+                + "      WHERE r.search_vector @@ q" + filters
+                + "      ORDER BY rank DESC, r.id DESC LIMIT ? OFFSET ?) hit "
+                + "JOIN resources r ON r.id = hit.id "
+                + "CROSS JOIN websearch_to_tsquery('english', ?) q "
+                + "ORDER BY hit.rank DESC, hit.id DESC";
+        
+        List<Object[]> rows = jdbcTemplate.query(sql, (rs, i) -> new Object[] {
+                rs.getLong("id"), rs.getDouble("rank"), markHeadline(rs.getString("title_hl")),
+                markHeadline(rs.getString("snippet"))
+        }, params.toArray());
+        
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+        
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+        }
+        Map<Long, Resource> resources = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Resource resource : resourceRepository.findAllWithUploaderByIdIn(ids)) {
+                resources.put(resource.getId(), resource);
+            }
+        }
+        
+        List<ResourceSearchHit> hits = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Resource resource = resources.get((Long) row[0]);
+            if (resource != null) {
+                hits.add(new ResourceSearchHit(resource, (Double) row[1], (String) row[2], (String) row[3]));
+            }
+        }
+        return new ResourceSearchPage(hits, page, size, hasMore);
+    }
+    
+    /**
+     * LIKE-based equivalent for databases without tsvector support: every term must
+     * appear in the title, description or category, "-term" excludes, rank uses the
+     * same weights. Terms match as substrings and are not stemmed, so "taxes" does
+     * not find "tax" here while it does on PostgreSQL.
+     */
+    private ResourceSearchPage searchFallback(String query, String category, String resourceType, String audience,
+                                              int page, int size) {
+        List<String> include = new ArrayList<>();
+        List<String> exclude = new ArrayList<>();
+        Matcher matcher = TERM.matcher(query.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            String term = matcher.group();
+            if (term.startsWith("-")) {
+                exclude.add(term.substring(1));
+            } else {
+                include.add(term);
+            }
+        }
+        if (include.isEmpty()) {
+            return new ResourceSearchPage(new ArrayList<>(), page, size, false);
+        }
+        
+        Specification<Resource> spec = Specification.where(ResourceSpecifications.hasCategory(category))
+                .and(ResourceSpecifications.hasResourceType(resourceType))
+                .and(ResourceSpecifications.hasAudience(audience));
+        for (String term : include) {
+            spec = spec.and(ResourceSpecifications.matchesSearchTerm(term));
+        }
+        for (String term : exclude) {
+            spec = spec.and(Specification.not(ResourceSpecifications.matchesSearchTerm(term)));
+        }
+        
+        List<ResourceSearchHit> ranked = new ArrayList<>();
+        for (Resource resource : resourceRepository.findAll(spec)) {
+            ranked.add(new ResourceSearchHit(resource, rank(resource, include),
+                    highlight(resource.getTitle(), include), snippet(resource.getDescription(), include)));
+        }
+        ranked.sort(Comparator.comparingDouble(ResourceSearchHit::getRank).reversed()
+                .thenComparing(hit -> hit.getResource().getId(), Comparator.reverseOrder()));
+        
+        int from = Math.min((int) Math.min((long) page * size, Integer.MAX_VALUE), ranked.size());
+        int to = Math.min(from + size, ranked.size());
+        return new ResourceSearchPage(new ArrayList<>(ranked.subList(from, to)), page, size, to < ranked.size());
+    }
+    
+    static double rank(Resource resource, List<String> terms) {
+        double score = 0;
+        for (String term : terms) {
+            score += TITLE_WEIGHT * occurrences(resource.getTitle(), term)
+                    + DESCRIPTION_WEIGHT * occurrences(resource.getDescription(), term)
+                    + CATEGORY_WEIGHT * occurrences(resource.getCategory(), term);
+        }
+        return score;
+    }
+    
+    /**
+     * HTML-escaped text with every occurrence of a term wrapped in <mark>.
+     */
+    static String highlight(String text, List<String> terms) {
+        if (text == null) {
+            return null;
+        }
+        if (terms.isEmpty()) {
+            return escape(text);
+        }
+        StringBuilder alternation = new StringBuilder();
+        for (String term : terms) {
+            if (alternation.length() > 0) {
+                alternation.append('|');
+            }
+            alternation.append(Pattern.quote(term));
+        }
+        Matcher matcher = Pattern.compile(alternation.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)
+                .matcher(text);
+        StringBuilder marked = new StringBuilder(text.length() + 32);
+        int last = 0;
+        while (matcher.find()) {
+            marked.append(escape(text.substring(last, matcher.start())))
+                    .append("<mark>").append(escape(matcher.group())).append("</mark>");
+            last = matcher.end();
+        }
+        return marked.append(escape(text.substring(last))).toString();
+    }
+    
+    /**
+     * Turn a ts_headline result into HTML: escape it, then swap the sentinels for <mark> tags.
+     */
+    static String markHeadline(String headline) {
+        if (headline == null) {
+            return null;
+        }
+        return escape(headline).replace(START_SEL, "<mark>").replace(STOP_SEL, "</mark>");
+    }
+    
+    private static String escape(String text) {
+        return HtmlUtils.htmlEscape(text, "UTF-8");
+    }
+    
+    static String snippet(String text, List<String> terms) {
+        if (text == null) {
+            return null;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int first = -1;
+        for (String term : terms) {
+            int at = lower.indexOf(term);
+            if (at >= 0 && (first < 0 || at < first)) {
+                first = at;
+            }
+        }
+        int start = Math.max(0, first - SNIPPET_LENGTH / 4);
+        int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+        return highlight(text.substring(start, end), terms);
+    }
+    
+    private static int occurrences(String text, String term) {
+        if (text == null) {
+            return 0;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int count = 0;
+        for (int at = lower.indexOf(term); at >= 0; at = lower.indexOf(term, at + term.length())) {
+            count++;
+        }
+        return count;
+    }
+    
+    private static void appendFilter(StringBuilder filters, List<Object> params, String column, String value) {
+        if (value != null) {
+            filters.append(" AND r.").append(column).append(" = ?");
+            params.add(value);
+        }
+    }
+    
+    /**
+     * Add (or repair) the tsvector column, its GIN index and the trigger that keeps it current.
+     * Idempotent; runs at startup because ddl-auto does not know about tsvector columns.
+     */
+    public void initializeSearchVector() {
+        if (!isPostgres()) {
+            log.info("Full-text search: not running on PostgreSQL, using LIKE fallback");
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE resources ADD COLUMN IF NOT EXISTS search_vector TSVECTOR");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_resources_search ON resources USING GIN(search_vector)");
+        jdbcTemplate.execute(SEARCH_VECTOR_FUNCTION);
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS resources_search_vector_trigger ON resources");
+        jdbcTemplate.execute("CREATE TRIGGER resources_search_vector_trigger "
+                + "BEFORE INSERT OR UPDATE OF title, description, category ON resources "
+                + "FOR EACH ROW EXECUTE FUNCTION resources_search_vector_update()");
+        int backfilled = jdbcTemplate.update("UPDATE resources SET search_vector = "
+                + "setweight(to_tsvector('english', COALESCE(title, '')), 'A') || "
+                + "setweight(to_tsvector('english', COALESCE(description, '')), 'B') || "
+                + "setweight(to_tsvector('english', COALESCE(category, '')), 'C') "
+                + "WHERE search_vector IS NULL");
+        if (backfilled > 0) {
+            log.info("Full-text search: indexed {} existing resources", backfilled);
+        }
+    }
+}
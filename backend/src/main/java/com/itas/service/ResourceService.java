@@ -1,23 +1,21 @@
 package com.itas.service;
 
+import com.itas.dto.ResourcePage;
+import com.itas.model.FileBlob;
 import com.itas.model.Resource;
 import com.itas.model.User;
 import com.itas.repository.ResourceRepository;
+import com.itas.repository.ResourceSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class ResourceService {
@@ -25,97 +23,91 @@ public class ResourceService {
     @Autowired
     private ResourceRepository resourceRepository;
     
-    @Value("${app.file.upload-dir:./uploads}")
-    private String uploadDir;
+    @Autowired
+    private BlobStorageService blobStorageService;
     
-    public List<Resource> getAllResources(String category, String resourceType, String audience) {
-        List<Resource> resources = resourceRepository.findAll();
-        
-        if (category != null) {
-            resources = resources.stream()
-                    .filter(r -> category.equals(r.getCategory()))
-                    .collect(Collectors.toList());
-        }
-        
-        if (resourceType != null) {
-            resources = resources.stream()
-                    .filter(r -> resourceType.equals(r.getResourceType()))
-                    .collect(Collectors.toList());
-        }
-        
-        if (audience != null) {
-            resources = resources.stream()
-                    .filter(r -> audience.equals(r.getAudience()))
-                    .collect(Collectors.toList());
-        }
-        
-        return resources;
+    @Autowired
+    private ResourceCounterService resourceCounterService;
+    
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Autowired
+    private PopularityService popularityService;
+    
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    public ResourcePage getAllResources(String category, String resourceType, String audience,
+                                        String cursor, Integer size) {
+        return searchResources(null, category, resourceType, audience, cursor, size);
     }
     
     public Resource getResourceById(Long id) {
         return resourceRepository.findById(id).orElse(null);
     }
     
-    public List<Resource> searchResources(String query, String category, String resourceType, String audience) {
-        List<Resource> resources;
-        
-        if (query != null && !query.isEmpty()) {
-            resources = resourceRepository.searchByKeyword(query);
-        } else {
-            resources = resourceRepository.findAll();
-        }
-        
-        if (category != null) {
-            resources = resources.stream()
-                    .filter(r -> category.equals(r.getCategory()))
-                    .collect(Collectors.toList());
+    /**
+     * One page of resources, newest first. All filters run in SQL; paging is keyset-based
+     * on (uploadedAt, id), so deep pages cost the same as the first one.
+     */
+    public ResourcePage searchResources(String query, String category, String resourceType, String audience,
+                                        String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        Specification<Resource> spec = Specification.where(ResourceSpecifications.hasCategory(category))
+                .and(ResourceSpecifications.hasResourceType(resourceType))
+                .and(ResourceSpecifications.hasAudience(audience))
+                .and(ResourceSpecifications.matchesKeyword(query));
+        
+        if (cursor != null && !cursor.isEmpty()) {
+            Object[] position;
+            try {
+                position = ResourcePage.decodeCursor(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            spec = spec.and(ResourceSpecifications.after((LocalDateTime) position[0], (Long) position[1]));
         }
         
-        if (resourceType != null) {
-            resources = resources.stream()
-                    .filter(r -> resourceType.equals(r.getResourceType()))
-                    .collect(Collectors.toList());
-        }
+        // One extra row tells us whether another page exists without a count query
+        List<Resource> rows = resourceRepository.findSlice(spec, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<Resource> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
         
-        if (audience != null) {
-            resources = resources.stream()
-                    .filter(r -> audience.equals(r.getAudience()))
-                    .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasMore) {
+            Resource last = items.get(items.size() - 1);
+            nextCursor = ResourcePage.encodeCursor(last.getUploadedAt(), last.getId());
         }
-        
-        return resources;
+        return new ResourcePage(items, nextCursor, hasMore);
     }
     
     @Transactional
     public Resource uploadResource(MultipartFile file, Resource resource, User uploader) throws IOException {
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-        
-        // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
-        String extension = originalFilename != null && originalFilename.contains(".") 
-                ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
-                : "";
-        String uniqueFilename = UUID.randomUUID().toString() + extension;
-        
-        // Save file
-        Path filePath = uploadPath.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        // Hash while streaming into the content-addressed store; identical content shares one blob
+        FileBlob blob = blobStorageService.store(file.getInputStream());
         
+        return saveUploadedResource(resource, blob, file.getOriginalFilename(), file.getContentType(), uploader);
+    }
+    
+    /**
+     * Persist a new resource for content already in the blob store.
+     * Shared by multipart uploads and completed chunked upload sessions.
+     */
+    @Transactional
+    public Resource saveUploadedResource(Resource resource, FileBlob blob, String originalFilename,
+                                         String contentType, User uploader) {
         // Set resource properties
-        resource.setFileName(originalFilename);
-        resource.setFilePath(filePath.toString());
-        resource.setFileSize(file.getSize());
-        resource.setMimeType(file.getContentType());
+        applyBlob(resource, blob, originalFilename, contentType);
         resource.setUploadedBy(uploader);
         resource.setUploadedAt(LocalDateTime.now());
         resource.setViewCount(0);
         resource.setDownloadCount(0);
         
-        return resourceRepository.save(resource);
+        Resource saved = resourceRepository.save(resource);
+        searchIndexService.indexResource(saved);
+        return saved;
     }
     
     @Transactional
@@ -133,37 +125,20 @@ public class ResourceService {
         
         // Update file if provided
         if (file != null && !file.isEmpty()) {
-            // Delete old file
-            if (resource.getFilePath() != null) {
-                try {
-                    Files.deleteIfExists(Paths.get(resource.getFilePath()));
-                } catch (IOException e) {
-                    // Log error but continue
-                }
-            }
-            
-            // Upload new file
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename != null && originalFilename.contains(".") 
-                    ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
-                    : "";
-            String uniqueFilename = UUID.randomUUID().toString() + extension;
+            String oldHash = resource.getFileHash();
+            String oldPath = resource.getFilePath();
             
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            FileBlob blob = blobStorageService.store(file.getInputStream());
+            applyBlob(resource, blob, file.getOriginalFilename(), file.getContentType());
             
-            resource.setFileName(originalFilename);
-            resource.setFilePath(filePath.toString());
-            resource.setFileSize(file.getSize());
-            resource.setMimeType(file.getContentType());
+            // Drop our reference to the previous content (deleted only if nothing else uses it)
+            blobStorageService.releaseFile(oldHash, oldPath);
         }
         
-        return resourceRepository.save(resource);
+        Resource saved = resourceRepository.save(resource);
+        searchIndexService.indexResource(saved);
+        popularityService.update(saved);
+        return saved;
     }
     
     @Transactional
@@ -171,38 +146,46 @@ public class ResourceService {
         Resource resource = resourceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Resource not found"));
         
-        // Delete file
-        if (resource.getFilePath() != null) {
-            try {
-                Files.deleteIfExists(Paths.get(resource.getFilePath()));
-            } catch (IOException e) {
-                // Log error but continue
-            }
-        }
-        
         resourceRepository.delete(resource);
+        resourceCounterService.forget(id);
+        searchIndexService.removeResource(id);
+        
+        // Release file reference
+        blobStorageService.releaseFile(resource.getFileHash(), resource.getFilePath());
     }
     
-    @Transactional
+    private void applyBlob(Resource resource, FileBlob blob, String originalFilename, String contentType) {
+        resource.setFileName(originalFilename);
+        resource.setFilePath(blob.getStoragePath());
+        resource.setFileHash(blob.getHash());
+        resource.setFileSize(blob.getSize());
+        resource.setMimeType(contentType);
+    }
+    
+    /**
+     * Counted in memory and written behind in batches (see ResourceCounterService).
+     *
+     * @throws RuntimeException if the resource does not exist
+     */
     public void incrementViewCount(Long id) {
-        Resource resource = resourceRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Resource not found"));
-        resource.setViewCount(resource.getViewCount() + 1);
-        resourceRepository.save(resource);
+        resourceCounterService.recordView(id);
     }
     
-    @Transactional
     public void incrementDownloadCount(Long id) {
-        Resource resource = resourceRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Resource not found"));
-        resource.setDownloadCount(resource.getDownloadCount() + 1);
-        resourceRepository.save(resource);
+        resourceCounterService.recordDownload(id);
     }
     
+    /**
+     * Most downloaded resources, from the maintained ranking (see PopularityService).
+     */
     public List<Resource> getPopularResources(int limit) {
-        return resourceRepository.findAll().stream()
-                .sorted((r1, r2) -> Integer.compare(r2.getDownloadCount(), r1.getDownloadCount()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        return popularityService.getPopular(limit);
+    }
+    
+    /**
+     * Resources with the most recent, time-decayed activity.
+     */
+    public List<Resource> getTrendingResources(int limit) {
+        return popularityService.getTrending(limit);
     }
 }
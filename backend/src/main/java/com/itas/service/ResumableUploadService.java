@@ -0,0 +1,389 @@
+package com.itas.service;
+
+import com.itas.dto.UploadSessionRequest;
+import com.itas.model.FileBlob;
+import com.itas.model.Resource;
+import com.itas.model.UploadSession;
+import com.itas.model.User;
+import com.itas.repository.UploadSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Resumable chunked upload protocol: initiate, PUT chunks at offsets,
+ * query status, complete. Chunks are written straight from the request
+ * stream into a sparse staging file and checked against a per-chunk SHA-256.
+ *
+ * Each chunk PUT registers itself on the session row while it writes; complete
+ * claims the session under a row lock only when no writer is registered, and
+ * a writer arriving after the claim is refused, so the staging file cannot
+ * change while it is hashed. Staging files live under app.file.staging-dir,
+ * outside the directory served under /uploads.
+ */
+@Service
+public class ResumableUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private BlobStorageService blobStorageService;
+
+    @Autowired
+    private ResourceService resourceService;
+
+    @Value("${app.file.staging-dir:./upload-staging}")
+    private String stagingDir;
+
+    @Value("${app.file.max-size:104857600}")
+    private long maxFileSize;
+
+    @Value("${app.file.chunk-size:8388608}")
+    private long chunkSize;
+
+    @Value("${app.file.upload-session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public ResumableUploadService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Start a new upload session and create its sparse staging file, sized to
+     * the full upload so chunks can arrive in any order.
+     */
+    public UploadSession initiate(UploadSessionRequest request, User uploader) throws IOException {
+        if (request.getTotalSize() == null || request.getTotalSize() <= 0) {
+            throw new RuntimeException("totalSize is required");
+        }
+        if (request.getTotalSize() > maxFileSize) {
+            throw new RuntimeException("File exceeds maximum size of " + maxFileSize + " bytes");
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setUploadedBy(uploader);
+        session.setTitle(request.getTitle());
+        session.setDescription(request.getDescription());
+        session.setResourceType(request.getResourceType());
+        session.setCategory(request.getCategory());
+        session.setAudience(request.getAudience());
+        session.setFileName(request.getFileName());
+        session.setMimeType(request.getMimeType());
+        session.setTotalSize(request.getTotalSize());
+        session.setCreatedAt(LocalDateTime.now());
+        session.setUpdatedAt(LocalDateTime.now());
+        session.setExpiresAt(LocalDateTime.now().plusHours(sessionTtlHours));
+
+        createStagingFile(session.getId(), session.getTotalSize());
+        return uploadSessionRepository.save(session);
+    }
+
+    public UploadSession getSession(String uploadId, String username) {
+        UploadSession session = uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new RuntimeException("Upload session not found"));
+        checkOwner(session, username);
+        return session;
+    }
+
+    /**
+     * Write one chunk at the given offset.
+     *
+     * @param checksum hex SHA-256 of the chunk as computed by the client
+     */
+    public UploadSession writeChunk(String uploadId, long offset, long length, String checksum,
+                                    InputStream body, String username) throws IOException {
+        UploadSession session = getSession(uploadId, username);
+        if (checksum == null || checksum.isBlank()) {
+            throw new RuntimeException("X-Chunk-SHA256 header is required");
+        }
+        if (length <= 0) {
+            throw new RuntimeException("Content-Length is required");
+        }
+        if (length > chunkSize) {
+            throw new RuntimeException("Chunk exceeds maximum size of " + chunkSize + " bytes");
+        }
+        if (offset < 0 || offset + length > session.getTotalSize()) {
+            throw new RuntimeException("Chunk outside file bounds");
+        }
+
+        // Waits for a complete holding the row lock, then sees its status
+        Integer registered = transactionTemplate.execute(status -> uploadSessionRepository.beginWrite(uploadId));
+        if (registered == null || registered == 0) {
+            throw new RuntimeException("Upload session is no longer accepting chunks");
+        }
+
+        try {
+            MessageDigest digest = BlobStorageService.sha256();
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(stagingFile(uploadId), StandardOpenOption.WRITE);
+                 ReadableByteChannel source = Channels.newChannel(new DigestInputStream(body, digest))) {
+                while (written < length) {
+                    long n = channel.transferFrom(source, offset + written, length - written);
+                    if (n <= 0) {
+                        break;
+                    }
+                    written += n;
+                }
+            }
+
+            if (written != length) {
+                throw new RuntimeException("Incomplete chunk: expected " + length + " bytes, got " + written);
+            }
+            String actual = HexFormat.of().formatHex(digest.digest());
+            if (!checksum.equalsIgnoreCase(actual)) {
+                // Bytes stay in the staging file but the range is not recorded, so the client must resend it
+                throw new RuntimeException("Chunk checksum mismatch");
+            }
+
+            return recordRange(uploadId, offset, offset + length - 1);
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> uploadSessionRepository.endWrite(uploadId));
+        }
+    }
+
+    /**
+     * Verify all bytes arrived, move the staging file into the blob store and
+     * persist the resource through the regular upload path.
+     */
+    public Resource complete(String uploadId, String username) throws IOException {
+        // Claim the session so a repeated complete call cannot finalize it twice
+        UploadSession session = transactionTemplate.execute(status -> {
+            UploadSession locked = uploadSessionRepository.findByIdForUpdate(uploadId)
+                    .orElseThrow(() -> new RuntimeException("Upload session not found"));
+            checkOwner(locked, username);
+            if (!"ACTIVE".equals(locked.getStatus())) {
+                throw new RuntimeException("Upload session is " + locked.getStatus());
+            }
+            if (locked.getActiveWriters() != null && locked.getActiveWriters() > 0) {
+                throw new RuntimeException("Chunks are still being written, try again shortly");
+            }
+            if (!locked.getTotalSize().equals(locked.getBytesReceived())) {
+                throw new RuntimeException("Upload incomplete: " + locked.getBytesReceived()
+                        + " of " + locked.getTotalSize() + " bytes received");
+            }
+            locked.setStatus("FINALIZING");
+            locked.setUpdatedAt(LocalDateTime.now());
+            // A node that dies while finalizing leaves the session to the janitor
+            locked.setExpiresAt(LocalDateTime.now().plusHours(sessionTtlHours));
+            return locked;
+        });
+
+        Path staging = stagingFile(uploadId);
+        Resource saved;
+        try {
+            // One transaction, so the blob reference is released if the resource insert rolls back
+            saved = transactionTemplate.execute(status -> {
+                FileBlob blob;
+                try {
+                    blob = blobStorageService.storeFile(staging);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                Resource resource = new Resource();
+                resource.setTitle(session.getTitle());
+                resource.setDescription(session.getDescription());
+                resource.setResourceType(session.getResourceType());
+                resource.setCategory(session.getCategory());
+                resource.setAudience(session.getAudience());
+                resource.setStatus("PUBLISHED");
+
+                return resourceService.saveUploadedResource(
+                        resource, blob, session.getFileName(), session.getMimeType(), session.getUploadedBy());
+            });
+        } catch (RuntimeException e) {
+            reopen(uploadId, staging, session.getTotalSize());
+            throw e;
+        }
+
+        updateStatus(uploadId, "COMPLETED", saved.getId());
+        return saved;
+    }
+
+    public void abort(String uploadId, String username) throws IOException {
+        UploadSession session = getSession(uploadId, username);
+        uploadSessionRepository.delete(session);
+        Files.deleteIfExists(stagingFile(uploadId));
+    }
+
+    /**
+     * Janitor: drop sessions that have not seen a chunk within the TTL, and
+     * sessions whose finalization never finished.
+     */
+    @Scheduled(fixedDelayString = "${app.file.upload-janitor-interval-ms:900000}")
+    public void expireAbandonedSessions() {
+        List<UploadSession> expired = uploadSessionRepository
+                .findByStatusInAndExpiresAtBefore(List.of("ACTIVE", "FINALIZING"), LocalDateTime.now());
+
+        for (UploadSession session : expired) {
+            try {
+                Files.deleteIfExists(stagingFile(session.getId()));
+                uploadSessionRepository.delete(session);
+            } catch (Exception e) {
+                log.warn("Could not expire upload session {}", session.getId(), e);
+            }
+        }
+
+        // Completed sessions have nothing left on disk; keep the rows only until they expire
+        uploadSessionRepository.deleteAll(uploadSessionRepository
+                .findByStatusAndExpiresAtBefore("COMPLETED", LocalDateTime.now()));
+    }
+
+    /**
+     * Parse "a-b,c-d" into inclusive ranges.
+     */
+    public static List<long[]> parseRanges(String ranges) {
+        List<long[]> result = new ArrayList<>();
+        if (ranges == null || ranges.isEmpty()) {
+            return result;
+        }
+        for (String part : ranges.split(",")) {
+            int dash = part.indexOf('-');
+            result.add(new long[] { Long.parseLong(part.substring(0, dash)), Long.parseLong(part.substring(dash + 1)) });
+        }
+        return result;
+    }
+
+    private UploadSession recordRange(String uploadId, long start, long end) {
+        // Row lock so parallel chunk PUTs for one session do not lose each other's ranges
+        return transactionTemplate.execute(status -> {
+            UploadSession session = uploadSessionRepository.findByIdForUpdate(uploadId)
+                    .orElseThrow(() -> new RuntimeException("Upload session not found"));
+
+            List<long[]> merged = mergeRange(parseRanges(session.getReceivedRanges()), start, end);
+
+            long received = 0;
+            StringBuilder serialized = new StringBuilder();
+            for (long[] range : merged) {
+                received += range[1] - range[0] + 1;
+                if (serialized.length() > 0) {
+                    serialized.append(',');
+                }
+                serialized.append(range[0]).append('-').append(range[1]);
+            }
+
+            session.setReceivedRanges(serialized.toString());
+            session.setBytesReceived(received);
+            session.setUpdatedAt(LocalDateTime.now());
+            session.setExpiresAt(LocalDateTime.now().plusHours(sessionTtlHours));
+            return session;
+        });
+    }
+
+    /**
+     * Put a session whose finalization failed back to ACTIVE. If the staging
+     * file was already moved into the blob store, the received ranges are
+     * cleared and the client has to upload again.
+     */
+    private void reopen(String uploadId, Path staging, long totalSize) {
+        boolean kept = Files.exists(staging);
+        if (!kept) {
+            try {
+                createStagingFile(uploadId, totalSize);
+            } catch (IOException e) {
+                log.warn("Could not recreate staging file for upload session {}", uploadId, e);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> uploadSessionRepository.findByIdForUpdate(uploadId)
+                .ifPresent(session -> {
+                    session.setStatus("ACTIVE");
+                    if (!kept) {
+                        session.setReceivedRanges("");
+                        session.setBytesReceived(0L);
+                    }
+                    session.setUpdatedAt(LocalDateTime.now());
+                }));
+    }
+
+    private void updateStatus(String uploadId, String newStatus, Long resourceId) {
+        transactionTemplate.executeWithoutResult(status -> uploadSessionRepository.findByIdForUpdate(uploadId)
+                .ifPresent(session -> {
+                    session.setStatus(newStatus);
+                    session.setResourceId(resourceId);
+                    session.setUpdatedAt(LocalDateTime.now());
+                }));
+    }
+
+    private List<long[]> mergeRange(List<long[]> ranges, long start, long end) {
+        List<long[]> merged = new ArrayList<>(ranges.size() + 1);
+        long newStart = start;
+        long newEnd = end;
+        boolean inserted = false;
+
+        for (long[] range : ranges) {
+            if (range[1] + 1 < newStart) {
+                merged.add(range);
+            } else if (newEnd + 1 < range[0]) {
+                if (!inserted) {
+                    merged.add(new long[] { newStart, newEnd });
+                    inserted = true;
+                }
+                merged.add(range);
+            } else {
+                // Overlapping or adjacent
+                newStart = Math.min(newStart, range[0]);
+                newEnd = Math.max(newEnd, range[1]);
+            }
+        }
+        if (!inserted) {
+            merged.add(new long[] { newStart, newEnd });
+        }
+        return merged;
+    }
+
+    private void checkOwner(UploadSession session, String username) {
+        User owner = session.getUploadedBy();
+        if (owner == null || username == null || !username.equals(owner.getUsername())) {
+            throw new RuntimeException("Upload session not found");
+        }
+    }
+
+    private void createStagingFile(String uploadId, long totalSize) throws IOException {
+        Path staging = stagingFile(uploadId);
+        Files.createDirectories(staging.getParent());
+        // SPARSE is a hint; holes stay unallocated until their chunk arrives
+        try (FileChannel channel = FileChannel.open(staging,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.SPARSE)) {
+            // transferFrom writes nothing past end of file, so extend it to totalSize up front
+            channel.write(ByteBuffer.allocate(1), totalSize - 1);
+        }
+    }
+
+    private Path stagingFile(String uploadId) {
+        return Paths.get(stagingDir, "sessions", uploadId + ".part");
+    }
+}
@@ -0,0 +1,536 @@
+package com.itas.service;
+
+import com.itas.model.ScoreSketch;
+import com.itas.repository.AssessmentRepository;
+import com.itas.repository.ScoreSketchRepository;
+import com.itas.sketch.TDigest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assessment score distributions per module and course.
+ *
+ * Every graded attempt is added to its module's t-digest once the submission
+ * commits, so median/P90 are answered from memory without sorting attempts.
+ * Course distributions merge the digests of their modules. Digests are
+ * checkpointed to score_sketches and rebuilt from the assessments table when
+ * none exist yet or when an admin asks for it.
+ *
+ * Each node checkpoints only the attempts it graded, one row per module and
+ * node, and reads merge its own digests with the other nodes' rows reloaded
+ * on every checkpoint. A rebuild counts every node's attempts, so it replaces
+ * all rows with its own under a new generation; the other nodes drop their
+ * local digests when they see it. Attempts another node grades between the
+ * rebuild's snapshot and that node's next checkpoint are missing until the
+ * next rebuild.
+ */
+@Service
+public class ScoreDistributionService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ScoreDistributionService.class);
+    
+    private static final String GRADED_QUERY =
+            "SELECT a.id, a.module.id, a.module.course.id, a.percentage, a.passed FROM Assessment a "
+            + "WHERE a.completedAt IS NOT NULL";
+    
+    private static final double[] QUANTILES = { 0.25, 0.5, 0.75, 0.9 };
+    private static final String[] QUANTILE_KEYS = { "p25", "median", "p75", "p90" };
+    
+    @Autowired
+    private ScoreSketchRepository scoreSketchRepository;
+    
+    @Autowired
+    private AssessmentRepository assessmentRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Value("${app.analytics.export-fetch-size:1000}")
+    private int fetchSize;
+    
+    @Value("${app.scores.node-id:}")
+    private String configuredNodeId;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private String nodeId;
+    
+    // Attempts graded on this node, or every attempt after a rebuild here; guarded by lock for writes
+    private volatile Map<Long, ModuleScores> modules = new ConcurrentHashMap<>();
+    
+    // The other nodes' checkpointed digests merged per module, replaced on every refresh
+    private volatile Map<Long, ModuleScores> remote = new ConcurrentHashMap<>();
+    
+    // Bumped by every rebuild; rows of older generations are ignored
+    private volatile long generation;
+    
+    private final Object lock = new Object();
+    
+    // Attempts graded while a rebuild streams, replayed unless the rebuild query already counted them
+    private List<Graded> pending;
+    
+    public ScoreDistributionService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Pick up this node's checkpointed digests and the other nodes' rows.
+     */
+    @PostConstruct
+    public void load() {
+        nodeId = configuredNodeId != null && !configuredNodeId.isBlank()
+                ? configuredNodeId : ActiveUserService.defaultNodeId();
+        Map<Long, ModuleScores> loaded = new ConcurrentHashMap<>();
+        try {
+            List<ScoreSketch> rows = scoreSketchRepository.findAll();
+            long current = currentGeneration(rows);
+            for (ScoreSketch row : rows) {
+                if (row.getGeneration() == current && nodeId.equals(row.getNodeId())) {
+                    loaded.put(row.getModuleId(), ModuleScores.fromRow(row));
+                }
+            }
+            generation = current;
+            remote = mergeRemote(rows, current);
+        } catch (RuntimeException e) {
+            log.warn("Could not load score sketches", e);
+        }
+        modules = loaded;
+    }
+    
+    /**
+     * Build the digests from history on first start, when nothing was checkpointed yet.
+     */
+    public void rebuildIfEmpty() {
+        if (modules.isEmpty() && remote.isEmpty() && assessmentRepository.findEarliestCompletedAt() != null) {
+            rebuild();
+        }
+    }
+    
+    /**
+     * Add one graded attempt once the surrounding transaction commits.
+     */
+    public void record(Long assessmentId, Long moduleId, Long courseId, double percentage, boolean passed) {
+        if (moduleId == null) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            synchronized (lock) {
+                modules.computeIfAbsent(moduleId, id -> new ModuleScores(courseId)).add(percentage, passed);
+                if (pending != null) {
+                    pending.add(new Graded(assessmentId, moduleId, courseId, percentage, passed));
+                }
+            }
+        });
+    }
+    
+    public Map<String, Object> getModuleDistribution(Long moduleId) {
+        ModuleScores scores = combined(moduleId);
+        Map<String, Object> data = scores != null ? scores.stats() : stats(new TDigest(), 0, 0);
+        data.put("moduleId", moduleId);
+        data.put("courseId", scores != null ? scores.courseId : null);
+        return data;
+    }
+    
+    /**
+     * Course distribution merged from its module digests, with each module's own figures.
+     */
+    public Map<String, Object> getCourseDistribution(Long courseId) {
+        ModuleScores course = new ModuleScores(courseId);
+        List<Map<String, Object>> moduleStats = new ArrayList<>();
+        Set<Long> moduleIds = new LinkedHashSet<>(modules.keySet());
+        moduleIds.addAll(remote.keySet());
+        for (Long moduleId : moduleIds) {
+            ModuleScores scores = combined(moduleId);
+            if (scores == null || !courseId.equals(scores.courseId)) {
+                continue;
+            }
+            scores.addTo(course);
+            Map<String, Object> module = scores.stats();
+            module.put("moduleId", moduleId);
+            moduleStats.add(module);
+        }
+        
+        Map<String, Object> data = course.stats();
+        data.put("courseId", courseId);
+        data.put("modules", moduleStats);
+        return data;
+    }
+    
+    /**
+     * Daily attempts, passes and pass rate for the last {@code days} days.
+     */
+    public List<Map<String, Object>> getPassRateTrend(Long moduleId, Long courseId, int days) {
+        LocalDateTime from = LocalDateTime.now().toLocalDate().minusDays(days - 1L).atStartOfDay();
+        List<AssessmentRepository.DailyPassRate> rows = moduleId != null
+                ? assessmentRepository.findDailyPassRatesByModule(moduleId, from)
+                : assessmentRepository.findDailyPassRatesByCourse(courseId, from);
+        
+        List<Map<String, Object>> trend = new ArrayList<>();
+        for (AssessmentRepository.DailyPassRate row : rows) {
+            Map<String, Object> day = new LinkedHashMap<>();
+            day.put("date", row.getDay());
+            day.put("attempts", row.getAttempts());
+            day.put("passes", row.getPasses());
+            day.put("passRate", percent(row.getPasses(), row.getAttempts()));
+            trend.add(day);
+        }
+        return trend;
+    }
+    
+    /**
+     * Exact percentiles from the sorted percentages next to the sketch estimates,
+     * for verifying the digests. Sorts every attempt; meant for admins only.
+     */
+    public Map<String, Object> verify(Long moduleId, Long courseId) {
+        List<Double> sorted = moduleId != null
+                ? assessmentRepository.findGradedPercentagesByModule(moduleId)
+                : assessmentRepository.findGradedPercentagesByCourse(courseId);
+        Map<String, Object> estimated = moduleId != null ? getModuleDistribution(moduleId) : getCourseDistribution(courseId);
+        
+        Map<String, Object> exact = new LinkedHashMap<>();
+        exact.put("attempts", sorted.size());
+        double maxError = 0;
+        for (int i = 0; i < QUANTILES.length; i++) {
+            Double value = exactQuantile(sorted, QUANTILES[i]);
+            exact.put(QUANTILE_KEYS[i], value);
+            Object estimate = estimated.get(QUANTILE_KEYS[i]);
+            if (value != null && estimate instanceof Double) {
+                maxError = Math.max(maxError, Math.abs(value - (Double) estimate));
+            }
+        }
+        
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("moduleId", moduleId);
+        data.put("courseId", courseId);
+        data.put("exact", exact);
+        data.put("sketch", estimated);
+        data.put("maxAbsoluteError", Math.round(maxError * 100.0) / 100.0);
+        return data;
+    }
+    
+    /**
+     * Rebuild every digest from one streamed pass over graded assessments and swap them in.
+     *
+     * Attempts recorded while the pass runs are replayed afterwards unless the
+     * pass already counted them, whatever their completion time: an attempt
+     * committed after the query's snapshot is missing from it even when it was
+     * graded before the rebuild started.
+     */
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        synchronized (lock) {
+            pending = new ArrayList<>();
+        }
+        
+        Map<Long, ModuleScores> fresh = new ConcurrentHashMap<>();
+        Set<Long> counted = new HashSet<>();
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.doWork(connection -> connection.setReadOnly(true));
+            // PostgreSQL only uses a cursor (and so honours the fetch size) inside a transaction
+            Transaction transaction = session.beginTransaction();
+            try (ScrollableResults<Object[]> rows = session.createSelectionQuery(GRADED_QUERY, Object[].class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (rows.next()) {
+                    Object[] row = rows.get();
+                    counted.add((Long) row[0]);
+                    fresh.computeIfAbsent((Long) row[1], id -> new ModuleScores((Long) row[2]))
+                            .add(row[3] != null ? (Double) row[3] : 0.0, Boolean.TRUE.equals(row[4]));
+                }
+                transaction.commit();
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                synchronized (lock) {
+                    pending = null;
+                }
+                throw e;
+            }
+        }
+        
+        // Replace every node's rows; attempts replayed below are written by the checkpoint after
+        long rebuilt;
+        try {
+            rebuilt = transactionTemplate.execute(status -> {
+                scoreSketchRepository.lockForRebuild();
+                Long latest = scoreSketchRepository.findMaxGeneration();
+                if (latest != null && latest > generation) {
+                    throw new RuntimeException("Score distributions were rebuilt by another node");
+                }
+                long next = generation + 1;
+                scoreSketchRepository.deleteAllInBatch();
+                scoreSketchRepository.saveAll(toRows(fresh, next, Map.of()));
+                return next;
+            });
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                pending = null;
+            }
+            throw e;
+        }
+        
+        synchronized (lock) {
+            for (Graded graded : pending) {
+                // add() also drops the id, so an attempt recorded twice is replayed once
+                if (graded.assessmentId == null || counted.add(graded.assessmentId)) {
+                    fresh.computeIfAbsent(graded.moduleId, id -> new ModuleScores(graded.courseId))
+                            .add(graded.percentage, graded.passed);
+                }
+            }
+            pending = null;
+            modules = fresh;
+            remote = new ConcurrentHashMap<>();
+            generation = rebuilt;
+        }
+        log.info("Score distributions rebuilt for {} modules in {} ms",
+                fresh.size(), System.currentTimeMillis() - started);
+        checkpoint();
+    }
+    
+    /**
+     * Reload the other nodes' rows, then persist this node's digests that
+     * changed since the last checkpoint.
+     */
+    @Scheduled(fixedDelayString = "${app.scores.checkpoint-interval-ms:60000}")
+    public synchronized void checkpoint() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Could not reload score sketches of other nodes", e);
+        }
+        
+        long current = generation;
+        Map<Long, ModuleScores> changed = new HashMap<>();
+        modules.forEach((moduleId, scores) -> {
+            synchronized (scores) {
+                if (scores.dirty) {
+                    changed.put(moduleId, scores);
+                }
+            }
+        });
+        if (changed.isEmpty()) {
+            return;
+        }
+        
+        try {
+            Map<Long, ScoreSketch> existing = new HashMap<>();
+            for (ScoreSketch row : scoreSketchRepository.findByNodeId(nodeId)) {
+                existing.put(row.getModuleId(), row);
+            }
+            scoreSketchRepository.saveAll(toRows(changed, current, existing));
+        } catch (RuntimeException e) {
+            log.warn("Could not checkpoint {} score sketches", changed.size(), e);
+            for (ModuleScores scores : changed.values()) {
+                synchronized (scores) {
+                    scores.dirty = true;
+                }
+            }
+        }
+    }
+    
+    /**
+     * A newer generation means another node rebuilt from every node's attempts,
+     * this node's included, so the local digests start over from empty.
+     */
+    private void refresh() {
+        List<ScoreSketch> rows = scoreSketchRepository.findAll();
+        long current = currentGeneration(rows);
+        if (current > generation) {
+            synchronized (lock) {
+                modules = new ConcurrentHashMap<>();
+                generation = current;
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    scoreSketchRepository.deleteSuperseded(nodeId, current));
+            log.info("Score distributions were rebuilt elsewhere, now at generation {}", current);
+        }
+        remote = mergeRemote(rows, current);
+    }
+    
+    /**
+     * Rows for the given digests, reusing this node's existing rows. Clears their dirty flags.
+     */
+    private List<ScoreSketch> toRows(Map<Long, ModuleScores> digests, long rowGeneration,
+                                     Map<Long, ScoreSketch> existing) {
+        List<ScoreSketch> rows = new ArrayList<>();
+        digests.forEach((moduleId, scores) -> {
+            ScoreSketch row = existing.getOrDefault(moduleId, new ScoreSketch());
+            row.setModuleId(moduleId);
+            row.setNodeId(nodeId);
+            row.setGeneration(rowGeneration);
+            row.setCourseId(scores.courseId);
+            synchronized (scores) {
+                scores.dirty = false;
+                row.setDigest(scores.digest.toBytes());
+                row.setAttempts(scores.attempts);
+                row.setPasses(scores.passes);
+            }
+            row.setUpdatedAt(LocalDateTime.now());
+            rows.add(row);
+        });
+        return rows;
+    }
+    
+    private Map<Long, ModuleScores> mergeRemote(List<ScoreSketch> rows, long current) {
+        Map<Long, ModuleScores> merged = new ConcurrentHashMap<>();
+        for (ScoreSketch row : rows) {
+            if (row.getGeneration() != current || nodeId.equals(row.getNodeId())) {
+                continue;
+            }
+            ModuleScores.fromRow(row).addTo(
+                    merged.computeIfAbsent(row.getModuleId(), id -> new ModuleScores(row.getCourseId())));
+        }
+        return merged;
+    }
+    
+    /**
+     * This node's digest for the module merged with the other nodes', or null if neither has one.
+     */
+    private ModuleScores combined(Long moduleId) {
+        ModuleScores local = modules.get(moduleId);
+        ModuleScores other = remote.get(moduleId);
+        if (local == null || other == null) {
+            return local != null ? local : other;
+        }
+        ModuleScores merged = new ModuleScores(local.courseId);
+        local.addTo(merged);
+        other.addTo(merged);
+        return merged;
+    }
+    
+    private static long currentGeneration(List<ScoreSketch> rows) {
+        long current = 0;
+        for (ScoreSketch row : rows) {
+            current = Math.max(current, row.getGeneration());
+        }
+        return current;
+    }
+    
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        checkpoint();
+    }
+    
+    private static Map<String, Object> stats(TDigest digest, long attempts, long passes) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("attempts", attempts);
+        data.put("passes", passes);
+        data.put("passRate", percent(passes, attempts));
+        boolean empty = digest.count() == 0;
+        data.put("mean", empty ? null : round(digest.mean()));
+        data.put("min", empty ? null : round(digest.min()));
+        data.put("max", empty ? null : round(digest.max()));
+        for (int i = 0; i < QUANTILES.length; i++) {
+            data.put(QUANTILE_KEYS[i], empty ? null : round(digest.quantile(QUANTILES[i])));
+        }
+        return data;
+    }
+    
+    /**
+     * Linear interpolation between closest ranks, the definition the digest approximates.
+     */
+    static Double exactQuantile(List<Double> sorted, double q) {
+        if (sorted.isEmpty()) {
+            return null;
+        }
+        double index = q * (sorted.size() - 1);
+        int lower = (int) Math.floor(index);
+        int upper = (int) Math.ceil(index);
+        double low = sorted.get(lower) != null ? sorted.get(lower) : 0.0;
+        double high = sorted.get(upper) != null ? sorted.get(upper) : 0.0;
+        return round(low + (high - low) * (index - lower));
+    }
+    
+    private static double percent(Long part, Long whole) {
+        return whole == null || whole == 0 ? 0.0 : Math.round(part * 1000.0 / whole) / 10.0;
+    }
+    
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+    
+    private static final class ModuleScores {
+        private final Long courseId;
+        private final TDigest digest;
+        private long attempts;
+        private long passes;
+        private boolean dirty;
+        
+        private ModuleScores(Long courseId) {
+            this(courseId, new TDigest(), 0, 0);
+        }
+        
+        private ModuleScores(Long courseId, TDigest digest, long attempts, long passes) {
+            this.courseId = courseId;
+            this.digest = digest;
+            this.attempts = attempts;
+            this.passes = passes;
+        }
+        
+        synchronized void add(double percentage, boolean passed) {
+            digest.add(percentage);
+            attempts++;
+            if (passed) {
+                passes++;
+            }
+            dirty = true;
+        }
+        
+        synchronized Map<String, Object> stats() {
+            return ScoreDistributionService.stats(digest, attempts, passes);
+        }
+        
+        synchronized void addTo(ModuleScores target) {
+            target.digest.merge(digest);
+            target.attempts += attempts;
+            target.passes += passes;
+        }
+        
+        static ModuleScores fromRow(ScoreSketch row) {
+            return new ModuleScores(row.getCourseId(), TDigest.fromBytes(row.getDigest()),
+                    row.getAttempts(), row.getPasses());
+        }
+    }
+    
+    private static final class Graded {
+        private final Long assessmentId;
+        private final Long moduleId;
+        private final Long courseId;
+        private final double percentage;
+        private final boolean passed;
+        
+        private Graded(Long assessmentId, Long moduleId, Long courseId, double percentage, boolean passed) {
+            this.assessmentId = assessmentId;
+            this.moduleId = moduleId;
+            this.courseId = courseId;
+            this.percentage = percentage;
+            this.passed = passed;
+        }
+    }
+}
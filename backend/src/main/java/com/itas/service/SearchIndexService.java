@@ -0,0 +1,227 @@
+package com.itas.service;
+
+import com.itas.dto.ResourceSearchHit;
+import com.itas.dto.ResourceSearchPage;
+import com.itas.model.Course;
+import com.itas.model.Resource;
+import com.itas.model.User;
+import com.itas.repository.CourseRepository;
+import com.itas.repository.ResourceRepository;
+import com.itas.search.InvertedIndex;
+import com.itas.search.SearchTokenizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory search over resources and courses, backed by {@link InvertedIndex}.
+ *
+ * Built from the database once at startup (resources and courses in parallel,
+ * tokenization on the common pool), then kept current by the create/update/delete
+ * paths in ResourceService, ArchiveService and CourseService. Searches never hit
+ * the database. Until the first build finishes {@link #isReady()} is false and
+ * callers should fall back to a database query. Updates committed while a
+ * rebuild loads are kept and win over the rows it loaded.
+ */
+@Service
+public class SearchIndexService {
+    
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexService.class);
+    
+    // Field weights applied to term frequencies
+    private static final int TITLE_WEIGHT = 3;
+    private static final int BODY_WEIGHT = 1;
+    
+    @Autowired
+    private ResourceRepository resourceRepository;
+    
+    @Autowired
+    private CourseRepository courseRepository;
+    
+    private final InvertedIndex<Resource> resourceIndex = new InvertedIndex<>();
+    private final InvertedIndex<Course> courseIndex = new InvertedIndex<>();
+    
+    private volatile boolean ready;
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * Load and index every resource and course.
+     */
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        
+        CompletableFuture<Integer> resources = CompletableFuture.supplyAsync(() ->
+                load(resourceRepository::findAllWithUploader, resourceIndex, Resource::getId,
+                        SearchIndexService::snapshot, SearchIndexService::terms));
+        CompletableFuture<Integer> courses = CompletableFuture.supplyAsync(() ->
+                load(courseRepository::findAll, courseIndex, Course::getId,
+                        SearchIndexService::snapshot, SearchIndexService::terms));
+        
+        int resourceCount = resources.join();
+        int courseCount = courses.join();
+        ready = true;
+        log.info("Search index built: {} resources, {} courses in {} ms",
+                resourceCount, courseCount, System.currentTimeMillis() - started);
+    }
+    
+    public void indexResource(Resource resource) {
+        Resource copy = snapshot(resource);
+        Map<String, Integer> terms = terms(copy);
+        AfterCommit.run(() -> resourceIndex.put(copy.getId(), copy, terms));
+    }
+    
+    public void removeResource(Long id) {
+        AfterCommit.run(() -> resourceIndex.remove(id));
+    }
+    
+    public void indexCourse(Course course) {
+        Course copy = snapshot(course);
+        Map<String, Integer> terms = terms(copy);
+        AfterCommit.run(() -> courseIndex.put(copy.getId(), copy, terms));
+    }
+    
+    public void removeCourse(Long id) {
+        AfterCommit.run(() -> courseIndex.remove(id));
+    }
+    
+    public ResourceSearchPage searchResources(String query, String category, String resourceType, String audience,
+                                              Integer page, Integer size) {
+        int pageSize = size == null ? ResourceService.DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(size, ResourceService.MAX_PAGE_SIZE));
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        List<String> queryTerms = SearchTokenizer.tokenize(query);
+        
+        List<InvertedIndex.Hit<Resource>> found = resourceIndex.search(queryTerms,
+                r -> (category == null || category.equals(r.getCategory()))
+                        && (resourceType == null || resourceType.equals(r.getResourceType()))
+                        && (audience == null || audience.equals(r.getAudience())),
+                pageNumber * pageSize, pageSize + 1);
+        
+        boolean hasMore = found.size() > pageSize;
+        List<ResourceSearchHit> hits = new ArrayList<>();
+        for (InvertedIndex.Hit<Resource> hit : found.subList(0, Math.min(found.size(), pageSize))) {
+            Resource resource = hit.getPayload();
+            hits.add(new ResourceSearchHit(resource, hit.getScore(),
+                    ResourceSearchService.highlight(resource.getTitle(), queryTerms),
+                    ResourceSearchService.snippet(resource.getDescription(), queryTerms)));
+        }
+        return new ResourceSearchPage(hits, pageNumber, pageSize, hasMore);
+    }
+    
+    public Map<String, Object> searchCourses(String query, String category, String difficulty,
+                                             Integer page, Integer size) {
+        int pageSize = size == null ? ResourceService.DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(size, ResourceService.MAX_PAGE_SIZE));
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        
+        List<InvertedIndex.Hit<Course>> found = courseIndex.search(SearchTokenizer.tokenize(query),
+                c -> (category == null || category.equals(c.getCategory()))
+                        && (difficulty == null || difficulty.equals(c.getDifficulty())),
+                pageNumber * pageSize, pageSize + 1);
+        
+        List<Map<String, Object>> hits = new ArrayList<>();
+        for (InvertedIndex.Hit<Course> hit : found.subList(0, Math.min(found.size(), pageSize))) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("course", hit.getPayload());
+            entry.put("rank", hit.getScore());
+            hits.add(entry);
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("hits", hits);
+        result.put("page", pageNumber);
+        result.put("size", pageSize);
+        result.put("hasMore", found.size() > pageSize);
+        return result;
+    }
+    
+    private static <E, T> int load(Supplier<List<E>> entities, InvertedIndex<T> index, Function<E, Long> id,
+                                   Function<E, T> snapshot, Function<T, Map<String, Integer>> terms) {
+        // Before the query, so updates committed after it started are replayed over its rows
+        index.beginRebuild();
+        Map<Long, T> payloads = new ConcurrentHashMap<>();
+        Map<Long, Map<String, Integer>> termFrequencies = new ConcurrentHashMap<>();
+        try {
+            entities.get().parallelStream().forEach(entity -> {
+                T payload = snapshot.apply(entity);
+                payloads.put(id.apply(entity), payload);
+                termFrequencies.put(id.apply(entity), terms.apply(payload));
+            });
+        } catch (RuntimeException e) {
+            index.abortRebuild();
+            throw e;
+        }
+        index.replaceAll(payloads, termFrequencies);
+        return payloads.size();
+    }
+    
+    private static Map<String, Integer> terms(Resource resource) {
+        Map<String, Integer> terms = new HashMap<>();
+        InvertedIndex.count(terms, SearchTokenizer.tokenize(resource.getTitle()), TITLE_WEIGHT);
+        InvertedIndex.count(terms, SearchTokenizer.tokenize(resource.getDescription()), BODY_WEIGHT);
+        InvertedIndex.count(terms, SearchTokenizer.tokenize(resource.getCategory()), BODY_WEIGHT);
+        return terms;
+    }
+    
+    private static Map<String, Integer> terms(Course course) {
+        Map<String, Integer> terms = new HashMap<>();
+        InvertedIndex.count(terms, SearchTokenizer.tokenize(course.getTitle()), TITLE_WEIGHT);
+        InvertedIndex.count(terms, SearchTokenizer.tokenize(course.getDescription()), BODY_WEIGHT);
+        InvertedIndex.count(terms, SearchTokenizer.tokenize(course.getCategory()), BODY_WEIGHT);
+        return terms;
+    }
+    
+    /**
+     * Detached copy holding only the listing fields, so the index keeps no entity graph alive.
+     */
+    static Resource snapshot(Resource resource) {
+        Resource copy = new Resource();
+        copy.setId(resource.getId());
+        copy.setTitle(resource.getTitle());
+        copy.setDescription(resource.getDescription());
+        copy.setResourceType(resource.getResourceType());
+        copy.setCategory(resource.getCategory());
+        copy.setAudience(resource.getAudience());
+        copy.setStatus(resource.getStatus());
+        copy.setFileName(resource.getFileName());
+        copy.setFileSize(resource.getFileSize());
+        copy.setMimeType(resource.getMimeType());
+        copy.setFileHash(resource.getFileHash());
+        copy.setUploadedAt(resource.getUploadedAt());
+        copy.setViewCount(resource.getViewCount());
+        copy.setDownloadCount(resource.getDownloadCount());
+        if (resource.getUploadedBy() != null) {
+            User uploader = new User();
+            uploader.setId(resource.getUploadedBy().getId());
+            uploader.setUsername(resource.getUploadedBy().getUsername());
+            uploader.setFullName(resource.getUploadedBy().getFullName());
+            copy.setUploadedBy(uploader);
+        }
+        return copy;
+    }
+    
+    private static Course snapshot(Course course) {
+        Course copy = new Course();
+        copy.setId(course.getId());
+        copy.setTitle(course.getTitle());
+        copy.setDescription(course.getDescription());
+        copy.setCategory(course.getCategory());
+        copy.setDifficulty(course.getDifficulty());
+        copy.setDurationHours(course.getDurationHours());
+        copy.setPublished(course.isPublished());
+        return copy;
+    }
+}
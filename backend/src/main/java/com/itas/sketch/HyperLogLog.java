@@ -0,0 +1,181 @@
+package com.itas.sketch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog distinct counter over 64-bit hashes.
+ *
+ * 2^precision one-byte registers; the default precision 14 uses 16 KB and has
+ * a standard error of about 0.8%. Offers are lock-free and safe from many
+ * threads. Sketches with the same precision merge by taking the register-wise
+ * maximum, so per-hour, per-day and per-node sketches can be combined freely.
+ * Serialized sketches use a sparse (index, value) encoding while few registers
+ * are set, which keeps quiet periods down to a few bytes.
+ */
+public class HyperLogLog {
+    
+    public static final int DEFAULT_PRECISION = 14;
+    
+    private static final byte DENSE = 1;
+    private static final byte SPARSE = 2;
+    
+    private static final VarHandle REGISTER = MethodHandles.arrayElementVarHandle(byte[].class);
+    
+    private final int precision;
+    private final byte[] registers;
+    
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+    
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+    
+    public int getPrecision() {
+        return precision;
+    }
+    
+    /**
+     * Add an element by its 64-bit hash (see {@link #hash(String)}).
+     *
+     * @return true if a register changed
+     */
+    public boolean offer(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Guard bit keeps the rank bounded when the remaining bits are all zero
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        
+        byte current = (byte) REGISTER.getVolatile(registers, index);
+        while (rank > current) {
+            if (REGISTER.compareAndSet(registers, index, current, rank)) {
+                return true;
+            }
+            current = (byte) REGISTER.getVolatile(registers, index);
+        }
+        return false;
+    }
+    
+    public long cardinality() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        // Linear counting is more accurate while many registers are still empty
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+    
+    /**
+     * Fold another sketch into this one.
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            byte value = (byte) REGISTER.getVolatile(other.registers, i);
+            byte current = (byte) REGISTER.getVolatile(registers, i);
+            while (value > current && !REGISTER.compareAndSet(registers, i, current, value)) {
+                current = (byte) REGISTER.getVolatile(registers, i);
+            }
+        }
+        return this;
+    }
+    
+    public HyperLogLog copy() {
+        return new HyperLogLog(precision).merge(this);
+    }
+    
+    /**
+     * Serialize a snapshot of the registers. Offers may run concurrently; the
+     * encoding is computed from one copy so its size and entries agree.
+     */
+    public byte[] toBytes() {
+        byte[] snapshot = snapshot();
+        int used = 0;
+        for (byte register : snapshot) {
+            if (register != 0) {
+                used++;
+            }
+        }
+        
+        // A sparse entry packs index and value into 4 bytes; smaller while under a quarter of registers are set
+        if (used * 4 < snapshot.length) {
+            ByteBuffer buffer = ByteBuffer.allocate(2 + 4 + used * 4);
+            buffer.put(SPARSE).put((byte) precision).putInt(used);
+            for (int i = 0; i < snapshot.length; i++) {
+                if (snapshot[i] != 0) {
+                    buffer.putInt((i << 8) | snapshot[i]);
+                }
+            }
+            return buffer.array();
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate(2 + snapshot.length);
+        buffer.put(DENSE).put((byte) precision).put(snapshot);
+        return buffer.array();
+    }
+    
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte encoding = buffer.get();
+        HyperLogLog sketch = new HyperLogLog(buffer.get());
+        if (encoding == SPARSE) {
+            int used = buffer.getInt();
+            for (int n = 0; n < used; n++) {
+                int entry = buffer.getInt();
+                sketch.registers[entry >>> 8] = (byte) (entry & 0xFF);
+            }
+        } else if (encoding == DENSE) {
+            buffer.get(sketch.registers);
+        } else {
+            throw new IllegalArgumentException("Unknown sketch encoding " + encoding);
+        }
+        return sketch;
+    }
+    
+    private byte[] snapshot() {
+        byte[] copy = new byte[registers.length];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = (byte) REGISTER.getVolatile(registers, i);
+        }
+        return copy;
+    }
+    
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so
+     * that similar strings (user1, user2, ...) spread across all registers.
+     */
+    public static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb3f98d1b65c9L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
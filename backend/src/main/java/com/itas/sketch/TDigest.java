@@ -0,0 +1,264 @@
+package com.itas.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Merging t-digest for streaming quantile estimates.
+ *
+ * Values are buffered and periodically merged into a sorted list of
+ * centroids (mean, weight). The arcsine scale function keeps centroids near
+ * the tails small, so extreme quantiles stay accurate while the digest holds
+ * at most a few hundred centroids for the default compression of 100.
+ * Digests merge by re-merging each other's centroids, so per-module digests
+ * combine into per-course ones. Not thread-safe; callers synchronize.
+ */
+public class TDigest {
+    
+    public static final double DEFAULT_COMPRESSION = 100;
+    
+    private static final byte FORMAT = 1;
+    
+    private final double compression;
+    
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+    private double mergedWeight;
+    
+    private double[] bufferMeans;
+    private double[] bufferWeights;
+    private int buffered;
+    private double bufferedWeight;
+    
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+    
+    public TDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("compression must be at least 10");
+        }
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression * Math.PI / 2) + 10;
+        means = new double[capacity];
+        weights = new double[capacity];
+        bufferMeans = new double[capacity * 5];
+        bufferWeights = new double[capacity * 5];
+    }
+    
+    public void add(double value) {
+        add(value, 1);
+    }
+    
+    public void add(double value, double weight) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Cannot add NaN");
+        }
+        if (buffered == bufferMeans.length) {
+            compress();
+        }
+        bufferMeans[buffered] = value;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        bufferedWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+    
+    /**
+     * Add every centroid of the other digest.
+     */
+    public TDigest merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroids; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        if (other.centroids > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        return this;
+    }
+    
+    public TDigest copy() {
+        return new TDigest(compression).merge(this);
+    }
+    
+    public long count() {
+        return Math.round(mergedWeight + bufferedWeight);
+    }
+    
+    public double min() {
+        return count() == 0 ? Double.NaN : min;
+    }
+    
+    public double max() {
+        return count() == 0 ? Double.NaN : max;
+    }
+    
+    /**
+     * Estimated value at quantile q in [0, 1], or NaN when the digest is empty.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("q must be between 0 and 1");
+        }
+        compress();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+        
+        double index = q * mergedWeight;
+        // Left of the first centroid's centre: interpolate from the exact minimum
+        if (index < weights[0] / 2) {
+            return min + (means[0] - min) * index / (weights[0] / 2);
+        }
+        
+        double cumulative = 0;
+        for (int i = 0; i < centroids - 1; i++) {
+            double left = cumulative + weights[i] / 2;
+            double right = cumulative + weights[i] + weights[i + 1] / 2;
+            if (index <= right) {
+                double fraction = (index - left) / (right - left);
+                return means[i] + (means[i + 1] - means[i]) * fraction;
+            }
+            cumulative += weights[i];
+        }
+        
+        double lastCentre = mergedWeight - weights[centroids - 1] / 2;
+        double fraction = (index - lastCentre) / (weights[centroids - 1] / 2);
+        return means[centroids - 1] + (max - means[centroids - 1]) * Math.min(1, fraction);
+    }
+    
+    /**
+     * Mean of all added values.
+     */
+    public double mean() {
+        compress();
+        double sum = 0;
+        for (int i = 0; i < centroids; i++) {
+            sum += means[i] * weights[i];
+        }
+        return mergedWeight == 0 ? Double.NaN : sum / mergedWeight;
+    }
+    
+    /**
+     * Merge the buffer into the centroid list.
+     */
+    public void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        
+        int n = centroids + buffered;
+        double[] allMeans = new double[n];
+        double[] allWeights = new double[n];
+        System.arraycopy(means, 0, allMeans, 0, centroids);
+        System.arraycopy(weights, 0, allWeights, 0, centroids);
+        System.arraycopy(bufferMeans, 0, allMeans, centroids, buffered);
+        System.arraycopy(bufferWeights, 0, allWeights, centroids, buffered);
+        sortByMean(allMeans, allWeights, n);
+        
+        double total = mergedWeight + bufferedWeight;
+        int out = 0;
+        double currentMean = allMeans[0];
+        double currentWeight = allWeights[0];
+        double weightSoFar = 0;
+        for (int i = 1; i < n; i++) {
+            double proposed = currentWeight + allWeights[i];
+            double qLeft = weightSoFar / total;
+            double qRight = (weightSoFar + proposed) / total;
+            if (scale(qRight) - scale(qLeft) <= 1) {
+                currentMean += (allMeans[i] - currentMean) * allWeights[i] / proposed;
+                currentWeight = proposed;
+            } else {
+                out = emit(out, currentMean, currentWeight);
+                weightSoFar += currentWeight;
+                currentMean = allMeans[i];
+                currentWeight = allWeights[i];
+            }
+        }
+        out = emit(out, currentMean, currentWeight);
+        
+        centroids = out;
+        mergedWeight = total;
+        buffered = 0;
+        bufferedWeight = 0;
+    }
+    
+    public byte[] toBytes() {
+        compress();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 * 3 + 4 + centroids * 16);
+        buffer.put(FORMAT).putDouble(compression).putDouble(min).putDouble(max).putInt(centroids);
+        for (int i = 0; i < centroids; i++) {
+            buffer.putDouble(means[i]).putDouble(weights[i]);
+        }
+        return buffer.array();
+    }
+    
+    public static TDigest fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte format = buffer.get();
+        if (format != FORMAT) {
+            throw new IllegalArgumentException("Unknown digest format " + format);
+        }
+        TDigest digest = new TDigest(buffer.getDouble());
+        double min = buffer.getDouble();
+        double max = buffer.getDouble();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            digest.add(buffer.getDouble(), buffer.getDouble());
+        }
+        if (count > 0) {
+            digest.min = min;
+            digest.max = max;
+        }
+        return digest;
+    }
+    
+    private int emit(int out, double mean, double weight) {
+        if (out == means.length) {
+            means = Arrays.copyOf(means, out * 2);
+            weights = Arrays.copyOf(weights, out * 2);
+        }
+        means[out] = mean;
+        weights[out] = weight;
+        return out + 1;
+    }
+    
+    // k1 scale function: centroid sizes shrink towards q = 0 and q = 1
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+    }
+    
+    /**
+     * Shell sort of the (mean, weight) pairs by mean; n stays in the low thousands.
+     */
+    private static void sortByMean(double[] means, double[] weights, int n) {
+        int gap = 1;
+        while (gap < n / 3) {
+            gap = gap * 3 + 1;
+        }
+        for (; gap > 0; gap /= 3) {
+            for (int i = gap; i < n; i++) {
+                double mean = means[i];
+                double weight = weights[i];
+                int j = i;
+                while (j >= gap && means[j - gap] > mean) {
+                    means[j] = means[j - gap];
+                    weights[j] = weights[j - gap];
+                    j -= gap;
+                }
+                means[j] = mean;
+                weights[j] = weight;
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.itas.snapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable column-oriented copy of the enrollments table.
+ *
+ * Each column is a primitive array indexed by row; rows are ordered by
+ * course so a course is one contiguous slice found through an offset index,
+ * and a second index lists row numbers by user. Status strings are
+ * dictionary-encoded into one byte. A row costs about 40 bytes, against
+ * several hundred for a managed Enrollment entity.
+ */
+public final class EnrollmentSnapshot {
+    
+    /** Marker for a missing timestamp. */
+    public static final long NO_TIME = Long.MIN_VALUE;
+    
+    private static final String COMPLETED = "COMPLETED";
+    
+    // Rows per task when scanning the whole snapshot in parallel
+    private static final int SCAN_CHUNK = 64 * 1024;
+    
+    private final int size;
+    private final long[] userIds;
+    private final long[] courseIds;
+    private final byte[] statuses;
+    private final float[] progress;
+    private final long[] enrolledAt;
+    private final long[] completedAt;
+    
+    private final String[] statusNames;
+    private final int completedStatus;
+    
+    // Course courseKeys[i] occupies rows courseStart[i] until courseStart[i + 1]
+    private final long[] courseKeys;
+    private final int[] courseStart;
+    
+    // User userKeys[i] owns rows userRows[userStart[i]] until userRows[userStart[i + 1]]
+    private final long[] userKeys;
+    private final int[] userStart;
+    private final int[] userRows;
+    
+    private final long builtAt;
+    
+    private EnrollmentSnapshot(Builder builder, int[] order) {
+        size = builder.size;
+        userIds = new long[size];
+        courseIds = new long[size];
+        statuses = new byte[size];
+        progress = new float[size];
+        enrolledAt = new long[size];
+        completedAt = new long[size];
+        for (int i = 0; i < size; i++) {
+            int row = order != null ? order[i] : i;
+            userIds[i] = builder.userIds[row];
+            courseIds[i] = builder.courseIds[row];
+            statuses[i] = builder.statuses[row];
+            progress[i] = builder.progress[row];
+            enrolledAt[i] = builder.enrolledAt[row];
+            completedAt[i] = builder.completedAt[row];
+        }
+        
+        statusNames = builder.statusNames.toArray(new String[0]);
+        completedStatus = builder.statusNames.indexOf(COMPLETED);
+        
+        int courses = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || courseIds[i] != courseIds[i - 1]) {
+                courses++;
+            }
+        }
+        courseKeys = new long[courses];
+        courseStart = new int[courses + 1];
+        int course = -1;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || courseIds[i] != courseIds[i - 1]) {
+                course++;
+                courseKeys[course] = courseIds[i];
+                courseStart[course] = i;
+            }
+        }
+        courseStart[courses] = size;
+        
+        // Packed (userId, row) pairs sort as primitives without boxing
+        long[] byUser = new long[size];
+        for (int i = 0; i < size; i++) {
+            byUser[i] = (userIds[i] << 32) | i;
+        }
+        Arrays.parallelSort(byUser);
+        userRows = new int[size];
+        int users = 0;
+        for (int i = 0; i < size; i++) {
+            userRows[i] = (int) byUser[i];
+            if (i == 0 || (byUser[i] >>> 32) != (byUser[i - 1] >>> 32)) {
+                users++;
+            }
+        }
+        userKeys = new long[users];
+        userStart = new int[users + 1];
+        int user = -1;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || (byUser[i] >>> 32) != (byUser[i - 1] >>> 32)) {
+                user++;
+                userKeys[user] = byUser[i] >>> 32;
+                userStart[user] = i;
+            }
+        }
+        userStart[users] = size;
+        
+        builtAt = System.currentTimeMillis();
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public long getBuiltAt() {
+        return builtAt;
+    }
+    
+    /**
+     * Approximate heap used by the columns and indexes.
+     */
+    public long memoryBytes() {
+        return size * (8L + 8 + 1 + 4 + 8 + 8 + 4) + courseKeys.length * 12L + userKeys.length * 12L;
+    }
+    
+    public String statusOf(int row) {
+        return statusNames[statuses[row]];
+    }
+    
+    /**
+     * Totals over every enrollment in the course.
+     */
+    public Stats course(long courseId) {
+        Stats stats = new Stats();
+        int index = Arrays.binarySearch(courseKeys, courseId);
+        if (index >= 0) {
+            for (int row = courseStart[index]; row < courseStart[index + 1]; row++) {
+                stats.add(statuses[row] == completedStatus, progress[row]);
+            }
+        }
+        return stats;
+    }
+    
+    /**
+     * Totals over every enrollment of the user.
+     */
+    public Stats user(long userId) {
+        Stats stats = new Stats();
+        int index = Arrays.binarySearch(userKeys, userId);
+        if (index >= 0) {
+            for (int i = userStart[index]; i < userStart[index + 1]; i++) {
+                int row = userRows[i];
+                stats.add(statuses[row] == completedStatus, progress[row]);
+            }
+        }
+        return stats;
+    }
+    
+    /**
+     * Enrollments made in [from, to) (epoch millis) and completions dated in it,
+     * for one course or, with a null courseId, all courses scanned in parallel.
+     */
+    public Stats period(Long courseId, long from, long to) {
+        if (courseId != null) {
+            int index = Arrays.binarySearch(courseKeys, courseId);
+            return index >= 0 ? scan(courseStart[index], courseStart[index + 1], from, to) : new Stats();
+        }
+        int chunks = (size + SCAN_CHUNK - 1) / SCAN_CHUNK;
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> scan(chunk * SCAN_CHUNK, Math.min(size, (chunk + 1) * SCAN_CHUNK), from, to))
+                .reduce(new Stats(), Stats::combine);
+    }
+    
+    private Stats scan(int start, int end, long from, long to) {
+        Stats stats = new Stats();
+        for (int row = start; row < end; row++) {
+            long enrolled = enrolledAt[row];
+            if (enrolled != NO_TIME && enrolled >= from && enrolled < to) {
+                stats.add(statuses[row] == completedStatus, progress[row]);
+            }
+            long completed = completedAt[row];
+            if (completed != NO_TIME && completed >= from && completed < to) {
+                stats.completedInPeriod++;
+            }
+        }
+        return stats;
+    }
+    
+    /**
+     * Enrollment totals for a slice of the snapshot.
+     */
+    public static final class Stats {
+        private long enrollments;
+        private long completions;
+        private double progressSum;
+        private long completedInPeriod;
+        
+        private void add(boolean completed, float rowProgress) {
+            enrollments++;
+            if (completed) {
+                completions++;
+            }
+            progressSum += rowProgress;
+        }
+        
+        private Stats combine(Stats other) {
+            Stats combined = new Stats();
+            combined.enrollments = enrollments + other.enrollments;
+            combined.completions = completions + other.completions;
+            combined.progressSum = progressSum + other.progressSum;
+            combined.completedInPeriod = completedInPeriod + other.completedInPeriod;
+            return combined;
+        }
+        
+        public long getEnrollments() { return enrollments; }
+        public long getCompletions() { return completions; }
+        public long getCompletedInPeriod() { return completedInPeriod; }
+        
+        public double getAverageProgress() {
+            return enrollments == 0 ? 0.0 : progressSum / enrollments;
+        }
+        
+        public double getCompletionRate() {
+            return enrollments == 0 ? 0.0 : completions * 100.0 / enrollments;
+        }
+    }
+    
+    /**
+     * Accumulates rows into growable columns. Rows may arrive in any order;
+     * rows already ordered by course are kept as they are.
+     */
+    public static final class Builder {
+        private int size;
+        private long[] userIds = new long[1024];
+        private long[] courseIds = new long[1024];
+        private byte[] statuses = new byte[1024];
+        private float[] progress = new float[1024];
+        private long[] enrolledAt = new long[1024];
+        private long[] completedAt = new long[1024];
+        private final List<String> statusNames = new ArrayList<>();
+        private boolean orderedByCourse = true;
+        
+        private Builder() {}
+        
+        public Builder add(long userId, long courseId, String status, double rowProgress,
+                           long enrolledAtMillis, long completedAtMillis) {
+            if (size == userIds.length) {
+                int capacity = size * 2;
+                userIds = Arrays.copyOf(userIds, capacity);
+                courseIds = Arrays.copyOf(courseIds, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+                progress = Arrays.copyOf(progress, capacity);
+                enrolledAt = Arrays.copyOf(enrolledAt, capacity);
+                completedAt = Arrays.copyOf(completedAt, capacity);
+            }
+            if (size > 0 && courseId < courseIds[size - 1]) {
+                orderedByCourse = false;
+            }
+            userIds[size] = userId;
+            courseIds[size] = courseId;
+            statuses[size] = statusCode(status);
+            progress[size] = (float) rowProgress;
+            enrolledAt[size] = enrolledAtMillis;
+            completedAt[size] = completedAtMillis;
+            size++;
+            return this;
+        }
+        
+        public EnrollmentSnapshot build() {
+            int[] order = null;
+            if (!orderedByCourse) {
+                long[] byCourse = new long[size];
+                for (int i = 0; i < size; i++) {
+                    byCourse[i] = (courseIds[i] << 32) | i;
+                }
+                Arrays.parallelSort(byCourse);
+                order = new int[size];
+                for (int i = 0; i < size; i++) {
+                    order[i] = (int) byCourse[i];
+                }
+            }
+            return new EnrollmentSnapshot(this, order);
+        }
+        
+        private byte statusCode(String status) {
+            String name = status != null ? status : "";
+            int code = statusNames.indexOf(name);
+            if (code < 0) {
+                if (statusNames.size() == Byte.MAX_VALUE) {
+                    throw new IllegalStateException("Too many distinct enrollment statuses");
+                }
+                statusNames.add(name);
+                code = statusNames.size() - 1;
+            }
+            return (byte) code;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.itas.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from long keys to int values, without boxing.
+ *
+ * Linear probing over parallel key/value arrays, resized at 50% load. Not
+ * thread-safe; callers publish instances safely or guard them with a lock.
+ */
+public class LongIntHashMap {
+    
+    private static final int MIN_CAPACITY = 16;
+    
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+    
+    public LongIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+    
+    public LongIntHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Value for the key, or {@code missing} when it is absent.
+     */
+    public int get(long key, int missing) {
+        int slot = slot(key);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missing;
+    }
+    
+    public boolean containsKey(long key) {
+        int slot = slot(key);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+    
+    public void put(long key, int value) {
+        int slot = findOrInsert(key, value);
+        values[slot] = value;
+    }
+    
+    /**
+     * Existing value for the key, or {@code value} after inserting it.
+     */
+    public int putIfAbsent(long key, int value) {
+        int slot = findOrInsert(key, value);
+        return values[slot];
+    }
+    
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+    
+    private int findOrInsert(long key, int value) {
+        int slot = slot(key);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length << 1);
+            return findOrInsert(key, value);
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return slot;
+    }
+    
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slot(oldKeys[i]);
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                size++;
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+    
+    private int slot(long key) {
+        // Sequential ids would cluster without mixing
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -1,5 +1,108 @@
 package com.itas.controller;
 
+import com.itas.dto.ApiResponse;
+import com.itas.dto.ResourcePage;
+import com.itas.dto.ResourceSearchPage;
+import com.itas.service.FileDeliveryService;
+import com.itas.service.ResourceSearchService;
+import com.itas.service.ResourceService;
+import com.itas.service.SearchIndexService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test Cases for Resource Controller search
+ */
+@ExtendWith(MockitoExtension.class)
 public class ResourceControllerTest {
-    
+
+    @Mock
+    private ResourceService resourceService;
+
+    @Mock
+    private FileDeliveryService fileDeliveryService;
+
+    @Mock
+    private ResourceSearchService resourceSearchService;
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    @InjectMocks
+    private ResourceController resourceController;
+
+    /**
+     * Test Case 1: A text query is answered from the index once it is built
+     */
+    @Test
+    void testSearchQueryUsesIndexWhenReady() {
+        ResourceSearchPage hits = new ResourceSearchPage(List.of(), 0, 20, false);
+        when(searchIndexService.isReady()).thenReturn(true);
+        when(searchIndexService.searchResources("vat", null, null, null, null, null)).thenReturn(hits);
+
+        ResponseEntity<?> response = resourceController.searchResources("vat", null, null, null, null, null, null, null);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertSame(hits, data(response));
+        verifyNoInteractions(resourceSearchService, resourceService);
+    }
+
+    /**
+     * Test Case 2: While the index is cold a text query still gets ranked hits, from full-text search
+     */
+    @Test
+    void testSearchQueryFallsBackToFullTextWhenIndexCold() {
+        ResourceSearchPage hits = new ResourceSearchPage(List.of(), 0, 20, false);
+        when(searchIndexService.isReady()).thenReturn(false);
+        when(resourceSearchService.search("vat", null, null, null, null, null)).thenReturn(hits);
+
+        ResponseEntity<?> response = resourceController.searchResources("vat", null, null, null, null, null, null, null);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertInstanceOf(ResourceSearchPage.class, data(response));
+        verify(searchIndexService, never()).searchResources(anyString(), any(), any(), any(), any(), any());
+        verifyNoInteractions(resourceService);
+    }
+
+    /**
+     * Test Case 3: Keyword mode always pages by cursor, whatever the index state
+     */
+    @Test
+    void testKeywordModeReturnsCursorPage() {
+        ResourcePage page = new ResourcePage(List.of(), null, false);
+        when(resourceService.searchResources("vat", "VAT", null, null, "abc", null)).thenReturn(page);
+
+        ResponseEntity<?> response = resourceController.searchResources("vat", "VAT", null, null, "keyword", "abc", null, null);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertSame(page, data(response));
+        verifyNoInteractions(searchIndexService, resourceSearchService);
+    }
+
+    /**
+     * Test Case 4: An unknown mode is rejected
+     */
+    @Test
+    void testUnknownModeRejected() {
+        ResponseEntity<?> response = resourceController.searchResources("vat", null, null, null, "fuzzy", null, null, null);
+
+        assertEquals(400, response.getStatusCodeValue());
+        verifyNoInteractions(searchIndexService, resourceSearchService, resourceService);
+    }
+
+    // Helper methods
+    private Object data(ResponseEntity<?> response) {
+        return ((ApiResponse<?>) response.getBody()).getData();
+    }
 }
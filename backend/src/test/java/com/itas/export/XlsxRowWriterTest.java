@@ -0,0 +1,92 @@
+package com.itas.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Cases for the streaming XLSX writer
+ */
+public class XlsxRowWriterTest {
+    
+    @Test
+    void testWorkbookParts() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XlsxRowWriter writer = new XlsxRowWriter(out, "enrollments")) {
+            writer.writeHeader(List.of("ID", "Name", "Passed"));
+            writer.writeRow(new Object[] { 1L, "Abebe & <Sons>", true });
+            writer.writeRow(new Object[] { 2L, null, false });
+        }
+        
+        Map<String, String> parts = unzip(out.toByteArray());
+        assertTrue(parts.containsKey("[Content_Types].xml"));
+        assertTrue(parts.containsKey("_rels/.rels"));
+        assertTrue(parts.containsKey("xl/styles.xml"));
+        assertTrue(parts.get("xl/workbook.xml").contains("<sheet name=\"enrollments\" sheetId=\"1\" r:id=\"rId1\"/>"));
+        
+        String sheet = parts.get("xl/worksheets/sheet1.xml");
+        assertTrue(sheet.contains("<row r=\"1\"><c t=\"inlineStr\"><is><t xml:space=\"preserve\">ID</t></is></c>"));
+        assertTrue(sheet.contains("<c><v>1</v></c>"));
+        assertTrue(sheet.contains("Abebe &amp; &lt;Sons&gt;"));
+        assertTrue(sheet.contains("<c t=\"b\"><v>1</v></c>"));
+        assertTrue(sheet.contains("<row r=\"3\"><c><v>2</v></c><c/><c t=\"b\"><v>0</v></c></row>"));
+    }
+    
+    @Test
+    void testRollsOverToNewSheetWithHeader() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XlsxRowWriter writer = new XlsxRowWriter(out, "assessments", 3)) {
+            writer.writeHeader(List.of("ID"));
+            for (long id = 1; id <= 5; id++) {
+                writer.writeRow(new Object[] { id });
+            }
+        }
+        
+        Map<String, String> parts = unzip(out.toByteArray());
+        // Header plus two rows per sheet
+        assertTrue(parts.get("xl/worksheets/sheet1.xml").contains("<row r=\"3\"><c><v>2</v></c></row>"));
+        assertTrue(parts.get("xl/worksheets/sheet2.xml").contains("<row r=\"1\"><c t=\"inlineStr\">"));
+        assertTrue(parts.get("xl/worksheets/sheet3.xml").contains("<row r=\"2\"><c><v>5</v></c></row>"));
+        assertFalse(parts.containsKey("xl/worksheets/sheet4.xml"));
+        assertTrue(parts.get("xl/workbook.xml").contains("name=\"assessments 3\""));
+        assertTrue(parts.get("xl/_rels/workbook.xml.rels").contains("Id=\"rId4\""));
+        assertTrue(parts.get("[Content_Types].xml").contains("/xl/worksheets/sheet3.xml"));
+    }
+    
+    @Test
+    void testCsvEscaping() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvRowWriter writer = new CsvRowWriter(out)) {
+            writer.writeHeader(List.of("ID", "Note", "At"));
+            writer.writeRow(new Object[] { 7L, "said \"hi\", left", LocalDateTime.of(2024, 3, 1, 9, 30) });
+            writer.writeRow(new Object[] { -1, "=SUM(A1)", null });
+        }
+        
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals("\uFEFFID,Note,At\r\n"
+                + "7,\"said \"\"hi\"\", left\",2024-03-01T09:30\r\n"
+                + "-1,'=SUM(A1),\r\n", csv);
+    }
+    
+    private Map<String, String> unzip(byte[] bytes) throws IOException {
+        Map<String, String> parts = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                parts.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,60 @@
+package com.itas.funnel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Cases for the learning funnel engine
+ */
+public class FunnelEngineTest {
+    
+    private static final int MARCH = FunnelEngine.cohort(2026, 3);
+    private static final int APRIL = FunnelEngine.cohort(2026, 4);
+    
+    @Test
+    void testCountsStagesReachedOrLater() {
+        FunnelEngine engine = new FunnelEngine();
+        engine.apply(1, 10, FunnelStage.ENROLLED, MARCH);
+        engine.apply(1, 11, FunnelStage.ENROLLED, MARCH);
+        engine.apply(1, 12, FunnelStage.ENROLLED, APRIL);
+        engine.apply(1, 10, FunnelStage.MODULE_STARTED, 0);
+        engine.apply(1, 10, FunnelStage.ASSESSMENT_PASSED, 0);
+        // Certificate without a recorded pass still counts for every earlier stage
+        engine.apply(1, 11, FunnelStage.CERTIFIED, 0);
+        
+        Map<Integer, long[]> cohorts = engine.cohorts(1);
+        assertArrayEquals(new long[] { 2, 2, 2, 1, 1 }, cohorts.get(MARCH));
+        assertArrayEquals(new long[] { 1, 0, 0, 0, 0 }, cohorts.get(APRIL));
+    }
+    
+    @Test
+    void testEventsAreIdempotentAndOrderIndependent() {
+        FunnelEngine engine = new FunnelEngine(2);
+        // Stage arrives before the enrollment row
+        engine.apply(2, 20, FunnelStage.COMPLETED, 0);
+        assertTrue(engine.cohorts(2).isEmpty());
+        
+        engine.apply(2, 20, FunnelStage.ENROLLED, MARCH);
+        engine.apply(2, 20, FunnelStage.ENROLLED, MARCH);
+        engine.apply(2, 20, FunnelStage.MODULE_STARTED, 0);
+        engine.apply(2, 21, FunnelStage.ENROLLED, MARCH);
+        engine.apply(2, 22, FunnelStage.ENROLLED, MARCH);
+        
+        assertArrayEquals(new long[] { 3, 1, 1, 1, 0 }, engine.cohorts(2).get(MARCH));
+        assertEquals(3, engine.size());
+    }
+    
+    @Test
+    void testCoursesAreSeparate() {
+        FunnelEngine engine = new FunnelEngine();
+        engine.apply(1, 10, FunnelStage.ENROLLED, MARCH);
+        engine.apply(2, 10, FunnelStage.ENROLLED, MARCH);
+        engine.apply(2, 10, FunnelStage.COMPLETED, 0);
+        
+        assertArrayEquals(new long[] { 1, 0, 0, 0, 0 }, engine.cohorts(1).get(MARCH));
+        assertArrayEquals(new long[] { 1, 1, 1, 1, 0 }, engine.cohorts(2).get(MARCH));
+    }
+}
@@ -0,0 +1,127 @@
+package com.itas.grading;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grading throughput of the compiled answer key against the boxed
+ * map-of-Long grading it replaced. Not part of the test suite; run with
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.itas.grading.AnswerKeyBenchmark -Dexec.classpathScope=test}
+ * or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnswerKeyBenchmark {
+    
+    private static final int ANSWERS_PER_QUESTION = 4;
+    
+    @Param({ "10", "50", "200" })
+    private int questions;
+    
+    private CompiledAnswerKey compiled;
+    private Map<Long, Integer> questionPoints;
+    private Map<Long, Set<Long>> correctAnswers;
+    private Map<Long, Long> submitted;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        CompiledAnswerKey.Builder builder = new CompiledAnswerKey.Builder();
+        questionPoints = new LinkedHashMap<>();
+        correctAnswers = new HashMap<>();
+        submitted = new HashMap<>();
+        
+        long answerId = 10_000;
+        for (long questionId = 1; questionId <= questions; questionId++) {
+            long correct = answerId + random.nextInt(ANSWERS_PER_QUESTION);
+            int points = 1 + random.nextInt(3);
+            builder.add(questionId, points, correct);
+            questionPoints.put(questionId, points);
+            correctAnswers.computeIfAbsent(questionId, id -> new HashSet<>()).add(correct);
+            submitted.put(questionId, answerId + random.nextInt(ANSWERS_PER_QUESTION));
+            answerId += ANSWERS_PER_QUESTION;
+        }
+        compiled = builder.build();
+    }
+    
+    /**
+     * Boxed grading as done before compiled keys: map lookups per question.
+     */
+    @Benchmark
+    public void boxedMaps(Blackhole blackhole) {
+        int earned = 0;
+        Map<Long, Boolean> results = new HashMap<>();
+        for (Map.Entry<Long, Integer> question : questionPoints.entrySet()) {
+            Long userAnswerId = submitted.get(question.getKey());
+            boolean correct = userAnswerId != null
+                    && correctAnswers.getOrDefault(question.getKey(), Set.of()).contains(userAnswerId);
+            if (correct) {
+                earned += question.getValue();
+            }
+            results.put(question.getKey(), correct);
+        }
+        blackhole.consume(earned);
+        blackhole.consume(results);
+    }
+    
+    /**
+     * Compiled key including the conversion of the submitted map, as AssessmentService does it.
+     */
+    @Benchmark
+    public void compiledKey(Blackhole blackhole) {
+        long[] selection = compiled.newSelection();
+        for (Map.Entry<Long, Long> answer : submitted.entrySet()) {
+            int index = compiled.indexOf(answer.getKey());
+            if (index >= 0) {
+                selection[index] = answer.getValue();
+            }
+        }
+        boolean[] correct = new boolean[compiled.size()];
+        blackhole.consume(compiled.grade(selection, correct));
+        blackhole.consume(correct);
+    }
+    
+    /**
+     * Grading loop alone, with the selection already in index form.
+     */
+    @Benchmark
+    public int compiledGradeOnly(SelectionState state) {
+        return compiled.grade(state.selection, state.correct);
+    }
+    
+    @State(Scope.Thread)
+    public static class SelectionState {
+        long[] selection;
+        boolean[] correct;
+        
+        @Setup
+        public void setUp(AnswerKeyBenchmark benchmark) {
+            selection = benchmark.compiled.newSelection();
+            for (Map.Entry<Long, Long> answer : benchmark.submitted.entrySet()) {
+                selection[benchmark.compiled.indexOf(answer.getKey())] = answer.getValue();
+            }
+            correct = new boolean[selection.length];
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AnswerKeyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
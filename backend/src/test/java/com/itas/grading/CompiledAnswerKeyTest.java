@@ -0,0 +1,69 @@
+package com.itas.grading;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Cases for the compiled answer key
+ */
+public class CompiledAnswerKeyTest {
+    
+    // Question 10 (2 points): answers 100 (correct), 101; question 20 (3 points): 200, 201 (both correct);
+    // question 30 (5 points) has no correct answer
+    private CompiledAnswerKey key() {
+        return new CompiledAnswerKey.Builder()
+                .add(10L, 2, 100L)
+                .add(20L, 3, 200L)
+                .add(20L, 3, 201L)
+                .add(30L, 5, null)
+                .build();
+    }
+    
+    @Test
+    void testQuestionsGetDenseIndexesInOrder() {
+        CompiledAnswerKey key = key();
+        
+        assertEquals(3, key.size());
+        assertEquals(10, key.totalPoints());
+        assertEquals(0, key.indexOf(10L));
+        assertEquals(1, key.indexOf(20L));
+        assertEquals(2, key.indexOf(30L));
+        assertEquals(-1, key.indexOf(99L));
+        assertEquals(20L, key.questionId(1));
+        assertEquals(5, key.points(2));
+    }
+    
+    @Test
+    void testGradeCreditsAnyCorrectAnswer() {
+        CompiledAnswerKey key = key();
+        long[] selection = key.newSelection();
+        selection[0] = 100L;
+        selection[1] = 201L;
+        boolean[] correct = new boolean[key.size()];
+        
+        assertEquals(5, key.grade(selection, correct));
+        assertArrayEquals(new boolean[] { true, true, false }, correct);
+    }
+    
+    @Test
+    void testAnswerOfAnotherQuestionDoesNotScore() {
+        CompiledAnswerKey key = key();
+        long[] selection = key.newSelection();
+        selection[0] = 200L;
+        selection[2] = 100L;
+        
+        assertEquals(0, key.grade(selection, null));
+    }
+    
+    @Test
+    void testUnansweredAndWrongAnswersScoreNothing() {
+        CompiledAnswerKey key = key();
+        long[] selection = key.newSelection();
+        selection[0] = 101L;
+        boolean[] correct = new boolean[key.size()];
+        
+        assertEquals(0, key.grade(selection, correct));
+        assertArrayEquals(new boolean[] { false, false, false }, correct);
+    }
+}
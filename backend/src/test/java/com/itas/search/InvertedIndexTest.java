@@ -0,0 +1,116 @@
+package com.itas.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Cases for the in-memory inverted index
+ */
+public class InvertedIndexTest {
+    
+    @Test
+    void testTitleWeightRanksFirstAndAllTermsRequired() {
+        InvertedIndex<String> index = new InvertedIndex<>();
+        put(index, 1L, "VAT guide", "how to file returns");
+        put(index, 2L, "Filing returns", "VAT for small business");
+        put(index, 3L, "Income tax", "returns for employees");
+        
+        List<InvertedIndex.Hit<String>> hits = index.search(List.of("vat"), null, 0, 10);
+        assertEquals(2, hits.size());
+        assertEquals(1L, hits.get(0).getId());
+        assertEquals("VAT guide", hits.get(0).getPayload());
+        
+        // AND semantics
+        hits = index.search(List.of("vat", "business"), null, 0, 10);
+        assertEquals(1, hits.size());
+        assertEquals(2L, hits.get(0).getId());
+    }
+    
+    @Test
+    void testPrefixMatchScoresBelowExactMatch() {
+        InvertedIndex<String> index = new InvertedIndex<>();
+        put(index, 1L, "taxes", "");
+        put(index, 2L, "tax", "");
+        
+        List<InvertedIndex.Hit<String>> hits = index.search(List.of("tax"), null, 0, 10);
+        assertEquals(2, hits.size());
+        assertEquals(2L, hits.get(0).getId());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+    
+    @Test
+    void testPutReplacesAndRemoveDrops() {
+        InvertedIndex<String> index = new InvertedIndex<>();
+        put(index, 1L, "VAT guide", "");
+        put(index, 1L, "Customs guide", "");
+        
+        assertTrue(index.search(List.of("vat"), null, 0, 10).isEmpty());
+        assertEquals(1, index.search(List.of("customs"), null, 0, 10).size());
+        assertEquals(1, index.size());
+        
+        index.remove(1L);
+        assertTrue(index.search(List.of("guide"), null, 0, 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+    
+    @Test
+    void testFilterAndPaging() {
+        InvertedIndex<String> index = new InvertedIndex<>();
+        for (long id = 1; id <= 5; id++) {
+            put(index, id, "VAT " + id, "");
+        }
+        
+        List<InvertedIndex.Hit<String>> page = index.search(List.of("vat"), title -> !title.endsWith("3"), 1, 2);
+        assertEquals(2, page.size());
+        // Equal scores: higher id first, id 3 filtered out
+        assertEquals(4L, page.get(0).getId());
+        assertEquals(2L, page.get(1).getId());
+    }
+    
+    @Test
+    void testUpdatesDuringRebuildSurviveReplaceAll() {
+        InvertedIndex<String> index = new InvertedIndex<>();
+        put(index, 1L, "VAT guide", "");
+        put(index, 2L, "Customs guide", "");
+        
+        index.beginRebuild();
+        // Loaded before the updates below committed
+        Map<Long, String> payloads = new HashMap<>();
+        Map<Long, Map<String, Integer>> terms = new HashMap<>();
+        payloads.put(1L, "VAT guide");
+        terms.put(1L, terms("VAT guide", ""));
+        payloads.put(2L, "Customs guide");
+        terms.put(2L, terms("Customs guide", ""));
+        
+        put(index, 1L, "Excise guide", "");
+        index.remove(2L);
+        put(index, 3L, "Payroll guide", "");
+        index.replaceAll(payloads, terms);
+        
+        assertTrue(index.search(List.of("vat"), null, 0, 10).isEmpty());
+        assertEquals("Excise guide", index.search(List.of("excise"), null, 0, 10).get(0).getPayload());
+        assertTrue(index.search(List.of("customs"), null, 0, 10).isEmpty());
+        assertEquals(1, index.search(List.of("payroll"), null, 0, 10).size());
+        assertEquals(2, index.size());
+        
+        // Later rebuilds no longer replay them
+        index.replaceAll(payloads, terms);
+        assertEquals(1, index.search(List.of("customs"), null, 0, 10).size());
+    }
+    
+    private static void put(InvertedIndex<String> index, long id, String title, String body) {
+        index.put(id, title, terms(title, body));
+    }
+    
+    private static Map<String, Integer> terms(String title, String body) {
+        Map<String, Integer> terms = new HashMap<>();
+        InvertedIndex.count(terms, SearchTokenizer.tokenize(title), 3);
+        InvertedIndex.count(terms, SearchTokenizer.tokenize(body), 1);
+        return terms;
+    }
+}
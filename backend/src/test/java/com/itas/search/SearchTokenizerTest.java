@@ -0,0 +1,43 @@
+package com.itas.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Cases for the Amharic/English search tokenizer
+ */
+public class SearchTokenizerTest {
+    
+    @Test
+    void testSplitsLowerCasesAndDropsStopWords() {
+        assertEquals(List.of("vat", "returns", "2024", "small", "business"),
+                SearchTokenizer.tokenize("VAT returns (2024) for the small-business"));
+    }
+    
+    @Test
+    void testEthiopicPunctuationSeparatesWords() {
+        assertEquals(List.of("ግብር", "ተመላሽ"), SearchTokenizer.tokenize("ግብር።ተመላሽ፣"));
+    }
+    
+    @Test
+    void testHomophoneSpellingsFoldToSameTerm() {
+        // ሐ/ኀ/ሀ, ሠ/ሰ, ዐ/አ and ፀ/ጸ series, same vowel order
+        assertEquals(SearchTokenizer.tokenize("ሀገር"), SearchTokenizer.tokenize("ሐገር"));
+        assertEquals(SearchTokenizer.tokenize("ሀገር"), SearchTokenizer.tokenize("ኀገር"));
+        assertEquals(SearchTokenizer.tokenize("ሰው"), SearchTokenizer.tokenize("ሠው"));
+        assertEquals(SearchTokenizer.tokenize("አመት"), SearchTokenizer.tokenize("ዐመት"));
+        assertEquals(SearchTokenizer.tokenize("ጸሀይ"), SearchTokenizer.tokenize("ፀሐይ"));
+        assertEquals(0x1201, SearchTokenizer.foldEthiopic(0x1211));
+    }
+    
+    @Test
+    void testEmptyAndOverlongInput() {
+        assertTrue(SearchTokenizer.tokenize(null).isEmpty());
+        assertTrue(SearchTokenizer.tokenize("  ... ").isEmpty());
+        assertTrue(SearchTokenizer.tokenize("x".repeat(41)).isEmpty());
+        assertEquals(1, SearchTokenizer.tokenize("x".repeat(40)).size());
+    }
+}
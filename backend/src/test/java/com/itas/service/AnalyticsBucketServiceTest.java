@@ -0,0 +1,207 @@
+package com.itas.service;
+
+import com.itas.model.Analytics;
+import com.itas.repository.AnalyticsRepository;
+import com.itas.repository.AssessmentRepository;
+import com.itas.repository.EnrollmentRepository;
+import com.itas.repository.HourlyCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test Cases for the hourly activity buckets
+ */
+@ExtendWith(MockitoExtension.class)
+public class AnalyticsBucketServiceTest {
+
+    @Mock
+    private AnalyticsRepository analyticsRepository;
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private AssessmentRepository assessmentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AnalyticsBucketService bucketService;
+
+    // Committed buckets by day; a failed save leaves the stored row untouched, like a rollback
+    private final Map<LocalDate, Analytics> buckets = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        bucketService = new AnalyticsBucketService(transactionManager);
+        ReflectionTestUtils.setField(bucketService, "analyticsRepository", analyticsRepository);
+        ReflectionTestUtils.setField(bucketService, "enrollmentRepository", enrollmentRepository);
+        ReflectionTestUtils.setField(bucketService, "assessmentRepository", assessmentRepository);
+        ReflectionTestUtils.setField(bucketService, "recountDays", 2);
+
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(analyticsRepository.insertBucket(anyString(), anyString(), any(LocalDate.class), anyString()))
+                .thenAnswer(invocation -> {
+                    LocalDate day = invocation.getArgument(2, LocalDate.class);
+                    return buckets.putIfAbsent(day, bucket(day)) == null ? 1 : 0;
+                });
+        lenient().when(analyticsRepository.findBucketForUpdate(anyString(), anyString(), any(LocalDate.class)))
+                .thenAnswer(invocation -> Optional.ofNullable(buckets.get(invocation.getArgument(2, LocalDate.class)))
+                        .map(this::copy));
+        lenient().when(analyticsRepository.save(any(Analytics.class))).thenAnswer(invocation -> {
+            Analytics row = invocation.getArgument(0);
+            buckets.put(row.getPeriodStart(), row);
+            return row;
+        });
+    }
+
+    /**
+     * Test Case 1: Logins and downloads are added to the bucket of their hour, once
+     */
+    @Test
+    void testWriteBehindCountsAddedOnce() {
+        int hour = LocalDateTime.now().getHour();
+        bucketService.recordLogin();
+        bucketService.recordLogin();
+        bucketService.recordDownloads(3);
+
+        bucketService.rollupRecent();
+        bucketService.rollupRecent();
+
+        Analytics today = buckets.get(LocalDate.now());
+        assertEquals(2L, today.getMetrics().get(AnalyticsBucketService.LOGINS).get(hour).longValue());
+        assertEquals(3L, today.getMetrics().get(AnalyticsBucketService.DOWNLOADS).get(hour).longValue());
+        assertEquals(2L, today.getAggregates().get(AnalyticsBucketService.LOGINS).longValue());
+    }
+
+    /**
+     * Test Case 2: Counts from a failed rollup are kept for the next run
+     */
+    @Test
+    void testFailedRollupRestoresCounts() {
+        ReflectionTestUtils.setField(bucketService, "recountDays", 1);
+        bucketService.recordLogin();
+        when(analyticsRepository.save(any(Analytics.class)))
+                .thenThrow(new RuntimeException("connection lost"))
+                .thenAnswer(invocation -> {
+                    Analytics row = invocation.getArgument(0);
+                    buckets.put(row.getPeriodStart(), row);
+                    return row;
+                });
+
+        bucketService.rollupRecent();
+        assertTrue(buckets.get(LocalDate.now()).getAggregates().isEmpty());
+
+        bucketService.rollupRecent();
+        assertEquals(1L, buckets.get(LocalDate.now()).getAggregates().get(AnalyticsBucketService.LOGINS).longValue());
+    }
+
+    /**
+     * Test Case 3: Every day in the recount window is recounted from the raw tables
+     */
+    @Test
+    void testRecountWindowConfigurable() {
+        ReflectionTestUtils.setField(bucketService, "recountDays", 3);
+        LocalDate today = LocalDate.now();
+        LocalDate twoDaysAgo = today.minusDays(2);
+        when(enrollmentRepository.countEnrollmentsByHour(any(), any())).thenAnswer(invocation ->
+                invocation.getArgument(0, LocalDateTime.class).toLocalDate().equals(twoDaysAgo)
+                        ? List.of(hourlyCount(9, 4L)) : List.of());
+
+        bucketService.rollupRecent();
+
+        assertEquals(3, buckets.size());
+        assertTrue(buckets.containsKey(today.minusDays(1)));
+        Analytics late = buckets.get(twoDaysAgo);
+        assertEquals(4L, late.getMetrics().get(AnalyticsBucketService.ENROLLMENTS).get(9).longValue());
+        assertEquals(4L, late.getAggregates().get(AnalyticsBucketService.ENROLLMENTS).longValue());
+    }
+
+    /**
+     * Test Case 4: Range queries merge bucket totals
+     */
+    @Test
+    void testSummarizeMergesBuckets() {
+        LocalDate today = LocalDate.now();
+        bucketService.recordLogin();
+        bucketService.rollupRecent();
+        when(analyticsRepository.findByAnalyticsTypeAndPeriodTypeAndPeriodStartBetweenOrderByPeriodStart(
+                anyString(), anyString(), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of(buckets.get(today.minusDays(1)), buckets.get(today)));
+
+        Map<String, Object> summary = bucketService.summarize(today.minusDays(1), today, "day");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Long> totals = (Map<String, Long>) summary.get("totals");
+        assertEquals(1L, totals.get(AnalyticsBucketService.LOGINS));
+        assertEquals(2, ((List<?>) summary.get("series")).size());
+        assertThrows(RuntimeException.class, () -> bucketService.summarize(today, today.minusDays(1), "day"));
+    }
+
+    /**
+     * Test Case 5: Rollups on two nodes both add their logins to the same bucket
+     */
+    @Test
+    void testRollupsFromTwoNodesBothCounted() {
+        int hour = LocalDateTime.now().getHour();
+        AnalyticsBucketService otherNode = new AnalyticsBucketService(transactionManager);
+        ReflectionTestUtils.setField(otherNode, "analyticsRepository", analyticsRepository);
+        ReflectionTestUtils.setField(otherNode, "enrollmentRepository", enrollmentRepository);
+        ReflectionTestUtils.setField(otherNode, "assessmentRepository", assessmentRepository);
+        ReflectionTestUtils.setField(otherNode, "recountDays", 1);
+        ReflectionTestUtils.setField(bucketService, "recountDays", 1);
+
+        bucketService.recordLogin();
+        otherNode.recordLogin();
+        otherNode.recordLogin();
+        bucketService.rollupRecent();
+        otherNode.rollupRecent();
+
+        Analytics today = buckets.get(LocalDate.now());
+        assertEquals(3L, today.getMetrics().get(AnalyticsBucketService.LOGINS).get(hour).longValue());
+        verify(analyticsRepository, times(2)).findBucketForUpdate(anyString(), anyString(), any(LocalDate.class));
+    }
+
+    // Helper methods
+    private Analytics bucket(LocalDate day) {
+        Analytics row = new Analytics();
+        row.setPeriodStart(day);
+        row.setPeriodEnd(day);
+        return row;
+    }
+
+    private Analytics copy(Analytics stored) {
+        Analytics row = bucket(stored.getPeriodStart());
+        row.setMetrics(new HashMap<>(stored.getMetrics()));
+        row.setAggregates(new HashMap<>(stored.getAggregates()));
+        return row;
+    }
+
+    private HourlyCount hourlyCount(int hour, long total) {
+        return new HourlyCount() {
+            @Override
+            public Integer getHour() { return hour; }
+
+            @Override
+            public Long getTotal() { return total; }
+        };
+    }
+}
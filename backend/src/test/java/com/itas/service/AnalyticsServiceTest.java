@@ -0,0 +1,160 @@
+package com.itas.service;
+
+import com.itas.model.Course;
+import com.itas.model.Enrollment;
+import com.itas.model.Resource;
+import com.itas.model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Cases for Analytics Service dashboard aggregates
+ * The dashboard must cost a fixed number of SQL statements, independent of data volume.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.sql.init.mode=never"
+})
+@Import(AnalyticsService.class)
+public class AnalyticsServiceTest {
+    
+    // users, enrollments, downloads, top courses
+    private static final long MAX_DASHBOARD_STATEMENTS = 4;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private AnalyticsService analyticsService;
+    
+    @MockBean
+    private DashboardRollupService dashboardRollupService;
+    
+    @MockBean
+    private ActiveUserService activeUserService;
+    
+    @MockBean
+    private EnrollmentSnapshotService enrollmentSnapshotService;
+    
+    @MockBean
+    private DashboardSectionExecutor dashboardSectionExecutor;
+    
+    private Statistics statistics;
+    private int userSeq;
+    
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDashboardAggregates() {
+        Course vat = course("VAT Basics");
+        Course income = course("Income Tax");
+        course("Customs");
+        
+        User alice = user(true);
+        User bob = user(true);
+        user(false);
+        
+        enrollment(alice, vat, "COMPLETED", 100.0);
+        enrollment(bob, vat, "ENROLLED", 50.0);
+        enrollment(alice, income, "ENROLLED", 30.0);
+        
+        resource(7);
+        resource(5);
+        
+        Map<String, Object> data = dashboard();
+        
+        assertEquals(3L, ((Number) data.get("totalUsers")).longValue());
+        assertEquals(2L, ((Number) data.get("activeUsers")).longValue());
+        assertEquals(3L, ((Number) data.get("courseEnrollments")).longValue());
+        assertEquals(1L, ((Number) data.get("courseCompletions")).longValue());
+        assertEquals(33.33, (Double) data.get("completionRate"), 0.001);
+        assertEquals(60.0, (Double) data.get("avgProgress"), 0.001);
+        assertEquals(12L, ((Number) data.get("resourceDownloads")).longValue());
+        
+        List<Map<String, Object>> topCourses = (List<Map<String, Object>>) data.get("topCourses");
+        assertEquals(3, topCourses.size());
+        assertEquals("VAT Basics", topCourses.get(0).get("title"));
+        assertEquals(2L, ((Number) topCourses.get(0).get("enrollments")).longValue());
+        assertEquals(50.0, (Double) topCourses.get(0).get("completionRate"), 0.001);
+        assertEquals("Customs", topCourses.get(2).get("title"));
+        assertEquals(0L, ((Number) topCourses.get(2).get("enrollments")).longValue());
+    }
+    
+    @Test
+    void testStatementCountDoesNotGrowWithData() {
+        Course course = course("VAT Basics");
+        enrollment(user(true), course, "ENROLLED", 10.0);
+        dashboard();
+        long small = statistics.getPrepareStatementCount();
+        
+        for (int i = 0; i < 10; i++) {
+            Course extra = course("Course " + i);
+            for (int j = 0; j < 20; j++) {
+                enrollment(user(true), extra, j % 2 == 0 ? "COMPLETED" : "ENROLLED", j * 5.0);
+            }
+            resource(i);
+        }
+        dashboard();
+        long large = statistics.getPrepareStatementCount();
+        
+        assertTrue(small <= MAX_DASHBOARD_STATEMENTS, "dashboard used " + small + " statements");
+        assertEquals(small, large);
+    }
+    
+    private Map<String, Object> dashboard() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        return analyticsService.getDashboardDataFromDatabase();
+    }
+    
+    private Course course(String title) {
+        Course course = new Course();
+        course.setTitle(title);
+        return entityManager.persist(course);
+    }
+    
+    private User user(boolean active) {
+        int n = ++userSeq;
+        User user = new User();
+        user.setUsername("user" + n);
+        user.setEmail("user" + n + "@itas.test");
+        user.setPassword("secret");
+        user.setActive(active);
+        return entityManager.persist(user);
+    }
+    
+    private void enrollment(User user, Course course, String status, double progress) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setUserId(user.getId());
+        enrollment.setCourseId(course.getId());
+        enrollment.setStatus(status);
+        enrollment.setProgress(progress);
+        entityManager.persist(enrollment);
+    }
+    
+    private void resource(int downloads) {
+        Resource resource = new Resource();
+        resource.setTitle("Resource " + downloads);
+        resource.setDownloadCount(downloads);
+        entityManager.persist(resource);
+    }
+}
@@ -0,0 +1,136 @@
+package com.itas.service;
+
+import com.itas.model.Assessment;
+import com.itas.model.Course;
+import com.itas.model.User;
+import com.itas.repository.AssessmentRepository;
+import com.itas.repository.CourseRepository;
+import com.itas.repository.ModuleRepository;
+import com.itas.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Cases for attempt limits under concurrent starts
+ * Runs without a test transaction so every start commits on its own connection.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:attempt-limits;MODE=PostgreSQL;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ AssessmentService.class, AnswerKeyCache.class })
+public class AssessmentAttemptLimitTest {
+
+    private static final int USERS = 10;
+    private static final int STARTS_PER_USER = 30;
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private AssessmentService assessmentService;
+
+    @Autowired
+    private AssessmentRepository assessmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @MockBean
+    private AssessmentDraftService assessmentDraftService;
+
+    @MockBean
+    private LearningFunnelService learningFunnelService;
+
+    @MockBean
+    private ScoreDistributionService scoreDistributionService;
+
+    @Test
+    void testParallelStartsNeverExceedMaxAttempts() throws Exception {
+        Course course = new Course();
+        course.setTitle("VAT Basics");
+        course = courseRepository.save(course);
+
+        com.itas.model.Module module = new com.itas.model.Module();
+        module.setCourse(course);
+        module.setTitle("Registration");
+        module.setMaxAttempts(MAX_ATTEMPTS);
+        Long moduleId = moduleRepository.save(module).getId();
+
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("candidate" + i);
+            user.setEmail("candidate" + i + "@itas.test");
+            user.setPassword("secret");
+            userIds.add(userRepository.save(user).getId());
+        }
+
+        // 300 starts, all released at once
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger limited = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < USERS * STARTS_PER_USER; i++) {
+            Long userId = userIds.get(i % USERS);
+            futures.add(pool.submit(() -> {
+                go.await();
+                try {
+                    assessmentService.startAssessment(userId, moduleId);
+                    started.incrementAndGet();
+                } catch (RuntimeException e) {
+                    if (!e.getMessage().contains("Maximum attempts")) {
+                        throw e;
+                    }
+                    limited.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(USERS * MAX_ATTEMPTS, started.get());
+        assertEquals(USERS * (STARTS_PER_USER - MAX_ATTEMPTS), limited.get());
+        for (Long userId : userIds) {
+            List<Assessment> attempts = assessmentRepository.findByUserIdAndModuleIdOrderByAttemptNumberDesc(userId, moduleId);
+            Set<Integer> numbers = new TreeSet<>();
+            attempts.forEach(a -> numbers.add(a.getAttemptNumber()));
+            assertEquals(Set.of(1, 2, 3), numbers);
+            assertEquals(MAX_ATTEMPTS, attempts.size());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.itas.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test Cases for buffered assessment autosave
+ */
+@ExtendWith(MockitoExtension.class)
+public class AssessmentDraftServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private AssessmentDraftService draftService;
+
+    @BeforeEach
+    void setUp() {
+        draftService = new AssessmentDraftService(jdbcTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(draftService, "maxSessions", 2);
+        ReflectionTestUtils.setField(draftService, "maxAnswers", 3);
+        ReflectionTestUtils.setField(draftService, "idleMs", 1800000L);
+        ReflectionTestUtils.setField(draftService, "maxPendingRows", 1000);
+    }
+
+    /**
+     * Test Case 1: Repeated saves coalesce into one row per changed question
+     */
+    @Test
+    void testSavesCoalesceIntoOneBatch() {
+        attempt(1L, "alice");
+
+        for (int i = 0; i < 20; i++) {
+            draftService.save(1L, Map.of(10L, 100L + i % 2), "alice");
+        }
+        draftService.save(1L, Map.of(11L, 200L), "alice");
+        draftService.flush();
+
+        List<Object[]> rows = flushedRows(1).get(0);
+        assertEquals(2, rows.size());
+        Map<Object, Object> written = new HashMap<>();
+        rows.forEach(row -> written.put(row[1], row[2]));
+        assertEquals(101L, written.get(10L));
+        assertEquals(200L, written.get(11L));
+
+        // Unchanged answers are not written again
+        draftService.save(1L, Map.of(10L, 101L), "alice");
+        draftService.flush();
+        verify(jdbcTemplate, times(1)).batchUpdate(contains("INSERT INTO assessment_draft_answers"), anyList());
+    }
+
+    /**
+     * Test Case 2: Submission merge sees unflushed answers and the draft is deleted afterwards
+     */
+    @Test
+    void testDiscardAfterSubmit() {
+        attempt(1L, "alice");
+        draftService.save(1L, Map.of(10L, 100L), "alice");
+        draftService.flush();
+
+        draftService.save(1L, Map.of(11L, 200L), "alice");
+        assertEquals(Map.of(10L, 100L, 11L, 200L), draftService.getAnswers(1L));
+
+        draftService.discard(1L);
+        draftService.flush();
+
+        // The unflushed answer is dropped with the draft
+        verify(jdbcTemplate, times(1)).batchUpdate(contains("INSERT INTO assessment_draft_answers"), anyList());
+        verify(jdbcTemplate).batchUpdate(contains("DELETE FROM assessment_draft_answers"), anyList());
+    }
+
+    /**
+     * Test Case 3: A full store flushes and drops the least recently saved draft
+     */
+    @Test
+    void testFullStoreEvictsOldest() throws Exception {
+        attempt(1L, "alice");
+        attempt(2L, "bob");
+        attempt(3L, "carol");
+
+        draftService.save(1L, Map.of(10L, 100L), "alice");
+        Thread.sleep(5);
+        draftService.save(2L, Map.of(20L, 200L), "bob");
+        Thread.sleep(5);
+        draftService.save(3L, Map.of(30L, 300L), "carol");
+
+        List<Object[]> evicted = flushedRows(1).get(0);
+        assertEquals(1, evicted.size());
+        assertEquals(1L, evicted.get(0)[0]);
+    }
+
+    /**
+     * Test Case 4: Drafts belong to the user taking the attempt
+     */
+    @Test
+    void testOtherUsersDraftRejected() {
+        attempt(1L, "alice");
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> draftService.save(1L, Map.of(10L, 100L), "mallory"));
+        assertEquals("Assessment not found", exception.getMessage());
+    }
+
+    /**
+     * Test Case 5: Answers per draft are bounded
+     */
+    @Test
+    void testTooManyAnswersRejected() {
+        attempt(1L, "alice");
+        draftService.save(1L, Map.of(1L, 1L, 2L, 2L, 3L, 3L), "alice");
+
+        assertThrows(RuntimeException.class, () -> draftService.save(1L, Map.of(4L, 4L), "alice"));
+        assertEquals(3, draftService.getAnswers(1L).size());
+    }
+
+    /**
+     * Test Case 6: A cleared answer is removed from the draft and its row deleted
+     */
+    @Test
+    void testClearedAnswerDeletesRow() {
+        attempt(1L, "alice");
+        draftService.save(1L, Map.of(10L, 100L, 11L, 200L), "alice");
+        draftService.flush();
+
+        Map<Long, Long> cleared = new HashMap<>();
+        cleared.put(10L, null);
+        draftService.save(1L, cleared, "alice");
+        draftService.flush();
+
+        assertEquals(Map.of(11L, 200L), draftService.getDraft(1L, "alice"));
+        ArgumentCaptor<List<Object[]>> captor = rowCaptor();
+        verify(jdbcTemplate).batchUpdate(contains("AND question_id = ?"), captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(10L, captor.getValue().get(0)[1]);
+    }
+
+    /**
+     * Test Case 7: Rows of a failed flush are seen by the submission after the draft left memory
+     */
+    @Test
+    void testFailedFlushRowsSeenBySubmission() {
+        ReflectionTestUtils.setField(draftService, "idleMs", -1L);
+        attempt(1L, "alice");
+        draftService.save(1L, Map.of(10L, 100L), "alice");
+        when(jdbcTemplate.batchUpdate(contains("INSERT INTO assessment_draft_answers"), anyList()))
+                .thenThrow(new RuntimeException("connection lost"));
+
+        // The write fails and the idle draft is dropped from memory
+        draftService.flush();
+
+        assertEquals(Map.of(10L, 100L), draftService.getAnswers(1L));
+        draftService.discard(1L);
+        assertTrue(draftService.getAnswers(1L).isEmpty());
+    }
+
+    /**
+     * Test Case 8: The retry queue keeps only the newest rows
+     */
+    @Test
+    void testRetryQueueBounded() {
+        ReflectionTestUtils.setField(draftService, "maxPendingRows", 2);
+        attempt(1L, "alice");
+        when(jdbcTemplate.batchUpdate(contains("INSERT INTO assessment_draft_answers"), anyList()))
+                .thenThrow(new RuntimeException("connection lost"));
+
+        draftService.save(1L, Map.of(1L, 1L, 2L, 2L, 3L, 3L), "alice");
+        draftService.flush();
+
+        Collection<?> pendingRows = (Collection<?>) ReflectionTestUtils.getField(draftService, "pendingRows");
+        assertEquals(2, pendingRows.size());
+    }
+
+    // Helper methods
+    private void attempt(Long assessmentId, String username) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("completed_at", null);
+        row.put("username", username);
+        lenient().when(jdbcTemplate.queryForList(contains("FROM assessments a"), eq(assessmentId)))
+                .thenReturn(List.of(row));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<List<Object[]>> rowCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> flushedRows(int batches) {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(batches)).batchUpdate(contains("INSERT INTO assessment_draft_answers"), captor.capture());
+        return new ArrayList<>(captor.getAllValues());
+    }
+}
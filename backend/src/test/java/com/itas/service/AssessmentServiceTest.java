@@ -1,5 +1,6 @@
 package com.itas.service;
 
+import com.itas.grading.CompiledAnswerKey;
 import com.itas.model.*;
 import com.itas.repository.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,11 +9,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 /**
@@ -32,7 +36,10 @@ public class AssessmentServiceTest {
     private QuestionRepository questionRepository;
     
     @Mock
-    private AnswerRepository answerRepository;
+    private AnswerKeyCache answerKeyCache;
+    
+    @Mock
+    private JdbcTemplate jdbcTemplate;
     
     @Mock
     private UserRepository userRepository;
@@ -40,6 +47,18 @@ public class AssessmentServiceTest {
     @Mock
     private ModuleProgressRepository moduleProgressRepository;
     
+    @Mock
+    private AttemptCounterRepository attemptCounterRepository;
+    
+    @Mock
+    private AssessmentDraftService assessmentDraftService;
+    
+    @Mock
+    private LearningFunnelService learningFunnelService;
+    
+    @Mock
+    private ScoreDistributionService scoreDistributionService;
+    
     @InjectMocks
     private AssessmentService assessmentService;
     
@@ -75,7 +94,8 @@ public class AssessmentServiceTest {
         // Arrange
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(moduleRepository.findById(1L)).thenReturn(Optional.of(testModule));
-        when(assessmentRepository.countAttemptsByUserAndModule(testUser, testModule)).thenReturn(0);
+        when(attemptCounterRepository.claimAttempt(1L, 1L, 3)).thenReturn(1);
+        when(attemptCounterRepository.findAttempts(1L, 1L)).thenReturn(1);
         when(assessmentRepository.save(any(Assessment.class))).thenAnswer(i -> i.getArguments()[0]);
         
         // Act
@@ -114,7 +134,7 @@ public class AssessmentServiceTest {
         // Arrange
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(moduleRepository.findById(1L)).thenReturn(Optional.of(testModule));
-        when(assessmentRepository.countAttemptsByUserAndModule(testUser, testModule)).thenReturn(3);
+        when(attemptCounterRepository.claimAttempt(1L, 1L, 3)).thenReturn(0);
         
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -136,21 +156,12 @@ public class AssessmentServiceTest {
         assessment.setModule(testModule);
         assessment.setAttemptNumber(1);
         
-        Question q1 = createQuestion(1L, "Question 1", 10);
-        Question q2 = createQuestion(2L, "Question 2", 10);
-        
-        Answer correctAnswer1 = createAnswer(1L, q1, "Correct Answer 1", true);
-        Answer correctAnswer2 = createAnswer(2L, q2, "Correct Answer 2", true);
-        
         Map<Long, Long> userAnswers = new HashMap<>();
         userAnswers.put(1L, 1L); // Correct
         userAnswers.put(2L, 2L); // Correct
         
-        when(assessmentRepository.findById(1L)).thenReturn(Optional.of(assessment));
-        when(questionRepository.findByModuleOrderByOrderAsc(testModule))
-                .thenReturn(Arrays.asList(q1, q2));
-        when(answerRepository.findById(1L)).thenReturn(Optional.of(correctAnswer1));
-        when(answerRepository.findById(2L)).thenReturn(Optional.of(correctAnswer2));
+        when(assessmentRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(assessment));
+        when(answerKeyCache.get(1L)).thenReturn(twoQuestionKey());
         when(assessmentRepository.save(any(Assessment.class))).thenAnswer(i -> i.getArguments()[0]);
         when(moduleProgressRepository.findByUserIdAndModuleId(any(), any()))
                 .thenReturn(Optional.of(new ModuleProgress()));
@@ -162,6 +173,7 @@ public class AssessmentServiceTest {
         assertTrue((Boolean) result.get("passed"));
         assertEquals(100.0, result.get("percentage"));
         verify(assessmentRepository, times(1)).save(any(Assessment.class));
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
     }
     
     /**
@@ -176,21 +188,12 @@ public class AssessmentServiceTest {
         assessment.setModule(testModule);
         assessment.setAttemptNumber(1);
         
-        Question q1 = createQuestion(1L, "Question 1", 10);
-        Question q2 = createQuestion(2L, "Question 2", 10);
-        
-        Answer correctAnswer1 = createAnswer(1L, q1, "Correct Answer 1", true);
-        Answer wrongAnswer2 = createAnswer(3L, q2, "Wrong Answer 2", false);
-        
         Map<Long, Long> userAnswers = new HashMap<>();
         userAnswers.put(1L, 1L); // Correct
         userAnswers.put(2L, 3L); // Wrong
         
-        when(assessmentRepository.findById(1L)).thenReturn(Optional.of(assessment));
-        when(questionRepository.findByModuleOrderByOrderAsc(testModule))
-                .thenReturn(Arrays.asList(q1, q2));
-        when(answerRepository.findById(1L)).thenReturn(Optional.of(correctAnswer1));
-        when(answerRepository.findById(3L)).thenReturn(Optional.of(wrongAnswer2));
+        when(assessmentRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(assessment));
+        when(answerKeyCache.get(1L)).thenReturn(twoQuestionKey());
         when(assessmentRepository.save(any(Assessment.class))).thenAnswer(i -> i.getArguments()[0]);
         
         // Act
@@ -202,22 +205,96 @@ public class AssessmentServiceTest {
         verify(assessmentRepository, times(1)).save(any(Assessment.class));
     }
     
-    // Helper methods
-    private Question createQuestion(Long id, String text, int points) {
-        Question q = new Question();
-        q.setId(id);
-        q.setQuestionText(text);
-        q.setPoints(points);
-        q.setModule(testModule);
-        return q;
+    /**
+     * Test Case 6: A correct answer id only scores for its own question
+     */
+    @Test
+    void testSubmitAssessment_AnswerFromOtherQuestion() {
+        // Arrange
+        Assessment assessment = new Assessment();
+        assessment.setId(1L);
+        assessment.setUser(testUser);
+        assessment.setModule(testModule);
+        assessment.setAttemptNumber(1);
+        
+        Map<Long, Long> userAnswers = new HashMap<>();
+        userAnswers.put(1L, 1L); // Correct
+        userAnswers.put(2L, 1L); // Correct answer of question 1
+        
+        when(assessmentRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(assessment));
+        when(answerKeyCache.get(1L)).thenReturn(twoQuestionKey());
+        when(assessmentRepository.save(any(Assessment.class))).thenAnswer(i -> i.getArguments()[0]);
+        
+        // Act
+        Map<String, Object> result = assessmentService.submitAssessment(1L, userAnswers);
+        
+        // Assert
+        assertFalse((Boolean) result.get("passed"));
+        assertEquals(50.0, result.get("percentage"));
     }
     
-    private Answer createAnswer(Long id, Question question, String text, boolean isCorrect) {
-        Answer a = new Answer();
-        a.setId(id);
-        a.setQuestion(question);
-        a.setAnswerText(text);
-        a.setIsCorrect(isCorrect);
-        return a;
+    /**
+     * Test Case 7: Exam session attempts cannot bypass the grading queue
+     */
+    @Test
+    void testSubmitAssessment_ExamSessionAttempt() {
+        // Arrange
+        Assessment assessment = new Assessment();
+        assessment.setId(1L);
+        assessment.setUser(testUser);
+        assessment.setModule(testModule);
+        assessment.setExamSessionId(5L);
+        
+        when(assessmentRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(assessment));
+        
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> assessmentService.submitAssessment(1L, new HashMap<>()));
+        assertTrue(exception.getMessage().contains("exam session"));
+        verify(assessmentRepository, never()).save(any(Assessment.class));
+    }
+    
+    /**
+     * Test Case 8: Autosaved answers are merged under the submitted ones
+     */
+    @Test
+    void testSubmitAssessment_MergesDraft() {
+        // Arrange
+        Assessment assessment = new Assessment();
+        assessment.setId(1L);
+        assessment.setUser(testUser);
+        assessment.setModule(testModule);
+        assessment.setAttemptNumber(1);
+        
+        Map<Long, Long> draft = new HashMap<>();
+        draft.put(1L, 1L); // Correct, autosaved only
+        draft.put(2L, 3L); // Wrong, corrected in the submission
+        
+        Map<Long, Long> userAnswers = new HashMap<>();
+        userAnswers.put(2L, 2L);
+        
+        when(assessmentRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(assessment));
+        when(assessmentDraftService.getAnswers(1L)).thenReturn(draft);
+        when(answerKeyCache.get(1L)).thenReturn(twoQuestionKey());
+        when(assessmentRepository.save(any(Assessment.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(moduleProgressRepository.findByUserIdAndModuleId(any(), any()))
+                .thenReturn(Optional.of(new ModuleProgress()));
+        
+        // Act
+        Map<String, Object> result = assessmentService.submitAssessment(1L, userAnswers);
+        
+        // Assert
+        assertTrue((Boolean) result.get("passed"));
+        assertEquals(100.0, result.get("percentage"));
+        verify(assessmentDraftService, times(1)).discard(1L);
+    }
+    
+    // Helper methods
+    private CompiledAnswerKey twoQuestionKey() {
+        // Question 1 -> correct answer 1, question 2 -> correct answer 2, 10 points each
+        return new CompiledAnswerKey.Builder()
+                .add(1L, 10, 1L)
+                .add(2L, 10, 2L)
+                .build();
     }
 }
@@ -0,0 +1,176 @@
+package com.itas.service;
+
+import com.itas.model.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Cases for Assessment Service grading round-trips
+ * Submitting must cost a fixed number of SQL statements, whatever the number of questions.
+ * Statements are counted at the DataSource so JdbcTemplate batches are included.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+@Import({ AssessmentService.class, AnswerKeyCache.class, AssessmentSubmitStatementsTest.StatementCounter.class })
+public class AssessmentSubmitStatementsTest {
+
+    // assessment, module, answer key, answer batch, assessment update
+    private static final long MAX_SUBMIT_STATEMENTS = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AssessmentService assessmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @MockBean
+    private AssessmentDraftService assessmentDraftService;
+
+    @MockBean
+    private LearningFunnelService learningFunnelService;
+
+    @MockBean
+    private ScoreDistributionService scoreDistributionService;
+
+    private int seq;
+
+    @Test
+    void testStatementCountDoesNotGrowWithQuestions() {
+        long small = submit(5);
+        long large = submit(60);
+
+        assertTrue(small <= MAX_SUBMIT_STATEMENTS, "submit used " + small + " statements");
+        assertEquals(small, large);
+    }
+
+    /**
+     * Submit an attempt over a fresh module with the given number of questions,
+     * answering every third one correctly, and return the statements it took.
+     */
+    private long submit(int questionCount) {
+        int n = ++seq;
+        Course course = new Course();
+        course.setTitle("Course " + n);
+        entityManager.persist(course);
+
+        com.itas.model.Module module = new com.itas.model.Module();
+        module.setCourse(course);
+        module.setTitle("Module " + n);
+        entityManager.persist(module);
+
+        User user = new User();
+        user.setUsername("user" + n);
+        user.setEmail("user" + n + "@itas.test");
+        user.setPassword("secret");
+        entityManager.persist(user);
+
+        Map<Long, Long> answers = new HashMap<>();
+        for (int i = 0; i < questionCount; i++) {
+            Question question = new Question();
+            question.setModule(module);
+            question.setQuestionText("Question " + i);
+            question.setOrder(i);
+            entityManager.persist(question);
+
+            Answer right = answer(question, true);
+            Answer wrong = answer(question, false);
+            answers.put(question.getId(), i % 3 == 0 ? right.getId() : wrong.getId());
+        }
+
+        Assessment assessment = new Assessment();
+        assessment.setUser(user);
+        assessment.setModule(module);
+        assessment.setStartedAt(LocalDateTime.now());
+        entityManager.persist(assessment);
+        entityManager.flush();
+        entityManager.clear();
+
+        statementCounter.reset();
+        Map<String, Object> result = assessmentService.submitAssessment(assessment.getId(), answers);
+        entityManager.flush();
+        long statements = statementCounter.count();
+
+        assertFalse((Boolean) result.get("passed"));
+        assertEquals(questionCount, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM assessment_answers WHERE assessment_id = ?", Long.class, assessment.getId()));
+        return statements;
+    }
+
+    private Answer answer(Question question, boolean correct) {
+        Answer answer = new Answer();
+        answer.setQuestion(question);
+        answer.setAnswerText(correct ? "Right" : "Wrong");
+        answer.setIsCorrect(correct);
+        return entityManager.persist(answer);
+    }
+
+    /**
+     * Wraps the DataSource so every statement prepared on its connections is counted.
+     */
+    static class StatementCounter implements BeanPostProcessor {
+
+        private final AtomicLong statements = new AtomicLong();
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource) || bean instanceof DelegatingDataSource) {
+                return bean;
+            }
+            return new DelegatingDataSource((DataSource) bean) {
+                @Override
+                public Connection getConnection() throws java.sql.SQLException {
+                    return counting(super.getConnection());
+                }
+            };
+        }
+
+        void reset() {
+            statements.set(0);
+        }
+
+        long count() {
+            return statements.get();
+        }
+
+        private Connection counting(Connection target) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("prepareStatement") || name.equals("createStatement") || name.equals("prepareCall")) {
+                            statements.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
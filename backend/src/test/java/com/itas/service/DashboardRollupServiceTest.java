@@ -0,0 +1,214 @@
+package com.itas.service;
+
+import com.itas.model.Course;
+import com.itas.model.RollupCheckpoint;
+import com.itas.repository.CourseRepository;
+import com.itas.repository.EnrollmentRepository;
+import com.itas.repository.ResourceRepository;
+import com.itas.repository.RollupCheckpointRepository;
+import com.itas.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test Cases for the event-driven dashboard rollups
+ */
+@ExtendWith(MockitoExtension.class)
+public class DashboardRollupServiceTest {
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private CourseRepository courseRepository;
+    
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+    
+    @Mock
+    private ResourceRepository resourceRepository;
+    
+    @Mock
+    private RollupCheckpointRepository rollupCheckpointRepository;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    private DashboardRollupService rollupService;
+    
+    @BeforeEach
+    void setUp() {
+        rollupService = newService();
+    }
+    
+    @Test
+    void testColdUntilReconciled() {
+        assertFalse(rollupService.isWarm());
+        
+        stubAggregates();
+        rollupService.reconcile();
+        
+        assertTrue(rollupService.isWarm());
+        DashboardRollupService.Totals totals = rollupService.snapshot(5);
+        assertEquals(3, totals.getTotalUsers());
+        assertEquals(2, totals.getActiveUsers());
+        assertEquals(4, totals.getEnrollments());
+        assertEquals(1, totals.getCompletions());
+        assertEquals(50.0, totals.getAvgProgress(), 0.001);
+        assertEquals(7, totals.getDownloads());
+        assertEquals(1L, totals.getTopCourses().get(0).getCourseId());
+    }
+    
+    @Test
+    void testEventsUpdateTotalsWithoutQueries() {
+        stubAggregates();
+        rollupService.reconcile();
+        clearInvocations(userRepository, enrollmentRepository, resourceRepository);
+        
+        rollupService.userRegistered(true);
+        rollupService.userStatusChanged(true, false);
+        rollupService.userRegistered(true);
+        rollupService.userRemoved(true);
+        rollupService.enrolled(2L, "Income Tax");
+        rollupService.enrolled(2L, "Income Tax");
+        rollupService.progressChanged(2L, 0.0, 100.0, false, true);
+        rollupService.downloadsFlushed(3);
+        
+        DashboardRollupService.Totals totals = rollupService.snapshot(5);
+        assertEquals(4, totals.getTotalUsers());
+        assertEquals(2, totals.getActiveUsers());
+        assertEquals(6, totals.getEnrollments());
+        assertEquals(2, totals.getCompletions());
+        assertEquals(10, totals.getDownloads());
+        
+        // Two new enrollments move course 2 ahead of course 1
+        List<DashboardRollupService.CourseTotals> top = totals.getTopCourses();
+        assertEquals(2L, top.get(0).getCourseId());
+        assertEquals(4, top.get(0).getEnrollments());
+        assertEquals(1, top.get(0).getCompletions());
+        assertEquals(1L, top.get(1).getCourseId());
+        
+        verifyNoInteractions(userRepository, enrollmentRepository, resourceRepository);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCheckpointRestoresTotals() {
+        stubAggregates();
+        rollupService.reconcile();
+        rollupService.enrolled(1L, "VAT Basics");
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        
+        rollupService.checkpoint();
+        
+        ArgumentCaptor<List<RollupCheckpoint>> rows = ArgumentCaptor.forClass(List.class);
+        verify(rollupCheckpointRepository).saveAll(rows.capture());
+        
+        DashboardRollupService restarted = newService();
+        when(rollupCheckpointRepository.findAll()).thenReturn(rows.getValue());
+        when(courseRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(course(1L, "VAT Basics")));
+        restarted.loadCheckpoint();
+        
+        assertTrue(restarted.isWarm());
+        DashboardRollupService.Totals totals = restarted.snapshot(5);
+        assertEquals(5, totals.getEnrollments());
+        assertEquals(7, totals.getDownloads());
+        // Course 2 was deleted while the service was down
+        assertEquals(1, totals.getTopCourses().size());
+        assertEquals("VAT Basics", totals.getTopCourses().get(0).getTitle());
+        assertEquals(3, totals.getTopCourses().get(0).getEnrollments());
+    }
+    
+    @Test
+    void testEventsDuringReconcileReplayed() {
+        stubAggregates();
+        // Commits after the snapshot was taken, before the last query returns
+        when(resourceRepository.sumDownloadCount()).thenAnswer(invocation -> {
+            rollupService.enrolled(2L, "Income Tax");
+            rollupService.userRegistered(true);
+            rollupService.downloadsFlushed(2);
+            return 7L;
+        });
+        
+        rollupService.reconcile();
+        
+        DashboardRollupService.Totals totals = rollupService.snapshot(5);
+        assertEquals(4, totals.getTotalUsers());
+        assertEquals(3, totals.getActiveUsers());
+        assertEquals(5, totals.getEnrollments());
+        assertEquals(9, totals.getDownloads());
+        assertEquals(2L, totals.getTopCourses().get(0).getCourseId());
+        assertEquals(3, totals.getTopCourses().get(0).getEnrollments());
+    }
+    
+    @Test
+    void testCheckpointSkippedWhenUnchanged() {
+        rollupService.checkpoint();
+        
+        verifyNoInteractions(rollupCheckpointRepository);
+    }
+    
+    private DashboardRollupService newService() {
+        DashboardRollupService service = new DashboardRollupService(transactionManager);
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "courseRepository", courseRepository);
+        ReflectionTestUtils.setField(service, "enrollmentRepository", enrollmentRepository);
+        ReflectionTestUtils.setField(service, "resourceRepository", resourceRepository);
+        ReflectionTestUtils.setField(service, "rollupCheckpointRepository", rollupCheckpointRepository);
+        return service;
+    }
+    
+    private void stubAggregates() {
+        UserRepository.UserTotals users = mock(UserRepository.UserTotals.class);
+        when(users.getTotal()).thenReturn(3L);
+        when(users.getActive()).thenReturn(2L);
+        when(userRepository.aggregateTotals()).thenReturn(users);
+        
+        EnrollmentRepository.EnrollmentTotals enrollments = mock(EnrollmentRepository.EnrollmentTotals.class);
+        when(enrollments.getTotal()).thenReturn(4L);
+        when(enrollments.getCompleted()).thenReturn(1L);
+        when(enrollmentRepository.aggregateTotals()).thenReturn(enrollments);
+        
+        List<EnrollmentRepository.CourseEnrollmentTotals> topCourses = Arrays.asList(
+                courseTotals(1L, "VAT Basics", 2L, 1L, 150.0),
+                courseTotals(2L, "Income Tax", 2L, 0L, 50.0),
+                courseTotals(3L, "Customs", 0L, 0L, 0.0));
+        when(enrollmentRepository.findTopCoursesByEnrollments(any(Pageable.class))).thenReturn(topCourses);
+        
+        when(resourceRepository.sumDownloadCount()).thenReturn(7L);
+    }
+    
+    private EnrollmentRepository.CourseEnrollmentTotals courseTotals(Long id, String title, Long enrollments,
+                                                                     Long completions, Double progressSum) {
+        EnrollmentRepository.CourseEnrollmentTotals totals = mock(EnrollmentRepository.CourseEnrollmentTotals.class);
+        when(totals.getCourseId()).thenReturn(id);
+        when(totals.getTitle()).thenReturn(title);
+        when(totals.getEnrollments()).thenReturn(enrollments);
+        when(totals.getCompletions()).thenReturn(completions);
+        when(totals.getProgressSum()).thenReturn(progressSum);
+        return totals;
+    }
+    
+    private Course course(Long id, String title) {
+        Course course = new Course();
+        course.setId(id);
+        course.setTitle(title);
+        return course;
+    }
+}
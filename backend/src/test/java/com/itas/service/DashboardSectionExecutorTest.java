@@ -0,0 +1,106 @@
+package com.itas.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Cases for the parallel dashboard section executor
+ */
+public class DashboardSectionExecutorTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    private DashboardSectionExecutor executor;
+    private final CountDownLatch release = new CountDownLatch(1);
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new DashboardSectionExecutor(meterRegistry);
+        ReflectionTestUtils.setField(executor, "threads", 4);
+        ReflectionTestUtils.setField(executor, "queueCapacity", 8);
+        ReflectionTestUtils.setField(executor, "timeoutMs", 200L);
+        executor.start();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.stop();
+    }
+    
+    @Test
+    void testMergesSectionsAndRecordsLatency() {
+        Map<String, Object> data = executor.compute(sections(new AtomicBoolean(false)));
+        
+        assertEquals(10L, data.get("totalUsers"));
+        assertEquals(3L, data.get("courseEnrollments"));
+        assertEquals(List.of(), data.get("staleSections"));
+        assertEquals(1, meterRegistry.get("itas.dashboard.section").tag("section", "users").timer().count());
+    }
+    
+    @Test
+    void testSlowSectionServedFromCacheAndMarkedStale() {
+        AtomicBoolean slow = new AtomicBoolean(false);
+        executor.compute(sections(slow));
+        
+        slow.set(true);
+        long started = System.currentTimeMillis();
+        Map<String, Object> data = executor.compute(sections(slow));
+        
+        assertTrue(System.currentTimeMillis() - started < 2000);
+        assertEquals(10L, data.get("totalUsers"));
+        // Last good value instead of a failure
+        assertEquals(3L, data.get("courseEnrollments"));
+        assertEquals(List.of("enrollments"), data.get("staleSections"));
+        
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> status = (Map<String, Map<String, Object>>) data.get("sections");
+        assertEquals("TIMEOUT", status.get("enrollments").get("status"));
+        assertEquals(true, status.get("enrollments").get("stale"));
+        assertEquals(false, status.get("users").get("stale"));
+    }
+    
+    @Test
+    void testFailingSectionWithoutCacheIsLeftOut() {
+        Map<String, Supplier<Map<String, Object>>> sections = new LinkedHashMap<>();
+        sections.put("users", () -> Map.of("totalUsers", 10L));
+        sections.put("resources", () -> {
+            throw new IllegalStateException("database unavailable");
+        });
+        
+        Map<String, Object> data = executor.compute(sections);
+        
+        assertEquals(10L, data.get("totalUsers"));
+        assertFalse(data.containsKey("resourceDownloads"));
+        assertEquals(List.of("resources"), data.get("staleSections"));
+    }
+    
+    private Map<String, Supplier<Map<String, Object>>> sections(AtomicBoolean slow) {
+        Map<String, Supplier<Map<String, Object>>> sections = new LinkedHashMap<>();
+        sections.put("users", () -> Map.of("totalUsers", 10L));
+        sections.put("enrollments", () -> {
+            if (slow.get()) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Map.of("courseEnrollments", 99L);
+            }
+            return Map.of("courseEnrollments", 3L);
+        });
+        return sections;
+    }
+}
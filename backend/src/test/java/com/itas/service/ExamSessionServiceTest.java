@@ -0,0 +1,276 @@
+package com.itas.service;
+
+import com.itas.dto.ExamSessionRequest;
+import com.itas.model.Course;
+import com.itas.model.ExamSession;
+import com.itas.repository.AssessmentRepository;
+import com.itas.repository.ExamSessionRepository;
+import com.itas.repository.ModuleRepository;
+import com.itas.repository.QuestionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test Cases for scheduled exam sessions
+ */
+@ExtendWith(MockitoExtension.class)
+public class ExamSessionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ExamSessionRepository examSessionRepository;
+
+    @Mock
+    private ModuleRepository moduleRepository;
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @Mock
+    private AssessmentRepository assessmentRepository;
+
+    @Mock
+    private AnswerKeyCache answerKeyCache;
+
+    @Mock
+    private AssessmentService assessmentService;
+
+    @Mock
+    private GradingQueue gradingQueue;
+
+    @Mock
+    private LearningFunnelService learningFunnelService;
+
+    private ExamSessionService examSessionService;
+
+    @BeforeEach
+    void setUp() {
+        examSessionService = new ExamSessionService(jdbcTemplate, transactionManager);
+        ReflectionTestUtils.setField(examSessionService, "examSessionRepository", examSessionRepository);
+        ReflectionTestUtils.setField(examSessionService, "moduleRepository", moduleRepository);
+        ReflectionTestUtils.setField(examSessionService, "questionRepository", questionRepository);
+        ReflectionTestUtils.setField(examSessionService, "assessmentRepository", assessmentRepository);
+        ReflectionTestUtils.setField(examSessionService, "answerKeyCache", answerKeyCache);
+        ReflectionTestUtils.setField(examSessionService, "assessmentService", assessmentService);
+        ReflectionTestUtils.setField(examSessionService, "gradingQueue", gradingQueue);
+        ReflectionTestUtils.setField(examSessionService, "learningFunnelService", learningFunnelService);
+        ReflectionTestUtils.setField(examSessionService, "provisionLeadMinutes", 30L);
+        ReflectionTestUtils.setField(examSessionService, "submitGraceSeconds", 120L);
+
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(moduleRepository.findById(7L)).thenReturn(Optional.of(module()));
+        lenient().when(jdbcTemplate.batchUpdate(contains("INSERT INTO exam_seats"), anyList()))
+                .thenAnswer(invocation -> {
+                    int[] counts = new int[invocation.<List<?>>getArgument(1).size()];
+                    Arrays.fill(counts, 1);
+                    return counts;
+                });
+    }
+
+    /**
+     * Test Case 1: A course session seats every enrolled learner when it is provisioned
+     */
+    @Test
+    void testCourseSessionProvisioned() {
+        ExamSession session = session(1L, "COURSE", LocalDateTime.now().plusMinutes(10));
+        when(examSessionRepository.transition(1L, "SCHEDULED", "PROVISIONED")).thenReturn(1, 0);
+        lenient().when(jdbcTemplate.queryForList(contains("FROM enrollments"), eq(Long.class), eq(3L), eq(1L)))
+                .thenReturn(List.of(20L, 21L));
+        lenient().when(jdbcTemplate.update(contains("SET status = 'READY'"), eq(1L))).thenReturn(2);
+        stubSeats(session, seat("token-a", 20L, "alice", 100L), seat("token-b", 21L, "bob", 101L));
+
+        Map<String, Object> provisioned = examSessionService.provision(1L);
+
+        assertEquals(true, provisioned.get("loaded"));
+        assertEquals(2, seatRows().size());
+        verify(jdbcTemplate).update(contains("SET attempts = attempts + 1"), eq(7L), eq(3), eq(1L));
+        assertEquals("token-a", examSessionService.getSeats("alice").get(0).get("token"));
+        assertEquals(100L, examSessionService.getSeats("alice").get(0).get("assessmentId"));
+
+        // A second provision finds the session already moved on
+        assertThrows(RuntimeException.class, () -> examSessionService.provision(1L));
+    }
+
+    /**
+     * Test Case 2: A candidate list gets its seats when scheduled and is not widened to the course
+     */
+    @Test
+    void testListSessionSeatsCandidates() {
+        when(examSessionRepository.save(any(ExamSession.class))).thenAnswer(invocation -> {
+            ExamSession saved = invocation.getArgument(0);
+            saved.setId(2L);
+            return saved;
+        });
+        ExamSessionRequest request = new ExamSessionRequest();
+        request.setModuleId(7L);
+        request.setTitle("VAT exam");
+        request.setOpensAt(LocalDateTime.now().plusDays(1));
+        request.setClosesAt(LocalDateTime.now().plusDays(1).plusHours(2));
+        request.setUserIds(List.of(20L, 21L, 20L));
+
+        ExamSession scheduled = examSessionService.schedule(request, "admin");
+
+        assertEquals("LIST", scheduled.getCandidateSource());
+        assertEquals(2, scheduled.getSeatCount());
+        assertEquals(2, seatRows().size());
+
+        when(examSessionRepository.findById(2L)).thenReturn(Optional.of(scheduled));
+        when(examSessionRepository.transition(2L, "SCHEDULED", "PROVISIONED")).thenReturn(1);
+        stubSeats(scheduled, seat("token-a", 20L, "alice", 100L));
+        examSessionService.provision(2L);
+
+        verify(jdbcTemplate, never()).queryForList(contains("FROM enrollments"), eq(Long.class), any(), any());
+    }
+
+    /**
+     * Test Case 3: Claiming twice returns the same attempt and a second submission is refused
+     */
+    @Test
+    void testDuplicateClaimAndSubmit() {
+        ExamSession session = openSession(1L, LocalDateTime.now().plusHours(1));
+        when(gradingQueue.submit(any())).thenReturn(new CompletableFuture<>());
+
+        Map<String, Object> first = examSessionService.claim("token-a", "alice");
+        Map<String, Object> second = examSessionService.claim("token-a", "alice");
+
+        assertEquals(100L, first.get("assessmentId"));
+        assertEquals(first.get("assessmentId"), second.get("assessmentId"));
+        assertEquals(first.get("startedAt"), second.get("startedAt"));
+        verify(learningFunnelService, times(1)).moduleStarted(3L, 20L);
+        assertThrows(RuntimeException.class, () -> examSessionService.claim("token-a", "mallory"));
+
+        examSessionService.submit(100L, Map.of(1L, 2L), "alice");
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> examSessionService.submit(100L, Map.of(1L, 2L), "alice"));
+        assertEquals("Assessment already submitted", exception.getMessage());
+        verify(gradingQueue, times(1)).submit(any());
+
+        // One claim time is written behind
+        examSessionService.flushClaims();
+        verify(jdbcTemplate).batchUpdate(contains("SET started_at"), argThat((List<Object[]> rows) -> rows.size() == 1));
+        assertEquals(session.getId(), examSessionService.getSeats("alice").get(0).get("sessionId"));
+    }
+
+    /**
+     * Test Case 4: Submissions are accepted during the grace period and the session closes after it
+     */
+    @Test
+    void testCloseAfterGracePeriod() {
+        ExamSession session = openSession(1L, LocalDateTime.now().minusSeconds(60));
+        when(gradingQueue.submit(any())).thenReturn(new CompletableFuture<>());
+        when(examSessionRepository.findByStatusAndClosesAtBefore(eq("PROVISIONED"), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> session.getClosesAt().isBefore(invocation.getArgument(1))
+                        ? List.of(session) : List.of());
+        lenient().when(examSessionRepository.findByStatusAndClosesAtAfter(eq("PROVISIONED"), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+
+        // Closed a minute ago, still inside the two-minute grace
+        examSessionService.submit(100L, Map.of(1L, 2L), "alice");
+        examSessionService.tick();
+        verify(examSessionRepository, never()).transition(1L, "PROVISIONED", "CLOSED");
+        assertEquals(1, examSessionService.getSeats("alice").size());
+
+        // Grace over: unstarted attempts are released and the session unloaded
+        session.setClosesAt(LocalDateTime.now().minusSeconds(180));
+        when(examSessionRepository.transition(1L, "PROVISIONED", "CLOSED")).thenReturn(1);
+        examSessionService.tick();
+
+        verify(jdbcTemplate).update(contains("SET attempts = attempts - 1"), eq(7L), eq(1L));
+        verify(jdbcTemplate).update(contains("DELETE FROM assessments"), eq(1L));
+        assertTrue(examSessionService.getSeats("alice").isEmpty());
+        assertThrows(RuntimeException.class, () -> examSessionService.submit(100L, Map.of(1L, 2L), "alice"));
+    }
+
+    // Helper methods
+    private ExamSession openSession(Long id, LocalDateTime closesAt) {
+        ExamSession session = session(id, "COURSE", LocalDateTime.now().minusHours(1));
+        session.setClosesAt(closesAt);
+        when(examSessionRepository.transition(id, "SCHEDULED", "PROVISIONED")).thenReturn(1);
+        lenient().when(jdbcTemplate.queryForList(contains("FROM enrollments"), eq(Long.class), anyLong(), anyLong()))
+                .thenReturn(List.of(20L));
+        stubSeats(session, seat("token-a", 20L, "alice", 100L));
+        examSessionService.provision(id);
+        return session;
+    }
+
+    private ExamSession session(Long id, String candidateSource, LocalDateTime opensAt) {
+        ExamSession session = new ExamSession();
+        session.setId(id);
+        session.setModuleId(7L);
+        session.setCourseId(3L);
+        session.setTitle("VAT exam");
+        session.setCandidateSource(candidateSource);
+        session.setOpensAt(opensAt);
+        session.setClosesAt(opensAt.plusHours(2));
+        lenient().when(examSessionRepository.findById(id)).thenReturn(Optional.of(session));
+        return session;
+    }
+
+    private com.itas.model.Module module() {
+        Course course = new Course();
+        course.setId(3L);
+        com.itas.model.Module module = new com.itas.model.Module();
+        module.setId(7L);
+        module.setCourse(course);
+        module.setMaxAttempts(3);
+        return module;
+    }
+
+    private Object[] seat(String token, Long userId, String username, Long assessmentId) {
+        return new Object[] { token, userId, username, assessmentId };
+    }
+
+    private void stubSeats(ExamSession session, Object[]... seats) {
+        lenient().doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] seat : seats) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString("token")).thenReturn((String) seat[0]);
+                when(rs.getLong("user_id")).thenReturn((Long) seat[1]);
+                when(rs.getString("username")).thenReturn((String) seat[2]);
+                when(rs.getLong("assessment_id")).thenReturn((Long) seat[3]);
+                when(rs.getInt("attempt_number")).thenReturn(1);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains("FROM exam_seats s JOIN users"), any(RowCallbackHandler.class), eq(session.getId()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> seatRows() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO exam_seats"), captor.capture());
+        return new ArrayList<>(captor.getValue());
+    }
+}
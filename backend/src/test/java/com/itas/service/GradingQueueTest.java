@@ -0,0 +1,87 @@
+package com.itas.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Cases for back-pressure on the exam grading queue
+ */
+public class GradingQueueTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GradingQueue gradingQueue;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        gradingQueue = new GradingQueue(meterRegistry);
+        ReflectionTestUtils.setField(gradingQueue, "threads", 2);
+        ReflectionTestUtils.setField(gradingQueue, "capacity", 3);
+        gradingQueue.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradingQueue.stop();
+    }
+
+    @Test
+    void testFullQueueRejectsAndReportsDepth() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(2);
+        List<CompletableFuture<Integer>> accepted = new ArrayList<>();
+
+        // Two graders busy, three submissions waiting
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            accepted.add(gradingQueue.submit(() -> {
+                running.countDown();
+                await(release);
+                return n;
+            }));
+        }
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        assertEquals(3, gradingQueue.depth());
+
+        GradingQueue.QueueFullException e = assertThrows(GradingQueue.QueueFullException.class,
+                () -> gradingQueue.submit(() -> 99));
+        assertTrue(e.getMessage().contains("3 waiting"));
+        assertEquals(1L, gradingQueue.status().get("rejected"));
+        assertEquals(3.0, meterRegistry.get("itas.exams.grading.queue").gauge().value());
+
+        release.countDown();
+        for (int i = 0; i < accepted.size(); i++) {
+            assertEquals(i, accepted.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0, gradingQueue.depth());
+    }
+
+    @Test
+    void testFailedGradingCompletesExceptionally() {
+        CompletableFuture<Integer> future = gradingQueue.submit(() -> {
+            throw new RuntimeException("Assessment already submitted");
+        });
+
+        Exception e = assertThrows(Exception.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals("Assessment already submitted", e.getCause().getMessage());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.itas.service;
+
+import com.itas.model.Resource;
+import com.itas.repository.ResourceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test Cases for the maintained popular and trending rankings
+ */
+@ExtendWith(MockitoExtension.class)
+public class PopularityServiceTest {
+
+    @Mock
+    private ResourceRepository resourceRepository;
+
+    @InjectMocks
+    private PopularityService popularityService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(popularityService, "capacity", 2);
+        ReflectionTestUtils.setField(popularityService, "windowHours", 24);
+        ReflectionTestUtils.setField(popularityService, "decay", 0.9);
+
+        when(resourceRepository.findMostDownloaded(any(Pageable.class)))
+                .thenReturn(List.of(resource(1L, "VAT guide", 10), resource(2L, "Customs guide", 5)));
+        popularityService.reseed();
+    }
+
+    /**
+     * Test Case 1: Flushed downloads re-rank popular with the re-read counts and feed trending
+     */
+    @Test
+    void testFlushedCountersUpdateRanks() {
+        when(resourceRepository.findAllWithUploaderByIdIn(List.of(3L)))
+                .thenReturn(List.of(resource(3L, "Payroll guide", 20)));
+
+        popularityService.onCountersFlushed(new ResourceCounterService.CountersFlushed(
+                Map.of(3L, new long[] { 4, 20 })));
+
+        assertEquals(List.of(3L, 1L), ids(popularityService.getPopular(10)));
+        assertEquals(List.of(3L), ids(popularityService.getTrending(10)));
+
+        // Views alone move trending but do not re-read popular
+        popularityService.onCountersFlushed(new ResourceCounterService.CountersFlushed(
+                Map.of(1L, new long[] { 300, 0 })));
+        assertEquals(List.of(1L, 3L), ids(popularityService.getTrending(10)));
+        verify(resourceRepository, times(1)).findAllWithUploaderByIdIn(any());
+    }
+
+    /**
+     * Test Case 2: A removed resource leaves both rankings
+     */
+    @Test
+    void testRemoveDropsFromBothRankings() {
+        popularityService.onCountersFlushed(new ResourceCounterService.CountersFlushed(
+                Map.of(2L, new long[] { 50, 0 })));
+        assertEquals(List.of(2L), ids(popularityService.getTrending(10)));
+
+        popularityService.onResourceForgotten(new ResourceCounterService.ResourceForgotten(2L));
+
+        assertEquals(List.of(1L), ids(popularityService.getPopular(10)));
+        assertTrue(popularityService.getTrending(10).isEmpty());
+    }
+
+    /**
+     * Test Case 3: Editing a ranked resource replaces its title without losing its count
+     */
+    @Test
+    void testUpdateReplacesRankedCopy() {
+        popularityService.update(resource(1L, "VAT guide 2025", 0));
+
+        Resource ranked = popularityService.getPopular(10).get(0);
+        assertEquals("VAT guide 2025", ranked.getTitle());
+        assertEquals(10, ranked.getDownloadCount());
+
+        // Resources outside the rankings are not added by an edit
+        popularityService.update(resource(9L, "Unranked", 100));
+        assertEquals(List.of(1L, 2L), ids(popularityService.getPopular(10)));
+    }
+
+    // Helper methods
+    private Resource resource(Long id, String title, int downloads) {
+        Resource resource = new Resource();
+        resource.setId(id);
+        resource.setTitle(title);
+        resource.setDownloadCount(downloads);
+        resource.setViewCount(0);
+        return resource;
+    }
+
+    private List<Long> ids(List<Resource> resources) {
+        return resources.stream().map(Resource::getId).toList();
+    }
+}
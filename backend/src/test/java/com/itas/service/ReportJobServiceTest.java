@@ -0,0 +1,160 @@
+package com.itas.service;
+
+import com.itas.export.RowWriter;
+import com.itas.model.ReportJob;
+import com.itas.repository.ReportJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test Cases for background analytics exports
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReportJobServiceTest {
+
+    @Mock
+    private ReportJobRepository reportJobRepository;
+
+    @Mock
+    private AnalyticsExportService analyticsExportService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path reportsDir;
+
+    private ReportJobService reportJobService;
+
+    @BeforeEach
+    void setUp() {
+        reportJobService = new ReportJobService(transactionManager);
+        ReflectionTestUtils.setField(reportJobService, "reportJobRepository", reportJobRepository);
+        ReflectionTestUtils.setField(reportJobService, "analyticsExportService", analyticsExportService);
+        ReflectionTestUtils.setField(reportJobService, "reportsDir", reportsDir.toString());
+        ReflectionTestUtils.setField(reportJobService, "workers", 1);
+        ReflectionTestUtils.setField(reportJobService, "maxQueued", 50);
+        ReflectionTestUtils.setField(reportJobService, "ttlHours", 24L);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    /**
+     * Test Case 1: An identical request joins the job already in flight
+     */
+    @Test
+    void testIdenticalRequestReturnsInFlightJob() {
+        validRequest();
+        ReportJob running = job("job-1", ReportJobService.RUNNING);
+        when(reportJobRepository.findFirstByDedupKeyAndStatusInOrderByCreatedAtAsc(eq("enrollments|csv"), any()))
+                .thenReturn(Optional.of(running));
+
+        ReportJob result = reportJobService.submit("enrollments", "CSV", "admin");
+
+        assertSame(running, result);
+        verify(reportJobRepository, never()).save(any(ReportJob.class));
+    }
+
+    /**
+     * Test Case 2: A job claimed by another worker is not generated twice
+     */
+    @Test
+    void testJobClaimedElsewhereSkipped() throws Exception {
+        when(reportJobRepository.claim(eq("job-1"), any(LocalDateTime.class))).thenReturn(0);
+
+        ReflectionTestUtils.invokeMethod(reportJobService, "run", "job-1");
+
+        verify(reportJobRepository, never()).findById(anyString());
+        verify(analyticsExportService, never()).export(anyString(), any(RowWriter.class));
+    }
+
+    /**
+     * Test Case 3: A claimed job is written to the reports directory, outside upload-dir
+     */
+    @Test
+    void testClaimedJobWrittenToReportsDir() throws Exception {
+        ReportJob job = job("job-1", ReportJobService.RUNNING);
+        when(reportJobRepository.claim(eq("job-1"), any(LocalDateTime.class))).thenReturn(1);
+        when(reportJobRepository.findById("job-1")).thenReturn(Optional.of(job));
+        when(reportJobRepository.save(any(ReportJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(analyticsExportService.openWriter(eq("csv"), eq("enrollments"), any())).thenReturn(mock(RowWriter.class));
+
+        ReflectionTestUtils.invokeMethod(reportJobService, "run", "job-1");
+
+        assertEquals(ReportJobService.COMPLETED, job.getStatus());
+        Path file = Path.of(job.getFilePath());
+        assertEquals(reportsDir.resolve("job-1.csv"), file);
+        assertTrue(Files.exists(file));
+        assertNotNull(job.getExpiresAt());
+    }
+
+    /**
+     * Test Case 4: Jobs interrupted by a restart are queued again and dispatched
+     */
+    @Test
+    void testRecoverRequeuesRunningJobs() throws Exception {
+        when(reportJobRepository.requeueRunning()).thenReturn(1);
+        when(reportJobRepository.findByStatusOrderByCreatedAtAsc(ReportJobService.QUEUED))
+                .thenReturn(List.of(job("job-1", ReportJobService.QUEUED)));
+        when(reportJobRepository.claim(eq("job-1"), any(LocalDateTime.class))).thenReturn(0);
+
+        reportJobService.startWorkers();
+        try {
+            reportJobService.recover();
+            verify(reportJobRepository, timeout(2000)).claim(eq("job-1"), any(LocalDateTime.class));
+        } finally {
+            reportJobService.stopWorkers();
+        }
+        verify(reportJobRepository).requeueRunning();
+    }
+
+    /**
+     * Test Case 5: Expired jobs lose their file and their row
+     */
+    @Test
+    void testExpiredReportsDeleted() throws Exception {
+        Path file = Files.writeString(reportsDir.resolve("job-1.csv"), "id\n1\n");
+        ReportJob expired = job("job-1", ReportJobService.COMPLETED);
+        expired.setFilePath(file.toString());
+        when(reportJobRepository.findByExpiresAtBefore(any(LocalDateTime.class))).thenReturn(List.of(expired));
+
+        reportJobService.expireReports();
+
+        assertFalse(Files.exists(file));
+        verify(reportJobRepository).delete(expired);
+    }
+
+    // Helper methods
+    private void validRequest() {
+        when(analyticsExportService.isFormat("csv")).thenReturn(true);
+        when(analyticsExportService.isDataset("enrollments")).thenReturn(true);
+    }
+
+    private ReportJob job(String id, String status) {
+        ReportJob job = new ReportJob();
+        job.setId(id);
+        job.setDataset("enrollments");
+        job.setFormat("csv");
+        job.setDedupKey("enrollments|csv");
+        job.setStatus(status);
+        return job;
+    }
+}
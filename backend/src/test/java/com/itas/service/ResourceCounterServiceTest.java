@@ -0,0 +1,137 @@
+package com.itas.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test Cases for write-behind resource counters
+ */
+@ExtendWith(MockitoExtension.class)
+public class ResourceCounterServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DashboardRollupService dashboardRollupService;
+
+    @Mock
+    private AnalyticsBucketService analyticsBucketService;
+
+    private ResourceCounterService counterService;
+
+    @BeforeEach
+    void setUp() {
+        counterService = new ResourceCounterService(jdbcTemplate, new SimpleMeterRegistry(), eventPublisher);
+        ReflectionTestUtils.setField(counterService, "dashboardRollupService", dashboardRollupService);
+        ReflectionTestUtils.setField(counterService, "analyticsBucketService", analyticsBucketService);
+    }
+
+    /**
+     * Test Case 1: Unknown ids are refused and never buffered
+     */
+    @Test
+    void testUnknownResourceRejected() {
+        when(jdbcTemplate.queryForObject(contains("FROM resources"), eq(Integer.class), eq(99L))).thenReturn(0);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> counterService.recordView(99L));
+        assertEquals("Resource not found", exception.getMessage());
+
+        counterService.flush();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    /**
+     * Test Case 2: Existence is checked once per id, hits are summed into one row
+     */
+    @Test
+    void testHitsAggregatedIntoOneRow() {
+        exists(1L);
+
+        for (int i = 0; i < 5; i++) {
+            counterService.recordView(1L);
+        }
+        counterService.recordDownload(1L);
+        counterService.flush();
+
+        List<Object[]> batch = flushedBatch(1).get(0);
+        assertEquals(1, batch.size());
+        assertArrayEquals(new Object[] { 5L, 1L, 1L }, batch.get(0));
+        verify(jdbcTemplate, times(1)).queryForObject(contains("FROM resources"), eq(Integer.class), eq(1L));
+        verify(dashboardRollupService).downloadsFlushed(1L);
+        verify(eventPublisher).publishEvent(any(ResourceCounterService.CountersFlushed.class));
+    }
+
+    /**
+     * Test Case 3: Entries idle for a whole interval are dropped
+     */
+    @Test
+    void testIdleEntriesDropped() {
+        exists(1L);
+        counterService.recordView(1L);
+        counterService.flush();
+
+        // Second flush finds the entry at zero and removes it
+        counterService.flush();
+        Map<?, ?> pendingViews = (Map<?, ?>) ReflectionTestUtils.getField(counterService, "pendingViews");
+        Map<?, ?> pendingDownloads = (Map<?, ?>) ReflectionTestUtils.getField(counterService, "pendingDownloads");
+        assertTrue(pendingViews.isEmpty());
+        assertTrue(pendingDownloads.isEmpty());
+
+        counterService.recordView(1L);
+        counterService.flush();
+        verify(jdbcTemplate, times(2)).batchUpdate(contains("UPDATE resources"), anyList());
+    }
+
+    /**
+     * Test Case 4: A failed flush is retried, except for resources forgotten meanwhile
+     */
+    @Test
+    void testFailedFlushRetriedForKnownResources() {
+        exists(1L);
+        exists(2L);
+        counterService.recordView(1L);
+        counterService.recordView(2L);
+
+        when(jdbcTemplate.batchUpdate(contains("UPDATE resources"), anyList()))
+                .thenThrow(new RuntimeException("connection lost"))
+                .thenReturn(new int[] { 1 });
+        counterService.flush();
+        counterService.forget(2L);
+        counterService.flush();
+
+        List<Object[]> retried = flushedBatch(2).get(1);
+        assertEquals(1, retried.size());
+        assertEquals(1L, retried.get(0)[2]);
+    }
+
+    // Helper methods
+    private void exists(Long resourceId) {
+        lenient().when(jdbcTemplate.queryForObject(contains("FROM resources"), eq(Integer.class), eq(resourceId)))
+                .thenReturn(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> flushedBatch(int batches) {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(batches)).batchUpdate(contains("UPDATE resources"), captor.capture());
+        return captor.getAllValues();
+    }
+}
@@ -0,0 +1,106 @@
+package com.itas.service;
+
+import com.itas.dto.ResourceSearchPage;
+import com.itas.model.Resource;
+import com.itas.repository.ResourceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test Cases for the full-text search fallback used on non-PostgreSQL databases
+ */
+@ExtendWith(MockitoExtension.class)
+public class ResourceSearchServiceTest {
+    
+    @Mock
+    private ResourceRepository resourceRepository;
+    
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    
+    @InjectMocks
+    private ResourceSearchService resourceSearchService;
+    
+    @BeforeEach
+    void setUp() {
+        lenient().when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+    }
+    
+    @Test
+    void testFallbackRanksTitleMatchesFirst() {
+        Resource inDescription = resource(1L, "Tax guide", "How to file VAT returns");
+        Resource inTitle = resource(2L, "VAT basics", "Introduction for new businesses");
+        when(resourceRepository.findAll(any(Specification.class))).thenReturn(Arrays.asList(inDescription, inTitle));
+        
+        ResourceSearchPage result = resourceSearchService.search("vat", null, null, null, 0, 10);
+        
+        assertEquals(2, result.getHits().size());
+        assertEquals(2L, result.getHits().get(0).getResource().getId());
+        assertEquals("<mark>VAT</mark> basics", result.getHits().get(0).getTitleHighlight());
+        assertTrue(result.getHits().get(1).getSnippet().contains("<mark>VAT</mark>"));
+        assertFalse(result.isHasMore());
+    }
+    
+    @Test
+    void testFallbackPagination() {
+        when(resourceRepository.findAll(any(Specification.class))).thenReturn(Arrays.asList(
+                resource(1L, "VAT one", null),
+                resource(2L, "VAT two", null),
+                resource(3L, "VAT three", null)));
+        
+        ResourceSearchPage first = resourceSearchService.search("vat", null, null, null, 0, 2);
+        ResourceSearchPage second = resourceSearchService.search("vat", null, null, null, 1, 2);
+        
+        assertEquals(2, first.getHits().size());
+        assertTrue(first.isHasMore());
+        assertEquals(1, second.getHits().size());
+        assertFalse(second.isHasMore());
+    }
+    
+    @Test
+    void testQueryIsRequired() {
+        assertThrows(RuntimeException.class, () -> resourceSearchService.search(" ", null, null, null, 0, 10));
+    }
+    
+    @Test
+    void testHighlightIsCaseInsensitive() {
+        assertEquals("Income <mark>Tax</mark> and <mark>tax</mark>es",
+                ResourceSearchService.highlight("Income Tax and taxes", List.of("tax")));
+    }
+    
+    @Test
+    void testHighlightEscapesResourceText() {
+        assertEquals("&lt;script&gt;alert(1)&lt;/script&gt; <mark>VAT</mark> &amp; more",
+                ResourceSearchService.highlight("<script>alert(1)</script> VAT & more", List.of("vat")));
+        assertEquals("&lt;b&gt;plain&lt;/b&gt;", ResourceSearchService.highlight("<b>plain</b>", List.of()));
+    }
+    
+    @Test
+    void testHeadlineSentinelsBecomeMarksAfterEscaping() {
+        assertEquals("&lt;img src=x onerror=alert(1)&gt; <mark>VAT</mark> returns",
+                ResourceSearchService.markHeadline("<img src=x onerror=alert(1)> \u0002VAT\u0003 returns"));
+        assertNull(ResourceSearchService.markHeadline(null));
+    }
+    
+    private Resource resource(Long id, String title, String description) {
+        Resource resource = new Resource();
+        resource.setId(id);
+        resource.setTitle(title);
+        resource.setDescription(description);
+        return resource;
+    }
+}
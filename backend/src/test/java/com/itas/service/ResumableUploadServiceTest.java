@@ -0,0 +1,169 @@
+package com.itas.service;
+
+import com.itas.dto.UploadSessionRequest;
+import com.itas.model.UploadSession;
+import com.itas.model.User;
+import com.itas.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test Cases for resumable chunked uploads
+ */
+@ExtendWith(MockitoExtension.class)
+public class ResumableUploadServiceTest {
+
+    private static final int CHUNK = 4;
+
+    @Mock
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path stagingDir;
+
+    private ResumableUploadService uploadService;
+
+    // Stands in for the session row lock taken by findByIdForUpdate
+    private final ReentrantLock rowLock = new ReentrantLock();
+
+    private final byte[] content = "0123456789abcdefghij".getBytes();
+
+    private UploadSession session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        uploadService = new ResumableUploadService(transactionManager);
+        ReflectionTestUtils.setField(uploadService, "uploadSessionRepository", uploadSessionRepository);
+        ReflectionTestUtils.setField(uploadService, "stagingDir", stagingDir.toString());
+        ReflectionTestUtils.setField(uploadService, "maxFileSize", 1024L);
+        ReflectionTestUtils.setField(uploadService, "chunkSize", (long) CHUNK);
+        ReflectionTestUtils.setField(uploadService, "sessionTtlHours", 24L);
+
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        doAnswer(invocation -> {
+            if (rowLock.isHeldByCurrentThread()) {
+                rowLock.unlock();
+            }
+            return null;
+        }).when(transactionManager).commit(any());
+        when(uploadSessionRepository.save(any(UploadSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        session = uploadService.initiate(request(content.length), uploader());
+
+        when(uploadSessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+        when(uploadSessionRepository.beginWrite(session.getId())).thenReturn(1);
+        when(uploadSessionRepository.findByIdForUpdate(session.getId())).thenAnswer(invocation -> {
+            rowLock.lock();
+            return Optional.of(session);
+        });
+    }
+
+    /**
+     * Test Case 1: Chunks sent last-to-first land at their offsets
+     */
+    @Test
+    void testChunksInReverseOrder() throws Exception {
+        for (int offset = lastChunkOffset(); offset >= 0; offset -= CHUNK) {
+            sendChunk(offset);
+        }
+
+        assertEquals((long) content.length, session.getBytesReceived());
+        assertEquals("0-" + (content.length - 1), session.getReceivedRanges());
+        assertArrayEquals(content, Files.readAllBytes(staging()));
+    }
+
+    /**
+     * Test Case 2: Chunks sent in parallel all land, including ones past a gap
+     */
+    @Test
+    void testChunksInParallel() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(content.length / CHUNK);
+        try {
+            List<Future<?>> sends = new ArrayList<>();
+            for (int offset = lastChunkOffset(); offset >= 0; offset -= CHUNK) {
+                int chunkOffset = offset;
+                sends.add(pool.submit(() -> {
+                    sendChunk(chunkOffset);
+                    return null;
+                }));
+            }
+            for (Future<?> send : sends) {
+                send.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals((long) content.length, session.getBytesReceived());
+        assertArrayEquals(content, Files.readAllBytes(staging()));
+        verify(uploadSessionRepository, times(content.length / CHUNK)).endWrite(session.getId());
+    }
+
+    /**
+     * Test Case 3: The staging file is sized to the upload when the session starts
+     */
+    @Test
+    void testStagingFileSizedOnInitiate() throws Exception {
+        assertEquals(content.length, Files.size(staging()));
+        assertEquals(0L, session.getBytesReceived());
+    }
+
+    // Helper methods
+    private void sendChunk(int offset) throws Exception {
+        int length = Math.min(CHUNK, content.length - offset);
+        byte[] chunk = new byte[length];
+        System.arraycopy(content, offset, chunk, 0, length);
+        String checksum = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(chunk));
+        uploadService.writeChunk(session.getId(), offset, length, checksum, new ByteArrayInputStream(chunk), "admin");
+    }
+
+    private int lastChunkOffset() {
+        return (content.length - 1) / CHUNK * CHUNK;
+    }
+
+    private Path staging() {
+        return stagingDir.resolve("sessions").resolve(session.getId() + ".part");
+    }
+
+    private UploadSessionRequest request(long totalSize) {
+        UploadSessionRequest request = new UploadSessionRequest();
+        request.setTitle("Guide");
+        request.setFileName("guide.pdf");
+        request.setMimeType("application/pdf");
+        request.setTotalSize(totalSize);
+        return request;
+    }
+
+    private User uploader() {
+        User user = new User();
+        user.setUsername("admin");
+        return user;
+    }
+}
@@ -0,0 +1,201 @@
+package com.itas.service;
+
+import com.itas.model.ScoreSketch;
+import com.itas.repository.AssessmentRepository;
+import com.itas.repository.ScoreSketchRepository;
+import com.itas.sketch.TDigest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test Cases for the score distribution rebuild
+ */
+@ExtendWith(MockitoExtension.class)
+public class ScoreDistributionServiceTest {
+
+    @Mock
+    private ScoreSketchRepository scoreSketchRepository;
+
+    @Mock
+    private AssessmentRepository assessmentRepository;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private StatelessSession session;
+
+    @Mock
+    private Transaction transaction;
+
+    @Mock
+    private SelectionQuery<Object[]> query;
+
+    @Mock
+    private ScrollableResults<Object[]> rows;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ScoreDistributionService scoreService;
+
+    @BeforeEach
+    void setUp() {
+        scoreService = new ScoreDistributionService(transactionManager);
+        ReflectionTestUtils.setField(scoreService, "scoreSketchRepository", scoreSketchRepository);
+        ReflectionTestUtils.setField(scoreService, "assessmentRepository", assessmentRepository);
+        ReflectionTestUtils.setField(scoreService, "entityManagerFactory", entityManagerFactory);
+        ReflectionTestUtils.setField(scoreService, "fetchSize", 100);
+        ReflectionTestUtils.setField(scoreService, "configuredNodeId", "node-a");
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        scoreService.load();
+    }
+
+    /**
+     * Test Case 1: Attempts graded during a rebuild are counted once, whether or not the scroll saw them
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAttemptGradedDuringRebuild() {
+        // Attempt 1 is in the rebuild snapshot; attempt 2 commits after it was taken
+        stubScroll(List.<Object[]>of(new Object[] { 1L, 10L, 100L, 80.0, true }), () -> {
+            scoreService.record(1L, 10L, 100L, 80.0, true);
+            scoreService.record(2L, 10L, 100L, 40.0, false);
+        });
+
+        scoreService.rebuild();
+
+        Map<String, Object> distribution = scoreService.getModuleDistribution(10L);
+        assertEquals(2L, distribution.get("attempts"));
+        assertEquals(1L, distribution.get("passes"));
+
+        // The rebuild replaces every node's rows; the checkpoint adds the replayed attempt
+        ArgumentCaptor<List<ScoreSketch>> saved = ArgumentCaptor.forClass(List.class);
+        verify(scoreSketchRepository).deleteAllInBatch();
+        verify(scoreSketchRepository, times(2)).saveAll(saved.capture());
+        ScoreSketch checkpointed = saved.getAllValues().get(1).get(0);
+        assertEquals("node-a", checkpointed.getNodeId());
+        assertEquals(1L, checkpointed.getGeneration());
+        assertEquals(2L, checkpointed.getAttempts());
+    }
+
+    /**
+     * Test Case 2: Attempts recorded outside a rebuild go straight into the digest
+     */
+    @Test
+    void testRecordAddsToModuleAndCourse() {
+        scoreService.record(1L, 10L, 100L, 50.0, false);
+        scoreService.record(2L, 11L, 100L, 90.0, true);
+
+        assertEquals(1L, scoreService.getModuleDistribution(10L).get("attempts"));
+        Map<String, Object> course = scoreService.getCourseDistribution(100L);
+        assertEquals(2L, course.get("attempts"));
+        assertEquals(50.0, course.get("passRate"));
+        assertEquals(2, ((List<?>) course.get("modules")).size());
+    }
+
+    /**
+     * Test Case 3: Reads merge this node's digest with the other nodes' rows of the current generation
+     */
+    @Test
+    void testOtherNodesMergedOnLoad() {
+        when(scoreSketchRepository.findAll()).thenReturn(List.of(
+                row("node-a", 1L, 50.0),
+                row("node-b", 1L, 90.0),
+                row("node-c", 0L, 10.0)));
+        scoreService.load();
+
+        scoreService.record(3L, 10L, 100L, 70.0, true);
+
+        Map<String, Object> distribution = scoreService.getModuleDistribution(10L);
+        assertEquals(3L, distribution.get("attempts"));
+        assertEquals(50.0, distribution.get("min"));
+        assertEquals(90.0, distribution.get("max"));
+        assertEquals(3L, scoreService.getCourseDistribution(100L).get("attempts"));
+    }
+
+    /**
+     * Test Case 4: A rebuild on another node replaces this node's local digests
+     */
+    @Test
+    void testRebuildElsewhereResetsLocalDigests() {
+        scoreService.record(1L, 10L, 100L, 40.0, false);
+        when(scoreSketchRepository.findAll()).thenReturn(List.of(row("node-b", 1L, 90.0)));
+
+        scoreService.checkpoint();
+
+        Map<String, Object> distribution = scoreService.getModuleDistribution(10L);
+        assertEquals(1L, distribution.get("attempts"));
+        assertEquals(90.0, distribution.get("min"));
+        verify(scoreSketchRepository).deleteSuperseded("node-a", 1L);
+        verify(scoreSketchRepository, never()).saveAll(any());
+    }
+
+    // Helper methods
+    private ScoreSketch row(String nodeId, long generation, double percentage) {
+        TDigest digest = new TDigest();
+        digest.add(percentage);
+        ScoreSketch row = new ScoreSketch();
+        row.setModuleId(10L);
+        row.setCourseId(100L);
+        row.setNodeId(nodeId);
+        row.setGeneration(generation);
+        row.setDigest(digest.toBytes());
+        row.setAttempts(1L);
+        row.setPasses(percentage >= 70 ? 1L : 0L);
+        return row;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubScroll(List<Object[]> results, Runnable duringScroll) {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.openStatelessSession()).thenReturn(session);
+        when(session.beginTransaction()).thenReturn(transaction);
+        when(session.createSelectionQuery(anyString(), eq(Object[].class))).thenReturn(query);
+        when(query.setFetchSize(anyInt())).thenReturn(query);
+        when(query.setReadOnly(anyBoolean())).thenReturn(query);
+        when(query.scroll(ScrollMode.FORWARD_ONLY)).thenReturn(rows);
+
+        Iterator<Object[]> iterator = new ArrayList<>(results).iterator();
+        Object[][] current = new Object[1][];
+        when(rows.next()).thenAnswer(invocation -> {
+            if (iterator.hasNext()) {
+                current[0] = iterator.next();
+                return true;
+            }
+            duringScroll.run();
+            return false;
+        });
+        when(rows.get()).thenAnswer(invocation -> current[0]);
+    }
+}
@@ -0,0 +1,105 @@
+package com.itas.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Cases for the HyperLogLog distinct counter
+ */
+public class HyperLogLogTest {
+    
+    @Test
+    void testSmallCardinalityIsNearExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) {
+            sketch.offer(HyperLogLog.hash("user" + i));
+            // Repeat visits must not change the estimate
+            sketch.offer(HyperLogLog.hash("user" + i));
+        }
+        assertEquals(1000, sketch.cardinality(), 10);
+    }
+    
+    @Test
+    void testLargeCardinalityWithinTwoPercent() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 200_000; i++) {
+            sketch.offer(HyperLogLog.hash("user" + i));
+        }
+        assertEquals(200_000, sketch.cardinality(), 4_000);
+    }
+    
+    @Test
+    void testMergeCountsOverlapOnce() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) {
+            monday.offer(HyperLogLog.hash("user" + i));
+        }
+        for (int i = 20_000; i < 50_000; i++) {
+            tuesday.offer(HyperLogLog.hash("user" + i));
+        }
+        
+        long week = monday.copy().merge(tuesday).cardinality();
+        assertEquals(50_000, week, 1_000);
+        assertEquals(30_000, monday.cardinality(), 600);
+    }
+    
+    @Test
+    void testSerializationRoundTrip() {
+        HyperLogLog sparse = new HyperLogLog();
+        for (int i = 0; i < 50; i++) {
+            sparse.offer(HyperLogLog.hash("user" + i));
+        }
+        HyperLogLog dense = new HyperLogLog();
+        for (int i = 0; i < 100_000; i++) {
+            dense.offer(HyperLogLog.hash("user" + i));
+        }
+        
+        byte[] sparseBytes = sparse.toBytes();
+        assertTrue(sparseBytes.length < 1024);
+        assertEquals(sparse.cardinality(), HyperLogLog.fromBytes(sparseBytes).cardinality());
+        assertEquals(dense.cardinality(), HyperLogLog.fromBytes(dense.toBytes()).cardinality());
+    }
+    
+    @Test
+    void testSerializationDuringConcurrentOffers() throws Exception {
+        HyperLogLog sketch = new HyperLogLog();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] writers = new Future<?>[4];
+            for (int t = 0; t < writers.length; t++) {
+                int offset = t;
+                writers[t] = pool.submit(() -> {
+                    for (int i = offset; i < 20_000; i += 4) {
+                        sketch.offer(HyperLogLog.hash("user" + i));
+                    }
+                });
+            }
+            
+            // Crosses from sparse to dense while registers are being set
+            while (!allDone(writers)) {
+                assertNotNull(HyperLogLog.fromBytes(sketch.toBytes()));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(sketch.cardinality(), HyperLogLog.fromBytes(sketch.toBytes()).cardinality());
+    }
+    
+    private static boolean allDone(Future<?>[] futures) {
+        for (Future<?> future : futures) {
+            if (!future.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
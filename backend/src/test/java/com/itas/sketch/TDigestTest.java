@@ -0,0 +1,81 @@
+package com.itas.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Cases for the t-digest percentile sketch
+ */
+public class TDigestTest {
+
+    @Test
+    void testUniformScoresWithinOnePoint() {
+        TDigest digest = new TDigest();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            digest.add(random.nextDouble() * 100);
+        }
+
+        assertEquals(100_000, digest.count());
+        assertEquals(25, digest.quantile(0.25), 1.0);
+        assertEquals(50, digest.quantile(0.5), 1.0);
+        assertEquals(90, digest.quantile(0.9), 1.0);
+        assertEquals(50, digest.mean(), 0.5);
+    }
+
+    @Test
+    void testSmallInputIsExact() {
+        TDigest digest = new TDigest();
+        digest.add(40);
+        digest.add(60);
+        digest.add(80);
+
+        assertEquals(40, digest.min());
+        assertEquals(80, digest.max());
+        assertEquals(60, digest.quantile(0.5), 1e-9);
+    }
+
+    @Test
+    void testMergeMatchesSingleDigest() {
+        TDigest all = new TDigest();
+        TDigest low = new TDigest();
+        TDigest high = new TDigest();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            double score = random.nextGaussian() * 15 + 70;
+            all.add(score);
+            (i % 2 == 0 ? low : high).add(score);
+        }
+
+        TDigest merged = low.copy().merge(high);
+        assertEquals(all.count(), merged.count());
+        assertEquals(all.quantile(0.5), merged.quantile(0.5), 0.5);
+        assertEquals(all.quantile(0.9), merged.quantile(0.9), 0.5);
+    }
+
+    @Test
+    void testSerializationRoundTrip() {
+        TDigest digest = new TDigest();
+        for (int i = 0; i <= 1000; i++) {
+            digest.add(i % 101);
+        }
+
+        byte[] bytes = digest.toBytes();
+        TDigest restored = TDigest.fromBytes(bytes);
+        assertTrue(bytes.length < 16384);
+        assertEquals(digest.count(), restored.count());
+        assertEquals(digest.min(), restored.min());
+        assertEquals(digest.max(), restored.max());
+        assertEquals(digest.quantile(0.75), restored.quantile(0.75), 1e-9);
+    }
+
+    @Test
+    void testEmptyDigest() {
+        TDigest digest = TDigest.fromBytes(new TDigest().toBytes());
+        assertEquals(0, digest.count());
+        assertTrue(Double.isNaN(digest.quantile(0.5)));
+    }
+}
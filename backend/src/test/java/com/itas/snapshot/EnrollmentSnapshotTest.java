@@ -0,0 +1,62 @@
+package com.itas.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Cases for the columnar enrollment snapshot
+ */
+public class EnrollmentSnapshotTest {
+    
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    
+    private EnrollmentSnapshot sample() {
+        // Deliberately not ordered by course
+        return EnrollmentSnapshot.builder()
+                .add(10, 2, "COMPLETED", 100.0, 1 * DAY, 5 * DAY)
+                .add(11, 1, "ENROLLED", 20.0, 2 * DAY, EnrollmentSnapshot.NO_TIME)
+                .add(10, 1, "IN_PROGRESS", 50.0, 3 * DAY, EnrollmentSnapshot.NO_TIME)
+                .add(12, 2, "ENROLLED", 0.0, 10 * DAY, EnrollmentSnapshot.NO_TIME)
+                .add(11, 2, "COMPLETED", 100.0, 4 * DAY, 12 * DAY)
+                .build();
+    }
+    
+    @Test
+    void testCourseTotals() {
+        EnrollmentSnapshot snapshot = sample();
+        
+        EnrollmentSnapshot.Stats course = snapshot.course(2);
+        assertEquals(3, course.getEnrollments());
+        assertEquals(2, course.getCompletions());
+        assertEquals(200.0 / 3, course.getAverageProgress(), 0.001);
+        
+        assertEquals(2, snapshot.course(1).getEnrollments());
+        assertEquals(0, snapshot.course(99).getEnrollments());
+    }
+    
+    @Test
+    void testUserTotals() {
+        EnrollmentSnapshot snapshot = sample();
+        
+        EnrollmentSnapshot.Stats user = snapshot.user(10);
+        assertEquals(2, user.getEnrollments());
+        assertEquals(1, user.getCompletions());
+        assertEquals(75.0, user.getAverageProgress(), 0.001);
+        assertEquals(0, snapshot.user(99).getEnrollments());
+    }
+    
+    @Test
+    void testPeriodTotals() {
+        EnrollmentSnapshot snapshot = sample();
+        
+        EnrollmentSnapshot.Stats all = snapshot.period(null, 2 * DAY, 11 * DAY);
+        assertEquals(4, all.getEnrollments());
+        assertEquals(1, all.getCompletions());
+        assertEquals(1, all.getCompletedInPeriod());
+        
+        EnrollmentSnapshot.Stats course = snapshot.period(2L, 0, 20 * DAY);
+        assertEquals(3, course.getEnrollments());
+        assertEquals(2, course.getCompletedInPeriod());
+    }
+}
@@ -0,0 +1,38 @@
+package com.itas.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Cases for the primitive long to int map
+ */
+public class LongIntHashMapTest {
+    
+    @Test
+    void testPutAndGetAcrossResizes() {
+        LongIntHashMap map = new LongIntHashMap();
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i, map.putIfAbsent(((long) i << 32) | 7, i));
+        }
+        assertEquals(100_000, map.size());
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i, map.get(((long) i << 32) | 7, -1));
+        }
+        assertEquals(-1, map.get(42L, -1));
+    }
+    
+    @Test
+    void testPutIfAbsentKeepsExistingValue() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        map.put(0L, 5);
+        assertEquals(5, map.putIfAbsent(0L, 9));
+        map.put(0L, 9);
+        assertEquals(9, map.get(0L, -1));
+        assertTrue(map.containsKey(0L));
+        
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(0L));
+    }
+}
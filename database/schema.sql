@@ -409,6 +409,7 @@ CREATE INDEX idx_resources_category ON resources(category);
 CREATE INDEX idx_resources_resource_type ON resources(resource_type);
 CREATE INDEX idx_resources_audience ON resources(audience);
 CREATE INDEX idx_resources_uploaded_at ON resources(uploaded_at);
+CREATE INDEX idx_resources_uploaded_at_id ON resources(uploaded_at DESC, id DESC);
 CREATE INDEX idx_resources_version ON resources(version, is_latest_version);
 CREATE INDEX idx_resources_search ON resources USING GIN(search_vector);
 CREATE INDEX idx_resources_tags ON resources USING GIN(tags);
@@ -1111,6 +1112,240 @@ CREATE INDEX idx_system_config_scope ON system_config(config_scope, scope_id);
 CREATE INDEX idx_system_config_category ON system_config(category);
 CREATE INDEX idx_system_config_is_active ON system_config(is_active);
 
+-- ===========================================
+-- 20. FILE_BLOBS TABLE (UC-CM-001)
+-- Content-addressed upload store, one row per distinct SHA-256
+-- ===========================================
+CREATE TABLE file_blobs (
+    hash VARCHAR(64) PRIMARY KEY,
+    storage_path TEXT NOT NULL,
+    size BIGINT,
+    
+    -- Number of resources / archived resources sharing this blob
+    ref_count INTEGER NOT NULL DEFAULT 0 CHECK (ref_count >= 0),
+    
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- ===========================================
+-- 21. UPLOAD_SESSIONS TABLE (UC-CM-001)
+-- Resumable chunked uploads in progress
+-- ===========================================
+CREATE TABLE upload_sessions (
+    id VARCHAR(36) PRIMARY KEY,
+    uploaded_by BIGINT REFERENCES users(id),
+    
+    -- Resource metadata applied on completion
+    title VARCHAR(200),
+    description TEXT,
+    resource_type VARCHAR(20),
+    category VARCHAR(50),
+    audience VARCHAR(50),
+    
+    file_name VARCHAR(255),
+    mime_type VARCHAR(100),
+    total_size BIGINT NOT NULL,
+    bytes_received BIGINT DEFAULT 0,
+    received_ranges TEXT DEFAULT '',
+    
+    status VARCHAR(20) DEFAULT 'ACTIVE' CHECK (status IN ('ACTIVE', 'FINALIZING', 'COMPLETED')),
+    resource_id BIGINT REFERENCES resources(id),
+    
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    expires_at TIMESTAMP
+);
+
+CREATE INDEX idx_upload_sessions_expiry ON upload_sessions(status, expires_at);
+
+-- ===========================================
+-- 22. ROLLUP_CHECKPOINTS TABLE (UC-AN-001)
+-- Last persisted values of the in-memory dashboard rollups
+-- ===========================================
+CREATE TABLE rollup_checkpoints (
+    -- e.g. 'users.total', 'course.12.enrollments'
+    metric_key VARCHAR(100) PRIMARY KEY,
+    metric_value DOUBLE PRECISION NOT NULL,
+    updated_at TIMESTAMP
+);
+
+-- ===========================================
+-- 23. REPORT_JOBS TABLE (UC-ADM-003)
+-- Background analytics exports; QUEUED rows are the work queue
+-- ===========================================
+CREATE TABLE report_jobs (
+    id VARCHAR(36) PRIMARY KEY,
+    dataset VARCHAR(50) NOT NULL,
+    format VARCHAR(10) NOT NULL,
+    
+    -- dataset|format, shared by identical in-flight requests
+    dedup_key VARCHAR(100) NOT NULL,
+    
+    status VARCHAR(20) DEFAULT 'QUEUED' CHECK (status IN ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED')),
+    requested_by VARCHAR(50),
+    
+    total_rows BIGINT,
+    rows_written BIGINT DEFAULT 0,
+    
+    file_name VARCHAR(255),
+    file_path TEXT,
+    file_size BIGINT,
+    error_message TEXT,
+    
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    expires_at TIMESTAMP
+);
+
+CREATE INDEX idx_report_jobs_status ON report_jobs(status, created_at);
+CREATE INDEX idx_report_jobs_dedup ON report_jobs(dedup_key, status);
+
+-- ===========================================
+-- 24. ACTIVITY_SKETCHES TABLE (UC-AN-001)
+-- HyperLogLog sketches of distinct authenticated users per hour/day and node
+-- ===========================================
+CREATE TABLE activity_sketches (
+    id BIGSERIAL PRIMARY KEY,
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('HOUR', 'DAY')),
+    period_start TIMESTAMP NOT NULL,
+    node_id VARCHAR(100) NOT NULL,
+    
+    -- Serialized sketch (sparse or dense registers), at most ~16 KB
+    sketch BYTEA NOT NULL,
+    
+    updated_at TIMESTAMP,
+    UNIQUE (granularity, period_start, node_id)
+);
+
+-- ===========================================
+-- 25. SCORE_SKETCHES TABLE (UC-LMS-002)
+-- t-digest of assessment percentages per module and node, checkpointed from memory
+-- ===========================================
+CREATE TABLE score_sketches (
+    id BIGSERIAL PRIMARY KEY,
+    module_id BIGINT NOT NULL REFERENCES course_modules(id) ON DELETE CASCADE,
+    node_id VARCHAR(100) NOT NULL,
+    
+    -- Bumped by every rebuild; rows of older generations are ignored
+    generation BIGINT NOT NULL DEFAULT 0,
+    course_id BIGINT NOT NULL,
+    
+    -- Serialized digest centroids, about 1-2 KB at compression 100
+    digest BYTEA NOT NULL,
+    
+    attempts BIGINT NOT NULL DEFAULT 0,
+    passes BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_score_sketches_node UNIQUE (module_id, node_id)
+);
+
+CREATE INDEX idx_score_sketches_course ON score_sketches(course_id);
+
+-- ===========================================
+-- 26. ASSESSMENT_ANSWERS TABLE (UC-LMS-002)
+-- Graded answers of a submitted assessment, written in one batch
+-- ===========================================
+CREATE TABLE assessment_answers (
+    id BIGSERIAL PRIMARY KEY,
+    
+    -- assessments(id); that table is created by the application
+    assessment_id BIGINT NOT NULL,
+    question_id BIGINT NOT NULL,
+    
+    -- NULL when the question was left unanswered
+    answer_id BIGINT,
+    
+    correct BOOLEAN NOT NULL DEFAULT FALSE,
+    points_awarded INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE INDEX idx_assessment_answers_assessment ON assessment_answers(assessment_id);
+
+-- ===========================================
+-- 27. ASSESSMENT_ATTEMPT_COUNTERS TABLE (UC-LMS-002)
+-- Attempts started per user and module, incremented with a conditional UPDATE
+-- ===========================================
+CREATE TABLE assessment_attempt_counters (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    module_id BIGINT NOT NULL REFERENCES course_modules(id) ON DELETE CASCADE,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    
+    -- Target of the seeding INSERT ... ON CONFLICT DO NOTHING
+    CONSTRAINT uk_attempt_counters_user_module UNIQUE (user_id, module_id)
+);
+
+-- ===========================================
+-- 28. EXAM_SESSIONS TABLE (UC-LMS-002)
+-- Scheduled exams whose attempts are provisioned before they open
+-- ===========================================
+CREATE TABLE exam_sessions (
+    id BIGSERIAL PRIMARY KEY,
+    module_id BIGINT NOT NULL REFERENCES course_modules(id) ON DELETE CASCADE,
+    course_id BIGINT NOT NULL REFERENCES courses(id) ON DELETE CASCADE,
+    title VARCHAR(255) NOT NULL,
+    
+    opens_at TIMESTAMP NOT NULL,
+    closes_at TIMESTAMP NOT NULL,
+    status VARCHAR(20) DEFAULT 'SCHEDULED' CHECK (
+        status IN ('SCHEDULED', 'PROVISIONED', 'CLOSED', 'CANCELLED')
+    ),
+    
+    -- COURSE: every enrolled user at provisioning time; LIST: the seats given when scheduling
+    candidate_source VARCHAR(10) DEFAULT 'COURSE' CHECK (candidate_source IN ('COURSE', 'LIST')),
+    seat_count INTEGER DEFAULT 0,
+    
+    created_by VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    provisioned_at TIMESTAMP,
+    closed_at TIMESTAMP,
+    
+    CHECK (closes_at > opens_at)
+);
+
+CREATE INDEX idx_exam_sessions_status ON exam_sessions(status, opens_at);
+
+-- ===========================================
+-- 29. EXAM_SEATS TABLE (UC-LMS-002)
+-- One candidate of an exam session and the attempt provisioned for them
+-- ===========================================
+CREATE TABLE exam_seats (
+    id BIGSERIAL PRIMARY KEY,
+    session_id BIGINT NOT NULL REFERENCES exam_sessions(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    
+    -- Opaque start token handed to the candidate
+    token VARCHAR(43) NOT NULL,
+    
+    status VARCHAR(20) DEFAULT 'PENDING' CHECK (
+        status IN ('PENDING', 'READY', 'NO_ATTEMPTS_LEFT', 'EXPIRED')
+    ),
+    
+    -- assessments(id); that table is created by the application
+    assessment_id BIGINT,
+    claimed_at TIMESTAMP,
+    
+    CONSTRAINT uk_exam_seats_session_user UNIQUE (session_id, user_id),
+    CONSTRAINT uk_exam_seats_token UNIQUE (token)
+);
+
+-- ===========================================
+-- 30. ASSESSMENT_DRAFT_ANSWERS TABLE (UC-LMS-002)
+-- Answers saved while an attempt is in progress, one per question
+-- ===========================================
+CREATE TABLE assessment_draft_answers (
+    id BIGSERIAL PRIMARY KEY,
+    -- assessments(id); that table is created by the application
+    assessment_id BIGINT NOT NULL,
+    question_id BIGINT NOT NULL,
+    answer_id BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    
+    -- Target of the autosave upsert's ON CONFLICT (assessment_id, question_id)
+    CONSTRAINT uk_draft_answers_question UNIQUE (assessment_id, question_id)
+);
+
 -- ===========================================
 -- TRIGGERS FOR UPDATED_AT TIMESTAMP
 -- ===========================================
@@ -1145,6 +1380,25 @@ BEGIN
     END LOOP;
 END $$;
 
+-- ===========================================
+-- TRIGGER FOR RESOURCE FULL-TEXT SEARCH VECTOR
+-- ===========================================
+CREATE OR REPLACE FUNCTION resources_search_vector_update()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.search_vector :=
+        setweight(to_tsvector('english', COALESCE(NEW.title, '')), 'A') ||
+        setweight(to_tsvector('english', COALESCE(NEW.description, '')), 'B') ||
+        setweight(to_tsvector('english', COALESCE(NEW.category, '')), 'C');
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER resources_search_vector_trigger
+BEFORE INSERT OR UPDATE OF title, description, category ON resources
+FOR EACH ROW
+EXECUTE FUNCTION resources_search_vector_update();
+
 -- ===========================================
 -- INITIAL DATA
 -- ===========================================
@@ -16,6 +16,8 @@ export interface AnalyticsData {
     completions: number;
     completionRate: number;
   }>;
+  // Sections served from their last cached value because they timed out or failed
+  staleSections?: string[];
 }
 
 export const analyticsAPI = {
@@ -34,8 +36,12 @@ export const analyticsAPI = {
     return response.data.data;
   },
 
-  exportReport: async (format: 'pdf' | 'excel'): Promise<Blob> => {
-    const response = await axios.get(`/analytics/export?format=${format}`, {
+  exportReport: async (
+    format: 'csv' | 'xlsx',
+    dataset: 'enrollments' | 'assessments' | 'certificates' = 'enrollments'
+  ): Promise<Blob> => {
+    const response = await axios.get('/analytics/export', {
+      params: { format, dataset },
       responseType: 'blob',
     });
     return response.data;
@@ -3,16 +3,26 @@ import axios from 'axios';
 const API_BASE_URL = import.meta.env.VITE_API_URL || 'http://localhost:8080/api';
 
 export const resourcesAPI = {
-  getAllResources: async () => {
-    const response = await axios.get(`${API_BASE_URL}/resources`);
+  // Returns one page: data = { items, nextCursor, hasMore }
+  getAllResources: async (cursor?: string, size?: number) => {
+    const params = new URLSearchParams();
+    if (cursor) params.append('cursor', cursor);
+    if (size) params.append('size', String(size));
+
+    const response = await axios.get(`${API_BASE_URL}/resources?${params.toString()}`);
     return response.data;
   },
 
-  searchResources: async (query?: string, category?: string) => {
-    const params = new URLSearchParams();
-    if (query) params.append('query', query);
-    if (category) params.append('category', category);
-    
+  // Keyword filter paged by cursor: data = { items, nextCursor, hasMore }
+  searchResources: async (filters: { query?: string; category?: string; resourceType?: string },
+                          cursor?: string, size?: number) => {
+    const params = new URLSearchParams({ mode: 'keyword' });
+    if (filters.query) params.append('query', filters.query);
+    if (filters.category) params.append('category', filters.category);
+    if (filters.resourceType) params.append('resourceType', filters.resourceType);
+    if (cursor) params.append('cursor', cursor);
+    if (size) params.append('size', String(size));
+
     const response = await axios.get(`${API_BASE_URL}/resources/search?${params.toString()}`);
     return response.data;
   },
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import {
   Container,
   Grid,
@@ -33,32 +33,38 @@ const PublicResources: React.FC = () => {
   const navigate = useNavigate();
   const [resources, setResources] = useState<any[]>([]);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [hasMore, setHasMore] = useState(false);
   const [searchTerm, setSearchTerm] = useState('');
   const [typeFilter, setTypeFilter] = useState('');
+  // Ignores responses for filters the user has already changed
+  const requestId = useRef(0);
 
   useEffect(() => {
-    loadResources();
-  }, []);
+    const timer = setTimeout(() => loadResources(), 300);
+    return () => clearTimeout(timer);
+  }, [searchTerm, typeFilter]);
 
-  const loadResources = async () => {
+  const loadResources = async (cursor?: string) => {
+    const current = cursor ? requestId.current : ++requestId.current;
+    if (cursor) setLoadingMore(true);
     try {
-      const response = await resourcesAPI.getAllResources();
-      setResources(response.data || []);
+      const response = await resourcesAPI.searchResources(
+        { query: searchTerm.trim(), resourceType: typeFilter }, cursor);
+      if (current !== requestId.current) return;
+      const page = response.data || {};
+      setResources(prev => (cursor ? [...prev, ...(page.items || [])] : page.items || []));
+      setNextCursor(page.nextCursor || null);
+      setHasMore(!!page.hasMore);
     } catch (error) {
       console.error('Failed to load resources:', error);
     } finally {
       setLoading(false);
+      setLoadingMore(false);
     }
   };
 
-  const filteredResources = resources.filter(resource => {
-    const matchesSearch = !searchTerm || 
-      resource.title.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      resource.description.toLowerCase().includes(searchTerm.toLowerCase());
-    const matchesType = !typeFilter || resource.type === typeFilter;
-    return matchesSearch && matchesType;
-  });
-
   const getResourceIcon = (type: string) => {
     switch (type) {
       case 'PDF':
@@ -146,23 +152,23 @@ const PublicResources: React.FC = () => {
         </Paper>
 
         {/* Results */}
-        {filteredResources.length === 0 ? (
+        {resources.length === 0 ? (
           <Alert severity="info">
             No resources found matching your criteria. Try adjusting your filters.
           </Alert>
         ) : (
           <>
             <Typography variant="h6" sx={{ mb: 3 }}>
-              {filteredResources.length} resources available
+              {resources.length}{hasMore ? '+' : ''} resources available
             </Typography>
             
             <Grid container spacing={3}>
-              {filteredResources.map((resource) => (
+              {resources.map((resource) => (
                 <Grid item xs={12} md={6} lg={4} key={resource.id}>
                   <Card sx={{ height: '100%', display: 'flex', flexDirection: 'column' }}>
                     <CardContent sx={{ flexGrow: 1 }}>
                       <Box sx={{ display: 'flex', alignItems: 'center', mb: 2 }}>
-                        {getResourceIcon(resource.type)}
+                        {getResourceIcon(resource.resourceType)}
                         <Typography variant="h6" sx={{ ml: 1 }}>
                           {resource.title}
                         </Typography>
@@ -171,7 +177,7 @@ const PublicResources: React.FC = () => {
                         {resource.description}
                       </Typography>
                       <Box sx={{ display: 'flex', gap: 1, flexWrap: 'wrap' }}>
-                        <Chip label={resource.type} size="small" color="primary" />
+                        <Chip label={resource.resourceType} size="small" color="primary" />
                         {resource.tags && resource.tags.map((tag: any) => (
                           <Chip key={tag.id} label={tag.name} size="small" variant="outlined" />
                         ))}
@@ -191,6 +197,18 @@ const PublicResources: React.FC = () => {
                 </Grid>
               ))}
             </Grid>
+
+            {hasMore && (
+              <Box sx={{ display: 'flex', justifyContent: 'center', mt: 4 }}>
+                <Button
+                  variant="outlined"
+                  disabled={loadingMore}
+                  onClick={() => nextCursor && loadResources(nextCursor)}
+                >
+                  {loadingMore ? 'Loading...' : 'Load more'}
+                </Button>
+              </Box>
+            )}
           </>
         )}
       </Container>
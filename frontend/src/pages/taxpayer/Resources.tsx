@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import {
   Container,
   Grid,
@@ -38,25 +38,39 @@ interface ResourcesProps {
 const Resources: React.FC<ResourcesProps> = ({ user }) => {
   const [resources, setResources] = useState<any[]>([]);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [hasMore, setHasMore] = useState(false);
   const [searchTerm, setSearchTerm] = useState('');
   const [categoryFilter, setCategoryFilter] = useState('');
   const [typeFilter, setTypeFilter] = useState('');
   const [viewMode, setViewMode] = useState<'grid' | 'list'>('grid');
   const [selectedVideo, setSelectedVideo] = useState<string | null>(null);
   const [videoModalOpen, setVideoModalOpen] = useState(false);
+  // Ignores responses for filters the user has already changed
+  const requestId = useRef(0);
 
   useEffect(() => {
-    loadResources();
-  }, []);
+    const timer = setTimeout(() => loadResources(), 300);
+    return () => clearTimeout(timer);
+  }, [searchTerm, categoryFilter, typeFilter]);
 
-  const loadResources = async () => {
+  const loadResources = async (cursor?: string) => {
+    const current = cursor ? requestId.current : ++requestId.current;
+    if (cursor) setLoadingMore(true);
     try {
-      const response = await resourcesAPI.getAllResources();
-      setResources(response.data || []);
+      const response = await resourcesAPI.searchResources(
+        { query: searchTerm.trim(), category: categoryFilter, resourceType: typeFilter }, cursor);
+      if (current !== requestId.current) return;
+      const page = response.data || {};
+      setResources(prev => (cursor ? [...prev, ...(page.items || [])] : page.items || []));
+      setNextCursor(page.nextCursor || null);
+      setHasMore(!!page.hasMore);
     } catch (error) {
       console.error('Failed to load resources:', error);
     } finally {
       setLoading(false);
+      setLoadingMore(false);
     }
   };
 
@@ -76,21 +90,14 @@ const Resources: React.FC<ResourcesProps> = ({ user }) => {
     setVideoModalOpen(true);
   };
 
-  const filteredResources = resources.filter(resource => {
-    const matchesSearch = !searchTerm || 
-      resource.title.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      resource.description.toLowerCase().includes(searchTerm.toLowerCase());
-    const matchesCategory = !categoryFilter || resource.category === categoryFilter;
-    const matchesType = !typeFilter || resource.resourceType === typeFilter;
-    return matchesSearch && matchesCategory && matchesType;
-  });
-
+  // Counts cover the pages loaded so far; "+" marks that more match on the server
+  const more = hasMore ? '+' : '';
   const stats = {
     total: resources.length,
     pdfs: resources.filter(r => r.resourceType === 'PDF').length,
     videos: resources.filter(r => r.resourceType === 'VIDEO').length,
     articles: resources.filter(r => r.resourceType === 'ARTICLE').length,
-    totalDownloads: resources.reduce((sum, r) => sum + r.downloads, 0),
+    totalDownloads: resources.reduce((sum, r) => sum + (r.downloadCount || 0), 0),
   };
 
   if (loading) {
@@ -116,12 +123,12 @@ const Resources: React.FC<ResourcesProps> = ({ user }) => {
         
         {/* Stats */}
         <Box sx={{ display: 'flex', flexWrap: 'wrap', gap: 1, mb: 2 }}>
-          <Chip label={`${stats.total} Resources`} color="primary" variant="outlined" />
-          <Chip label={`${stats.pdfs} PDFs`} color="error" variant="outlined" />
-          <Chip label={`${stats.videos} Videos`} color="primary" variant="outlined" />
-          <Chip label={`${stats.articles} Articles`} color="success" variant="outlined" />
+          <Chip label={`${stats.total}${more} Resources`} color="primary" variant="outlined" />
+          <Chip label={`${stats.pdfs}${more} PDFs`} color="error" variant="outlined" />
+          <Chip label={`${stats.videos}${more} Videos`} color="primary" variant="outlined" />
+          <Chip label={`${stats.articles}${more} Articles`} color="success" variant="outlined" />
           <Chip 
-            label={`${stats.totalDownloads.toLocaleString()} Total Downloads`} 
+            label={`${stats.totalDownloads.toLocaleString()}${more} Total Downloads`} 
             color="info" 
             variant="outlined" 
           />
@@ -204,7 +211,7 @@ const Resources: React.FC<ResourcesProps> = ({ user }) => {
       </Paper>
 
       {/* Results */}
-      {filteredResources.length === 0 ? (
+      {resources.length === 0 ? (
         <Alert severity="info">
           No resources found matching your criteria. Try adjusting your filters.
         </Alert>
@@ -212,7 +219,7 @@ const Resources: React.FC<ResourcesProps> = ({ user }) => {
         <>
           <Box sx={{ display: 'flex', justifyContent: 'space-between', alignItems: 'center', mb: 3 }}>
             <Typography variant="h6">
-              {filteredResources.length} resources found
+              {resources.length}{more} resources found
             </Typography>
             <Typography variant="body2" color="text.secondary">
               Click on videos to play, PDFs/Articles to download
@@ -221,7 +228,7 @@ const Resources: React.FC<ResourcesProps> = ({ user }) => {
 
           {viewMode === 'grid' ? (
             <Grid container spacing={3}>
-              {filteredResources.map((resource) => (
+              {resources.map((resource) => (
                 <Grid item xs={12} md={6} lg={4} key={resource.id}>
                   {resource.resourceType === 'VIDEO' ? (
                     <Paper sx={{ p: 2, cursor: 'pointer' }} onClick={() => handlePlayVideo(resource.fileUrl)}>
@@ -245,7 +252,7 @@ const Resources: React.FC<ResourcesProps> = ({ user }) => {
             </Grid>
           ) : (
             <Box>
-              {filteredResources.map((resource) => (
+              {resources.map((resource) => (
                 <Paper key={resource.id} sx={{ p: 2, mb: 2 }}>
                   <Grid container alignItems="center">
                     <Grid item xs={8}>
@@ -280,6 +287,18 @@ const Resources: React.FC<ResourcesProps> = ({ user }) => {
               ))}
             </Box>
           )}
+
+          {hasMore && (
+            <Box sx={{ display: 'flex', justifyContent: 'center', mt: 4 }}>
+              <Button
+                variant="outlined"
+                disabled={loadingMore}
+                onClick={() => nextCursor && loadResources(nextCursor)}
+              >
+                {loadingMore ? 'Loading...' : 'Load more'}
+              </Button>
+            </Box>
+          )}
         </>
       )}
 